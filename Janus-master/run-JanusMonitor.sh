@@ -0,0 +1,27 @@
+#!/bin/bash
+
+# Description:  This script launches the JanusMonitorStarter, in order to check online a stream of interleaved events against a declarative process model.
+#               The events are read one per line ("case;activity;timestamp") from a file, possibly followed as it grows, or from the standard input.
+#               The activations, fulfilments and violations of the constraints are written as CSV lines, with the running support and confidence of the constraints.
+#               Run this launcher with "-h" to understand the meaning of options you can pass.
+#               Example: tail -f events.csv | ./run-JanusMonitor.sh -iMF model.json -iME json -caseEnd END -maxCases 10000 -updates violation
+
+## Exec-specific parametres
+DEBUGLEVEL="none"
+MEMORY_MAX="8096m"
+
+## Preliminary checks
+if [ ! -f ./libs.cfg ]
+then
+ echo "Please download the file named libs.cfg from the GitHub repository"
+ exit 1
+fi
+
+## Import the libraries and store it into $LIBS
+. ./libs.cfg
+
+## Runtime environment constants
+MAINCLASS="minerful.JanusMonitorStarter"
+
+## Run!
+java -Xmx$MEMORY_MAX -cp MINERful.jar $MAINCLASS $*
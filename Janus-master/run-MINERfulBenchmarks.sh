@@ -0,0 +1,27 @@
+#!/bin/bash
+
+# Description:  This script launches the MinerFulBenchmarkStarter, in order to measure the running times of the hot paths of MINERful and Janus
+#               (knowledge base construction and querying, Janus events evaluation and trace measures, variant analysis permutations,
+#               conflicts and redundancies resolution) on synthetic logs of configurable alphabet sizes, trace lengths and numbers of constraints.
+#               Run this launcher with "-h" to understand the meaning of options you can pass.
+#               Example: ./run-MINERfulBenchmarks.sh -bList kb:query -bAlph 5:10 -bMaxLen 10:50 -oBenchCSV benchmarks.csv
+
+## Exec-specific parametres
+DEBUGLEVEL="none"
+MEMORY_MAX="8096m"
+
+## Preliminary checks
+if [ ! -f ./libs.cfg ]
+then
+ echo "Please download the file named libs.cfg from the GitHub repository"
+ exit 1
+fi
+
+## Import the libraries and store it into $LIBS
+. ./libs.cfg
+
+## Runtime environment constants
+MAINCLASS="minerful.MinerFulBenchmarkStarter"
+
+## Run!
+java -Xmx$MEMORY_MAX -cp MINERful.jar $MAINCLASS $*
@@ -1,5 +1,6 @@
 package minerful;
 
+import minerful.metrics.PipelineMetrics;
 import minerful.params.SystemCmdParameters;
 import minerful.params.ViewCmdParameters;
 import minerful.reactive.io.JanusDFGVariantOutputManagementLauncher;
@@ -105,7 +106,7 @@ public class JanusDFGVariantAnalysisStarter extends MinerFulMinerStarter {
                         cmdLineOptions,
                         args);
 
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
 
         if (systemParams.help) {
             systemParams.printHelp(cmdLineOptions);
@@ -127,6 +128,10 @@ public class JanusDFGVariantAnalysisStarter extends MinerFulMinerStarter {
 
         double execTimeEnd = System.currentTimeMillis();
         logger.info("Total execution time: " + (execTimeEnd - execTimeStart));
+
+        if (systemParams.metricsReportFile != null) {
+            PipelineMetrics.getInstance().saveReport(systemParams.metricsReportFile);
+        }
     }
 
 }
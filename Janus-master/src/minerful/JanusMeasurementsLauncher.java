@@ -4,9 +4,13 @@ import minerful.checking.params.CheckingCmdParameters;
 import minerful.concept.ProcessModel;
 import minerful.io.ProcessModelLoader;
 import minerful.io.params.InputModelParameters;
+import minerful.io.params.OutputModelParameters;
 import minerful.logparser.LogParser;
+import minerful.metrics.PipelineMetrics;
 import minerful.params.InputLogCmdParameters;
 import minerful.params.SystemCmdParameters;
+import minerful.reactive.io.JanusEventsEvaluationJsonStream;
+import minerful.reactive.io.JanusMeasurementsOutputManagementLauncher;
 import minerful.reactive.measurements.MegaMatrixMonster;
 import minerful.reactive.measurements.ReactiveMeasurementsOfflineQueryingCore;
 import minerful.reactive.params.JanusMeasurementsCmdParameters;
@@ -14,6 +18,8 @@ import minerful.reactive.params.JanusPrintParameters;
 import minerful.utils.MessagePrinter;
 import org.processmining.plugins.declareminer.visualizing.AssignmentModel;
 
+import java.io.IOException;
+
 /**
  * Class for launching JanusZ model checker
  */
@@ -44,6 +50,11 @@ public class JanusMeasurementsLauncher {
         this.eventLog = inputLog;
     }
 
+    public JanusMeasurementsLauncher(ProcessModel minerFulProcessModel, LogParser inputLog, CheckingCmdParameters chkParams, JanusMeasurementsCmdParameters janusParams, JanusPrintParameters janusViewParams) {
+        this(minerFulProcessModel, inputLog, chkParams, janusParams);
+        this.janusViewParams = janusViewParams;
+    }
+
     public JanusMeasurementsLauncher(InputModelParameters inputParams, InputLogCmdParameters inputLogParams, CheckingCmdParameters chkParams, SystemCmdParameters systemParams, JanusMeasurementsCmdParameters janusParams) {
         this(chkParams, janusParams);
 
@@ -61,7 +72,7 @@ public class JanusMeasurementsLauncher {
 //		MinerFulPruningCore pruniCore = new MinerFulPruningCore(this.processSpecification, preProcParams);
 //		this.processSpecification.bag = pruniCore.massageConstraints();
 
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
     }
 
     public JanusMeasurementsLauncher(InputModelParameters inputParams, InputLogCmdParameters inputLogParams, CheckingCmdParameters chkParams, SystemCmdParameters systemParams, JanusMeasurementsCmdParameters janusParams, JanusPrintParameters janusViewParams) {
@@ -82,61 +93,101 @@ public class JanusMeasurementsLauncher {
      * Check the input model against the input log.
      */
     public MegaMatrixMonster checkModel() {
+        return checkModel(false);
+    }
+
+    /**
+     * Check the input model against the input log.
+     *
+     * @param automataReady if true, the automata already built in the bag of the process specification are used as they are
+     *                      (e.g., when the same model is checked several times, see {@link minerful.server.ResidentServer}),
+     *                      otherwise they are built from the current constraints of the bag
+     */
+    public MegaMatrixMonster checkModel(boolean automataReady) {
+        return checkModel(automataReady, (JanusEventsEvaluationJsonStream) null);
+    }
+
+    /**
+     * Check the input model against the input log.
+     * If required by the output parameters, the events evaluation is written as JSON while the log is evaluated
+     * (see {@link JanusMeasurementsOutputManagementLauncher#openEventsEvaluationJsonStream}), instead of by the output launcher afterwards.
+     *
+     * @param automataReady  if true, the automata already built in the bag of the process specification are used as they are
+     * @param outputLauncher launcher of the output, to be used afterwards for the other outputs
+     * @param outParams      output parameters
+     * @throws IOException if the events evaluation cannot be written
+     */
+    public MegaMatrixMonster checkModel(boolean automataReady, JanusMeasurementsOutputManagementLauncher outputLauncher, OutputModelParameters outParams) throws IOException {
+        // the automata are required to name the constraints in the events evaluation
+        if (!automataReady) {
+            processSpecification.bag.initAutomataBag();
+        }
+        try (JanusEventsEvaluationJsonStream eventsEvaluationStream = outputLauncher.openEventsEvaluationJsonStream(
+                eventLog, processSpecification.bag.getSeparatedAutomataOfflineRunners(), janusViewParams, outParams, janusParams, processSpecification.getTaskCharArchive())) {
+            return checkModel(true, eventsEvaluationStream);
+        }
+    }
+
+    private MegaMatrixMonster checkModel(boolean automataReady, JanusEventsEvaluationJsonStream eventsEvaluationStream) {
         // the events evaluation must be computed in any case
-        processSpecification.bag.initAutomataBag();
+        if (!automataReady) {
+            processSpecification.bag.initAutomataBag();
+        }
         ReactiveMeasurementsOfflineQueryingCore reactiveMeasurementsOfflineQueryingCore = new ReactiveMeasurementsOfflineQueryingCore(
                 0, eventLog, janusParams, janusViewParams, null, eventLog.getTaskCharArchive(), null, processSpecification.bag);
-        double before = System.currentTimeMillis();
-        MegaMatrixMonster result = reactiveMeasurementsOfflineQueryingCore.check();
-        double after = System.currentTimeMillis();
-
-        logger.info("Total events evaluation time: " + (after - before));
+        reactiveMeasurementsOfflineQueryingCore.setEventsEvaluationStream(eventsEvaluationStream);
+        MegaMatrixMonster result;
+        try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("eventsEvaluation")) {
+            result = reactiveMeasurementsOfflineQueryingCore.check();
+            PipelineMetrics.getInstance().count(PipelineMetrics.TRACES, eventLog.length());
+            PipelineMetrics.getInstance().count(PipelineMetrics.EVENTS, eventLog.numberOfEvents());
+            logger.info("Total events evaluation time: " + phase.getElapsedMillis());
+        }
 
 //        Compute the measures at the detail level selected in input
-        before = System.currentTimeMillis();
-        switch (janusParams.detailsLevel) {
-            case event:
-                break;
-            case trace:
-                if (janusParams.measure.equals("all")) {
-                    result.computeAllTraceMeasures(janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
-                } else {
-                    result.computeSingleTraceMeasures(janusParams.measure, janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
-                }
-                break;
-            case allTrace:
-            case traceStats:
-                if (janusParams.measure.equals("all")) {
-                    result.computeAllTraceMeasures(janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
-                    result.computeAllTraceMeasuresStats(janusParams.nanLogSkipFlag);
-                } else {
-                    result.computeSingleTraceMeasures(janusParams.measure, janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
-                    result.computeSingleTraceMeasuresStats(janusParams.nanLogSkipFlag);
-                }
-                break;
-            case log:
-                if (janusParams.measure.equals("all")) {
-                    result.computeAllLogMeasures();
-                } else {
-                    result.computeSingleLogMeasures(janusParams.measure);
-                }
-                break;
-            case allLog:
-            case all:
-                if (janusParams.measure.equals("all")) {
-                    result.computeAllTraceMeasures(janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
-                    result.computeAllTraceMeasuresStats(janusParams.nanLogSkipFlag);
-                    result.computeAllLogMeasures();
-                } else {
-                    result.computeSingleTraceMeasures(janusParams.measure, janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
-                    result.computeSingleTraceMeasuresStats(janusParams.nanLogSkipFlag);
-                    result.computeSingleLogMeasures(janusParams.measure);
-                }
-                break;
+        try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("measuresRetrieval")) {
+            switch (janusParams.detailsLevel) {
+                case event:
+                    break;
+                case trace:
+                    if (janusParams.measure.equals("all")) {
+                        result.computeAllTraceMeasures(janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
+                    } else {
+                        result.computeSingleTraceMeasures(janusParams.measure, janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
+                    }
+                    break;
+                case allTrace:
+                case traceStats:
+                    if (janusParams.measure.equals("all")) {
+                        result.computeAllTraceMeasures(janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
+                        result.computeAllTraceMeasuresStats(janusParams.nanLogSkipFlag);
+                    } else {
+                        result.computeSingleTraceMeasures(janusParams.measure, janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
+                        result.computeSingleTraceMeasuresStats(janusParams.nanLogSkipFlag);
+                    }
+                    break;
+                case log:
+                    if (janusParams.measure.equals("all")) {
+                        result.computeAllLogMeasures();
+                    } else {
+                        result.computeSingleLogMeasures(janusParams.measure);
+                    }
+                    break;
+                case allLog:
+                case all:
+                    if (janusParams.measure.equals("all")) {
+                        result.computeAllTraceMeasures(janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
+                        result.computeAllTraceMeasuresStats(janusParams.nanLogSkipFlag);
+                        result.computeAllLogMeasures();
+                    } else {
+                        result.computeSingleTraceMeasures(janusParams.measure, janusParams.nanTraceSubstituteFlag, janusParams.nanTraceSubstituteValue);
+                        result.computeSingleTraceMeasuresStats(janusParams.nanLogSkipFlag);
+                        result.computeSingleLogMeasures(janusParams.measure);
+                    }
+                    break;
+            }
+            logger.info("Total measurement retrieval time: " + phase.getElapsedMillis());
         }
-        after = System.currentTimeMillis();
-
-        logger.info("Total measurement retrieval time: " + (after - before));
 
         return result;
     }
@@ -8,6 +8,7 @@ import minerful.checking.params.CheckingCmdParameters;
 import minerful.concept.TaskCharArchive;
 import minerful.io.params.InputModelParameters;
 import minerful.io.params.OutputModelParameters;
+import minerful.metrics.PipelineMetrics;
 import minerful.params.InputLogCmdParameters;
 import minerful.params.SystemCmdParameters;
 import minerful.reactive.measurements.MegaMatrixMonster;
@@ -18,6 +19,8 @@ import minerful.utils.MessagePrinter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 
+import java.io.IOException;
+
 public class JanusMeasurementsStarter extends MinerFulMinerStarter {
     public static MessagePrinter logger = MessagePrinter.getInstance(JanusMeasurementsStarter.class);
 
@@ -107,16 +110,27 @@ public class JanusMeasurementsStarter extends MinerFulMinerStarter {
                         cmdLineOptions,
                         args);
 
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
 
         if (systemParams.help) {
             systemParams.printHelp(cmdLineOptions);
             System.exit(0);
         }
         JanusMeasurementsLauncher miFuCheLa = new JanusMeasurementsLauncher(inpuModlParams, inputLogParams, chkParams, systemParams, janusParams, janusViewParams);
-        MegaMatrixMonster evaluation = miFuCheLa.checkModel();
+        JanusMeasurementsOutputManagementLauncher outputLauncher = new JanusMeasurementsOutputManagementLauncher();
+        MegaMatrixMonster evaluation = null;
+        try {
+            evaluation = miFuCheLa.checkModel(false, outputLauncher, outParams);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
 
         TaskCharArchive alphabet = miFuCheLa.getProcessSpecification().getTaskCharArchive(); // note. The character mapping of the model is greater or equal to the log parser one because it is constructed starting from it
-        new JanusMeasurementsOutputManagementLauncher().manageMeasurementsOutput(evaluation, janusViewParams, outParams, systemParams, janusParams, alphabet);
+        outputLauncher.manageMeasurementsOutput(evaluation, janusViewParams, outParams, systemParams, janusParams, alphabet);
+
+        if (systemParams.metricsReportFile != null) {
+            PipelineMetrics.getInstance().saveReport(systemParams.metricsReportFile);
+        }
     }
 }
\ No newline at end of file
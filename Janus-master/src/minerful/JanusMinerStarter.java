@@ -112,7 +112,7 @@ public class JanusMinerStarter extends AbstractMinerFulStarter {
 			System.exit(1);
 		}
 
-		MessagePrinter.configureLogging(systemParams.debugLevel);
+		SystemCmdParameters.configureProcess(systemParams);
 
 		logger.info("Loading log...");
 
@@ -0,0 +1,152 @@
+package minerful;
+
+import minerful.concept.ProcessModel;
+import minerful.concept.constraint.Constraint;
+import minerful.io.ProcessModelLoader;
+import minerful.io.params.InputModelParameters;
+import minerful.io.params.OutputModelParameters;
+import minerful.params.SystemCmdParameters;
+import minerful.reactive.monitor.EventStreamReader;
+import minerful.reactive.monitor.MonitorListener;
+import minerful.reactive.monitor.MonitorUpdate;
+import minerful.reactive.monitor.StreamingConformanceMonitor;
+import minerful.reactive.params.JanusMonitorCmdParameters;
+import minerful.utils.MessagePrinter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Starter of the online conformance monitor, see {@link StreamingConformanceMonitor}.
+ * The events are read from a file (possibly followed as it grows) or from the standard input, and the updates are written as CSV lines.
+ * At the end of the input, all the open cases are closed and the model can be saved with the final support and confidence of its constraints.
+ */
+public class JanusMonitorStarter extends AbstractMinerFulStarter {
+    public static MessagePrinter logger = MessagePrinter.getInstance(JanusMonitorStarter.class);
+
+    @Override
+    public Options setupOptions() {
+        Options cmdLineOptions = new Options();
+
+        Options systemOptions = SystemCmdParameters.parseableOptions(),
+                inputModelOptions = InputModelParameters.parseableOptions(),
+                outputOptions = OutputModelParameters.parseableOptions(),
+                monitorOptions = JanusMonitorCmdParameters.parseableOptions();
+
+        for (Object opt : systemOptions.getOptions()) {
+            cmdLineOptions.addOption((Option) opt);
+        }
+        for (Object opt : inputModelOptions.getOptions()) {
+            cmdLineOptions.addOption((Option) opt);
+        }
+        for (Object opt : outputOptions.getOptions()) {
+            cmdLineOptions.addOption((Option) opt);
+        }
+        for (Object opt : monitorOptions.getOptions()) {
+            cmdLineOptions.addOption((Option) opt);
+        }
+
+        return cmdLineOptions;
+    }
+
+    public static void main(String[] args) {
+        JanusMonitorStarter monitorStarter = new JanusMonitorStarter();
+        Options cmdLineOptions = monitorStarter.setupOptions();
+
+        SystemCmdParameters systemParams =
+                new SystemCmdParameters(
+                        cmdLineOptions,
+                        args);
+        InputModelParameters inputModelParams =
+                new InputModelParameters(
+                        cmdLineOptions,
+                        args);
+        OutputModelParameters outParams =
+                new OutputModelParameters(
+                        cmdLineOptions,
+                        args);
+        JanusMonitorCmdParameters monitorParams =
+                new JanusMonitorCmdParameters(
+                        cmdLineOptions,
+                        args);
+
+        if (systemParams.help) {
+            systemParams.printHelp(cmdLineOptions);
+            System.exit(0);
+        }
+
+        PrintStream updatesStream = null;
+        try {
+            if (monitorParams.outputUpdatesFile == null) {
+//                the standard output is reserved to the updates, anything else is printed on the standard error
+                updatesStream = new PrintStream(System.out, monitorParams.follow || monitorParams.inputStreamFile == null, "UTF-8");
+                System.setOut(System.err);
+            } else {
+                updatesStream = new PrintStream(new FileOutputStream(monitorParams.outputUpdatesFile), monitorParams.follow, "UTF-8");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        SystemCmdParameters.configureProcess(systemParams);
+
+        if (inputModelParams.inputFile == null) {
+            systemParams.printHelpForWrongUsage("Input process model file missing!");
+            System.exit(1);
+        }
+        ProcessModel processModel = new ProcessModelLoader().loadProcessModel(inputModelParams.inputLanguage, inputModelParams.inputFile);
+        if (processModel == null) {
+            System.exit(1);
+        }
+
+        StreamingConformanceMonitor monitor = new StreamingConformanceMonitor(processModel, monitorParams.maxOpenCases, monitorParams.maxIdleTime);
+        final PrintStream updatesOutput = updatesStream;
+        final String separator = monitorParams.streamSeparator;
+        final JanusMonitorCmdParameters finalMonitorParams = monitorParams;
+        updatesOutput.println(MonitorUpdate.csvHeader(separator));
+        monitor.addListener(new MonitorListener() {
+            @Override
+            public void onUpdate(MonitorUpdate update) {
+                if (finalMonitorParams.updateTypes.contains(update.type))
+                    updatesOutput.println(update.toCsvLine(separator));
+            }
+        });
+
+        EventStreamReader reader = new EventStreamReader(monitor, monitorParams.streamSeparator, monitorParams.caseEndActivity, monitorParams.follow);
+        long before = System.currentTimeMillis();
+        try {
+            Reader input = (monitorParams.inputStreamFile == null) ?
+                    new InputStreamReader(System.in, StandardCharsets.UTF_8) :
+                    new InputStreamReader(new FileInputStream(monitorParams.inputStreamFile), StandardCharsets.UTF_8);
+            reader.feed(input);
+            input.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        monitor.closeAllCases();
+        updatesOutput.flush();
+        if (monitorParams.outputUpdatesFile != null) {
+            updatesOutput.close();
+        }
+        long after = System.currentTimeMillis();
+
+        logger.info("Events: " + monitor.getEventsNumber() + " (skipped lines: " + reader.getSkippedLines() + ")"
+                + ", cases: " + monitor.getCasesNumber() + " (evicted: " + monitor.getEvictedCasesNumber() + ")"
+                + ", monitoring time: " + (after - before) + " msec");
+        Constraint[] constraints = monitor.getConstraints();
+        for (int c = 0; c < constraints.length; c++) {
+            logger.debug(constraints[c] + ": support " + monitor.getSupport(c) + ", confidence " + monitor.getConfidence(c));
+        }
+
+        monitor.updateConstraintsMeasures();
+        new MinerFulOutputManagementLauncher().manageOutput(processModel, outParams);
+    }
+}
@@ -114,7 +114,7 @@ public class JanusOfflineMinerStarter extends AbstractMinerFulStarter {
             System.exit(1);
         }
 
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
 
         logger.info("Loading log...");
 
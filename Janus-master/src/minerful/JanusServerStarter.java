@@ -0,0 +1,71 @@
+package minerful;
+
+import minerful.params.SystemCmdParameters;
+import minerful.server.ParsedLogsCache;
+import minerful.server.ResidentServer;
+import minerful.server.params.ServerCmdParameters;
+import minerful.utils.MessagePrinter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Starter of the resident server for mining and measuring requests, see {@link ResidentServer}.
+ * The requests are read from the standard input and the responses written on the standard output, one JSON object per line.
+ */
+public class JanusServerStarter extends AbstractMinerFulStarter {
+    public static MessagePrinter logger = MessagePrinter.getInstance(JanusServerStarter.class);
+
+    @Override
+    public Options setupOptions() {
+        Options cmdLineOptions = new Options();
+
+        Options systemOptions = SystemCmdParameters.parseableOptions(),
+                serverOptions = ServerCmdParameters.parseableOptions();
+
+        for (Object opt : systemOptions.getOptions()) {
+            cmdLineOptions.addOption((Option) opt);
+        }
+        for (Object opt : serverOptions.getOptions()) {
+            cmdLineOptions.addOption((Option) opt);
+        }
+
+        return cmdLineOptions;
+    }
+
+    public static void main(String[] args) {
+        JanusServerStarter serverStarter = new JanusServerStarter();
+        Options cmdLineOptions = serverStarter.setupOptions();
+
+        SystemCmdParameters systemParams =
+                new SystemCmdParameters(
+                        cmdLineOptions,
+                        args);
+        ServerCmdParameters serverParams =
+                new ServerCmdParameters(
+                        cmdLineOptions,
+                        args);
+
+        if (systemParams.help) {
+            systemParams.printHelp(cmdLineOptions);
+            System.exit(0);
+        }
+
+//        the standard output is reserved to the responses, anything else is printed on the standard error
+        PrintStream responses = System.out;
+        System.setOut(System.err);
+        SystemCmdParameters.configureProcess(systemParams);
+
+        logger.info("Janus server ready (max cached events: " + serverParams.maxCachedEvents + ", max cached models per log: " + serverParams.maxCachedModels + ")");
+        ResidentServer server = new ResidentServer(new ParsedLogsCache(serverParams.maxCachedEvents, serverParams.maxCachedModels));
+        try {
+            server.serve(System.in, responses);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        logger.info("Janus server stopped");
+    }
+}
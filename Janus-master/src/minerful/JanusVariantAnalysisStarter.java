@@ -2,6 +2,7 @@ package minerful;
 
 import minerful.concept.TaskCharArchive;
 //import minerful.params.InputLogCmdParameters;
+import minerful.metrics.PipelineMetrics;
 import minerful.params.SystemCmdParameters;
 import minerful.postprocessing.params.PostProcessingCmdParameters;
 import minerful.reactive.io.JanusVariantOutputManagementLauncher;
@@ -105,7 +106,7 @@ public class JanusVariantAnalysisStarter extends MinerFulMinerStarter {
                         cmdLineOptions,
                         args);
 
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
 
         if (systemParams.help) {
             systemParams.printHelp(cmdLineOptions);
@@ -121,6 +122,10 @@ public class JanusVariantAnalysisStarter extends MinerFulMinerStarter {
 
         double execTimeEnd = System.currentTimeMillis();
         logger.info("Total execution time: " + (execTimeEnd - execTimeStart));
+
+        if (systemParams.metricsReportFile != null) {
+            PipelineMetrics.getInstance().saveReport(systemParams.metricsReportFile);
+        }
     }
 
 }
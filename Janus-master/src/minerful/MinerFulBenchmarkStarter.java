@@ -0,0 +1,65 @@
+package minerful;
+
+import minerful.benchmark.MinerFulBenchmarkRunner;
+import minerful.benchmark.params.BenchmarkCmdParameters;
+import minerful.params.SystemCmdParameters;
+import minerful.utils.MessagePrinter;
+
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+/**
+ * Class to start from terminal the benchmarks of the hot paths of MINERful and Janus on synthetic logs
+ */
+public class MinerFulBenchmarkStarter extends AbstractMinerFulStarter {
+	public static MessagePrinter logger = MessagePrinter.getInstance(MinerFulBenchmarkStarter.class);
+
+	@Override
+	public Options setupOptions() {
+		Options cmdLineOptions = new Options();
+
+		Options systemOptions = SystemCmdParameters.parseableOptions(),
+				benchOptions = BenchmarkCmdParameters.parseableOptions();
+
+		for (Object opt : systemOptions.getOptions()) {
+			cmdLineOptions.addOption((Option) opt);
+		}
+		for (Object opt : benchOptions.getOptions()) {
+			cmdLineOptions.addOption((Option) opt);
+		}
+
+		return cmdLineOptions;
+	}
+
+	public static void main(String[] args) {
+		MinerFulBenchmarkStarter benchStarter = new MinerFulBenchmarkStarter();
+		Options cmdLineOptions = benchStarter.setupOptions();
+
+		SystemCmdParameters systemParams =
+				new SystemCmdParameters(
+						cmdLineOptions,
+						args);
+		BenchmarkCmdParameters benchParams =
+				new BenchmarkCmdParameters(
+						cmdLineOptions,
+						args);
+
+		if (systemParams.help) {
+			systemParams.printHelp(cmdLineOptions);
+			System.exit(0);
+		}
+
+		SystemCmdParameters.configureProcess(systemParams);
+
+		try {
+			MinerFulBenchmarkRunner runner = new MinerFulBenchmarkRunner(benchParams);
+			long from = System.currentTimeMillis();
+			runner.run();
+			logger.info("Benchmarks run in " + (System.currentTimeMillis() - from) + " msec");
+			runner.saveResults();
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
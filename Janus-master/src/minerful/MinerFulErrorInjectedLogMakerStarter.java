@@ -142,7 +142,13 @@ public class MinerFulErrorInjectedLogMakerStarter extends MinerFulMinerStarter {
             System.exit(1);
         }
 
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        if (logMakParameters.streamingOutput) {
+            systemParams.printHelpForWrongUsage("The streamed log cannot be injected with errors: please remove the "
+                    + LogMakerParameters.STREAMING_PARAM_NAME + " option.");
+            System.exit(1);
+        }
+
+        SystemCmdParameters.configureProcess(systemParams);
 
         String[] testBedArray =new String[0];
 
@@ -101,7 +101,7 @@ public class MinerFulErrorInjectedSimuStarter extends MinerFulSimuStarter {
         	System.exit(0);
         }
         
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
         
         String[] testBedArray = new MinerFulStringTracesMaker().makeTraces(tracesMakParams);
     	testBedArray = MinerFulErrorInjectedTracesMakerStarter.injectErrors(testBedArray, tracesMakParams, errorInjexParams);
@@ -111,7 +111,7 @@ public class MinerFulErrorInjectedTracesMakerStarter extends AbstractMinerFulSta
         	System.exit(0);
         }
         
-    	MessagePrinter.configureLogging(systemParams.debugLevel);
+    	SystemCmdParameters.configureProcess(systemParams);
     	
     	String[] testBedArray = new MinerFulStringTracesMaker().makeTraces(tracesMakParams);
     	testBedArray = injectErrors(testBedArray, tracesMakParams, errorInjexParams);
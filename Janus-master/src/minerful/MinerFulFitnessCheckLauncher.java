@@ -61,7 +61,7 @@ public class MinerFulFitnessCheckLauncher {
 		this.eventLogParser = MinerFulMinerLauncher.deriveLogParserFromLogFile(inputLogParams);
 
 		// Notice that the merging of event log codification of TaskChars with the given model’s one happens only late (at checking time)
-		MessagePrinter.configureLogging(systemParams.debugLevel);
+		SystemCmdParameters.configureProcess(systemParams);
 	}
 
 	public ProcessModel getProcessSpecification() {
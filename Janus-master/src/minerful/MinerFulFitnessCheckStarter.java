@@ -93,7 +93,7 @@ public class MinerFulFitnessCheckStarter extends MinerFulMinerStarter {
 						cmdLineOptions,
 						args);
 
-		MessagePrinter.configureLogging(systemParams.debugLevel);
+		SystemCmdParameters.configureProcess(systemParams);
 
 		if (systemParams.help) {
         	systemParams.printHelp(cmdLineOptions);
@@ -1,6 +1,7 @@
 package minerful;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import org.processmining.plugins.declareminer.visualizing.AssignmentModel;
 
@@ -47,9 +48,13 @@ public class MinerFulLogMakerLauncher {
 			System.exit(1);
 		}
 
-		MessagePrinter.configureLogging(systemParams.debugLevel);
+		SystemCmdParameters.configureProcess(systemParams);
 	}
 	
+	/**
+	 * Creates the log and stores it.
+	 * @return The traces of the log as strings, or an empty array if the log is streamed (see {@link LogMakerParameters#streamingOutput})
+	 */
 	public String[] makeLog() {
 		if (this.logMakParams.outputLogFile == null) {
 			throw new IllegalArgumentException("Output file for log storage not specified!");
@@ -58,6 +63,14 @@ public class MinerFulLogMakerLauncher {
 		 * Creates the log.
 		 */
 		MinerFulLogMaker logMak = new MinerFulLogMaker(logMakParams);
+		if (this.logMakParams.streamingOutput) {
+			try {
+				logMak.streamLog(this.inputProcess);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Log not streamed to " + this.logMakParams.outputLogFile, e);
+			}
+			return logMak.getCleanStringsLog();
+		}
 		logMak.createLog(this.inputProcess);
 		
 		try {
@@ -63,7 +63,7 @@ public class MinerFulLogMakerStarter extends MinerFulMinerStarter {
 			System.exit(1);
 		}
         
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
         
         new MinerFulLogMakerLauncher(inputParams, logMakParameters, systemParams).makeLog();
     }
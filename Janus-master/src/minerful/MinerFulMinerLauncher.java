@@ -1,5 +1,8 @@
 package minerful;
 
+import java.io.File;
+import java.io.IOException;
+
 import org.deckfour.xes.model.XLog;
 import org.processmining.plugins.declareminer.visualizing.DeclareMap;
 
@@ -7,11 +10,14 @@ import minerful.concept.ProcessModel;
 import minerful.concept.TaskCharArchive;
 import minerful.io.encdec.declaremap.DeclareMapEncoderDecoder;
 import minerful.io.params.OutputModelParameters;
+import minerful.logparser.EncodedLogArena;
 import minerful.logparser.LogEventClassifier.ClassificationType;
 import minerful.logparser.LogParser;
 import minerful.logparser.StringLogParser;
 import minerful.logparser.XesLogParser;
+import minerful.logparser.XesStreamLogParser;
 import minerful.miner.params.MinerFulCmdParameters;
+import minerful.miner.stats.KnowledgeBaseSnapshot;
 import minerful.params.InputLogCmdParameters;
 import minerful.params.InputLogCmdParameters.EventClassification;
 import minerful.params.SystemCmdParameters;
@@ -49,7 +55,7 @@ public class MinerFulMinerLauncher {
 		this.outParams = outParams;
 		
 		this.minerFulStarter = new MinerFulMinerStarter();
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
 	}
 	
 	public ProcessModel mine() {
@@ -60,9 +66,11 @@ public class MinerFulMinerLauncher {
     	
         logger.info("Loading log...");
         
-        logParser = MinerFulMinerLauncher.deriveLogParserFromLogFile(inputParams, minerFulParams);
+        KnowledgeBaseSnapshot kbSnapshot = MinerFulMinerLauncher.loadKbSnapshotToAppendTo(minerFulParams);
+        logParser = MinerFulMinerLauncher.deriveLogParserFromLogFile(inputParams, minerFulParams,
+        		(kbSnapshot == null ? null : kbSnapshot.taskCharArchive));
 		TaskCharArchive taskCharArchive = logParser.getTaskCharArchive();
-		return minerFulStarter.mine(logParser, inputParams, minerFulParams, postParams, taskCharArchive);
+		return minerFulStarter.mine(logParser, inputParams, minerFulParams, postParams, taskCharArchive, kbSnapshot);
 	}
 	
 	public ProcessModel mine(XLog xLog) {
@@ -75,6 +83,28 @@ public class MinerFulMinerLauncher {
 		return new DeclareMapEncoderDecoder(mine(xLog)).createDeclareMap();
 	}
 	
+	/**
+	 * Loads the knowledge base snapshot to which the input log is appended, if any.
+	 * @return The loaded snapshot, or <code>null</code> if no snapshot is specified (or branched constraints are to be discovered)
+	 */
+	public static KnowledgeBaseSnapshot loadKbSnapshotToAppendTo(MinerFulCmdParameters minerFulParams) {
+		KnowledgeBaseSnapshot kbSnapshot = null;
+		if (minerFulParams.kbSnapshotToAppendTo != null) {
+			if (minerFulParams.isBranchingRequired()) {
+				logger.warn("Knowledge base snapshots are not available for branched constraints: " + minerFulParams.kbSnapshotToAppendTo + " is ignored");
+			} else {
+				logger.info("Loading the knowledge base snapshot...");
+				try {
+					kbSnapshot = KnowledgeBaseSnapshot.unmarshal(minerFulParams.kbSnapshotToAppendTo);
+				} catch (IOException e) {
+					e.printStackTrace();
+					System.exit(1);
+				}
+			}
+		}
+		return kbSnapshot;
+	}
+
 	public static ClassificationType fromInputParamToXesLogClassificationType(EventClassification evtClassInputParam) {
 		switch (evtClassInputParam) {
 		case name:
@@ -91,6 +121,14 @@ public class MinerFulMinerLauncher {
 	}
 
 	public static LogParser deriveLogParserFromLogFile(InputLogCmdParameters inputParams, MinerFulCmdParameters minerFulParams) {
+		return deriveLogParserFromLogFile(inputParams, minerFulParams, null);
+	}
+
+	/**
+	 * Parses the input log.
+	 * @param taskCharArchive Tasks that the log parser must encode first, as they were encoded before, or <code>null</code>
+	 */
+	public static LogParser deriveLogParserFromLogFile(InputLogCmdParameters inputParams, MinerFulCmdParameters minerFulParams, TaskCharArchive taskCharArchive) {
 		LogParser logParser = null;
 		boolean doAnalyseSubLog =
 				!inputParams.startFromTrace.equals(InputLogCmdParameters.FIRST_TRACE_NUM)
@@ -100,16 +138,28 @@ public class MinerFulMinerLauncher {
 		case xes:
 		case mxml:
 			ClassificationType evtClassi = MinerFulMinerLauncher.fromInputParamToXesLogClassificationType(inputParams.eventClassification);
+			if (inputParams.arenaCache) {
+				logParser = deriveLogParserFromArenaCache(inputParams, evtClassi, taskCharArchive);
+				if (logParser != null) {
+					if (minerFulParams != null && minerFulParams.activitiesToExcludeFromResult != null && minerFulParams.activitiesToExcludeFromResult.size() > 0) {
+						logParser.excludeTasksByName(minerFulParams.activitiesToExcludeFromResult);
+					}
+					break;
+				}
+			}
 			try {
 				if (doAnalyseSubLog) {
-					logParser = new XesLogParser(inputParams.inputLogFile, evtClassi, inputParams.startFromTrace, inputParams.subLogLength, null);
+					logParser = new XesLogParser(inputParams.inputLogFile, evtClassi, inputParams.startFromTrace, inputParams.subLogLength, taskCharArchive);
 				} else {
-					logParser = new XesLogParser(inputParams.inputLogFile, evtClassi);
+					logParser = new XesLogParser(inputParams.inputLogFile, evtClassi, taskCharArchive);
 				}
 			} catch (Exception e1) {
 				// TODO Auto-generated catch block
 				e1.printStackTrace();
 			}
+			if (inputParams.arenaCache && logParser != null) {
+				saveArenaCache(inputParams, evtClassi, (doAnalyseSubLog ? logParser.takeASlice(0, 0) : logParser));
+			}
 
 			// Remove from the analysed alphabet those activities that are
 			// specified in a user-defined list
@@ -120,12 +170,27 @@ public class MinerFulMinerLauncher {
 			// Let us try to free memory from the unused XesDecoder!
 			System.gc();
 			break;
+		case xesstream:
+			ClassificationType evtStreamClassi = MinerFulMinerLauncher.fromInputParamToXesLogClassificationType(inputParams.eventClassification);
+			try {
+				logParser = new XesStreamLogParser(inputParams.inputLogFile, evtStreamClassi, inputParams.startFromTrace, inputParams.subLogLength, taskCharArchive, inputParams.twoPassesStreaming, inputParams.keepTimestamps);
+			} catch (Exception e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+
+			// Remove from the analysed alphabet those activities that are
+			// specified in a user-defined list
+			if (minerFulParams != null && minerFulParams.activitiesToExcludeFromResult != null && minerFulParams.activitiesToExcludeFromResult.size() > 0) {
+				logParser.excludeTasksByName(minerFulParams.activitiesToExcludeFromResult);
+			}
+			break;
 		case strings:
 			try {
 				if (doAnalyseSubLog) {
-					logParser = new StringLogParser(inputParams.inputLogFile, ClassificationType.NAME, inputParams.startFromTrace, inputParams.subLogLength, null);
+					logParser = new StringLogParser(inputParams.inputLogFile, ClassificationType.NAME, inputParams.startFromTrace, inputParams.subLogLength, taskCharArchive);
 				} else {
-					logParser = new StringLogParser(inputParams.inputLogFile, ClassificationType.NAME);
+					logParser = new StringLogParser(inputParams.inputLogFile, ClassificationType.NAME, taskCharArchive);
 				}
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -139,4 +204,31 @@ public class MinerFulMinerLauncher {
 
 		return logParser;
 	}
+
+	/**
+	 * Reads the log from the {@link EncodedLogArena} cached next to it, if any and still valid
+	 * @return The log parser, or <code>null</code> if no valid cache exists
+	 */
+	private static LogParser deriveLogParserFromArenaCache(InputLogCmdParameters inputParams, ClassificationType evtClassi, TaskCharArchive taskCharArchive) {
+		File arenaFile = EncodedLogArena.cacheFileOf(inputParams.inputLogFile);
+		EncodedLogArena arena = EncodedLogArena.load(arenaFile, inputParams.inputLogFile, evtClassi);
+		if (arena == null) {
+			return null;
+		}
+		logger.info("Reading the encoded log from " + arenaFile);
+		return new XesStreamLogParser(arena, evtClassi, inputParams.startFromTrace, inputParams.subLogLength, taskCharArchive);
+	}
+
+	/**
+	 * Saves the {@link EncodedLogArena} of the whole log next to it, for later runs
+	 */
+	private static void saveArenaCache(InputLogCmdParameters inputParams, ClassificationType evtClassi, LogParser wholeLogParser) {
+		File arenaFile = EncodedLogArena.cacheFileOf(inputParams.inputLogFile);
+		try {
+			EncodedLogArena.encode(wholeLogParser).save(arenaFile, inputParams.inputLogFile, evtClassi);
+			logger.info("Encoded log saved in " + arenaFile);
+		} catch (IOException e) {
+			logger.warn("The encoded log could not be saved in " + arenaFile + ": " + e.getMessage());
+		}
+	}
 }
\ No newline at end of file
@@ -2,11 +2,16 @@ package minerful;
 
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 
 import minerful.concept.ProcessModel;
+import minerful.concept.TaskChar;
 import minerful.concept.TaskCharArchive;
 import minerful.io.ConstraintsPrinter;
 import minerful.io.params.OutputModelParameters;
@@ -81,7 +86,7 @@ public class MinerFulMinerSlider extends MinerFulMinerStarter {
 			System.exit(1);
 		}
 
-		MessagePrinter.configureLogging(systemParams.debugLevel);
+		SystemCmdParameters.configureProcess(systemParams);
 
 		logger.info("Loading log...");
 
@@ -168,17 +173,29 @@ public class MinerFulMinerSlider extends MinerFulMinerStarter {
     		addiStartGap = (step < inputParams.subLogLength ? inputParams.subLogLength : step),
     		addiLen = Math.min(step, inputParams.subLogLength);
 
+    		// The knowledge bases of the slices added to the head are kept (up to slideParams.cachedSlices), to be subtracted when they reach the tail
+    		Deque<SliceStats> headSlicesStats = new ArrayDeque<SliceStats>();
+    		Set<TaskChar> alteredTasks = new TreeSet<TaskChar>();
+    		long logSizeBeforeStep = 0L;
+
     		for (int i = 0; inputParams.startFromTrace + i + addiStartGap + addiLen <= logParser.wholeLength(); i += step) {
+    			alteredTasks.clear();
+    			logSizeBeforeStep = statsTable.logSize;
 				if (!slideParams.stickTail) {
-					slicedLogParser = logParser.takeASlice(
-							inputParams.startFromTrace + i,
-							subtraLen
-					);
-					kbCore.setLogParser(slicedLogParser);
-	
-					slicedStatsTable = kbCore.discover();
+					if (!headSlicesStats.isEmpty() && headSlicesStats.peekFirst().from == inputParams.startFromTrace + i && headSlicesStats.peekFirst().length == subtraLen) {
+						slicedStatsTable = headSlicesStats.pollFirst().statsTable;
+					} else {
+						slicedLogParser = logParser.takeASlice(
+								inputParams.startFromTrace + i,
+								subtraLen
+						);
+						kbCore.setLogParser(slicedLogParser);
+		
+						slicedStatsTable = kbCore.discover();
+					}
 					// subtract the tail
 					statsTable.mergeSubtractively(slicedStatsTable);
+					collectOccurringTasks(slicedStatsTable, alteredTasks);
 				}
 				slicedLogParser = logParser.takeASlice(inputParams.startFromTrace + i + addiStartGap, addiLen);
 				kbCore.setLogParser(slicedLogParser);
@@ -187,14 +204,25 @@ public class MinerFulMinerSlider extends MinerFulMinerStarter {
 				
 				// add the head
 				statsTable.mergeAdditively(slicedStatsTable);
+				collectOccurringTasks(slicedStatsTable, alteredTasks);
 				if (!slideParams.stickTail) {
 					globalStatsTable.mergeAdditively(slicedStatsTable);
+					if (headSlicesStats.size() < slideParams.cachedSlices) {
+						headSlicesStats.addLast(new SliceStats(inputParams.startFromTrace + i + addiStartGap, addiLen, slicedStatsTable));
+					}
 				}
 				
-				// wipe out existing constraints
-				proMod.bag.wipeOutConstraints();
-				// query the altered knowledge base!
-				qCore.discover();
+				// The first step also wipes out the non-evaluated constraints of the initial model
+				if (i > 0 && statsTable.logSize == logSizeBeforeStep && !minerFulParams.isBranchingRequired()) {
+					// Only the statistics of the tasks occurring in the added or subtracted traces changed:
+					// query the altered knowledge base only for the constraints they can affect!
+					qCore.discoverAffectedBy(alteredTasks);
+				} else {
+					// wipe out existing constraints
+					proMod.bag.wipeOutConstraints();
+					// query the altered knowledge base!
+					qCore.discover();
+				}
 				
 				from = inputParams.startFromTrace + i + step;
 				to = inputParams.startFromTrace + i + addiStartGap + addiLen;
@@ -225,6 +253,32 @@ public class MinerFulMinerSlider extends MinerFulMinerStarter {
 	}
 
 
+	/**
+	 * Adds to the given set the tasks occurring in the traces of the knowledge base
+	 */
+	private static void collectOccurringTasks(GlobalStatsTable statsTable, Set<TaskChar> tasks) {
+		for (TaskChar task : statsTable.statsTable.keySet()) {
+			if (statsTable.statsTable.get(task).getTotalAmountOfOccurrences() > 0) {
+				tasks.add(task);
+			}
+		}
+	}
+
+	/**
+	 * Knowledge base of a slice of the event log
+	 */
+	private static class SliceStats {
+		final int from;
+		final int length;
+		final GlobalStatsTable statsTable;
+
+		SliceStats(int from, int length, GlobalStatsTable statsTable) {
+			this.from = from;
+			this.length = length;
+			this.statsTable = statsTable;
+		}
+	}
+
 	public PrintWriter setUpCSVPrintWriter(SlidingCmdParameters slideParams) {
 		PrintWriter outWriter = null;
     	try {
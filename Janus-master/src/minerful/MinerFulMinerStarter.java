@@ -1,10 +1,10 @@
 package minerful;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -19,11 +19,13 @@ import minerful.concept.TaskCharArchive;
 import minerful.concept.constraint.ConstraintsBag;
 import minerful.io.params.OutputModelParameters;
 import minerful.logparser.LogParser;
+import minerful.metrics.PipelineMetrics;
 import minerful.miner.core.MinerFulKBCore;
 import minerful.miner.core.MinerFulPruningCore;
 import minerful.miner.core.MinerFulQueryingCore;
 import minerful.miner.params.MinerFulCmdParameters;
 import minerful.miner.stats.GlobalStatsTable;
+import minerful.miner.stats.KnowledgeBaseSnapshot;
 import minerful.params.InputLogCmdParameters;
 import minerful.params.SystemCmdParameters;
 import minerful.params.ViewCmdParameters;
@@ -111,19 +113,26 @@ public class MinerFulMinerStarter extends AbstractMinerFulStarter {
 			System.exit(1);
 		}
 
-		MessagePrinter.configureLogging(systemParams.debugLevel);
+		SystemCmdParameters.configureProcess(systemParams);
+
+		KnowledgeBaseSnapshot kbSnapshot = MinerFulMinerLauncher.loadKbSnapshotToAppendTo(minerFulParams);
 
 		logger.info("Loading log...");
 
 		LogParser logParser = MinerFulMinerLauncher.deriveLogParserFromLogFile(
 				inputParams,
-				minerFulParams);
+				minerFulParams,
+				(kbSnapshot == null ? null : kbSnapshot.taskCharArchive));
 
 		TaskCharArchive taskCharArchive = logParser.getTaskCharArchive();
 
-		ProcessModel processModel = minerMinaStarter.mine(logParser, inputParams, minerFulParams, postParams, taskCharArchive);
+		ProcessModel processModel = minerMinaStarter.mine(logParser, inputParams, minerFulParams, postParams, taskCharArchive, kbSnapshot);
 
 		new MinerFulOutputManagementLauncher().manageOutput(processModel, viewParams, outParams, systemParams, logParser);
+
+		if (systemParams.metricsReportFile != null) {
+			PipelineMetrics.getInstance().saveReport(systemParams.metricsReportFile);
+		}
 	}
 
 	public static boolean isEventLogGiven(Options cmdLineOptions, InputLogCmdParameters inputParams,
@@ -159,10 +168,30 @@ public class MinerFulMinerStarter extends AbstractMinerFulStarter {
 
 	public ProcessModel mine(LogParser logParser,
 			InputLogCmdParameters inputParams, MinerFulCmdParameters minerFulParams, PostProcessingCmdParameters postParams, TaskCharArchive taskCharArchive) {
+		return this.mine(logParser, inputParams, minerFulParams, postParams, taskCharArchive, null);
+	}
+
+	/**
+	 * Discovers the process model.
+	 * @param kbSnapshot Snapshot of the knowledge base of previous traces, to which the statistics of the log are added; can be <code>null</code>
+	 */
+	public ProcessModel mine(LogParser logParser,
+			InputLogCmdParameters inputParams, MinerFulCmdParameters minerFulParams, PostProcessingCmdParameters postParams, TaskCharArchive taskCharArchive,
+			KnowledgeBaseSnapshot kbSnapshot) {
 		GlobalStatsTable globalStatsTable = new GlobalStatsTable(taskCharArchive, minerFulParams.branchingLimit);
 		globalStatsTable = computeKB(logParser, minerFulParams,
 				taskCharArchive, globalStatsTable);
 
+		if (kbSnapshot != null) {
+			GlobalStatsTable snapshotStatsTable = kbSnapshot.toGlobalStatsTable(taskCharArchive);
+			logger.info("Appending " + globalStatsTable.logSize + " traces to the " + snapshotStatsTable.logSize + " of the knowledge base snapshot");
+			snapshotStatsTable.mergeAdditively(globalStatsTable);
+			globalStatsTable = snapshotStatsTable;
+		}
+		if (minerFulParams.kbSnapshotOutputFile != null) {
+			saveKbSnapshot(globalStatsTable, minerFulParams);
+		}
+
 		System.gc();
 
 		ProcessModel proMod = ProcessModel.generateNonEvaluatedBinaryModel(taskCharArchive);
@@ -178,6 +207,21 @@ public class MinerFulMinerStarter extends AbstractMinerFulStarter {
 		return proMod;
 	}
 
+	protected void saveKbSnapshot(GlobalStatsTable globalStatsTable, MinerFulCmdParameters minerFulParams) {
+		if (globalStatsTable.isForBranchedConstraints()) {
+			logger.warn("Knowledge base snapshots are not available for branched constraints: " + minerFulParams.kbSnapshotOutputFile + " is not saved");
+			return;
+		}
+		long before = System.currentTimeMillis();
+		try {
+			KnowledgeBaseSnapshot.marshal(globalStatsTable, minerFulParams.kbSnapshotOutputFile);
+		} catch (IOException e) {
+			logger.error("Knowledge base snapshot could not be saved in " + minerFulParams.kbSnapshotOutputFile, e);
+			return;
+		}
+		logger.info("Knowledge base snapshot saved in " + minerFulParams.kbSnapshotOutputFile + " (" + (System.currentTimeMillis() - before) + " msec)");
+	}
+
 	public static String makeDiscoveredProcessName(InputLogCmdParameters inputParams) {
 		return (inputParams != null && inputParams.inputLogFile != null ) ?
 			String.format(MinerFulMinerStarter.PROCESS_MODEL_NAME_PATTERN, inputParams.inputLogFile.getName()) :
@@ -188,49 +232,48 @@ public class MinerFulMinerStarter extends AbstractMinerFulStarter {
 			MinerFulCmdParameters minerFulParams,
 			TaskCharArchive taskCharArchive, GlobalStatsTable globalStatsTable) {
 		int coreNum = 0;
-		long before = 0, after = 0;
-		if (minerFulParams.isParallelKbComputationRequired()) {
-			// Slice the log
-			List<LogParser> listOfLogParsers = logParser
-					.split(minerFulParams.kbParallelProcessingThreads);
-			List<MinerFulKBCore> listOfMinerFulCores = new ArrayList<MinerFulKBCore>(
-					minerFulParams.kbParallelProcessingThreads);
-
-			// Associate a dedicated KB-computing core to each log slice
-			for (LogParser slicedLogParser : listOfLogParsers) {
-				listOfMinerFulCores.add(new MinerFulKBCore(
-						coreNum++,
-						slicedLogParser,
-						minerFulParams, taskCharArchive));
-			}
+		try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("kbConstruction")) {
+			if (minerFulParams.isParallelKbComputationRequired()) {
+				// Slice the log
+				List<LogParser> listOfLogParsers = logParser
+						.split(minerFulParams.kbParallelProcessingThreads);
+				List<MinerFulKBCore> listOfMinerFulCores = new ArrayList<MinerFulKBCore>(
+						minerFulParams.kbParallelProcessingThreads);
+
+				// Associate a dedicated KB-computing core to each log slice
+				for (LogParser slicedLogParser : listOfLogParsers) {
+					listOfMinerFulCores.add(new MinerFulKBCore(
+							coreNum++,
+							slicedLogParser,
+							minerFulParams, taskCharArchive));
+				}
 
-			ExecutorService executor = Executors
-					.newFixedThreadPool(minerFulParams.kbParallelProcessingThreads);
+				ExecutorService executor = Executors
+						.newFixedThreadPool(minerFulParams.kbParallelProcessingThreads);
 
-//			ForkJoinPool executor = new ForkJoinPool(minerFulParams.kbParallelProcessingThreads);
+//				ForkJoinPool executor = new ForkJoinPool(minerFulParams.kbParallelProcessingThreads);
 
-			try {
-				before = System.currentTimeMillis();
-				for (Future<GlobalStatsTable> statsTab : executor
-						.invokeAll(listOfMinerFulCores)) {
-					globalStatsTable.mergeAdditively(statsTab.get());
+				try {
+					for (Future<GlobalStatsTable> statsTab : executor
+							.invokeAll(listOfMinerFulCores)) {
+						globalStatsTable.mergeAdditively(statsTab.get());
+					}
+				} catch (InterruptedException | ExecutionException e) {
+					e.printStackTrace();
+					System.exit(1);
 				}
-				after = System.currentTimeMillis();
-			} catch (InterruptedException | ExecutionException e) {
-				e.printStackTrace();
-				System.exit(1);
+				executor.shutdown();
+			} else {
+				MinerFulKBCore minerFulKbCore = new MinerFulKBCore(
+						coreNum++,
+						logParser,
+						minerFulParams, taskCharArchive);
+				globalStatsTable = minerFulKbCore.discover();
 			}
-			executor.shutdown();
-		} else {
-			MinerFulKBCore minerFulKbCore = new MinerFulKBCore(
-					coreNum++,
-					logParser,
-					minerFulParams, taskCharArchive);
-			before = System.currentTimeMillis();
-			globalStatsTable = minerFulKbCore.discover();
-			after = System.currentTimeMillis();
+			PipelineMetrics.getInstance().count(PipelineMetrics.TRACES, logParser.length());
+			PipelineMetrics.getInstance().count(PipelineMetrics.EVENTS, logParser.numberOfEvents());
+			logger.info("Total KB construction time: " + phase.getElapsedMillis());
 		}
-		logger.info("Total KB construction time: " + (after - before));
 		return globalStatsTable;
 	}
 
@@ -239,59 +282,87 @@ public class MinerFulMinerStarter extends AbstractMinerFulStarter {
 			PostProcessingCmdParameters postPrarams, TaskCharArchive taskCharArchive,
 			GlobalStatsTable globalStatsTable, ConstraintsBag bag) {
 		int coreNum = 0;
-		long before = 0, after = 0;
-		if (minerFulParams.isParallelQueryProcessingRequired() && minerFulParams.isBranchingRequired()) {
-			logger.warn("Parallel querying of branched constraints not yet implemented. Proceeding with the single-core operations...");
-		}
-		if (minerFulParams.isParallelQueryProcessingRequired() && !minerFulParams.isBranchingRequired()) {
-			Collection<Set<TaskChar>> taskCharSubSets =
-					taskCharArchive.splitTaskCharsIntoSubsets(
-							minerFulParams.queryParallelProcessingThreads);
-			List<MinerFulQueryingCore> listOfMinerFulCores =
-					new ArrayList<MinerFulQueryingCore>(
-							minerFulParams.queryParallelProcessingThreads);
-			ConstraintsBag subBag = null;
-			// Associate a dedicated query-computing core to each taskChar-subset
-			for (Set<TaskChar> taskCharSubset : taskCharSubSets) {
-				subBag = bag.slice(taskCharSubset);
-				listOfMinerFulCores.add(
-						new MinerFulQueryingCore(coreNum++,
-								logParser, minerFulParams, postPrarams, 
-								taskCharArchive, globalStatsTable, taskCharSubset, subBag));
-			}
-
-			ExecutorService executor = Executors
-					.newFixedThreadPool(minerFulParams.queryParallelProcessingThreads);
-//					.newCachedThreadPool();
-//			ForkJoinPool executor = new ForkJoinPool(minerFulParams.queryParallelProcessingThreads);
+		try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("kbQuerying")) {
+			if (minerFulParams.isParallelQueryProcessingRequired()) {
+				// Both the plain and the branched relation constraints miners only look for the constraints of their tasksToQueryFor,
+				// thus each core gets a disjoint subset of the alphabet and the slice of the bag indexed by it
+				Collection<Set<TaskChar>> taskCharSubSets =
+						taskCharArchive.splitTaskCharsIntoSubsets(
+								minerFulParams.queryParallelProcessingThreads);
+				List<MinerFulQueryingCore> listOfMinerFulCores =
+						new ArrayList<MinerFulQueryingCore>(
+								minerFulParams.queryParallelProcessingThreads);
+				ConstraintsBag subBag = null;
+				// Associate a dedicated query-computing core to each taskChar-subset
+				for (Set<TaskChar> taskCharSubset : taskCharSubSets) {
+					subBag = bag.slice(taskCharSubset);
+					listOfMinerFulCores.add(
+							new MinerFulQueryingCore(coreNum++,
+									logParser, minerFulParams, postPrarams, 
+									taskCharArchive, globalStatsTable, taskCharSubset, subBag));
+				}
 
-			try {
-				before = System.currentTimeMillis();
-				for (Callable<ConstraintsBag> core : listOfMinerFulCores) {
- 					bag.shallowMerge(executor.submit(core).get());
+				ExecutorService executor = Executors
+						.newFixedThreadPool(minerFulParams.queryParallelProcessingThreads);
+//						.newCachedThreadPool();
+//				ForkJoinPool executor = new ForkJoinPool(minerFulParams.queryParallelProcessingThreads);
+
+				try {
+					for (Future<ConstraintsBag> processedSubBag : executor
+							.invokeAll(listOfMinerFulCores)) {
+						bag.shallowMerge(processedSubBag.get());
+					}
+				} catch (InterruptedException | ExecutionException e) {
+					e.printStackTrace();
+					System.exit(1);
 				}
-//				for (Future<ConstraintsBag> processedSubBag : executor
-//						.invokeAll(listOfMinerFulCores)) {
-//					bag.shallowMerge(processedSubBag.get());
-//				}
-				after = System.currentTimeMillis();
-			} catch (InterruptedException | ExecutionException e) {
-				e.printStackTrace();
-				System.exit(1);
+				executor.shutdown();
+				printParallelQueryingStats(listOfMinerFulCores, phase.getElapsedMillis());
+			} else {
+				MinerFulQueryingCore minerFulQueryingCore = new MinerFulQueryingCore(coreNum++,
+						logParser, minerFulParams, postPrarams, taskCharArchive,
+						globalStatsTable, bag);
+				minerFulQueryingCore.discover();
 			}
-			executor.shutdown();
-		} else {
-			MinerFulQueryingCore minerFulQueryingCore = new MinerFulQueryingCore(coreNum++,
-					logParser, minerFulParams, postPrarams, taskCharArchive,
-					globalStatsTable, bag);
-			before = System.currentTimeMillis();
-			minerFulQueryingCore.discover();
-			after = System.currentTimeMillis();
+			logger.info("Total KB querying time: " + phase.getElapsedMillis());
 		}
-		logger.info("Total KB querying time: " + (after - before));
 		return bag;
 	}
 
+	/**
+	 * Print the time spent by each of the parallel querying cores, along with the overall elapsed time and the resulting speedup
+	 * (the sum of the cores' times divided by the elapsed time).
+	 */
+	protected void printParallelQueryingStats(List<MinerFulQueryingCore> listOfMinerFulCores, long totalTime) {
+		StringBuffer csvSummaryBuffer = new StringBuffer();
+		long sumOfCoresTime = 0L;
+
+		csvSummaryBuffer.append("\n\nParallel querying timings' summary: \n");
+		csvSummaryBuffer.append("'Operation code for KB querying';'Job number';'Number of inspected activities';'Querying time'");
+		for (MinerFulQueryingCore core : listOfMinerFulCores) {
+			csvSummaryBuffer.append("\n");
+			csvSummaryBuffer.append(MinerFulQueryingCore.KB_QUERYING_CODE);
+			csvSummaryBuffer.append(";");
+			csvSummaryBuffer.append(core.jobNum);
+			csvSummaryBuffer.append(";");
+			csvSummaryBuffer.append(core.getNumberOfTasksToQueryFor());
+			csvSummaryBuffer.append(";");
+			csvSummaryBuffer.append(core.getQueryingTime());
+			sumOfCoresTime += core.getQueryingTime();
+		}
+		csvSummaryBuffer.append("\n'Number of cores';'Total querying time';'Sum of the cores querying time';'Speedup'\n");
+		csvSummaryBuffer.append(listOfMinerFulCores.size());
+		csvSummaryBuffer.append(";");
+		csvSummaryBuffer.append(totalTime);
+		csvSummaryBuffer.append(";");
+		csvSummaryBuffer.append(sumOfCoresTime);
+		csvSummaryBuffer.append(";");
+		csvSummaryBuffer.append(totalTime > 0 ? String.format("%.2f", (double) sumOfCoresTime / totalTime) : "NaN");
+
+		logger.info(csvSummaryBuffer.toString());
+	}
+
+	@SuppressWarnings("try") // the phase is only timed, not referenced
 	protected ProcessModel pruneConstraints(
 			ProcessModel processModel,
 			MinerFulCmdParameters minerFulParams,
@@ -302,7 +373,9 @@ public class MinerFulMinerStarter extends AbstractMinerFulStarter {
 //		} else {
 		MinerFulPruningCore pruniCore = new MinerFulPruningCore(processModel, processModel.bag.getTaskChars(), postPrarams);
 			
-		processModel.bag = pruniCore.massageConstraints();
+		try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("pruning")) {
+			processModel.bag = pruniCore.massageConstraints();
+		}
 //		}
 		return processModel;
 	}
@@ -202,7 +202,7 @@ public class MinerFulOutputManagementLauncher {
 				outputFile = this.retrieveFile(outParams.fileToSaveXmlFileForAutomaton);
 	        	try {
 	        		outWriter = new PrintWriter(new File(outputFile.getAbsolutePath()));
-		        	outWriter.print(printer.printWeightedXmlAutomaton(logParser, false));
+		        	outWriter.print(printer.printWeightedXmlAutomaton(logParser, false, outParams.replayParallelProcessingThreads));
 		        	outWriter.flush();
 		        	outWriter.close();
 		        	MessagePrinter.printlnOut("Discovered weighted process automaton written in XML format on " + outputFile);
@@ -216,7 +216,7 @@ public class MinerFulOutputManagementLauncher {
 				outputFile = this.retrieveFile(outParams.fileToSaveSkimmedXmlFileForAutomaton);
 	        	try {
 	        		outWriter = new PrintWriter(new File(outputFile.getAbsolutePath()));
-		        	outWriter.print(printer.printWeightedXmlAutomaton(logParser, true));
+		        	outWriter.print(printer.printWeightedXmlAutomaton(logParser, true, outParams.replayParallelProcessingThreads));
 		        	outWriter.flush();
 		        	outWriter.close();
 		        	MessagePrinter.printlnOut("Discovered skimmed weighted process automaton written in XML format on " + outputFile);
@@ -228,7 +228,7 @@ public class MinerFulOutputManagementLauncher {
 	
 			if (outParams.folderToSaveXmlFilesForPartialAutomata != null) {
 	        	try {
-	        		NavigableMap<String, String> partialAutoMap = printer.printWeightedXmlSubAutomata(logParser);
+	        		NavigableMap<String, String> partialAutoMap = printer.printWeightedXmlSubAutomata(logParser, outParams.replayParallelProcessingThreads);
 					StringBuilder subAutomataPathsBuilder = new StringBuilder();
 					String subAutomatonPath = null;
 					
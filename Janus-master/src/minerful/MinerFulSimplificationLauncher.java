@@ -53,7 +53,7 @@ public class MinerFulSimplificationLauncher {
             this.fixpointModel =new ProcessModelLoader().loadProcessModel(inputParams.inputLanguage, postParams.fixpointModel);
         }
 
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
     }
 
     public ProcessModel simplify() {
@@ -82,7 +82,7 @@ public class MinerFulSimplificationStarter extends MinerFulMinerStarter {
 			System.exit(1);
 		}
         
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
         
         MinerFulSimplificationLauncher miFuSimpLa = new MinerFulSimplificationLauncher(inputParams, postParams, systemParams);
         
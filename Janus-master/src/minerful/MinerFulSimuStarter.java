@@ -99,7 +99,7 @@ public class MinerFulSimuStarter extends MinerFulMinerStarter {
         	System.exit(0);
         }
         
-        MessagePrinter.configureLogging(systemParams.debugLevel);
+        SystemCmdParameters.configureProcess(systemParams);
         
         String[] testBedArray = new String[0];
         
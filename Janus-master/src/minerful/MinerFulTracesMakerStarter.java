@@ -46,7 +46,7 @@ public class MinerFulTracesMakerStarter extends AbstractMinerFulStarter {
         	System.exit(0);
         }
         
-    	MessagePrinter.configureLogging(systemParams.debugLevel);
+    	SystemCmdParameters.configureProcess(systemParams);
     	
     	MinerFulStringTracesMaker traMaker = new MinerFulStringTracesMaker();
     	
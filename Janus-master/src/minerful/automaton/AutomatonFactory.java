@@ -235,10 +235,33 @@ public class AutomatonFactory {
 		if (minLen != NO_TRACE_LENGTH_CONSTRAINT || maxLen != NO_TRACE_LENGTH_CONSTRAINT) {
 			return AutomatonFactory.fromRegularExpressions(regularExpressions, basicAlphabet, minLen, maxLen);	
 		}
-		return AutomatonFactory.fromRegularExpressions(regularExpressions, basicAlphabet);
+		return AutomatonFactory.fromConstraints(constraints, basicAlphabet);
 	}
 
 	public static Automaton buildAutomatonWithWildcard(Constraint constraint) {
-		return fromRegularExpressions(Arrays.asList(constraint.getRegularExpression()),constraint.getInvolvedTaskCharIdentifiers(),true);
+		return fromConstraints(Arrays.asList(constraint),constraint.getInvolvedTaskCharIdentifiers(),true);
+	}
+
+	public static Automaton fromConstraints(Collection<Constraint> constraints,
+			Collection<Character> basicAlphabet) {
+		return fromConstraints(constraints, basicAlphabet, false);
+	}
+
+	/**
+	 * Intersects the automata of the constraints, in order, taken from the {@link TemplateAutomataCache}
+	 * rather than compiled from their regular expressions
+	 * (see {@link #fromRegularExpressions(Collection, Collection, boolean) fromRegularExpressions}).
+	 */
+	public static Automaton fromConstraints(Collection<Constraint> constraints,
+			Collection<Character> basicAlphabet, boolean withWildCard) {
+		TemplateAutomataCache automataCache = TemplateAutomataCache.getInstance();
+		// limit the alphabet
+		Automaton processAutomaton = automataCache.getAutomaton(
+				AutomatonUtils.createRegExpLimitingTheAlphabet(basicAlphabet, withWildCard));
+		for (Constraint con : constraints) {
+			processAutomaton = processAutomaton.intersection(automataCache.getAutomaton(con));
+			processAutomaton.minimize();
+		}
+		return processAutomaton;
 	}
 }
\ No newline at end of file
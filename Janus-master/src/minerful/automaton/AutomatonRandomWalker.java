@@ -1,51 +1,115 @@
 package minerful.automaton;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 import minerful.automaton.utils.AutomatonUtils;
 import dk.brics.automaton.Automaton;
 import dk.brics.automaton.State;
 
+/**
+ * Random walker over an automaton.
+ * The enabled transitions of every state are computed once, at construction, and stored in arrays indexed by state:
+ * walkers on the same automaton share them (see {@link #AutomatonRandomWalker(AutomatonRandomWalker, SplittableRandom)}).
+ */
 public class AutomatonRandomWalker {
-	private Automaton automaton;
-	private State currentState;
-	private ArrayList<Character> enabledTransitions = new ArrayList<Character>();
+	/** Characters labelling the enabled transitions, per state */
+	private final char[][] enabledTransitions;
+	/** Target states of the enabled transitions, per state */
+	private final int[][] destinations;
+	/** Whether the state is accepting, per state */
+	private final boolean[] accepting;
+	private final int initialState;
+	private final SplittableRandom random;
+	private int currentState;
 
 	public AutomatonRandomWalker(Automaton automaton) {
-		this.automaton = automaton;
+		this(automaton, new SplittableRandom());
+	}
+
+	/**
+	 * @param automaton The automaton to walk on
+	 * @param random The random stream deciding the steps of the walker
+	 */
+	public AutomatonRandomWalker(Automaton automaton, SplittableRandom random) {
+		Map<State, Integer> statesIndex = new IdentityHashMap<State, Integer>();
+		List<State> states = new ArrayList<State>();
+		LinkedList<State> toVisit = new LinkedList<State>();
+		statesIndex.put(automaton.getInitialState(), 0);
+		states.add(automaton.getInitialState());
+		toVisit.add(automaton.getInitialState());
+		while (!toVisit.isEmpty()) {
+			State state = toVisit.removeFirst();
+			for (Character step : AutomatonUtils.getAllPossibleSteps(state)) {
+				State destination = state.step(step);
+				if (!statesIndex.containsKey(destination)) {
+					statesIndex.put(destination, states.size());
+					states.add(destination);
+					toVisit.add(destination);
+				}
+			}
+		}
+
+		this.enabledTransitions = new char[states.size()][];
+		this.destinations = new int[states.size()][];
+		this.accepting = new boolean[states.size()];
+		for (int s = 0; s < states.size(); s++) {
+			State state = states.get(s);
+			ArrayList<Character> steps = AutomatonUtils.getAllPossibleSteps(state);
+			this.enabledTransitions[s] = new char[steps.size()];
+			this.destinations[s] = new int[steps.size()];
+			for (int t = 0; t < steps.size(); t++) {
+				this.enabledTransitions[s][t] = steps.get(t);
+				this.destinations[s][t] = statesIndex.get(state.step(steps.get(t)));
+			}
+			this.accepting[s] = state.isAccept();
+		}
+		this.initialState = 0;
+		this.random = random;
 		this.goToStart();
 	}
-	
-	public void goToStart() {
-		this.goToState(this.automaton.getInitialState());
+
+	/**
+	 * Creates a new walker on the same automaton as the given one, sharing its transition tables
+	 * @param walker The walker to copy
+	 * @param random The random stream deciding the steps of the new walker
+	 */
+	public AutomatonRandomWalker(AutomatonRandomWalker walker, SplittableRandom random) {
+		this.enabledTransitions = walker.enabledTransitions;
+		this.destinations = walker.destinations;
+		this.accepting = walker.accepting;
+		this.initialState = walker.initialState;
+		this.random = random;
+		this.goToStart();
 	}
-	
-	private void goToState(State state) {
-		this.currentState = state;
-		this.enabledTransitions = AutomatonUtils.getAllPossibleSteps(this.currentState);
-		
+
+	public void goToStart() {
+		this.currentState = this.initialState;
 	}
-	
+
 	public Character walkOn() {
 		Character pickedTransitionChar = null;
 		int pickedTransitionNumber = -1;
-		if (!this.currentState.isAccept() || decideToContinueTheWalk()) {
-			if (this.enabledTransitions.size() > 0) {
-				pickedTransitionNumber = pickTransitionToWalkThrough(this.enabledTransitions);
-				pickedTransitionChar = this.enabledTransitions.get(pickedTransitionNumber);
-				this.goToState(this.currentState.step(pickedTransitionChar));
+		if (!this.accepting[this.currentState] || decideToContinueTheWalk()) {
+			if (this.enabledTransitions[this.currentState].length > 0) {
+				pickedTransitionNumber = pickTransitionToWalkThrough(this.enabledTransitions[this.currentState].length);
+				pickedTransitionChar = this.enabledTransitions[this.currentState][pickedTransitionNumber];
+				this.currentState = this.destinations[this.currentState][pickedTransitionNumber];
 			}
 		}
 		return pickedTransitionChar;
 	}
 
-	private int pickTransitionToWalkThrough(Collection<Character> enabledTransitions) {
-		return (int) (Math.floor(Math.random() * enabledTransitions.size()));
+	private int pickTransitionToWalkThrough(int enabledTransitionsNumber) {
+		return this.random.nextInt(enabledTransitionsNumber);
 	}
 
 	private boolean decideToContinueTheWalk() {
-		return Math.random() > 0.5;
+		return this.random.nextDouble() > 0.5;
 	}
 
-}
\ No newline at end of file
+}
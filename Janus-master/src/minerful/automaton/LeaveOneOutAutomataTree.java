@@ -0,0 +1,146 @@
+package minerful.automaton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import dk.brics.automaton.Automaton;
+
+/**
+ * Balanced binary tree of the partial intersections of an ordered list of automata, answering for any i
+ * the intersection of all the automata but the i-th one.
+ * <p>
+ * The leaves are the automata, every inner node is the minimised intersection of its children.
+ * The intersection of all the automata but the i-th one is obtained by intersecting the siblings of the nodes on the path
+ * from the i-th leaf to the root, i.e., O(log n) cached automata instead of n-1 automata.
+ * Removing an automaton updates only the O(log n) ancestors of its leaf.
+ * The levels of the tree are built bottom-up, and the nodes of a level, being independent from each other, can be built in parallel.
+ * <p>
+ * The nodes are stored as a heap: the node k has children 2k and 2k+1, and the leaves are in the second half of the array.
+ * A <code>null</code> node stands for the automaton accepting any string, e.g., for removed leaves or for the padding of the last level.
+ * The root is never needed, hence never built.
+ */
+public class LeaveOneOutAutomataTree {
+	private static Logger logger = Logger.getLogger(LeaveOneOutAutomataTree.class.getCanonicalName());
+
+	private final Automaton baseAutomaton;
+	private final Automaton[] nodes;
+	private final int leavesOffset;
+	private final int leavesNumber;
+
+	/**
+	 * @param automata      automata of the leaves, in order
+	 * @param baseAutomaton automaton intersected with every result, e.g., the one limiting the alphabet
+	 * @param threads       number of parallel threads building the tree
+	 */
+	public LeaveOneOutAutomataTree(List<Automaton> automata, Automaton baseAutomaton, int threads) {
+		this.baseAutomaton = baseAutomaton;
+		this.leavesNumber = automata.size();
+		int offset = 1;
+		while (offset < leavesNumber) {
+			offset <<= 1;
+		}
+		this.leavesOffset = offset;
+		this.nodes = new Automaton[2 * offset];
+		for (int i = 0; i < leavesNumber; i++) {
+			this.nodes[offset + i] = automata.get(i);
+		}
+		build(threads);
+	}
+
+	private void build(int threads) {
+		ExecutorService executor = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			// the level of the children of the root is the last one to be built
+			for (int levelStart = leavesOffset >> 1; levelStart >= 2; levelStart >>= 1) {
+				if (executor == null) {
+					for (int k = levelStart; k < 2 * levelStart; k++) {
+						nodes[k] = intersect(nodes[2 * k], nodes[2 * k + 1]);
+					}
+				} else {
+					List<Callable<Automaton>> tasks = new ArrayList<Callable<Automaton>>(levelStart);
+					for (int k = levelStart; k < 2 * levelStart; k++) {
+						final Automaton left = nodes[2 * k], right = nodes[2 * k + 1];
+						tasks.add(new Callable<Automaton>() {
+							@Override
+							public Automaton call() throws Exception {
+								return intersect(left, right);
+							}
+						});
+					}
+					List<Future<Automaton>> results = executor.invokeAll(tasks);
+					for (int k = levelStart; k < 2 * levelStart; k++) {
+						nodes[k] = results.get(k - levelStart).get();
+					}
+				}
+				logger.trace("Leave-one-out tree: level of " + levelStart + " nodes built");
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("Leave-one-out tree of automata not built", e);
+		} finally {
+			if (executor != null)
+				executor.shutdown();
+		}
+	}
+
+	/**
+	 * @param first  automaton, or <code>null</code> if accepting any string
+	 * @param second automaton, or <code>null</code> if accepting any string
+	 * @return the minimised intersection of the two automata, or <code>null</code> if both accept any string
+	 */
+	private static Automaton intersect(Automaton first, Automaton second) {
+		if (first == null)
+			return second;
+		if (second == null)
+			return first;
+		Automaton intersection = first.intersection(second);
+		intersection.minimize();
+		return intersection;
+	}
+
+	/**
+	 * @param index position of the automaton in the list given at construction
+	 * @return a new automaton, intersection of the base automaton and of all the non-removed automata but the given one
+	 */
+	public Automaton buildAllBut(int index) {
+		checkIndex(index);
+		Automaton result = baseAutomaton.clone();
+		for (int k = leavesOffset + index; k > 1; k >>= 1) {
+			Automaton sibling = nodes[k ^ 1];
+			if (sibling != null) {
+				result = intersect(result, sibling);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Remove an automaton from the intersections, updating the ancestors of its leaf
+	 *
+	 * @param index position of the automaton in the list given at construction
+	 */
+	public void remove(int index) {
+		checkIndex(index);
+		int k = leavesOffset + index;
+		nodes[k] = null;
+		for (k >>= 1; k > 1; k >>= 1) {
+			nodes[k] = intersect(nodes[2 * k], nodes[2 * k + 1]);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= leavesNumber) {
+			throw new IndexOutOfBoundsException("No automaton at position " + index + " (automata: " + leavesNumber + ")");
+		}
+	}
+
+	public int size() {
+		return leavesNumber;
+	}
+}
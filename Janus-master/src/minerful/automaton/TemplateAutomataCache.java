@@ -0,0 +1,343 @@
+package minerful.automaton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.RegExp;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
+import minerful.concept.constraint.Constraint;
+import minerful.metrics.PipelineMetrics;
+
+/**
+ * Process-wide cache of the minimised automata accepting the regular expressions of the constraints.
+ * <p>
+ * The regular expressions of constraints of the same template differ only in the characters of their parameters.
+ * Therefore, the characters of the parameters are replaced by placeholders (in order of first appearance in the regular expression),
+ * and the automaton of the resulting regular expression is compiled and minimised only once.
+ * The automaton of every constraint is then obtained by relabelling the transitions of the cached one:
+ * every placeholder is turned into the character it replaced, any other character into any character which is not a parameter.
+ * Relabelling is sound only if the automaton treats all the characters other than the placeholders alike, which is checked when the
+ * automaton is compiled: otherwise, the automaton is cached for the original regular expression.
+ * <p>
+ * The cache holds at most {@link #getMaximumSize() a maximum number} of automata, evicting the least recently used ones.
+ * Its hits and misses are also counted as {@link PipelineMetrics} counters.
+ * The returned automata are new objects, which the caller can freely modify.
+ */
+public class TemplateAutomataCache {
+	private static Logger logger = Logger.getLogger(TemplateAutomataCache.class.getCanonicalName());
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 512;
+	public static final String HITS_COUNTER = "automataCacheHits";
+	public static final String MISSES_COUNTER = "automataCacheMisses";
+	/**
+	 * First placeholder, in the Unicode private use area
+	 */
+	private static final char FIRST_PLACEHOLDER = '\uE000';
+
+	private static final TemplateAutomataCache INSTANCE = new TemplateAutomataCache(DEFAULT_MAXIMUM_SIZE);
+
+	private static class Entry {
+		/** Minimised automaton, never modified after construction */
+		private final Automaton automaton;
+		/** Number of placeholders in the regular expression */
+		private final int placeholders;
+		/** Whether the characters other than the placeholders are all treated alike */
+		private final boolean relabellable;
+
+		private Entry(Automaton automaton, int placeholders) {
+			this.automaton = automaton;
+			this.placeholders = placeholders;
+			this.relabellable = placeholders == 0 || treatsOtherCharactersAlike(automaton, placeholders);
+		}
+	}
+
+	private final LinkedHashMap<String, Entry> entries;
+	private int maximumSize;
+	private long hits = 0L;
+	private long misses = 0L;
+	private long evictions = 0L;
+
+	@SuppressWarnings("serial")
+	private TemplateAutomataCache(int maximumSize) {
+		this.maximumSize = maximumSize;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				if (size() > TemplateAutomataCache.this.maximumSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public static TemplateAutomataCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param constraint A constraint
+	 * @return A new minimised automaton accepting the regular expression of the constraint
+	 */
+	public Automaton getAutomaton(Constraint constraint) {
+		return getAutomaton(constraint.getRegularExpression(), constraint.getInvolvedTaskCharIdentifiers());
+	}
+
+	/**
+	 * @param regExp A regular expression without parameters, e.g., the one limiting the alphabet
+	 * @return A new minimised automaton accepting the regular expression
+	 */
+	public Automaton getAutomaton(String regExp) {
+		return getEntry(regExp, 0).automaton.clone();
+	}
+
+	/**
+	 * @param regExp A regular expression
+	 * @param parameters The characters in the regular expression that stand for the parameters of its template
+	 * @return A new minimised automaton accepting the regular expression
+	 */
+	public Automaton getAutomaton(String regExp, Collection<Character> parameters) {
+		if (parameters.isEmpty())
+			return getAutomaton(regExp);
+
+		StringBuilder actualChars = new StringBuilder(parameters.size());
+		String template = toTemplate(regExp, parameters, actualChars);
+		if (template == null)
+			return getAutomaton(regExp);
+
+		int placeholders = actualChars.length();
+		Entry entry = getEntry(template, placeholders);
+		if (!entry.relabellable)
+			return getUncountedEntry(regExp).automaton.clone();
+		return relabel(entry.automaton, actualChars.toString().toCharArray());
+	}
+
+	/**
+	 * Replaces the characters of the parameters with placeholders
+	 * @param regExp A regular expression
+	 * @param parameters The characters of the parameters
+	 * @param actualChars Filled with the characters replaced by the placeholders, in order
+	 * @return The regular expression with the placeholders, or <code>null</code> if a placeholder already occurs in it
+	 */
+	private static String toTemplate(String regExp, Collection<Character> parameters, StringBuilder actualChars) {
+		Map<Character, Character> placeholders = new HashMap<Character, Character>(parameters.size() * 2);
+		for (Character parameter : parameters) {
+			placeholders.put(parameter, null);
+		}
+		StringBuilder template = new StringBuilder(regExp.length());
+		for (int i = 0; i < regExp.length(); i++) {
+			char c = regExp.charAt(i);
+			if (isPlaceholder(c, parameters.size())) {
+				return null;
+			}
+			if (placeholders.containsKey(c)) {
+				Character placeholder = placeholders.get(c);
+				if (placeholder == null) {
+					placeholder = (char) (FIRST_PLACEHOLDER + actualChars.length());
+					actualChars.append(c);
+					placeholders.put(c, placeholder);
+				}
+				template.append(placeholder.charValue());
+			} else {
+				template.append(c);
+			}
+		}
+		return template.toString();
+	}
+
+	private Entry getEntry(String regExp, int placeholders) {
+		Entry entry = null;
+		synchronized (this) {
+			entry = entries.get(regExp);
+			if (entry != null) {
+				hits++;
+			} else {
+				misses++;
+			}
+		}
+		if (entry != null) {
+			PipelineMetrics.getInstance().count(HITS_COUNTER, 1);
+			return entry;
+		}
+		PipelineMetrics.getInstance().count(MISSES_COUNTER, 1);
+		return compileEntry(regExp, placeholders);
+	}
+
+	/**
+	 * Looks up the automaton of a regular expression without parameters, as the fallback of a lookup already counted
+	 * (namely, of a template whose automaton cannot be relabelled)
+	 */
+	private Entry getUncountedEntry(String regExp) {
+		Entry entry = null;
+		synchronized (this) {
+			entry = entries.get(regExp);
+		}
+		if (entry != null)
+			return entry;
+		return compileEntry(regExp, 0);
+	}
+
+	private Entry compileEntry(String regExp, int placeholders) {
+		Automaton automaton = new RegExp(regExp).toAutomaton();
+		automaton.minimize();
+		// Expands the automaton, if represented as a singleton string, before it is shared
+		automaton.getInitialState();
+		Entry entry = new Entry(automaton, placeholders);
+		if (!entry.relabellable)
+			logger.trace("The automaton of " + regExp + " cannot be relabelled");
+
+		synchronized (this) {
+			entries.put(regExp, entry);
+		}
+		return entry;
+	}
+
+	private static boolean isPlaceholder(char c, int placeholders) {
+		return c >= FIRST_PLACEHOLDER && c < FIRST_PLACEHOLDER + placeholders;
+	}
+
+	/**
+	 * Checks that, from every state, the characters other than the placeholders either all lead to the same state or to none.
+	 */
+	private static boolean treatsOtherCharactersAlike(Automaton automaton, int placeholders) {
+		long otherCharacters = (Character.MAX_VALUE - Character.MIN_VALUE + 1) - placeholders;
+		Map<State, Long> coverage = new IdentityHashMap<State, Long>();
+		for (State state : automaton.getStates()) {
+			coverage.clear();
+			for (Transition transition : state.getTransitions()) {
+				long covered = transition.getMax() - transition.getMin() + 1;
+				for (int p = 0; p < placeholders; p++) {
+					if (transition.getMin() <= FIRST_PLACEHOLDER + p && FIRST_PLACEHOLDER + p <= transition.getMax())
+						covered--;
+				}
+				Long previous = coverage.get(transition.getDest());
+				coverage.put(transition.getDest(), (previous == null ? 0L : previous) + covered);
+			}
+			for (Long covered : coverage.values()) {
+				if (covered != 0L && covered != otherCharacters)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param automaton A cached automaton
+	 * @param actualChars The characters replacing the placeholders, in order
+	 * @return A new automaton in which the i-th placeholder is replaced by the i-th actual character,
+	 * and any other character by any character which is not an actual one
+	 */
+	private static Automaton relabel(Automaton automaton, char[] actualChars) {
+		int placeholders = actualChars.length;
+		char[] sortedActualChars = Arrays.copyOf(actualChars, placeholders);
+		Arrays.sort(sortedActualChars);
+		// Ranges of the characters which are not actual ones
+		List<char[]> otherRanges = new ArrayList<char[]>(placeholders + 1);
+		int from = Character.MIN_VALUE;
+		for (char actualChar : sortedActualChars) {
+			if (actualChar > from)
+				otherRanges.add(new char[]{(char) from, (char) (actualChar - 1)});
+			from = actualChar + 1;
+		}
+		if (from <= Character.MAX_VALUE)
+			otherRanges.add(new char[]{(char) from, Character.MAX_VALUE});
+
+		Map<State, State> copies = new IdentityHashMap<State, State>();
+		LinkedList<State> toVisit = new LinkedList<State>();
+		State initialState = automaton.getInitialState();
+		copies.put(initialState, new State());
+		toVisit.add(initialState);
+		List<State> otherCharactersDestinations = new ArrayList<State>();
+		while (!toVisit.isEmpty()) {
+			State state = toVisit.removeFirst();
+			State copy = copies.get(state);
+			copy.setAccept(state.isAccept());
+			otherCharactersDestinations.clear();
+			for (Transition transition : state.getTransitions()) {
+				State dest = transition.getDest();
+				State destCopy = copies.get(dest);
+				if (destCopy == null) {
+					destCopy = new State();
+					copies.put(dest, destCopy);
+					toVisit.add(dest);
+				}
+				int covered = transition.getMax() - transition.getMin() + 1;
+				for (int p = 0; p < placeholders; p++) {
+					if (transition.getMin() <= FIRST_PLACEHOLDER + p && FIRST_PLACEHOLDER + p <= transition.getMax()) {
+						copy.addTransition(new Transition(actualChars[p], destCopy));
+						covered--;
+					}
+				}
+				if (covered > 0 && !otherCharactersDestinations.contains(destCopy)) {
+					otherCharactersDestinations.add(destCopy);
+				}
+			}
+			for (State destCopy : otherCharactersDestinations) {
+				for (char[] range : otherRanges) {
+					copy.addTransition(new Transition(range[0], range[1], destCopy));
+				}
+			}
+		}
+
+		Automaton relabelled = new Automaton();
+		relabelled.setInitialState(copies.get(initialState));
+		relabelled.setDeterministic(true);
+		relabelled.reduce();
+		return relabelled;
+	}
+
+	public synchronized int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets the maximum number of cached automata, evicting the least recently used ones if needed
+	 */
+	public synchronized void setMaximumSize(int maximumSize) {
+		if (maximumSize < 1)
+			throw new IllegalArgumentException("The maximum size of the cache must be positive");
+		this.maximumSize = maximumSize;
+		while (entries.size() > maximumSize) {
+			entries.remove(entries.keySet().iterator().next());
+			evictions++;
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "TemplateAutomataCache [size=" + entries.size() + ", maximumSize=" + maximumSize
+				+ ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+}
@@ -7,6 +7,7 @@ import java.util.TreeSet;
 
 import minerful.automaton.AutomatonFactory;
 import minerful.concept.AbstractTaskClass;
+import minerful.concept.constraint.Constraint;
 import minerful.logparser.StringTaskClass;
 import dk.brics.automaton.Automaton;
 
@@ -36,12 +37,37 @@ public class VacuityAwareWildcardAutomaton extends VacuityAwareAutomaton {
 		super.postConstructionInit(automaton);
 	}
 
+	protected VacuityAwareWildcardAutomaton(
+			Constraint constraint,
+			Map<Character, AbstractTaskClass> translationMap) {
+		super(translationMap);
+		this.alphabetWithoutWildcard = new TreeSet<Character>(translationMap.keySet());
+
+		this.translationMap.put(getWildCardChar(), getWildCardClass());
+		Automaton automaton = AutomatonFactory.fromConstraints(
+				Arrays.asList(constraint),
+				translationMap.keySet(),
+				true
+		);
+
+		super.postConstructionInit(automaton);
+	}
+
 	public VacuityAwareWildcardAutomaton(String name, String regularExpression,
 			Map<Character, AbstractTaskClass> translationMap) {
 		this(regularExpression, translationMap);
 		this.name = name;
 	}
 
+	/**
+	 * Builds the automaton from the one of the constraint in the {@link minerful.automaton.TemplateAutomataCache TemplateAutomataCache}
+	 */
+	public VacuityAwareWildcardAutomaton(String name, Constraint constraint,
+			Map<Character, AbstractTaskClass> translationMap) {
+		this(constraint, translationMap);
+		this.name = name;
+	}
+
 	public SortedSet<Character> getAlphabetWithoutWildcard() {
 		return alphabetWithoutWildcard;
 	}
@@ -0,0 +1,269 @@
+package minerful.automaton.encdec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dk.brics.automaton.Transition;
+import minerful.automaton.concept.weight.WeightedAutomaton;
+import minerful.automaton.concept.weight.WeightedState;
+import minerful.automaton.concept.weight.WeightedTransition;
+import minerful.concept.AbstractTaskClass;
+import minerful.logparser.EncodedLogArena;
+
+/**
+ * Replays the variants of an encoded event log on a weighted automaton.
+ * The states and transitions of the automaton are numbered once, at construction, and stored in arrays indexed by state.
+ * Every variant is replayed once and counted as many times as the traces sharing it.
+ * The variants are split in slices replayed in parallel, each on its own counters, which are eventually summed up and
+ * written back into the states and transitions of the automaton.
+ */
+class WeightedAutomatonReplayer {
+	/** Counters of a replay, indexed by state and by transition */
+	private static class ReplayCounters {
+		final long[] stateWeights;
+		final long[] transitionWeights;
+		final long[] stateNonConformityWeights;
+		final long[] transitionNonConformityWeights;
+		/** Illegal events of the non-compliant traces, indexed by state and position of the event in the alphabet of the log */
+		final long[] illegalEventWeights;
+		long compliantTraces = 0L;
+
+		private ReplayCounters(int states, int transitions, int illegalEvents) {
+			this.stateWeights = new long[states];
+			this.transitionWeights = new long[transitions];
+			this.stateNonConformityWeights = new long[states];
+			this.transitionNonConformityWeights = new long[transitions];
+			this.illegalEventWeights = new long[illegalEvents];
+		}
+
+		private void add(ReplayCounters other) {
+			addTo(this.stateWeights, other.stateWeights);
+			addTo(this.transitionWeights, other.transitionWeights);
+			addTo(this.stateNonConformityWeights, other.stateNonConformityWeights);
+			addTo(this.transitionNonConformityWeights, other.transitionNonConformityWeights);
+			addTo(this.illegalEventWeights, other.illegalEventWeights);
+			this.compliantTraces += other.compliantTraces;
+		}
+
+		private static void addTo(long[] sums, long[] addenda) {
+			for (int i = 0; i < sums.length; i++) {
+				sums[i] += addenda[i];
+			}
+		}
+	}
+
+	private final NavigableMap<Character, AbstractTaskClass> translationMap;
+	private final List<WeightedState> states;
+	private final List<WeightedTransition> transitions;
+	/** Characters labelling the outgoing transitions, sorted, per state */
+	private final char[][] labels;
+	/** Numbers of the outgoing transitions, in the order of the labels, per state */
+	private final int[][] outgoingTransitions;
+	/** Target states of the outgoing transitions, in the order of the labels, per state */
+	private final int[][] destinations;
+	private final boolean[] accepting;
+
+	/**
+	 * @param weightedAutomaton A weighted automaton, having one transition per character
+	 * @param translationMap The tasks encoded by the characters of the automaton
+	 */
+	WeightedAutomatonReplayer(WeightedAutomaton weightedAutomaton, NavigableMap<Character, AbstractTaskClass> translationMap) {
+		this.translationMap = translationMap;
+		this.states = new ArrayList<WeightedState>();
+		this.transitions = new ArrayList<WeightedTransition>();
+
+		Map<WeightedState, Integer> statesIndex = new IdentityHashMap<WeightedState, Integer>();
+		LinkedList<WeightedState> toVisit = new LinkedList<WeightedState>();
+		WeightedState initState = (WeightedState) weightedAutomaton.getInitialState();
+		statesIndex.put(initState, 0);
+		this.states.add(initState);
+		toVisit.add(initState);
+		while (!toVisit.isEmpty()) {
+			for (Transition transition : toVisit.removeFirst().getTransitions()) {
+				WeightedState destination = (WeightedState) transition.getDest();
+				if (!statesIndex.containsKey(destination)) {
+					statesIndex.put(destination, this.states.size());
+					this.states.add(destination);
+					toVisit.add(destination);
+				}
+			}
+		}
+
+		this.labels = new char[this.states.size()][];
+		this.outgoingTransitions = new int[this.states.size()][];
+		this.destinations = new int[this.states.size()][];
+		this.accepting = new boolean[this.states.size()];
+		for (int s = 0; s < this.states.size(); s++) {
+			WeightedState state = this.states.get(s);
+			WeightedTransition[] outgoing = state.getTransitions().toArray(new WeightedTransition[0]);
+			Arrays.sort(outgoing, (one, other) -> Character.compare(one.getMin(), other.getMin()));
+			this.labels[s] = new char[outgoing.length];
+			this.outgoingTransitions[s] = new int[outgoing.length];
+			this.destinations[s] = new int[outgoing.length];
+			for (int t = 0; t < outgoing.length; t++) {
+				this.labels[s][t] = outgoing[t].getMin();
+				this.outgoingTransitions[s][t] = this.transitions.size();
+				this.destinations[s][t] = statesIndex.get(outgoing[t].getDest());
+				this.transitions.add(outgoing[t]);
+			}
+			this.accepting[s] = state.isAccept();
+		}
+	}
+
+	/**
+	 * Replays the variants of the log and adds the resulting weights to the states and transitions of the automaton
+	 * @param arena The encoded event log
+	 * @param countNonCompliantTraces Whether the non-compliant traces are replayed to compute the non-conformity weights,
+	 * in which case the illegal events are linked by illegal transitions to a fault pit state
+	 * @param threads Number of parallel threads replaying the variants
+	 * @return The number of compliant traces
+	 */
+	long replay(EncodedLogArena arena, boolean countNonCompliantTraces, int threads) {
+		char[] alphabet = arena.getAlphabet();
+		Map<Character, Integer> alphabetIndex = new HashMap<Character, Integer>(alphabet.length * 2);
+		for (int a = 0; a < alphabet.length; a++) {
+			alphabetIndex.put(alphabet[a], a);
+		}
+
+		int variants = arena.numberOfVariants();
+		int slices = Math.max(1, Math.min(threads, variants));
+		ReplayCounters totals = null;
+		if (slices == 1) {
+			totals = replaySlice(arena, 0, variants, alphabetIndex, countNonCompliantTraces);
+		} else {
+			List<Callable<ReplayCounters>> tasks = new ArrayList<Callable<ReplayCounters>>(slices);
+			for (int slice = 0; slice < slices; slice++) {
+				final int firstVariant = (int) ((long) variants * slice / slices);
+				final int lastVariant = (int) ((long) variants * (slice + 1) / slices);
+				tasks.add(new Callable<ReplayCounters>() {
+					@Override
+					public ReplayCounters call() {
+						return replaySlice(arena, firstVariant, lastVariant, alphabetIndex, countNonCompliantTraces);
+					}
+				});
+			}
+			ExecutorService executor = Executors.newFixedThreadPool(slices);
+			try {
+				for (Future<ReplayCounters> result : executor.invokeAll(tasks)) {
+					if (totals == null) {
+						totals = result.get();
+					} else {
+						totals.add(result.get());
+					}
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				throw new IllegalStateException("Event log not replayed on the weighted automaton", e);
+			} finally {
+				executor.shutdown();
+			}
+		}
+
+		writeBack(totals, alphabet);
+		return totals.compliantTraces;
+	}
+
+	/**
+	 * Replays the variants from the first (included) to the last (excluded) on new counters
+	 */
+	private ReplayCounters replaySlice(EncodedLogArena arena, int firstVariant, int lastVariant,
+			Map<Character, Integer> alphabetIndex, boolean countNonCompliantTraces) {
+		int alphabetSize = arena.getAlphabet().length;
+		ReplayCounters counters = new ReplayCounters(this.states.size(), this.transitions.size(),
+				(countNonCompliantTraces ? this.states.size() * alphabetSize : 0));
+		for (int variant = firstVariant; variant < lastVariant; variant++) {
+			replayVariant(arena, variant, alphabetIndex, countNonCompliantTraces, counters);
+		}
+		return counters;
+	}
+
+	/**
+	 * Replays a variant, counting it as many times as its frequency
+	 */
+	private void replayVariant(EncodedLogArena arena, int variant, Map<Character, Integer> alphabetIndex,
+			boolean countNonCompliantTraces, ReplayCounters counters) {
+		int trace = arena.getVariantRepresentative(variant);
+		long frequency = arena.getVariantFrequency(variant);
+		char[] events = arena.getEvents();
+		int start = arena.getTraceStart(trace), end = start + arena.getTraceLength(trace);
+
+		// Checks whether the trace is accepted
+		int state = 0, event = start;
+		while (event < end && state >= 0) {
+			state = step(state, events[event]);
+			event++;
+		}
+		if (state >= 0 && this.accepting[state]) {
+			counters.compliantTraces += frequency;
+			state = 0;
+			counters.stateWeights[state] += frequency;
+			for (event = start; event < end; event++) {
+				int t = Arrays.binarySearch(this.labels[state], events[event]);
+				counters.transitionWeights[this.outgoingTransitions[state][t]] += frequency;
+				state = this.destinations[state][t];
+				counters.stateWeights[state] += frequency;
+			}
+		} else if (countNonCompliantTraces) {
+			state = 0;
+			counters.stateNonConformityWeights[state] += frequency;
+			for (event = start; event < end; event++) {
+				int t = Arrays.binarySearch(this.labels[state], events[event]);
+				if (t < 0) {
+					counters.illegalEventWeights[state * alphabetIndex.size() + alphabetIndex.get(events[event])] += frequency;
+					break;
+				}
+				counters.transitionNonConformityWeights[this.outgoingTransitions[state][t]] += frequency;
+				state = this.destinations[state][t];
+				counters.stateNonConformityWeights[state] += frequency;
+			}
+		}
+	}
+
+	/**
+	 * @return The state reached from the given one by the given event, or -1 if the event is not allowed
+	 */
+	private int step(int state, char event) {
+		int t = Arrays.binarySearch(this.labels[state], event);
+		return (t < 0 ? -1 : this.destinations[state][t]);
+	}
+
+	private void writeBack(ReplayCounters totals, char[] alphabet) {
+		for (int s = 0; s < this.states.size(); s++) {
+			WeightedState state = this.states.get(s);
+			state.addWeight((int) totals.stateWeights[s]);
+			state.setNonConformityWeight(state.getNonConformityWeight() + (int) totals.stateNonConformityWeights[s]);
+		}
+		for (int t = 0; t < this.transitions.size(); t++) {
+			WeightedTransition transition = this.transitions.get(t);
+			transition.addWeight((int) totals.transitionWeights[t]);
+			transition.setNonConformityWeight(transition.getNonConformityWeight() + (int) totals.transitionNonConformityWeights[t]);
+		}
+
+		WeightedState faultPitState = null;
+		for (int i = 0; i < totals.illegalEventWeights.length; i++) {
+			if (totals.illegalEventWeights[i] > 0) {
+				if (faultPitState == null) {
+					faultPitState = new WeightedState();
+					faultPitState.setIllegal(true);
+				}
+				char illegalEvent = alphabet[i % alphabet.length];
+				WeightedTransition illegalTransition = new WeightedTransition(illegalEvent, faultPitState, this.translationMap.get(illegalEvent).getName());
+				illegalTransition.setIllegal(true);
+				illegalTransition.setNonConformityWeight((int) totals.illegalEventWeights[i]);
+				// Connect the transition to the state where the illegal event occurred
+				this.states.get(i / alphabet.length).addTransition(illegalTransition);
+				faultPitState.setNonConformityWeight(faultPitState.getNonConformityWeight() + (int) totals.illegalEventWeights[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package minerful.benchmark;
+
+/**
+ * A benchmark of a hot path of MINERful or Janus, run by the {@link MinerFulBenchmarkRunner} on a {@link SyntheticLogFixture}.
+ * Only {@link #runInvocation()} is timed: the state it needs is prepared by {@link #setUp(SyntheticLogFixture)} once per fixture,
+ * and by {@link #prepareInvocation()} before every invocation, if an invocation consumes it.
+ */
+public abstract class MinerFulBenchmark {
+	/**
+	 * @return the name of the benchmark, as in the results
+	 */
+	public abstract String getName();
+
+	/**
+	 * @return <code>true</code> if the benchmark checks the model of the fixture, hence it is run for every number of constraints
+	 */
+	public boolean dependsOnConstraints() {
+		return false;
+	}
+
+	/**
+	 * Prepares the state shared by all the invocations on the given fixture
+	 */
+	public void setUp(SyntheticLogFixture fixture) throws Exception {
+	}
+
+	/**
+	 * Prepares the state consumed by the next invocation (not timed)
+	 */
+	public void prepareInvocation() throws Exception {
+	}
+
+	/**
+	 * Runs the benchmarked code once (timed)
+	 * @return the result of the benchmarked code, so that it cannot be optimised away
+	 */
+	public abstract Object runInvocation() throws Exception;
+}
@@ -0,0 +1,149 @@
+package minerful.benchmark;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import minerful.benchmark.cases.ConflictAndRedundancyBenchmark;
+import minerful.benchmark.cases.DenseKbBuildingBenchmark;
+import minerful.benchmark.cases.JanusEventsEvaluationBenchmark;
+import minerful.benchmark.cases.JanusTraceMeasuresBenchmark;
+import minerful.benchmark.cases.KbBuildingBenchmark;
+import minerful.benchmark.cases.KbQueryingBenchmark;
+import minerful.benchmark.cases.VariantPermutationsBenchmark;
+import minerful.benchmark.params.BenchmarkCmdParameters;
+import minerful.benchmark.params.BenchmarkCmdParameters.Benchmark;
+import minerful.utils.MessagePrinter;
+
+/**
+ * Runs the {@link MinerFulBenchmark}s over synthetic logs of all the combinations of alphabet sizes and trace lengths
+ * (and numbers of constraints, for the benchmarks checking a model).
+ * Every benchmark is run for some untimed warm-up iterations, then for the timed ones.
+ * The results are printed and, if requested, saved as CSV.
+ */
+public class MinerFulBenchmarkRunner {
+	public static MessagePrinter logger = MessagePrinter.getInstance(MinerFulBenchmarkRunner.class);
+
+	public static final String CSV_SEPARATOR = ";";
+	public static final String CSV_HEADER = "benchmark;alphabet;minLen;maxLen;traces;constraints;iterations;mean_ms;stdev_ms;min_ms;max_ms";
+
+	/** Keeps the results of the invocations reachable, so that the benchmarked code cannot be optimised away */
+	private volatile Object sink;
+
+	private final BenchmarkCmdParameters benchParams;
+	private final List<String> csvRows;
+
+	public MinerFulBenchmarkRunner(BenchmarkCmdParameters benchParams) {
+		this.benchParams = benchParams;
+		this.csvRows = new ArrayList<String>();
+	}
+
+	public static MinerFulBenchmark makeBenchmark(Benchmark benchmark, BenchmarkCmdParameters benchParams) {
+		switch (benchmark) {
+		case kb:
+			return new KbBuildingBenchmark();
+		case kbDense:
+			return new DenseKbBuildingBenchmark();
+		case query:
+			return new KbQueryingBenchmark();
+		case janusRunLog:
+			return new JanusEventsEvaluationBenchmark(false);
+		case janusRunLogLite:
+			return new JanusEventsEvaluationBenchmark(true);
+		case janusTraceMeasures:
+			return new JanusTraceMeasuresBenchmark();
+		case variantPermutations:
+			return new VariantPermutationsBenchmark(benchParams.permutations);
+		case conflictRedundancy:
+			return new ConflictAndRedundancyBenchmark();
+		default:
+			throw new IllegalArgumentException("Unknown benchmark: " + benchmark);
+		}
+	}
+
+	/**
+	 * Runs all the requested benchmarks
+	 * @return the results, as CSV rows (header excluded)
+	 */
+	public List<String> run() throws Exception {
+		List<MinerFulBenchmark> benchmarks = new ArrayList<MinerFulBenchmark>(benchParams.benchmarks.length);
+		for (Benchmark benchmark : benchParams.benchmarks) {
+			benchmarks.add(makeBenchmark(benchmark, benchParams));
+		}
+
+		for (Integer alphabetSize : benchParams.alphabetSizes) {
+			for (Integer maxTraceLength : benchParams.maxTraceLengths) {
+				long from = System.currentTimeMillis();
+				SyntheticLogFixture fixture = new SyntheticLogFixture(alphabetSize, benchParams.minTraceLength, maxTraceLength, benchParams.traces);
+				logger.info("Synthetic logs generated in " + (System.currentTimeMillis() - from) + " msec: " + fixture);
+
+				for (MinerFulBenchmark benchmark : benchmarks) {
+					if (benchmark.dependsOnConstraints()) {
+						for (Integer constraintsNumber : benchParams.constraintsNumbers) {
+							fixture.setConstraintsNumber(constraintsNumber);
+							measure(benchmark, fixture, fixture.getConstraintsNumber());
+						}
+					} else {
+						measure(benchmark, fixture, 0);
+					}
+				}
+			}
+		}
+		return csvRows;
+	}
+
+	private void measure(MinerFulBenchmark benchmark, SyntheticLogFixture fixture, int constraintsNumber) throws Exception {
+		benchmark.setUp(fixture);
+
+		for (int i = 0; i < benchParams.warmupIterations; i++) {
+			benchmark.prepareInvocation();
+			sink = benchmark.runInvocation();
+		}
+
+		double[] times = new double[benchParams.measurementIterations];
+		for (int i = 0; i < times.length; i++) {
+			benchmark.prepareInvocation();
+			long from = System.nanoTime();
+			sink = benchmark.runInvocation();
+			times[i] = (System.nanoTime() - from) / 1000000.0;
+		}
+
+		double mean = 0, min = Double.MAX_VALUE, max = 0;
+		for (double time : times) {
+			mean += time;
+			min = Math.min(min, time);
+			max = Math.max(max, time);
+		}
+		mean /= times.length;
+		double variance = 0;
+		for (double time : times) {
+			variance += (time - mean) * (time - mean);
+		}
+		double stdev = times.length > 1 ? Math.sqrt(variance / (times.length - 1)) : 0;
+
+		logger.info(String.format(Locale.ENGLISH,
+				"%s [alphabet=%d, maxLen=%d, constraints=%d]: %.3f ms (stdev %.3f, min %.3f, max %.3f) over %d iterations",
+				benchmark.getName(), fixture.alphabetSize, fixture.maxTraceLength, constraintsNumber, mean, stdev, min, max, times.length));
+		csvRows.add(String.format(Locale.ENGLISH, "%s;%d;%d;%d;%d;%d;%d;%.3f;%.3f;%.3f;%.3f",
+				benchmark.getName(), fixture.alphabetSize, fixture.minTraceLength, fixture.maxTraceLength, fixture.tracesNumber,
+				constraintsNumber, times.length, mean, stdev, min, max));
+		sink = null;
+	}
+
+	/**
+	 * Saves the results in the CSV file of the parameters, if any
+	 */
+	public void saveResults() throws FileNotFoundException {
+		if (benchParams.outputCsvFile == null)
+			return;
+		PrintWriter writer = new PrintWriter(benchParams.outputCsvFile);
+		writer.println(CSV_HEADER);
+		for (String row : csvRows) {
+			writer.println(row);
+		}
+		writer.close();
+		logger.info("Benchmark results saved in " + benchParams.outputCsvFile.getAbsolutePath());
+	}
+}
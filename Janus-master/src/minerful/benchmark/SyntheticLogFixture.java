@@ -0,0 +1,137 @@
+package minerful.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import minerful.concept.ProcessModel;
+import minerful.concept.TaskChar;
+import minerful.concept.TaskCharArchive;
+import minerful.concept.constraint.Constraint;
+import minerful.concept.constraint.ConstraintsBag;
+import minerful.concept.constraint.relation.Response;
+import minerful.logmaker.MinerFulLogMaker;
+import minerful.logmaker.params.LogMakerParameters;
+import minerful.logparser.LogEventClassifier.ClassificationType;
+import minerful.logparser.LogParser;
+import minerful.logparser.StringLogParser;
+import minerful.utils.MessagePrinter;
+
+/**
+ * Synthetic input of the benchmarks: two strings logs over the same alphabet, generated with the {@link MinerFulLogMaker},
+ * and a model with a given number of constraints over that alphabet, to be checked by the Janus benchmarks.
+ * The first log comes from an unconstrained model, the second one from a model with a Response constraint,
+ * so that the variant analysis finds some differences.
+ */
+public class SyntheticLogFixture {
+	public static MessagePrinter logger = MessagePrinter.getInstance(SyntheticLogFixture.class);
+
+	/** Characters of the tasks of the synthetic logs, in order of use */
+	public static final String TASKS_CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+	/** Seed of the choice of the constraints of the model, so that the same number of constraints always means the same model */
+	public static final long CONSTRAINTS_SELECTION_SEED = 0L;
+
+	public final int alphabetSize;
+	public final int minTraceLength;
+	public final int maxTraceLength;
+	public final int tracesNumber;
+
+	private final LogParser logParser;
+	private final LogParser secondLogParser;
+	private final TaskCharArchive taskCharArchive;
+	private ProcessModel processModel;
+	private int constraintsNumber;
+
+	public SyntheticLogFixture(int alphabetSize, int minTraceLength, int maxTraceLength, int tracesNumber) {
+		if (alphabetSize < 2 || alphabetSize > TASKS_CHARACTERS.length()) {
+			throw new IllegalArgumentException("The alphabet size must be between 2 and " + TASKS_CHARACTERS.length());
+		}
+		this.alphabetSize = alphabetSize;
+		this.minTraceLength = minTraceLength;
+		this.maxTraceLength = maxTraceLength;
+		this.tracesNumber = tracesNumber;
+
+		TaskChar[] tasks = new TaskChar[alphabetSize];
+		for (int i = 0; i < alphabetSize; i++) {
+			tasks[i] = new TaskChar(TASKS_CHARACTERS.charAt(i));
+		}
+		TaskCharArchive generativeArchive = new TaskCharArchive(tasks);
+		ConstraintsBag freeBag = new ConstraintsBag(generativeArchive.getTaskChars());
+		ConstraintsBag responseBag = new ConstraintsBag(generativeArchive.getTaskChars());
+		responseBag.add(new Response(tasks[0], tasks[1]));
+
+		String[] firstLog = makeStringsLog(new ProcessModel(generativeArchive, freeBag));
+		String[] secondLog = makeStringsLog(new ProcessModel(generativeArchive, responseBag));
+		String[] bothLogs = new String[firstLog.length + secondLog.length];
+		System.arraycopy(firstLog, 0, bothLogs, 0, firstLog.length);
+		System.arraycopy(secondLog, 0, bothLogs, firstLog.length, secondLog.length);
+
+		// Both logs are read at once, so that they share the encoding of the tasks
+		LogParser bothLogsParser = new StringLogParser(bothLogs, ClassificationType.NAME);
+		this.logParser = bothLogsParser.takeASlice(0, firstLog.length);
+		this.secondLogParser = bothLogsParser.takeASlice(firstLog.length, secondLog.length);
+		this.taskCharArchive = bothLogsParser.getTaskCharArchive();
+	}
+
+	private String[] makeStringsLog(ProcessModel generativeModel) {
+		LogMakerParameters logMakParams = new LogMakerParameters(minTraceLength, maxTraceLength, (long) tracesNumber);
+		MinerFulLogMaker logMak = new MinerFulLogMaker(logMakParams);
+		logMak.createLog(generativeModel);
+		return logMak.getCleanStringsLog();
+	}
+
+	/**
+	 * Sets the number of constraints of the {@link #getProcessModel() model}, picking them at random (with a fixed seed)
+	 * among the ones that can be checked by Janus. The automata of the model are initialised.
+	 * @param constraintsNumber number of constraints
+	 */
+	public void setConstraintsNumber(int constraintsNumber) {
+		ProcessModel allConstraintsModel = ProcessModel.generateNonEvaluatedBinaryModel(taskCharArchive);
+		List<Constraint> candidates = new ArrayList<Constraint>(allConstraintsModel.bag.getAllConstraints());
+		Collections.shuffle(candidates, new Random(CONSTRAINTS_SELECTION_SEED));
+
+		List<Constraint> selected = new ArrayList<Constraint>(constraintsNumber);
+		for (Constraint candidate : candidates) {
+			if (selected.size() == constraintsNumber)
+				break;
+			if (candidate.buildParametricSeparatedAutomaton() != null)
+				selected.add(candidate);
+		}
+		if (selected.size() < constraintsNumber) {
+			logger.warn("Only " + selected.size() + " constraints available over " + alphabetSize + " tasks (" + constraintsNumber + " requested)");
+		}
+		this.constraintsNumber = selected.size();
+		this.processModel = new ProcessModel(taskCharArchive, new ConstraintsBag(taskCharArchive.getTaskChars(), selected));
+	}
+
+	/** @return the first synthetic log */
+	public LogParser getLogParser() {
+		return logParser;
+	}
+
+	/** @return the second synthetic log, over the same tasks as the first one */
+	public LogParser getSecondLogParser() {
+		return secondLogParser;
+	}
+
+	public TaskCharArchive getTaskCharArchive() {
+		return taskCharArchive;
+	}
+
+	/** @return the model set by {@link #setConstraintsNumber(int)}, with its automata already built */
+	public ProcessModel getProcessModel() {
+		return processModel;
+	}
+
+	public int getConstraintsNumber() {
+		return constraintsNumber;
+	}
+
+	@Override
+	public String toString() {
+		return "SyntheticLogFixture [alphabetSize=" + alphabetSize + ", minTraceLength=" + minTraceLength
+				+ ", maxTraceLength=" + maxTraceLength + ", tracesNumber=" + tracesNumber
+				+ ", constraintsNumber=" + constraintsNumber + "]";
+	}
+}
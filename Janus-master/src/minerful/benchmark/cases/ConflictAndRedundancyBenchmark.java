@@ -0,0 +1,47 @@
+package minerful.benchmark.cases;
+
+import minerful.MinerFulMinerStarter;
+import minerful.benchmark.MinerFulBenchmark;
+import minerful.benchmark.SyntheticLogFixture;
+import minerful.concept.ProcessModel;
+import minerful.miner.params.MinerFulCmdParameters;
+import minerful.postprocessing.params.PostProcessingCmdParameters;
+import minerful.postprocessing.params.PostProcessingCmdParameters.PostProcessingAnalysisType;
+import minerful.postprocessing.pruning.ConflictAndRedundancyResolver;
+
+/**
+ * Conflicts and redundancies resolution with {@link ConflictAndRedundancyResolver#resolveConflictsOrRedundancies()}
+ * on the model discovered from the first log of the fixture, pruned by thresholds and subsumption hierarchy.
+ * As the resolution marks the constraints of the model, the model is discovered again before every invocation.
+ */
+public class ConflictAndRedundancyBenchmark extends MinerFulBenchmark {
+	private SyntheticLogFixture fixture;
+	private MinerFulCmdParameters minerFulParams = new MinerFulCmdParameters();
+	private PostProcessingCmdParameters hierarchyPruningParams;
+	private PostProcessingCmdParameters conflictAndRedundancyParams;
+	private ProcessModel discoveredModel;
+
+	@Override
+	public String getName() {
+		return "conflictRedundancy";
+	}
+
+	@Override
+	public void setUp(SyntheticLogFixture fixture) {
+		this.fixture = fixture;
+		this.hierarchyPruningParams = new PostProcessingCmdParameters();
+		this.hierarchyPruningParams.postProcessingAnalysisType = PostProcessingAnalysisType.HIERARCHY;
+		this.conflictAndRedundancyParams = new PostProcessingCmdParameters();
+		this.conflictAndRedundancyParams.postProcessingAnalysisType = PostProcessingAnalysisType.HIERARCHYCONFLICTREDUNDANCY;
+	}
+
+	@Override
+	public void prepareInvocation() {
+		this.discoveredModel = new MinerFulMinerStarter().mine(fixture.getLogParser(), minerFulParams, hierarchyPruningParams, fixture.getTaskCharArchive());
+	}
+
+	@Override
+	public Object runInvocation() {
+		return new ConflictAndRedundancyResolver(discoveredModel, conflictAndRedundancyParams).resolveConflictsOrRedundancies();
+	}
+}
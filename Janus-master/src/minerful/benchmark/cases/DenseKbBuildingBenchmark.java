@@ -0,0 +1,28 @@
+package minerful.benchmark.cases;
+
+import minerful.benchmark.MinerFulBenchmark;
+import minerful.benchmark.SyntheticLogFixture;
+import minerful.logparser.LogParser;
+import minerful.miner.stats.DenseOccurrencesStatsBuilder;
+
+/**
+ * Knowledge base construction with {@link DenseOccurrencesStatsBuilder#checkThisOut(LogParser)}
+ */
+public class DenseKbBuildingBenchmark extends MinerFulBenchmark {
+	private SyntheticLogFixture fixture;
+
+	@Override
+	public String getName() {
+		return "kbDense";
+	}
+
+	@Override
+	public void setUp(SyntheticLogFixture fixture) {
+		this.fixture = fixture;
+	}
+
+	@Override
+	public Object runInvocation() {
+		return new DenseOccurrencesStatsBuilder(fixture.getTaskCharArchive()).checkThisOut(fixture.getLogParser());
+	}
+}
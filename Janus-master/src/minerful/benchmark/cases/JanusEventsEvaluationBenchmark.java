@@ -0,0 +1,47 @@
+package minerful.benchmark.cases;
+
+import minerful.benchmark.MinerFulBenchmark;
+import minerful.benchmark.SyntheticLogFixture;
+import minerful.reactive.measurements.ReactiveMeasurementsOfflineQueryingCore;
+import minerful.reactive.params.JanusMeasurementsCmdParameters;
+import minerful.reactive.params.JanusPrintParameters;
+
+/**
+ * Events evaluation of the model of the fixture over its first log,
+ * with {@link ReactiveMeasurementsOfflineQueryingCore#runLog} or, in the lite version, {@link ReactiveMeasurementsOfflineQueryingCore#runLogLite}
+ */
+public class JanusEventsEvaluationBenchmark extends MinerFulBenchmark {
+	private final boolean lite;
+	private SyntheticLogFixture fixture;
+	private JanusMeasurementsCmdParameters janusParams;
+	private JanusPrintParameters janusViewParams;
+
+	public JanusEventsEvaluationBenchmark(boolean lite) {
+		this.lite = lite;
+	}
+
+	@Override
+	public String getName() {
+		return lite ? "janusRunLogLite" : "janusRunLog";
+	}
+
+	@Override
+	public boolean dependsOnConstraints() {
+		return true;
+	}
+
+	@Override
+	public void setUp(SyntheticLogFixture fixture) {
+		this.fixture = fixture;
+		this.janusParams = new JanusMeasurementsCmdParameters();
+		this.janusParams.liteFlag = lite;
+		this.janusViewParams = new JanusPrintParameters();
+		this.janusViewParams.suppressMeasuresStatusPrint = true;
+	}
+
+	@Override
+	public Object runInvocation() {
+		return new ReactiveMeasurementsOfflineQueryingCore(0, fixture.getLogParser(), janusParams, janusViewParams, null,
+				fixture.getTaskCharArchive(), null, fixture.getProcessModel().bag).check();
+	}
+}
@@ -0,0 +1,40 @@
+package minerful.benchmark.cases;
+
+import minerful.benchmark.MinerFulBenchmark;
+import minerful.benchmark.SyntheticLogFixture;
+import minerful.reactive.measurements.MegaMatrixMonster;
+import minerful.reactive.measurements.ReactiveMeasurementsOfflineQueryingCore;
+import minerful.reactive.params.JanusMeasurementsCmdParameters;
+import minerful.reactive.params.JanusPrintParameters;
+
+/**
+ * Computation of all the trace measures with {@link MegaMatrixMonster#computeAllTraceMeasures(boolean, double)},
+ * on the events evaluation of the model of the fixture over its first log
+ */
+public class JanusTraceMeasuresBenchmark extends MinerFulBenchmark {
+	private MegaMatrixMonster megaMatrixMonster;
+
+	@Override
+	public String getName() {
+		return "janusTraceMeasures";
+	}
+
+	@Override
+	public boolean dependsOnConstraints() {
+		return true;
+	}
+
+	@Override
+	public void setUp(SyntheticLogFixture fixture) {
+		JanusPrintParameters janusViewParams = new JanusPrintParameters();
+		janusViewParams.suppressMeasuresStatusPrint = true;
+		this.megaMatrixMonster = new ReactiveMeasurementsOfflineQueryingCore(0, fixture.getLogParser(), new JanusMeasurementsCmdParameters(), janusViewParams, null,
+				fixture.getTaskCharArchive(), null, fixture.getProcessModel().bag).check();
+	}
+
+	@Override
+	public Object runInvocation() {
+		megaMatrixMonster.computeAllTraceMeasures(false, 0);
+		return megaMatrixMonster.getTraceMeasuresMatrix();
+	}
+}
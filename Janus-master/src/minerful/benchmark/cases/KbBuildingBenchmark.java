@@ -0,0 +1,28 @@
+package minerful.benchmark.cases;
+
+import minerful.benchmark.MinerFulBenchmark;
+import minerful.benchmark.SyntheticLogFixture;
+import minerful.logparser.LogParser;
+import minerful.miner.stats.OccurrencesStatsBuilder;
+
+/**
+ * Knowledge base construction with {@link OccurrencesStatsBuilder#checkThisOut(LogParser)}
+ */
+public class KbBuildingBenchmark extends MinerFulBenchmark {
+	private SyntheticLogFixture fixture;
+
+	@Override
+	public String getName() {
+		return "kb";
+	}
+
+	@Override
+	public void setUp(SyntheticLogFixture fixture) {
+		this.fixture = fixture;
+	}
+
+	@Override
+	public Object runInvocation() {
+		return new OccurrencesStatsBuilder(fixture.getTaskCharArchive(), null).checkThisOut(fixture.getLogParser());
+	}
+}
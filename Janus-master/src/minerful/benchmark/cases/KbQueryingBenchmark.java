@@ -0,0 +1,36 @@
+package minerful.benchmark.cases;
+
+import minerful.benchmark.MinerFulBenchmark;
+import minerful.benchmark.SyntheticLogFixture;
+import minerful.miner.core.MinerFulQueryingCore;
+import minerful.miner.params.MinerFulCmdParameters;
+import minerful.miner.stats.DenseOccurrencesStatsBuilder;
+import minerful.miner.stats.GlobalStatsTable;
+import minerful.postprocessing.params.PostProcessingCmdParameters;
+
+/**
+ * Knowledge base querying with {@link MinerFulQueryingCore#discover()}, on the knowledge base of the first log of the fixture
+ */
+public class KbQueryingBenchmark extends MinerFulBenchmark {
+	private SyntheticLogFixture fixture;
+	private GlobalStatsTable statsTable;
+	private MinerFulCmdParameters minerFulParams = new MinerFulCmdParameters();
+	private PostProcessingCmdParameters postParams = new PostProcessingCmdParameters();
+
+	@Override
+	public String getName() {
+		return "query";
+	}
+
+	@Override
+	public void setUp(SyntheticLogFixture fixture) {
+		this.fixture = fixture;
+		this.statsTable = new DenseOccurrencesStatsBuilder(fixture.getTaskCharArchive()).checkThisOut(fixture.getLogParser());
+	}
+
+	@Override
+	public Object runInvocation() {
+		return new MinerFulQueryingCore(0, fixture.getLogParser(), minerFulParams, postParams,
+				fixture.getTaskCharArchive(), statsTable).discover();
+	}
+}
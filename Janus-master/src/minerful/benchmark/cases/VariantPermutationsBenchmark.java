@@ -0,0 +1,49 @@
+package minerful.benchmark.cases;
+
+import minerful.benchmark.MinerFulBenchmark;
+import minerful.benchmark.SyntheticLogFixture;
+import minerful.reactive.params.JanusPrintParameters;
+import minerful.reactive.params.JanusVariantCmdParameters;
+import minerful.reactive.variant.ReactiveVariantAnalysisCore;
+
+/**
+ * Variant analysis with {@link ReactiveVariantAnalysisCore#check()} of the two logs of the fixture, with its model for both of them.
+ * Most of the time goes in the permutation test.
+ */
+public class VariantPermutationsBenchmark extends MinerFulBenchmark {
+	private final int permutations;
+	private SyntheticLogFixture fixture;
+	private JanusVariantCmdParameters janusVariantParams;
+	private JanusPrintParameters janusViewParams;
+
+	public VariantPermutationsBenchmark(int permutations) {
+		this.permutations = permutations;
+	}
+
+	@Override
+	public String getName() {
+		return "variantPermutations";
+	}
+
+	@Override
+	public boolean dependsOnConstraints() {
+		return true;
+	}
+
+	@Override
+	public void setUp(SyntheticLogFixture fixture) {
+		this.fixture = fixture;
+		this.janusVariantParams = new JanusVariantCmdParameters();
+		this.janusVariantParams.nPermutations = permutations;
+		this.janusVariantParams.oKeep = true;
+		this.janusVariantParams.pValueAdjustmentMethod = JanusVariantCmdParameters.PValueAdjustmentMethod.none;
+		this.janusViewParams = new JanusPrintParameters();
+		this.janusViewParams.suppressPermutationStatusPrint = true;
+	}
+
+	@Override
+	public Object runInvocation() {
+		return new ReactiveVariantAnalysisCore(fixture.getLogParser(), fixture.getProcessModel(),
+				fixture.getSecondLogParser(), fixture.getProcessModel(), janusVariantParams, janusViewParams).check();
+	}
+}
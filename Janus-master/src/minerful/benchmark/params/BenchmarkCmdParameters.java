@@ -0,0 +1,239 @@
+package minerful.benchmark.params;
+
+import java.io.File;
+
+import minerful.params.ParamsManager;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+public class BenchmarkCmdParameters extends ParamsManager {
+	public static enum Benchmark {
+		/** Knowledge base construction with {@link minerful.miner.stats.OccurrencesStatsBuilder#checkThisOut(minerful.logparser.LogParser)} */
+		kb,
+		/** Knowledge base construction with {@link minerful.miner.stats.DenseOccurrencesStatsBuilder#checkThisOut(minerful.logparser.LogParser)} */
+		kbDense,
+		/** Knowledge base querying with {@link minerful.miner.core.MinerFulQueryingCore#discover()} */
+		query,
+		/** Events evaluation with {@link minerful.reactive.measurements.ReactiveMeasurementsOfflineQueryingCore#runLog} */
+		janusRunLog,
+		/** Events evaluation with {@link minerful.reactive.measurements.ReactiveMeasurementsOfflineQueryingCore#runLogLite} */
+		janusRunLogLite,
+		/** Trace measures with {@link minerful.reactive.measurements.MegaMatrixMonster#computeAllTraceMeasures(boolean, double)} */
+		janusTraceMeasures,
+		/** Permutation test of {@link minerful.reactive.variant.ReactiveVariantAnalysisCore#check()} */
+		variantPermutations,
+		/** Conflicts and redundancies resolution with {@link minerful.postprocessing.pruning.ConflictAndRedundancyResolver} */
+		conflictRedundancy;
+	}
+
+	public static final String BENCHMARKS_PARAM_NAME = "bList";
+	public static final String ALPHABET_SIZES_PARAM_NAME = "bAlph";
+	public static final String MIN_TRACE_LENGTH_PARAM_NAME = "bMinLen";
+	public static final String MAX_TRACE_LENGTHS_PARAM_NAME = "bMaxLen";
+	public static final String TRACES_PARAM_NAME = "bTraces";
+	public static final String CONSTRAINTS_NUMBERS_PARAM_NAME = "bCons";
+	public static final String PERMUTATIONS_PARAM_NAME = "bPerm";
+	public static final String WARMUP_ITERATIONS_PARAM_NAME = "bWarm";
+	public static final String MEASUREMENT_ITERATIONS_PARAM_NAME = "bIter";
+	public static final String OUTPUT_CSV_PARAM_NAME = "oBenchCSV";
+
+	public static final Benchmark[] DEFAULT_BENCHMARKS = Benchmark.values();
+	public static final Integer[] DEFAULT_ALPHABET_SIZES = { 5, 10, 20 };
+	public static final Integer DEFAULT_MIN_TRACE_LENGTH = 1;
+	public static final Integer[] DEFAULT_MAX_TRACE_LENGTHS = { 10, 50 };
+	public static final Integer DEFAULT_TRACES = 500;
+	public static final Integer[] DEFAULT_CONSTRAINTS_NUMBERS = { 50, 200 };
+	public static final Integer DEFAULT_PERMUTATIONS = 100;
+	public static final Integer DEFAULT_WARMUP_ITERATIONS = 3;
+	public static final Integer DEFAULT_MEASUREMENT_ITERATIONS = 5;
+
+	/** Benchmarks to run */
+	public Benchmark[] benchmarks;
+	/** Sizes of the alphabet of the synthetic logs */
+	public Integer[] alphabetSizes;
+	/** Minimum length of the traces of the synthetic logs */
+	public Integer minTraceLength;
+	/** Maximum lengths of the traces of the synthetic logs */
+	public Integer[] maxTraceLengths;
+	/** Number of traces of each synthetic log */
+	public Integer traces;
+	/** Numbers of constraints of the checked models */
+	public Integer[] constraintsNumbers;
+	/** Number of permutations of the variant analysis benchmark */
+	public Integer permutations;
+	/** Number of untimed iterations before the measurements */
+	public Integer warmupIterations;
+	/** Number of timed iterations */
+	public Integer measurementIterations;
+	/** File in which the results are saved as CSV, or <code>null</code> */
+	public File outputCsvFile;
+
+	public BenchmarkCmdParameters() {
+		super();
+		this.benchmarks = DEFAULT_BENCHMARKS;
+		this.alphabetSizes = DEFAULT_ALPHABET_SIZES;
+		this.minTraceLength = DEFAULT_MIN_TRACE_LENGTH;
+		this.maxTraceLengths = DEFAULT_MAX_TRACE_LENGTHS;
+		this.traces = DEFAULT_TRACES;
+		this.constraintsNumbers = DEFAULT_CONSTRAINTS_NUMBERS;
+		this.permutations = DEFAULT_PERMUTATIONS;
+		this.warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+		this.measurementIterations = DEFAULT_MEASUREMENT_ITERATIONS;
+		this.outputCsvFile = null;
+	}
+
+	public BenchmarkCmdParameters(Options options, String[] args) {
+		this();
+		// parse the command line arguments
+		this.parseAndSetup(options, args);
+	}
+
+	public BenchmarkCmdParameters(String[] args) {
+		this();
+		// parse the command line arguments
+		this.parseAndSetup(new Options(), args);
+	}
+
+	@Override
+	protected void setup(CommandLine line) {
+		if (line.hasOption(BENCHMARKS_PARAM_NAME)) {
+			String[] tokens = tokenise(line.getOptionValue(BENCHMARKS_PARAM_NAME));
+			this.benchmarks = new Benchmark[tokens.length];
+			for (int i = 0; i < tokens.length; i++) {
+				this.benchmarks[i] = Benchmark.valueOf(tokens[i]);
+			}
+		}
+		this.alphabetSizes = parseIntegers(line, ALPHABET_SIZES_PARAM_NAME, this.alphabetSizes);
+		this.minTraceLength = Integer.valueOf(line.getOptionValue(MIN_TRACE_LENGTH_PARAM_NAME, this.minTraceLength.toString()));
+		this.maxTraceLengths = parseIntegers(line, MAX_TRACE_LENGTHS_PARAM_NAME, this.maxTraceLengths);
+		this.traces = Integer.valueOf(line.getOptionValue(TRACES_PARAM_NAME, this.traces.toString()));
+		this.constraintsNumbers = parseIntegers(line, CONSTRAINTS_NUMBERS_PARAM_NAME, this.constraintsNumbers);
+		this.permutations = Integer.valueOf(line.getOptionValue(PERMUTATIONS_PARAM_NAME, this.permutations.toString()));
+		this.warmupIterations = Integer.valueOf(line.getOptionValue(WARMUP_ITERATIONS_PARAM_NAME, this.warmupIterations.toString()));
+		this.measurementIterations = Integer.valueOf(line.getOptionValue(MEASUREMENT_ITERATIONS_PARAM_NAME, this.measurementIterations.toString()));
+		this.outputCsvFile = openOutputFile(line, OUTPUT_CSV_PARAM_NAME);
+
+		if (this.measurementIterations < 1) {
+			throw new IllegalArgumentException("Invalid value for " + MEASUREMENT_ITERATIONS_PARAM_NAME + " option (must be greater than 0)");
+		}
+		if (this.minTraceLength < 1) {
+			throw new IllegalArgumentException("Invalid value for " + MIN_TRACE_LENGTH_PARAM_NAME + " option (must be greater than 0)");
+		}
+	}
+
+	private static Integer[] parseIntegers(CommandLine line, String paramName, Integer[] defaultValues) {
+		if (!line.hasOption(paramName))
+			return defaultValues;
+		String[] tokens = tokenise(line.getOptionValue(paramName));
+		Integer[] values = new Integer[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			values[i] = Integer.valueOf(tokens[i].trim());
+		}
+		return values;
+	}
+
+	@Override
+	public Options addParseableOptions(Options options) {
+		Options myOptions = listParseableOptions();
+		for (Object myOpt : myOptions.getOptions())
+			options.addOption((Option) myOpt);
+		return options;
+	}
+
+	@Override
+	public Options listParseableOptions() {
+		return parseableOptions();
+	}
+
+	@SuppressWarnings("static-access")
+	public static Options parseableOptions() {
+		Options options = new Options();
+		options.addOption(
+				Option.builder(BENCHMARKS_PARAM_NAME)
+						.hasArg().argName("names")
+						.longOpt("benchmarks")
+						.desc("benchmarks to run, separated by \"" + ARRAY_TOKENISER_SEPARATOR + "\" " + printValues((Object[]) Benchmark.values())
+								+ printDefault("all"))
+						.type(String.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(ALPHABET_SIZES_PARAM_NAME)
+						.hasArg().argName("numbers")
+						.longOpt("benchmark-alphabet-sizes")
+						.desc("sizes of the alphabet of the synthetic logs, separated by \"" + ARRAY_TOKENISER_SEPARATOR + "\""
+								+ printDefault(fromEnumValuesToTokenJoinedString((Object[]) DEFAULT_ALPHABET_SIZES)))
+						.type(String.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(MIN_TRACE_LENGTH_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("benchmark-min-trace-length")
+						.desc("minimum length of the traces of the synthetic logs" + printDefault(DEFAULT_MIN_TRACE_LENGTH))
+						.type(Integer.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(MAX_TRACE_LENGTHS_PARAM_NAME)
+						.hasArg().argName("numbers")
+						.longOpt("benchmark-max-trace-lengths")
+						.desc("maximum lengths of the traces of the synthetic logs, separated by \"" + ARRAY_TOKENISER_SEPARATOR + "\""
+								+ printDefault(fromEnumValuesToTokenJoinedString((Object[]) DEFAULT_MAX_TRACE_LENGTHS)))
+						.type(String.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(TRACES_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("benchmark-traces")
+						.desc("number of traces of each synthetic log (the variant analysis uses two of them)" + printDefault(DEFAULT_TRACES))
+						.type(Integer.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(CONSTRAINTS_NUMBERS_PARAM_NAME)
+						.hasArg().argName("numbers")
+						.longOpt("benchmark-constraints")
+						.desc("numbers of constraints of the models checked by the Janus benchmarks, separated by \"" + ARRAY_TOKENISER_SEPARATOR + "\""
+								+ printDefault(fromEnumValuesToTokenJoinedString((Object[]) DEFAULT_CONSTRAINTS_NUMBERS)))
+						.type(String.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(PERMUTATIONS_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("benchmark-permutations")
+						.desc("number of permutations of the variant analysis benchmark" + printDefault(DEFAULT_PERMUTATIONS))
+						.type(Integer.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(WARMUP_ITERATIONS_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("benchmark-warmup")
+						.desc("number of untimed warm-up iterations of each benchmark" + printDefault(DEFAULT_WARMUP_ITERATIONS))
+						.type(Integer.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(MEASUREMENT_ITERATIONS_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("benchmark-iterations")
+						.desc("number of timed iterations of each benchmark" + printDefault(DEFAULT_MEASUREMENT_ITERATIONS))
+						.type(Integer.class)
+						.build()
+		);
+		options.addOption(
+				Option.builder(OUTPUT_CSV_PARAM_NAME)
+						.hasArg().argName("path")
+						.longOpt("out-benchmark-csv")
+						.desc("path of the CSV file in which the results are saved")
+						.type(String.class)
+						.build()
+		);
+		return options;
+	}
+}
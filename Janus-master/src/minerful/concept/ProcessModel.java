@@ -89,7 +89,7 @@ public class ProcessModel extends Observable implements Observer {
     }
 
     public Automaton buildAlphabetAcceptingAutomaton() {
-        return AutomatonFactory.fromRegularExpressions(new ArrayList<String>(0), this.taskCharArchive.getIdentifiersAlphabet());
+        return AutomatonFactory.fromConstraints(new ArrayList<Constraint>(0), this.taskCharArchive.getIdentifiersAlphabet());
     }
 
     public Collection<SubAutomaton> buildSubAutomata() {
@@ -127,13 +127,8 @@ public class ProcessModel extends Observable implements Observer {
      * This turned out to be the best heuristic for computing the automaton!
      */
     protected Automaton buildAutomatonByBondHeuristic() {
-        Collection<String> regularExpressions = null;
         Collection<Constraint> constraints = LinearConstraintsIndexFactory.getAllUnmarkedConstraintsSortedByBoundsSupportFamilyConfidenceInterestFactorHierarchyLevel(this.bag);
-        regularExpressions = new ArrayList<String>(constraints.size());
-        for (Constraint con : constraints) {
-            regularExpressions.add(con.getRegularExpression());
-        }
-        return AutomatonFactory.fromRegularExpressions(regularExpressions, this.taskCharArchive.getIdentifiersAlphabet());
+        return AutomatonFactory.fromConstraints(constraints, this.taskCharArchive.getIdentifiersAlphabet());
     }
 
     public TaskCharArchive getTaskCharArchive() {
@@ -572,7 +572,7 @@ public abstract class Constraint extends Observable implements Comparable<Constr
 	public VacuityAwareWildcardAutomaton getCheckAutomaton() {
 		VacuityAwareWildcardAutomaton autom = new VacuityAwareWildcardAutomaton(
 				this.toString(),
-				this.getRegularExpression(), TaskCharEncoderDecoder.getTranslationMap(this.getInvolvedTaskChars()));
+				this, TaskCharEncoderDecoder.getTranslationMap(this.getInvolvedTaskChars()));
 		return autom;
 	}
 	
@@ -9,6 +9,7 @@ import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import minerful.concept.TaskChar;
 import minerful.concept.TaskCharSet;
 import minerful.concept.constraint.xmlenc.ConstraintsBagAdapter;
+import minerful.metrics.PipelineMetrics;
 
 import minerful.reactive.automaton.SeparatedAutomaton;
 import minerful.reactive.automaton.SeparatedAutomatonOfflineRunner;
@@ -100,16 +101,19 @@ public class ConstraintsBag extends Observable implements Cloneable, Observer {
         this.automataOfflineRunnersBag = new ArrayList<>();
         this.runnersConstraintsMatching = new HashMap<>();
         this.offlineRunnersConstraintsMatching = new HashMap<>();
-        for (Constraint constr : getAllConstraints()) { // TODO memory issue here
-            SeparatedAutomaton parametricAut = constr.buildParametricSeparatedAutomaton();
-            SeparatedAutomaton parametricOfflineAut = constr.buildParametricSeparatedAutomaton();
+        /* The parametric automata depend only on the template of the constraint: they are built (and, for the offline runners, reversed and compiled)
+         * once per template, and shared by the runners of all its constraints */
+        Map<String, SeparatedAutomatonOfflineRunner> offlineTemplateRunners = new HashMap<>();
+        for (Constraint constr : getAllConstraints()) {
+            SeparatedAutomaton parametricAut = automataBag.get(constr.type);
             if (parametricAut == null) {
-                /* if it is not possible to construct the automata it is pointless to keep the constraint,
-                 otherwise howManyConstraint() returns a number different form the actual constraints that are checked */
-                this.remove(constr);
-                continue;
-            }
-            if (!automataBag.containsKey(constr.type)) {
+                parametricAut = constr.buildParametricSeparatedAutomaton();
+                if (parametricAut == null) {
+                    /* if it is not possible to construct the automata it is pointless to keep the constraint,
+                     otherwise howManyConstraint() returns a number different form the actual constraints that are checked */
+                    this.remove(constr);
+                    continue;
+                }
                 automataBag.put(constr.type, parametricAut);
             }
             /* TODO BEWARE
@@ -126,10 +130,21 @@ public class ConstraintsBag extends Observable implements Cloneable, Observer {
             automataRunnersBag.add(runner);
             runnersConstraintsMatching.put(runner, constr);
 
-            SeparatedAutomatonOfflineRunner offlineRunner = new SeparatedAutomatonOfflineRunner(parametricOfflineAut, specificAlphabet);
+            String offlineTemplateKey = constr.type + "/" + specificAlphabet.size();
+            SeparatedAutomatonOfflineRunner offlineTemplateRunner = offlineTemplateRunners.get(offlineTemplateKey);
+            SeparatedAutomatonOfflineRunner offlineRunner;
+            if (offlineTemplateRunner == null) {
+                /* the offline runner reverses the future automata in place: it needs its own copy of the parametric automaton */
+                offlineRunner = new SeparatedAutomatonOfflineRunner(constr.buildParametricSeparatedAutomaton(), specificAlphabet);
+                offlineTemplateRunners.put(offlineTemplateKey, offlineRunner);
+            } else {
+                offlineRunner = new SeparatedAutomatonOfflineRunner(offlineTemplateRunner, specificAlphabet);
+            }
             automataOfflineRunnersBag.add(offlineRunner);
             offlineRunnersConstraintsMatching.put(offlineRunner, constr);
         }
+        PipelineMetrics.getInstance().count(PipelineMetrics.AUTOMATA, automataBag.size() + offlineTemplateRunners.size());
+        logger.debug("Parametric automata built for " + automataBag.size() + " templates");
     }
 
     /**
@@ -434,7 +449,13 @@ public class ConstraintsBag extends Observable implements Cloneable, Observer {
         }
     }
 
-    public void shallowMerge(ConstraintsBag other) {
+    /**
+     * Merge the constraints of another bag into this one, sharing (not copying) the sets of constraints of the task characters not yet in this bag.
+     * It is synchronized so that the sub-bags returned by concurrent querying cores can be merged as soon as they are ready.
+     *
+     * @param other bag to merge into this one
+     */
+    public synchronized void shallowMerge(ConstraintsBag other) {
         for (TaskChar tCh : other.taskChars) {
             if (this.contains(tCh)) {
                 this.addAll(tCh, other.getConstraintsOf(tCh));
@@ -509,7 +530,7 @@ public class ConstraintsBag extends Observable implements Cloneable, Observer {
     }
 
     @Override
-    public void update(Observable o, Object arg) {
+    public synchronized void update(Observable o, Object arg) {
         if (Constraint.class.isAssignableFrom(o.getClass())) {
             this.setChanged();
             this.notifyObservers(arg);
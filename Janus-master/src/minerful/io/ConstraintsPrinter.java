@@ -267,10 +267,14 @@ public class ConstraintsPrinter {
     }
     
     public String printWeightedXmlAutomaton(LogParser logParser, boolean skimIt) throws JAXBException {
+    	return this.printWeightedXmlAutomaton(logParser, skimIt, 1);
+    }
+
+    public String printWeightedXmlAutomaton(LogParser logParser, boolean skimIt, int replayThreads) throws JAXBException {
 		if (this.processAutomaton == null)
 			processAutomaton = this.processModel.buildAutomaton();
 		
-		WeightedAutomatonFactory wAF = new WeightedAutomatonFactory(TaskCharEncoderDecoder.getTranslationMap(this.processModel.bag));
+		WeightedAutomatonFactory wAF = new WeightedAutomatonFactory(TaskCharEncoderDecoder.getTranslationMap(this.processModel.bag), replayThreads);
 		WeightedAutomaton wAut = wAF.augmentByReplay(processAutomaton, logParser, skimIt);
 
 		if (wAut == null)
@@ -292,10 +296,14 @@ public class ConstraintsPrinter {
     }
     
     public NavigableMap<String, String> printWeightedXmlSubAutomata(LogParser logParser) throws JAXBException {
+    	return this.printWeightedXmlSubAutomata(logParser, 1);
+    }
+
+    public NavigableMap<String, String> printWeightedXmlSubAutomata(LogParser logParser, int replayThreads) throws JAXBException {
 		Collection<SubAutomaton> partialAutomata =
 //				this.process.buildSubAutomata(ConstraintsPrinter.SUBAUTOMATA_MAXIMUM_ACTIVITIES_BEFORE_AND_AFTER);
 				this.processModel.buildSubAutomata();
-		WeightedAutomatonFactory wAF = new WeightedAutomatonFactory(TaskCharEncoderDecoder.getTranslationMap(this.processModel.bag));
+		WeightedAutomatonFactory wAF = new WeightedAutomatonFactory(TaskCharEncoderDecoder.getTranslationMap(this.processModel.bag), replayThreads);
 		NavigableMap<Character, AbstractTaskClass> idsNamesMap = TaskCharEncoderDecoder.getTranslationMap(this.processModel.bag);
 
 		NavigableMap<String, String> partialAutomataXmls = new TreeMap<String, String>();
@@ -18,6 +18,7 @@ public class OutputModelParameters extends ParamsManager {
 	public static final String SAVE_AS_CSV_PARAM_NAME = "oCSV";
 	public static final String SAVE_AS_XML_PARAM_NAME = "oXML";
 	public static final String SAVE_AS_JSON_PARAM_NAME = "oJSON";
+	public static final String SAVE_AS_BINARY_PARAM_NAME = "oBIN";
 	public static final String SAVE_PROCESS_DOT_AUTOMATON_PARAM_NAME = "autoDOT";
 //	public static final String SAVE_PROCESS_CONDENSED_DOT_AUTOMATON_PARAM_NAME = "dotCond"; // TODO To be done, one day
 	public static final String SAVE_PROCESS_TSML_AUTOMATON_PARAM_NAME = "autoTSML";
@@ -26,6 +27,9 @@ public class OutputModelParameters extends ParamsManager {
 	public static final String SAVE_SKIMMED_XML_WEIGHTED_AUTOMATON_PARAM_NAME = "autoReplayTrimXML";
 	public static final String FOLDER_FOR_SAVING_XML_WEIGHTED_SUBAUTOMATA_PARAM_NAME = "subautosReplayXML";
 	public static final String ENCODE_OUTPUT_TASKS_FLAG = "encodeTasksFlag";
+	public static final String REPLAY_PARALLEL_THREADS_PARAM_NAME = "paraR";
+
+	public static final Integer MINIMUM_PARALLEL_EXECUTION_THREADS = 1;
 
 	/** File in which discovered constraints are printed in CSV format. Keep it equal to <code>null</code> for avoiding such print-out. */
 	public File fileToSaveConstraintsAsCSV;
@@ -49,10 +53,14 @@ public class OutputModelParameters extends ParamsManager {
     public File fileToSaveAsXML;
 	/** File in which the discovered process model is saved as a JSON file. Keep it equal to <code>null</code> for avoiding such print-out. */
 	public File fileToSaveAsJSON;
+	/** File in which the measurements are saved in binary format (see {@link minerful.reactive.io.JanusBinaryOutputWriter}). Keep it equal to <code>null</code> for avoiding such print-out. */
+	public File fileToSaveAsBinary;
 	/** Columns to be printed if constraints are printed in CSV format. Notice that this attribute is not associated to a command-line parameter. */
 	public CsvEncoder.PRINT_OUT_ELEMENT[] csvColumnsToPrint = CsvEncoder.PRINT_OUT_ELEMENT.values();
 	/** Flag if the output tasks/events should be encoded (e.g., A B C D E...) or not (original names as in log)  **/
 	public boolean encodeOutputTasks;
+	/** Number of parallel threads to use while replaying the event log on the weighted automata (must be greater than or equal to {@link #MINIMUM_PARALLEL_EXECUTION_THREADS MINIMUM_PARALLEL_EXECUTION_THREADS}, the default) */
+	public Integer replayParallelProcessingThreads;
 
 
 
@@ -68,7 +76,9 @@ public class OutputModelParameters extends ParamsManager {
     	this.folderToSaveXmlFilesForPartialAutomata = null;
     	this.fileToSaveAsXML = null;
     	this.fileToSaveAsJSON = null;
+    	this.fileToSaveAsBinary = null;
 		this.encodeOutputTasks = false;
+		this.replayParallelProcessingThreads = MINIMUM_PARALLEL_EXECUTION_THREADS;
     }
 
     public OutputModelParameters(Options options, String[] args) {
@@ -89,6 +99,8 @@ public class OutputModelParameters extends ParamsManager {
 
     	this.fileToSaveAsJSON = openOutputFile(line, SAVE_AS_JSON_PARAM_NAME);
 
+    	this.fileToSaveAsBinary = openOutputFile(line, SAVE_AS_BINARY_PARAM_NAME);
+
         this.folderToSaveDotFilesForPartialAutomata = openOutputDir(line, FOLDER_FOR_SAVING_DOT_SUBAUTOMATA_PARAM_NAME);
 
         this.fileToSaveDotFileForAutomaton = openOutputFile(line, SAVE_PROCESS_DOT_AUTOMATON_PARAM_NAME);
@@ -108,6 +120,17 @@ public class OutputModelParameters extends ParamsManager {
         this.folderToSaveXmlFilesForPartialAutomata = openOutputDir(line, FOLDER_FOR_SAVING_XML_WEIGHTED_SUBAUTOMATA_PARAM_NAME);
 
         this.encodeOutputTasks = line.hasOption(ENCODE_OUTPUT_TASKS_FLAG);
+
+        this.replayParallelProcessingThreads = Integer.valueOf(line.getOptionValue(
+        		REPLAY_PARALLEL_THREADS_PARAM_NAME,
+        		this.replayParallelProcessingThreads.toString()
+        		)
+        );
+        if (this.replayParallelProcessingThreads < MINIMUM_PARALLEL_EXECUTION_THREADS) {
+        	throw new IllegalArgumentException(
+        			"Invalid value for " + REPLAY_PARALLEL_THREADS_PARAM_NAME + " option" +
+        			" (must be equal to or greater than " + (MINIMUM_PARALLEL_EXECUTION_THREADS) + ")");
+        }
     }
 
 	@Override
@@ -141,6 +164,14 @@ public class OutputModelParameters extends ParamsManager {
         		.type(String.class)
         		.build()
         		);
+        options.addOption(
+        		Option.builder(SAVE_AS_BINARY_PARAM_NAME)
+        		.hasArg().argName("path")
+        		.longOpt("save-as-binary")
+        		.desc("path of the file in which to save the measurements in binary columnar format (memory-mappable)")
+        		.type(String.class)
+        		.build()
+        		);
         options.addOption(
         		Option.builder(SAVE_PROCESS_DOT_AUTOMATON_PARAM_NAME)
         		.hasArg().argName("path")
@@ -226,6 +257,17 @@ public class OutputModelParameters extends ParamsManager {
         		.type(String.class)
         		.build()
         		);
+		options.addOption(
+				Option.builder(REPLAY_PARALLEL_THREADS_PARAM_NAME)
+				.hasArg().argName("number")
+				.longOpt("replay-ll-threads")
+				.desc("threads for replaying in parallel the event log on the weighted automata (must be greater than or equal to "
+						+ (MINIMUM_PARALLEL_EXECUTION_THREADS)
+						+ ")"
+						+ printDefault(MINIMUM_PARALLEL_EXECUTION_THREADS))
+				.type(String.class)
+				.build()
+				);
 
 		options.addOption(
 				Option.builder(ENCODE_OUTPUT_TASKS_FLAG)
@@ -0,0 +1,109 @@
+package minerful.logmaker;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+
+import minerful.automaton.AutomatonRandomWalker;
+
+/**
+ * Generates a batch of consecutive traces of a synthetic log by random walks on an automaton.
+ * Every batch has its own random stream, so that the generated traces depend only on it and not on the thread running the batch.
+ */
+class CallableTracesGenerator implements Callable<CallableTracesGenerator.GeneratedTraces> {
+	/** Initial capacity reserved for the events of a batch if the minimum length of the traces is lower */
+	private static final int MIN_INITIAL_CAPACITY = 1 << 10;
+	/** Maximum initial capacity reserved for the events of a batch: beyond it, the buffers grow as the traces are generated */
+	private static final int MAX_INITIAL_CAPACITY = 1 << 20;
+	/** Maximum size of the buffers of a batch, i.e., the maximum length of an array */
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Traces generated by a batch: the events of all the traces are stored one after the other,
+	 * each with the delay from the previous event of the log.
+	 */
+	static class GeneratedTraces {
+		/** Number of the first trace of the batch in the log */
+		final long firstTrace;
+		/** Number of traces of the batch */
+		final int tracesNumber;
+		/** Position after the last event of every trace */
+		final int[] traceEnds;
+		/** Characters of the events of the traces */
+		final char[] events;
+		/** Milliseconds between every event and the previous one in the log */
+		final long[] delays;
+
+		private GeneratedTraces(long firstTrace, int tracesNumber, int[] traceEnds, char[] events, long[] delays) {
+			this.firstTrace = firstTrace;
+			this.tracesNumber = tracesNumber;
+			this.traceEnds = traceEnds;
+			this.events = events;
+			this.delays = delays;
+		}
+
+		int getTraceStart(int trace) {
+			return (trace == 0 ? 0 : traceEnds[trace - 1]);
+		}
+	}
+
+	private final AutomatonRandomWalker walker;
+	private final long firstTrace;
+	private final int tracesNumber;
+	private final int minEventsPerTrace;
+	private final SplittableRandom random;
+
+	/**
+	 * @param walker A walker on the automaton of the process, whose transition tables are shared
+	 * @param firstTrace Number of the first trace of the batch in the log
+	 * @param tracesNumber Number of traces of the batch
+	 * @param minEventsPerTrace Minimum number of events of every trace, used to reserve the initial capacity of the batch
+	 * @param random The random stream of the batch
+	 */
+	CallableTracesGenerator(AutomatonRandomWalker walker, long firstTrace, int tracesNumber, int minEventsPerTrace, SplittableRandom random) {
+		this.walker = walker;
+		this.firstTrace = firstTrace;
+		this.tracesNumber = tracesNumber;
+		this.minEventsPerTrace = Math.max(0, minEventsPerTrace);
+		this.random = random;
+	}
+
+	@Override
+	public GeneratedTraces call() {
+		AutomatonRandomWalker batchWalker = new AutomatonRandomWalker(this.walker, this.random);
+		int[] traceEnds = new int[this.tracesNumber];
+		long initialCapacity = Math.max((long) this.tracesNumber * this.minEventsPerTrace, MIN_INITIAL_CAPACITY);
+		char[] events = new char[(int) Math.min(initialCapacity, MAX_INITIAL_CAPACITY)];
+		long[] delays = new long[events.length];
+		int position = 0;
+
+		for (int trace = 0; trace < this.tracesNumber; trace++) {
+			batchWalker.goToStart();
+			Character pickedTransitionChar = batchWalker.walkOn();
+			while (pickedTransitionChar != null) {
+				if (position == events.length) {
+					int capacity = grow(events.length);
+					events = Arrays.copyOf(events, capacity);
+					delays = Arrays.copyOf(delays, capacity);
+				}
+				events[position] = pickedTransitionChar;
+				delays[position] = MinerFulLogMaker.generateRandomDelay(this.random);
+				position++;
+				pickedTransitionChar = batchWalker.walkOn();
+			}
+			traceEnds[trace] = position;
+		}
+		return new GeneratedTraces(this.firstTrace, this.tracesNumber, traceEnds, events, delays);
+	}
+
+	/**
+	 * @return The doubled capacity, limited to {@link #MAX_CAPACITY MAX_CAPACITY}
+	 * @throws IllegalStateException if the capacity cannot grow any further
+	 */
+	private int grow(int capacity) {
+		if (capacity >= MAX_CAPACITY) {
+			throw new IllegalStateException("Too many events in a batch of " + this.tracesNumber + " traces: more than " + MAX_CAPACITY);
+		}
+		return (int) Math.min(2L * capacity, MAX_CAPACITY);
+	}
+}
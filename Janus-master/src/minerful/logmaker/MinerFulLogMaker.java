@@ -1,5 +1,6 @@
 package minerful.logmaker;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -9,13 +10,20 @@ import java.io.PrintWriter;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedList;
+import java.util.SplittableRandom;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import minerful.automaton.AutomatonRandomWalker;
 import minerful.automaton.utils.AutomatonUtils;
 import minerful.concept.ProcessModel;
 import minerful.concept.TaskChar;
+import minerful.logmaker.CallableTracesGenerator.GeneratedTraces;
 import minerful.logmaker.params.LogMakerParameters;
 import minerful.utils.MessagePrinter;
 
@@ -50,6 +58,22 @@ public class MinerFulLogMaker {
 	 * Event log as strings
 	 */
 	private String[] stringsLog;
+	/**
+	 * Factory of the elements of {@link #log log}
+	 */
+	private XFactory xFactory;
+	/**
+	 * Date and time of the last generated event
+	 */
+	private Date currentDate;
+	/**
+	 * Number of traces generated by a thread at a time
+	 */
+	public static final int TRACES_PER_BATCH = 1024;
+	/**
+	 * Size of the buffer of the file in which the traces are streamed
+	 */
+	private static final int STREAMING_BUFFER_SIZE = 1 << 16;
 	/**
 	 * Maximum amount of traces we want to save as strings
 	 */
@@ -73,7 +97,8 @@ public class MinerFulLogMaker {
 
 		this.parameters = parameters;
 
-		this.stringsLog = new String[(parameters.tracesInLog < MAX_SIZE_OF_STRINGS_LOG ?
+		// no strings are kept for streamed logs
+		this.stringsLog = new String[parameters.streamingOutput ? 0 : (parameters.tracesInLog < MAX_SIZE_OF_STRINGS_LOG ?
 				Integer.parseInt(String.valueOf(parameters.tracesInLog)) :
 					MAX_SIZE_OF_STRINGS_LOG)];
 	}
@@ -89,11 +114,9 @@ public class MinerFulLogMaker {
 	 * @return The generated event log
 	 */
 	public XLog createLog(ProcessModel processModel) {
-		XFactory xFactory = new XFactoryBufferedImpl();
+		this.xFactory = new XFactoryBufferedImpl();
 		this.log = xFactory.createLog();
 
-		XTrace xTrace = null;
-		XEvent xEvent = null;
 		XConceptExtension concExtino = XConceptExtension.instance();
 		XLifecycleExtension lifeExtension = XLifecycleExtension.instance();
 		XTimeExtension timeExtension = XTimeExtension.instance();
@@ -102,53 +125,145 @@ public class MinerFulLogMaker {
 		this.log.getExtensions().add(timeExtension);
 		this.log.getClassifiers().add(new XEventNameClassifier());
 
-		concExtino.assignName(this.log,
-				"Synthetic log for process: " + processModel.getName()
-		);
+		concExtino.assignName(this.log, makeLogName(processModel));
 		lifeExtension.assignModel(this.log, XLifecycleExtension.VALUE_MODEL_STANDARD);
 
+		try {
+			this.generateTraces(processModel, null);
+		} catch (IOException e) {
+			// Not thrown, as no writer is used
+			throw new IllegalStateException(e);
+		}
+
+		return this.log;
+	}
+
+	/**
+	 * Generates an event log based on a MINERful process model, like {@link #createLog(ProcessModel) createLog},
+	 * but writes every trace in the file specified in {@link #parameters parameters} as soon as it is generated,
+	 * instead of keeping the whole event log in memory.
+	 * Neither the event log nor its strings are kept afterwards.
+	 * @param processModel The process model that the generated event log complies to
+	 * @return The file in which the event log has been stored
+	 * @throws IOException
+	 */
+	public File streamLog(ProcessModel processModel) throws IOException {
+		if (this.parameters.outputEncoding == null)
+			throw new IllegalStateException("Output encoding not specified in given parameters");
+		if (this.parameters.outputLogFile == null)
+			throw new IllegalStateException("Output file not specified in given parameters");
+
+		File outFile = this.parameters.outputLogFile;
+		try (StreamingLogWriter writer = new StreamingLogWriter(
+				new BufferedOutputStream(new FileOutputStream(outFile), STREAMING_BUFFER_SIZE),
+				this.parameters.outputEncoding,
+				makeLogName(processModel))) {
+			this.generateTraces(processModel, writer);
+		}
+		return outFile;
+	}
+
+	private static String makeLogName(ProcessModel processModel) {
+		return "Synthetic log for process: " + processModel.getName();
+	}
+
+	/**
+	 * Generates the traces by random walks on the automaton of the process model, in batches of {@link #TRACES_PER_BATCH TRACES_PER_BATCH} traces.
+	 * The batches are generated by the threads specified in {@link #parameters parameters}, and stored in order.
+	 * @param processModel The process model that the generated event log complies to
+	 * @param writer The writer of the traces, or <code>null</code> if the traces are to be stored in {@link #log log} and {@link #stringsLog stringsLog}
+	 * @throws IOException
+	 */
+	private void generateTraces(ProcessModel processModel, StreamingLogWriter writer) throws IOException {
 		Automaton automaton = processModel.buildAutomaton();
 		automaton = AutomatonUtils.limitRunLength(automaton, this.parameters.minEventsPerTrace, this.parameters.maxEventsPerTrace);
-
+		// the transition tables are computed once and shared by the walkers of all the batches
 		AutomatonRandomWalker walker = new AutomatonRandomWalker(automaton);
 
-		TaskChar firedTransition = null;
-		Character pickedTransitionChar = 0;
+		long seed = (this.parameters.seed != null) ? this.parameters.seed : System.nanoTime();
+		int threads = this.parameters.generationParallelProcessingThreads;
+		logger.info("Generating " + this.parameters.tracesInLog + " traces with " + threads + " threads (seed: " + seed + ")");
 
-		Date currentDate = null;
+		// every batch has its own random stream, split in order from the seed: the log is reproducible for the same seed, regardless of the number of threads
+		SplittableRandom seedRandom = new SplittableRandom(seed);
+		this.currentDate = generateRandomDateTimeForLogEvent(null, seedRandom);
 		int padder = (int)(Math.ceil(Math.log10(this.parameters.tracesInLog)));
 		String traceNameTemplate = "Synthetic trace no. " + (padder < 1 ? "" : "%0" + padder) + "d";
+
+		ExecutorService executor = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+		// at most two batches per thread are kept in memory, waiting to be stored in order
+		LinkedList<Future<GeneratedTraces>> pendingBatches = new LinkedList<Future<GeneratedTraces>>();
+		try {
+			for (long firstTrace = 0; firstTrace < this.parameters.tracesInLog; firstTrace += TRACES_PER_BATCH) {
+				CallableTracesGenerator generator = new CallableTracesGenerator(walker, firstTrace,
+						(int) Math.min(TRACES_PER_BATCH, this.parameters.tracesInLog - firstTrace), this.parameters.minEventsPerTrace, seedRandom.split());
+				if (executor == null) {
+					this.storeTraces(generator.call(), processModel, traceNameTemplate, writer);
+				} else {
+					pendingBatches.add(executor.submit(generator));
+					if (pendingBatches.size() >= 2 * threads) {
+						this.storeTraces(pendingBatches.removeFirst().get(), processModel, traceNameTemplate, writer);
+					}
+				}
+			}
+			while (!pendingBatches.isEmpty()) {
+				this.storeTraces(pendingBatches.removeFirst().get(), processModel, traceNameTemplate, writer);
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("Traces not generated", e);
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Stores a batch of generated traces, either in {@link #log log} and {@link #stringsLog stringsLog} or with the given writer.
+	 * The events are timestamped in order, starting from {@link #currentDate currentDate}.
+	 */
+	private void storeTraces(GeneratedTraces batch, ProcessModel processModel, String traceNameTemplate, StreamingLogWriter writer) throws IOException {
+		XConceptExtension concExtino = XConceptExtension.instance();
+		XLifecycleExtension lifeExtension = XLifecycleExtension.instance();
+		XTimeExtension timeExtension = XTimeExtension.instance();
+		TaskChar firedTransition = null;
+		XTrace xTrace = null;
 		StringBuffer sBuf = new StringBuffer();
 
-		for (int traceNum = 0; traceNum < this.parameters.tracesInLog; traceNum++) {
+		for (int trace = 0; trace < batch.tracesNumber; trace++) {
+			long traceNum = batch.firstTrace + trace;
+			String traceName = String.format(traceNameTemplate, traceNum);
+			boolean keepString = (writer == null && traceNum < this.stringsLog.length);
+			if (writer == null) {
+				xTrace = xFactory.createTrace();
+				concExtino.assignName(xTrace, traceName);
+			} else {
+				writer.startTrace(traceName);
+			}
 			sBuf.append("<");
-			walker.goToStart();
-			xTrace = xFactory.createTrace();
-			concExtino.assignName(
-					xTrace,
-					String.format(traceNameTemplate, (traceNum))
-				);
-
-			pickedTransitionChar = walker.walkOn();
-			while (pickedTransitionChar != null) {
-				firedTransition = processModel.getTaskCharArchive().getTaskChar(pickedTransitionChar);
-				if (traceNum < MAX_SIZE_OF_STRINGS_LOG) {
-					sBuf.append(firedTransition + ",");
-				}
 
-				currentDate = generateRandomDateTimeForLogEvent(currentDate);
-				xEvent = makeXEvent(xFactory, concExtino, lifeExtension, timeExtension, firedTransition, currentDate);
-				xTrace.add(xEvent);
-				pickedTransitionChar = walker.walkOn();
+			for (int event = batch.getTraceStart(trace); event < batch.traceEnds[trace]; event++) {
+				firedTransition = processModel.getTaskCharArchive().getTaskChar(batch.events[event]);
+				this.currentDate = new Date(this.currentDate.getTime() + batch.delays[event]);
+				if (writer == null) {
+					if (keepString) {
+						sBuf.append(firedTransition + ",");
+					}
+					xTrace.add(makeXEvent(xFactory, concExtino, lifeExtension, timeExtension, firedTransition, this.currentDate));
+				} else {
+					writer.writeEvent(firedTransition.toString(), this.currentDate);
+				}
 			}
-			this.log.add(xTrace);
-			if (traceNum < MAX_SIZE_OF_STRINGS_LOG) {
-				this.stringsLog[traceNum] = sBuf.substring(0, Math.max(1, sBuf.length() -1)) + ">";
-				sBuf = new StringBuffer();
+
+			if (writer == null) {
+				this.log.add(xTrace);
+				if (keepString) {
+					this.stringsLog[(int) traceNum] = sBuf.substring(0, Math.max(1, sBuf.length() -1)) + ">";
+				}
+			} else {
+				writer.endTrace();
 			}
+			sBuf.setLength(0);
 		}
-
-		return this.log;
 	}
 
 	/**
@@ -255,10 +370,11 @@ public class MinerFulLogMaker {
 
 	/**
 	 * Generates a random date and time for a log event.
+	 * @param random The random stream to draw from
 	 * @return A random date and time for the log event.
 	 */
-	private Date generateRandomDateTimeForLogEvent() {
-		return generateRandomDateTimeForLogEvent(null);
+	private Date generateRandomDateTimeForLogEvent(SplittableRandom random) {
+		return generateRandomDateTimeForLogEvent(null, random);
 	}
 
 	/**
@@ -266,22 +382,30 @@ public class MinerFulLogMaker {
 	 * provided parameter.
 	 *
 	 * @param laterThan The date and time with respect to which the generated time stamp must be later
+	 * @param random The random stream to draw from
 	 * @return A random date and time for the log event
 	 */
-	private Date generateRandomDateTimeForLogEvent(Date laterThan) {
+	private Date generateRandomDateTimeForLogEvent(Date laterThan, SplittableRandom random) {
 		Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
 
 		if (laterThan == null) {
 			cal.add(GregorianCalendar.YEAR, -1);
-			cal.add(GregorianCalendar.MONTH, (int) ( Math.round(Math.random() * 12 )) * -1 );
-			cal.add(GregorianCalendar.WEEK_OF_MONTH, (int) ( Math.round(Math.random() * 4  )) * -1 );
-			cal.add(GregorianCalendar.DAY_OF_WEEK, (int) ( Math.round(Math.random() * 7  )) * -1 );
+			cal.add(GregorianCalendar.MONTH, (int) ( Math.round(random.nextDouble() * 12 )) * -1 );
+			cal.add(GregorianCalendar.WEEK_OF_MONTH, (int) ( Math.round(random.nextDouble() * 4  )) * -1 );
+			cal.add(GregorianCalendar.DAY_OF_WEEK, (int) ( Math.round(random.nextDouble() * 7  )) * -1 );
 			laterThan = cal.getTime();
 		}
 
-		long
-			randomAdditionalTime = (long) (Math.round(Math.random() * TimeUnit.DAYS.toMillis(1)));
-		cal.setTimeInMillis(laterThan.getTime() + randomAdditionalTime);
+		cal.setTimeInMillis(laterThan.getTime() + generateRandomDelay(random));
 		return cal.getTime();
 	}
+
+	/**
+	 * Generates a random delay between two consecutive log events.
+	 * @param random The random stream to draw from
+	 * @return A random amount of milliseconds, up to one day
+	 */
+	static long generateRandomDelay(SplittableRandom random) {
+		return (long) (Math.round(random.nextDouble() * TimeUnit.DAYS.toMillis(1)));
+	}
 }
\ No newline at end of file
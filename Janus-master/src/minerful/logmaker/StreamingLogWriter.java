@@ -0,0 +1,207 @@
+package minerful.logmaker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.Date;
+
+import minerful.logmaker.params.LogMakerParameters;
+
+import org.deckfour.spex.SXDocument;
+import org.deckfour.spex.SXTag;
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XLifecycleExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.util.XsDateTimeConversion;
+
+/**
+ * Writes a synthetic event log trace by trace, as the traces are generated, without keeping the log in memory.
+ * The XES and MXML documents have the same structure as the ones written by the OpenXES serialisers for the logs
+ * made by the {@link MinerFulLogMaker}.
+ * Every trace is opened with {@link #startTrace(String) startTrace}, filled with {@link #writeEvent(String, Date) writeEvent},
+ * and closed with {@link #endTrace() endTrace}.
+ * The XML tags are written by Spex, which closes every tag as soon as a sibling is added, hence no tag is closed explicitly.
+ */
+public class StreamingLogWriter implements Closeable {
+	private static final String OPENXES_VERSION = "1.0RC7";
+	private static final String COMPLETE_TRANSITION = XLifecycleExtension.StandardModel.COMPLETE.getEncoding();
+
+	private final LogMakerParameters.Encoding encoding;
+	private final XsDateTimeConversion dateTimeConversion = new XsDateTimeConversion();
+	private SXDocument document;
+	/** The tag of the log (XES) or of the process (MXML) */
+	private SXTag logTag;
+	private SXTag traceTag;
+	private PrintWriter stringsWriter;
+	private StringBuilder stringTrace;
+
+	/**
+	 * @param outStream The stream to write the log in
+	 * @param encoding The encoding of the log
+	 * @param logName The name of the log
+	 * @throws IOException
+	 */
+	public StreamingLogWriter(OutputStream outStream, LogMakerParameters.Encoding encoding, String logName) throws IOException {
+		this.encoding = encoding;
+		switch (encoding) {
+		case xes:
+			this.document = new SXDocument(outStream);
+			this.logTag = this.document.addNode("log");
+			this.logTag.addAttribute("xes.version", "1.0");
+			this.logTag.addAttribute("xes.features", "nested-attributes");
+			this.logTag.addAttribute("openxes.version", OPENXES_VERSION);
+			addExtension(XTimeExtension.instance().getName(), XTimeExtension.instance().getPrefix(), XTimeExtension.instance().getUri().toString());
+			addExtension(XLifecycleExtension.instance().getName(), XLifecycleExtension.instance().getPrefix(), XLifecycleExtension.instance().getUri().toString());
+			addExtension(XConceptExtension.instance().getName(), XConceptExtension.instance().getPrefix(), XConceptExtension.instance().getUri().toString());
+			SXTag classifierTag = this.logTag.addChildNode("classifier");
+			classifierTag.addAttribute("name", "Event Name");
+			classifierTag.addAttribute("keys", XConceptExtension.KEY_NAME);
+			addXesString(this.logTag, XConceptExtension.KEY_NAME, logName);
+			addXesString(this.logTag, XLifecycleExtension.KEY_MODEL, XLifecycleExtension.VALUE_MODEL_STANDARD);
+			break;
+		case mxml:
+			this.document = new SXDocument(outStream);
+			SXTag workflowLogTag = this.document.addNode("WorkflowLog");
+			SXTag sourceTag = workflowLogTag.addChildNode("Source");
+			sourceTag.addAttribute("program", "XES MXML serialization");
+			sourceTag.addAttribute("openxes.version", OPENXES_VERSION);
+			this.logTag = workflowLogTag.addChildNode("Process");
+			this.logTag.addAttribute("id", logName);
+			this.logTag.addAttribute("description", "process with id " + logName);
+			SXTag dataTag = this.logTag.addChildNode("Data");
+			addMxmlAttribute(dataTag, XConceptExtension.KEY_NAME, logName);
+			addMxmlAttribute(dataTag, XLifecycleExtension.KEY_MODEL, XLifecycleExtension.VALUE_MODEL_STANDARD);
+			break;
+		case strings:
+			this.stringsWriter = new PrintWriter(outStream);
+			this.stringTrace = new StringBuilder();
+			break;
+		default:
+			throw new UnsupportedOperationException("Support for this encoding is still work-in-progress");
+		}
+	}
+
+	private void addExtension(String name, String prefix, String uri) throws IOException {
+		SXTag extensionTag = this.logTag.addChildNode("extension");
+		extensionTag.addAttribute("name", name);
+		extensionTag.addAttribute("prefix", prefix);
+		extensionTag.addAttribute("uri", uri);
+	}
+
+	private static void addXesString(SXTag parent, String key, String value) throws IOException {
+		SXTag attributeTag = parent.addChildNode("string");
+		attributeTag.addAttribute("key", key);
+		attributeTag.addAttribute("value", value);
+	}
+
+	private static void addMxmlAttribute(SXTag dataTag, String name, String value) throws IOException {
+		SXTag attributeTag = dataTag.addChildNode("attribute");
+		attributeTag.addAttribute("name", name);
+		attributeTag.addTextNode(value);
+	}
+
+	private static void addMxmlTextNode(SXTag parent, String name, String value) throws IOException {
+		SXTag textTag = parent.addChildNode(name);
+		textTag.addTextNode(value);
+	}
+
+	/**
+	 * Opens a new trace
+	 * @param traceName The name of the trace
+	 * @throws IOException
+	 */
+	public void startTrace(String traceName) throws IOException {
+		switch (this.encoding) {
+		case xes:
+			this.traceTag = this.logTag.addChildNode("trace");
+			addXesString(this.traceTag, XConceptExtension.KEY_NAME, traceName);
+			break;
+		case mxml:
+			this.traceTag = this.logTag.addChildNode("ProcessInstance");
+			this.traceTag.addAttribute("id", traceName);
+			this.traceTag.addAttribute("description", "instance with id " + traceName);
+			SXTag dataTag = this.traceTag.addChildNode("Data");
+			addMxmlAttribute(dataTag, XConceptExtension.KEY_NAME, traceName);
+			break;
+		case strings:
+		default:
+			this.stringTrace.setLength(0);
+			this.stringTrace.append('<');
+			break;
+		}
+	}
+
+	/**
+	 * Appends an event to the current trace
+	 * @param eventName The name of the task of the event
+	 * @param timestamp The timestamp of the event
+	 * @throws IOException
+	 */
+	public void writeEvent(String eventName, Date timestamp) throws IOException {
+		switch (this.encoding) {
+		case xes:
+			SXTag eventTag = this.traceTag.addChildNode("event");
+			addXesString(eventTag, XConceptExtension.KEY_NAME, eventName);
+			addXesString(eventTag, XLifecycleExtension.KEY_TRANSITION, COMPLETE_TRANSITION);
+			SXTag dateTag = eventTag.addChildNode("date");
+			dateTag.addAttribute("key", XTimeExtension.KEY_TIMESTAMP);
+			dateTag.addAttribute("value", this.dateTimeConversion.format(timestamp));
+			break;
+		case mxml:
+			String formattedTimestamp = this.dateTimeConversion.format(timestamp);
+			SXTag entryTag = this.traceTag.addChildNode("AuditTrailEntry");
+			SXTag dataTag = entryTag.addChildNode("Data");
+			addMxmlAttribute(dataTag, XConceptExtension.KEY_NAME, eventName);
+			addMxmlAttribute(dataTag, XLifecycleExtension.KEY_TRANSITION, COMPLETE_TRANSITION);
+			addMxmlAttribute(dataTag, XTimeExtension.KEY_TIMESTAMP, formattedTimestamp);
+			addMxmlTextNode(entryTag, "WorkflowModelElement", eventName);
+			addMxmlTextNode(entryTag, "EventType", COMPLETE_TRANSITION);
+			addMxmlTextNode(entryTag, "timestamp", formattedTimestamp);
+			break;
+		case strings:
+		default:
+			if (this.stringTrace.length() > 1)
+				this.stringTrace.append(',');
+			this.stringTrace.append(eventName);
+			break;
+		}
+	}
+
+	/**
+	 * Closes the current trace
+	 * @throws IOException
+	 */
+	public void endTrace() throws IOException {
+		switch (this.encoding) {
+		case xes:
+		case mxml:
+			// the tag is closed by the next trace, or by the end of the document
+			this.traceTag = null;
+			break;
+		case strings:
+		default:
+			this.stringTrace.append('>');
+			this.stringsWriter.println(this.stringTrace);
+			break;
+		}
+	}
+
+	/**
+	 * Closes the log and the underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+		switch (this.encoding) {
+		case xes:
+		case mxml:
+			this.document.close();
+			break;
+		case strings:
+		default:
+			this.stringsWriter.flush();
+			this.stringsWriter.close();
+			break;
+		}
+	}
+}
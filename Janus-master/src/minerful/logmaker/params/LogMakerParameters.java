@@ -38,11 +38,16 @@ public class LogMakerParameters extends ParamsManager {
 	public static final String SIZE_PARAM_NAME = "oLL";
 	public static final String MAX_LEN_PARAM_NAME = "oLM";
 	public static final String MIN_LEN_PARAM_NAME = "oLm";
+	public static final String SEED_PARAM_NAME = "oLSeed";
+	public static final String STREAMING_PARAM_NAME = "oLStream";
+	public static final String GENERATION_PARALLEL_THREADS_PARAM_NAME = "paraL";
 
     public static final Long DEFAULT_SIZE = 100L;
     public static final Integer DEFAULT_MIN_TRACE_LENGTH = 0;
     public static final Integer DEFAULT_MAX_TRACE_LENGTH = 100;
 	public static final Encoding DEFAULT_OUTPUT_ENCODING = Encoding.xes;
+	public static final Integer MINIMUM_PARALLEL_EXECUTION_THREADS = 1;
+	public static final Integer DEFAULT_GENERATION_PARALLEL_THREADS = 1;
     
 	/**
 	 * Minimum number of events that have to be included in the generated traces.
@@ -64,6 +69,18 @@ public class LogMakerParameters extends ParamsManager {
      * Event log encoding (see {@link Encoding #Encoding}).
      */
     public LogMakerParameters.Encoding outputEncoding;
+    /**
+     * Seed of the random walks generating the traces. If <code>null</code>, a new seed is drawn at every generation.
+     */
+    public Long seed;
+    /**
+     * Number of parallel threads generating the traces. The generated log depends only on the {@link #seed seed}, not on the number of threads.
+     */
+    public Integer generationParallelProcessingThreads;
+    /**
+     * Whether the traces are written in the {@link #outputLogFile output file} as they are generated, without keeping the whole log in memory.
+     */
+    public boolean streamingOutput;
     
     public LogMakerParameters () {
     	this(DEFAULT_MIN_TRACE_LENGTH, DEFAULT_MAX_TRACE_LENGTH, DEFAULT_SIZE, null, DEFAULT_OUTPUT_ENCODING);
@@ -78,6 +95,9 @@ public class LogMakerParameters extends ParamsManager {
 		this.tracesInLog = tracesInLog;
 		this.outputLogFile = outputLogFile;
 		this.outputEncoding = outputEncoding;
+		this.seed = null;
+		this.generationParallelProcessingThreads = DEFAULT_GENERATION_PARALLEL_THREADS;
+		this.streamingOutput = false;
 	}
 
 	public LogMakerParameters(
@@ -118,6 +138,17 @@ public class LogMakerParameters extends ParamsManager {
         		line.getOptionValue(OUT_ENC_PARAM_NAME, this.outputEncoding.toString())
 		);
        	this.outputLogFile = openOutputFile(line, OUTPUT_FILE_PARAM_NAME);
+        if (line.hasOption(SEED_PARAM_NAME)) {
+        	this.seed = Long.valueOf(line.getOptionValue(SEED_PARAM_NAME));
+        }
+        this.generationParallelProcessingThreads =
+        		Integer.valueOf(line.getOptionValue(GENERATION_PARALLEL_THREADS_PARAM_NAME, this.generationParallelProcessingThreads.toString()));
+        if (this.generationParallelProcessingThreads < MINIMUM_PARALLEL_EXECUTION_THREADS) {
+        	throw new IllegalArgumentException(
+        			"Invalid value for " + GENERATION_PARALLEL_THREADS_PARAM_NAME + " option" +
+        			" (must be equal to or greater than " + (MINIMUM_PARALLEL_EXECUTION_THREADS) + ")");
+        }
+        this.streamingOutput = line.hasOption(STREAMING_PARAM_NAME);
 	}
     
 	@Override
@@ -179,6 +210,30 @@ public class LogMakerParameters extends ParamsManager {
 						.type(String.class)
 						.build()
     	);
+        options.addOption(
+                Option.builder(SEED_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("out-log-seed")
+						.desc("seed of the random generation of the traces, to get reproducible logs regardless of the number of threads. default: a new seed at every run")
+						.type(Long.class)
+						.build()
+    	);
+        options.addOption(
+                Option.builder(GENERATION_PARALLEL_THREADS_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("log-generation-ll-threads")
+						.desc("threads for the parallel generation of the traces (must be greater than or equal to "
+						+ (MINIMUM_PARALLEL_EXECUTION_THREADS) + ")"
+						+ printDefault(DEFAULT_GENERATION_PARALLEL_THREADS))
+						.type(Integer.class)
+						.build()
+    	);
+        options.addOption(
+                Option.builder(STREAMING_PARAM_NAME)
+						.longOpt("out-log-streaming")
+						.desc("write the traces in the output file as they are generated, without keeping the whole log in memory")
+						.build()
+    	);
         
         return options;
     }
@@ -212,6 +267,10 @@ public class LogMakerParameters extends ParamsManager {
 			checkFailures.append("Maximum number of events per trace are specified to be less than the minimum\n");
 		if (tracesInLog < 0)
 			checkFailures.append("Negative number of traces specified\n");
+		if (generationParallelProcessingThreads != null && generationParallelProcessingThreads < MINIMUM_PARALLEL_EXECUTION_THREADS)
+			checkFailures.append("Less than " + MINIMUM_PARALLEL_EXECUTION_THREADS + " threads specified for the generation of the traces\n");
+		if (streamingOutput && outputLogFile == null)
+			checkFailures.append("No output file specified for the streamed log\n");
 		if (outputLogFile != null && outputLogFile.isDirectory()) {
 			checkFailures.append("Directory specified in place of a file to save the log\n");
 		}
@@ -31,6 +31,10 @@ public abstract class AbstractLogParser implements LogParser {
      * {@link #subLogLength this.subLogLength}.
      */
     protected List<LogTraceParser> navigableTraceParsers;
+    /**
+     * Encoding of the navigable traces, computed on the first request
+     */
+    private EncodedLogArena encodedLogArena;
 
     protected AbstractLogParser(TaskCharEncoderDecoder taChaEncoDeco,
                                 TaskCharArchive taskCharArchive,
@@ -250,5 +254,16 @@ public abstract class AbstractLogParser implements LogParser {
     @Override
     public void shuffleTraces(){
         Collections.shuffle(this.traceParsers);
+        synchronized (this) {
+            this.encodedLogArena = null;
+        }
+    }
+
+    @Override
+    public synchronized EncodedLogArena getEncodedLogArena() {
+        if (this.encodedLogArena == null) {
+            this.encodedLogArena = EncodedLogArena.encode(this);
+        }
+        return this.encodedLogArena;
     }
 }
\ No newline at end of file
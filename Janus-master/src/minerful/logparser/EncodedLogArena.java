@@ -0,0 +1,442 @@
+package minerful.logparser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import minerful.concept.AbstractTaskClass;
+import minerful.io.encdec.TaskCharEncoderDecoder;
+import minerful.utils.MessagePrinter;
+
+/**
+ * Compact, read-only encoding of the traces of a log, computed once and shared by all the consumers of the log
+ * instead of re-encoding the traces from the {@link LogTraceParser}s every time.
+ * <p>
+ * The encoded events of all the traces are stored in a single contiguous array: the events of the trace <code>t</code> are those from
+ * {@link #getTraceStart(int) getTraceStart(t)} (included) to {@link #getTraceStart(int) getTraceStart(t+1)} (excluded).
+ * Identical traces share the same variant identifier, in order of first appearance in the log.
+ * The timestamps of the events and the names of the traces are kept if the log parser provides them.
+ * <p>
+ * The arena can be saved to a file next to the log (see {@link #cacheFileOf(File)}), so that later runs can read it
+ * instead of parsing the log again (see {@link XesStreamLogParser#XesStreamLogParser(EncodedLogArena, LogEventClassifier.ClassificationType, Integer, Integer, minerful.concept.TaskCharArchive)}).
+ */
+public class EncodedLogArena {
+	public static MessagePrinter logger = MessagePrinter.getInstance(EncodedLogArena.class);
+
+	public static final String CACHE_FILE_EXTENSION = ".arena";
+	private static final int CACHE_FILE_MAGIC_NUMBER = 0x4D464C41;
+	private static final int CACHE_FILE_VERSION = 1;
+	private static final int IO_BUFFER_SIZE = 1 << 16;
+
+	/** Encoded events of all the traces, one after the other */
+	private final char[] events;
+	/** Position of the first event of every trace, plus the total number of events */
+	private final int[] traceStarts;
+	/** Timestamps of the events, {@link XesStreamLogParser#NO_TIMESTAMP} if missing, or <code>null</code> if no event has a timestamp */
+	private final long[] timestamps;
+	/** Names of the traces, <code>null</code> if missing */
+	private final String[] traceNames;
+	/** Encoded characters of the tasks */
+	private final char[] alphabet;
+	/** Names of the classes of the tasks, in the order of {@link #alphabet} */
+	private final String[] alphabetNames;
+
+	private final int[] variantIds;
+	private final int[] variantRepresentatives;
+	private final int[] variantFrequencies;
+
+	/**
+	 * Key of a hash map, referring to a trace of the arena without copying it
+	 */
+	private class TraceKey {
+		private final int start;
+		private final int end;
+		private final int hash;
+
+		private TraceKey(int trace) {
+			this.start = traceStarts[trace];
+			this.end = traceStarts[trace + 1];
+			int h = 1;
+			for (int i = start; i < end; i++) {
+				h = 31 * h + events[i];
+			}
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof TraceKey))
+				return false;
+			TraceKey other = (TraceKey) obj;
+			if (other.end - other.start != this.end - this.start)
+				return false;
+			for (int i = this.start, j = other.start; i < this.end; i++, j++) {
+				if (events[i] != events[j])
+					return false;
+			}
+			return true;
+		}
+	}
+
+	private EncodedLogArena(char[] events, int[] traceStarts, long[] timestamps, String[] traceNames, char[] alphabet, String[] alphabetNames) {
+		this.events = events;
+		this.traceStarts = traceStarts;
+		this.timestamps = timestamps;
+		this.traceNames = traceNames;
+		this.alphabet = alphabet;
+		this.alphabetNames = alphabetNames;
+
+		int tracesNumber = traceStarts.length - 1;
+		this.variantIds = new int[tracesNumber];
+		Map<TraceKey, Integer> variantsIndex = new HashMap<TraceKey, Integer>();
+		List<Integer> representatives = new ArrayList<Integer>();
+		for (int t = 0; t < tracesNumber; t++) {
+			TraceKey key = new TraceKey(t);
+			Integer variantId = variantsIndex.get(key);
+			if (variantId == null) {
+				variantId = representatives.size();
+				variantsIndex.put(key, variantId);
+				representatives.add(t);
+			}
+			this.variantIds[t] = variantId;
+		}
+		this.variantRepresentatives = new int[representatives.size()];
+		this.variantFrequencies = new int[representatives.size()];
+		for (int v = 0; v < this.variantRepresentatives.length; v++) {
+			this.variantRepresentatives[v] = representatives.get(v);
+		}
+		for (int t = 0; t < tracesNumber; t++) {
+			this.variantFrequencies[this.variantIds[t]]++;
+		}
+	}
+
+	/**
+	 * Encodes the (navigable) traces of a log
+	 * @param logParser The log
+	 * @return The arena of the encoded traces
+	 */
+	public static EncodedLogArena encode(LogParser logParser) {
+		int tracesNumber = logParser.length();
+		int[] traceStarts = new int[tracesNumber + 1];
+		char[] events = new char[Math.max(logParser.numberOfEvents(), 0)];
+		long[] timestamps = null;
+		String[] traceNames = new String[tracesNumber];
+
+		int t = 0, position = 0;
+		for (Iterator<LogTraceParser> it = logParser.traceIterator(); it.hasNext(); t++) {
+			LogTraceParser tr = it.next();
+			String encodedTrace = tr.encodeTrace();
+			int traceLength = encodedTrace.length();
+			if (position + traceLength > events.length) {
+				events = Arrays.copyOf(events, Math.max(events.length * 2, position + traceLength));
+			}
+			encodedTrace.getChars(0, traceLength, events, position);
+
+			long[] traceTimestamps = getTimestamps(tr);
+			if (traceTimestamps != null) {
+				if (timestamps == null) {
+					timestamps = new long[events.length];
+					Arrays.fill(timestamps, XesStreamLogParser.NO_TIMESTAMP);
+				} else if (timestamps.length < events.length) {
+					int formerLength = timestamps.length;
+					timestamps = Arrays.copyOf(timestamps, events.length);
+					Arrays.fill(timestamps, formerLength, timestamps.length, XesStreamLogParser.NO_TIMESTAMP);
+				}
+				System.arraycopy(traceTimestamps, 0, timestamps, position, traceLength);
+			}
+			traceNames[t] = tr.getName();
+			traceStarts[t] = position;
+			position += traceLength;
+		}
+		traceStarts[tracesNumber] = position;
+		if (events.length != position) {
+			events = Arrays.copyOf(events, position);
+		}
+		if (timestamps != null && timestamps.length != position) {
+			timestamps = Arrays.copyOf(timestamps, position);
+		}
+
+		TaskCharEncoderDecoder taChaEncoDeco = logParser.getEventEncoderDecoder();
+		Map<Character, AbstractTaskClass> translationMap = taChaEncoDeco.getTranslationMap();
+		char[] alphabet = new char[translationMap.size()];
+		String[] alphabetNames = new String[translationMap.size()];
+		int i = 0;
+		for (Map.Entry<Character, AbstractTaskClass> entry : translationMap.entrySet()) {
+			alphabet[i] = entry.getKey();
+			alphabetNames[i] = entry.getValue().getName();
+			i++;
+		}
+
+		return new EncodedLogArena(events, traceStarts, timestamps, traceNames, alphabet, alphabetNames);
+	}
+
+	/**
+	 * @return The timestamps of the events of the trace, or <code>null</code> if not available
+	 */
+	private static long[] getTimestamps(LogTraceParser tr) {
+		if (tr instanceof XesStreamTraceParser) {
+			return ((XesStreamTraceParser) tr).getTimestamps();
+		}
+		if (tr instanceof XesTraceParser) {
+			return ((XesTraceParser) tr).extractTimestamps();
+		}
+		return null;
+	}
+
+	/**
+	 * @return The file in which the arena of the given log is cached
+	 */
+	public static File cacheFileOf(File logFile) {
+		return new File(logFile.getPath() + CACHE_FILE_EXTENSION);
+	}
+
+	/**
+	 * Saves the arena in a file, along with the information needed to check that it is still valid for the log it was read from
+	 * (see {@link #load(File, File, LogEventClassifier.ClassificationType)}).
+	 * @param cacheFile The file to write
+	 * @param logFile The log from which the arena was read
+	 * @param evtClassType The classification of the events of the log
+	 */
+	public void save(File cacheFile, File logFile, LogEventClassifier.ClassificationType evtClassType) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile), IO_BUFFER_SIZE));
+		try {
+			out.writeInt(CACHE_FILE_MAGIC_NUMBER);
+			out.writeInt(CACHE_FILE_VERSION);
+			out.writeLong(logFile.length());
+			out.writeLong(logFile.lastModified());
+			out.writeUTF(evtClassType.type);
+
+			out.writeInt(alphabet.length);
+			for (int i = 0; i < alphabet.length; i++) {
+				out.writeChar(alphabet[i]);
+				out.writeUTF(alphabetNames[i]);
+			}
+
+			out.writeInt(length());
+			out.writeInt(numberOfEvents());
+			for (int t = 1; t < traceStarts.length; t++) {
+				out.writeInt(traceStarts[t]);
+			}
+			for (char event : events) {
+				out.writeChar(event);
+			}
+			for (String traceName : traceNames) {
+				out.writeBoolean(traceName != null);
+				if (traceName != null)
+					out.writeUTF(traceName);
+			}
+			out.writeBoolean(timestamps != null);
+			if (timestamps != null) {
+				for (long timestamp : timestamps) {
+					out.writeLong(timestamp);
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads an arena from a file saved with {@link #save(File, File, LogEventClassifier.ClassificationType)}
+	 * @param cacheFile The file to read
+	 * @param logFile The log from which the arena was read
+	 * @param evtClassType The classification of the events of the log
+	 * @return The arena, or <code>null</code> if the file is missing, unreadable, or saved for a different log, classification or version of the log
+	 */
+	public static EncodedLogArena load(File cacheFile, File logFile, LogEventClassifier.ClassificationType evtClassType) {
+		if (!cacheFile.canRead()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile), IO_BUFFER_SIZE))) {
+			if (in.readInt() != CACHE_FILE_MAGIC_NUMBER || in.readInt() != CACHE_FILE_VERSION) {
+				logger.warn("Ignoring " + cacheFile + ": not an encoded log of this version");
+				return null;
+			}
+			if (in.readLong() != logFile.length() || in.readLong() != logFile.lastModified()) {
+				logger.info("Ignoring " + cacheFile + ": the log changed after it was encoded");
+				return null;
+			}
+			if (!in.readUTF().equals(evtClassType.type)) {
+				logger.info("Ignoring " + cacheFile + ": the events were classified differently");
+				return null;
+			}
+
+			char[] alphabet = new char[in.readInt()];
+			String[] alphabetNames = new String[alphabet.length];
+			for (int i = 0; i < alphabet.length; i++) {
+				alphabet[i] = in.readChar();
+				alphabetNames[i] = in.readUTF();
+			}
+
+			int tracesNumber = in.readInt();
+			char[] events = new char[in.readInt()];
+			int[] traceStarts = new int[tracesNumber + 1];
+			for (int t = 1; t <= tracesNumber; t++) {
+				traceStarts[t] = in.readInt();
+			}
+			for (int i = 0; i < events.length; i++) {
+				events[i] = in.readChar();
+			}
+			String[] traceNames = new String[tracesNumber];
+			for (int t = 0; t < tracesNumber; t++) {
+				traceNames[t] = (in.readBoolean() ? in.readUTF() : null);
+			}
+			long[] timestamps = null;
+			if (in.readBoolean()) {
+				timestamps = new long[events.length];
+				for (int i = 0; i < timestamps.length; i++) {
+					timestamps[i] = in.readLong();
+				}
+			}
+			return new EncodedLogArena(events, traceStarts, timestamps, traceNames, alphabet, alphabetNames);
+		} catch (IOException e) {
+			logger.warn("Ignoring " + cacheFile + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * @return The number of traces
+	 */
+	public int length() {
+		return traceStarts.length - 1;
+	}
+
+	public int numberOfEvents() {
+		return traceStarts[traceStarts.length - 1];
+	}
+
+	/**
+	 * @return The encoded events of all the traces. BEWARE: not a copy!
+	 */
+	public char[] getEvents() {
+		return events;
+	}
+
+	/**
+	 * @param trace The number of the trace, or the number of traces to get the end of the last trace
+	 * @return The position in {@link #getEvents()} of the first event of the trace
+	 */
+	public int getTraceStart(int trace) {
+		return traceStarts[trace];
+	}
+
+	public int getTraceLength(int trace) {
+		return traceStarts[trace + 1] - traceStarts[trace];
+	}
+
+	/**
+	 * @return A copy of the encoded events of the trace
+	 */
+	public char[] getTrace(int trace) {
+		return Arrays.copyOfRange(events, traceStarts[trace], traceStarts[trace + 1]);
+	}
+
+	/**
+	 * @return The encoded trace as a string, as {@link LogTraceParser#encodeTrace()} returns it
+	 */
+	public String getEncodedTrace(int trace) {
+		return new String(events, traceStarts[trace], getTraceLength(trace));
+	}
+
+	/**
+	 * @return The name of the trace, or <code>null</code> if missing
+	 */
+	public String getTraceName(int trace) {
+		return traceNames[trace];
+	}
+
+	public boolean hasTimestamps() {
+		return timestamps != null;
+	}
+
+	/**
+	 * @return The timestamps of the events, aligned with {@link #getEvents()}, or <code>null</code> if not available. BEWARE: not a copy!
+	 */
+	public long[] getTimestamps() {
+		return timestamps;
+	}
+
+	/**
+	 * @return The identifier of the variant of the trace, from 0 to {@link #numberOfVariants()} (excluded), in order of first appearance
+	 */
+	public int getVariantId(int trace) {
+		return variantIds[trace];
+	}
+
+	public int numberOfVariants() {
+		return variantRepresentatives.length;
+	}
+
+	/**
+	 * @return The number of the first trace of the variant
+	 */
+	public int getVariantRepresentative(int variant) {
+		return variantRepresentatives[variant];
+	}
+
+	/**
+	 * @return The number of traces of the variant
+	 */
+	public int getVariantFrequency(int variant) {
+		return variantFrequencies[variant];
+	}
+
+	/**
+	 * @return The encoded characters of the tasks of the log. BEWARE: not a copy!
+	 */
+	public char[] getAlphabet() {
+		return alphabet;
+	}
+
+	/**
+	 * @return The names of the classes of the tasks, in the order of {@link #getAlphabet()}. BEWARE: not a copy!
+	 */
+	public String[] getAlphabetNames() {
+		return alphabetNames;
+	}
+
+	/**
+	 * @param other Another arena
+	 * @return <code>true</code> if the tasks occurring in both arenas are encoded by the same characters, i.e., if
+	 * their encoded traces can be compared to one another
+	 */
+	public boolean sharesEncodingWith(EncodedLogArena other) {
+		Map<Character, String> names = new HashMap<Character, String>(alphabet.length * 2);
+		Map<String, Character> chars = new HashMap<String, Character>(alphabet.length * 2);
+		for (int i = 0; i < alphabet.length; i++) {
+			names.put(alphabet[i], alphabetNames[i]);
+			chars.put(alphabetNames[i], alphabet[i]);
+		}
+		for (int i = 0; i < other.alphabet.length; i++) {
+			String name = names.get(other.alphabet[i]);
+			Character chr = chars.get(other.alphabetNames[i]);
+			if ((name != null && !name.equals(other.alphabetNames[i])) || (chr != null && chr != other.alphabet[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "EncodedLogArena [traces=" + length() + ", events=" + numberOfEvents() + ", variants=" + numberOfVariants()
+				+ ", tasks=" + alphabet.length + ", timestamps=" + hasTimestamps() + "]";
+	}
+}
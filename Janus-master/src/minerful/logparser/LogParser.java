@@ -26,4 +26,8 @@ public interface LogParser {
 	LogParser takeASlice(Integer from, Integer length);
 	int wholeLength();
 	void shuffleTraces();
+	/**
+	 * @return The encoding of the (navigable) traces of the log, computed once and shared by all the consumers
+	 */
+	EncodedLogArena getEncodedLogArena();
 }
\ No newline at end of file
@@ -81,6 +81,7 @@ public class StringLogParser extends AbstractLogParser implements LogParser {
     protected Collection<AbstractTaskClass> parseLog(String[] strings) {
         for (String strLine : strings) {
             strLine = strLine.trim();
+            this.updateTraceParsers(strLine);
             this.updateClasses(strLine);
         }
         return this.strEventClassifier.getTaskClasses();
@@ -0,0 +1,117 @@
+package minerful.logparser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import minerful.concept.AbstractTaskClass;
+
+import org.deckfour.xes.classification.XEventClass;
+import org.deckfour.xes.extension.std.XConceptExtension;
+
+/**
+ * Event classifier of the {@link XesStreamLogParser}. It works on the values of the classifying attributes of the events,
+ * as read from the XES stream, instead of on OpenXES events.
+ * Event classes get a provisional index in order of first appearance, then they are sorted by identity
+ * as {@link org.deckfour.xes.classification.XEventClasses#harmonizeIndices()} does, so that the resulting encoding is the same of the {@link XesLogParser}.
+ */
+public class XesStreamEventClassifier extends AbstractLogEventClassifier implements LogEventClassifier {
+	/** Separator of the values of the attributes in the identity of an event class, as in {@link org.deckfour.xes.classification.XEventAttributeClassifier} */
+	public static final String CONCATENATION_SYMBOL = "+";
+
+	private String[] classifyingKeys;
+	private Map<String, Integer> classesIndex = new HashMap<String, Integer>();
+	private List<XesTaskClass> classes = new ArrayList<XesTaskClass>();
+
+	public XesStreamEventClassifier(LogEventClassifier.ClassificationType eventClassificationType) {
+		super(eventClassificationType);
+		if (eventClassificationType.equals(ClassificationType.NAME)) {
+			this.classifyingKeys = new String[]{XConceptExtension.KEY_NAME};
+		}
+	}
+
+	/**
+	 * Sets the attribute keys of the first classifier declared in the log, if the classification is log-specified and no other classifier was set before.
+	 * If the log declares no classifier, the activity name is used.
+	 * @param logSpecifiedClassifiersKeys The attribute keys of the classifiers declared in the log, in order of declaration
+	 * @return <code>true</code> if the log-specified classifier is considered, <code>false</code> otherwise
+	 */
+	public boolean addXesClassifiersKeys(List<String[]> logSpecifiedClassifiersKeys) {
+		if (this.classifyingKeys != null) {
+			return false;
+		}
+		if (logSpecifiedClassifiersKeys.isEmpty()) {
+			AbstractLogParser.logger.warn("No event classifier is declared in the log. Events are classified by activity name");
+			this.classifyingKeys = new String[]{XConceptExtension.KEY_NAME};
+			return false;
+		}
+		this.classifyingKeys = logSpecifiedClassifiersKeys.get(0);
+		return true;
+	}
+
+	/**
+	 * @return The keys of the attributes identifying the class of an event, or <code>null</code> if not yet known
+	 */
+	public String[] getClassifyingKeys() {
+		return classifyingKeys;
+	}
+
+	/**
+	 * Returns the provisional index of the class of an event, registering the class if not yet known.
+	 * @param classifyingValues The values of the {@link #getClassifyingKeys() classifying attributes} of the event, <code>null</code> if missing
+	 * @return The provisional index of the class of the event
+	 */
+	public int classify(String[] classifyingValues) {
+		String identity = null;
+		if (classifyingValues.length == 1) {
+			identity = (classifyingValues[0] == null ? "" : classifyingValues[0]);
+		} else {
+			StringBuilder sBuil = new StringBuilder();
+			for (int i = 0; i < classifyingValues.length; i++) {
+				if (i > 0)
+					sBuil.append(CONCATENATION_SYMBOL);
+				if (classifyingValues[i] != null)
+					sBuil.append(classifyingValues[i]);
+			}
+			identity = sBuil.toString();
+		}
+		Integer index = this.classesIndex.get(identity);
+		if (index == null) {
+			index = this.classes.size();
+			this.classesIndex.put(identity, index);
+			this.classes.add(new XesTaskClass(new XEventClass(identity, index)));
+		}
+		return index;
+	}
+
+	/**
+	 * @return The class with the given provisional index
+	 */
+	public XesTaskClass getTaskClass(int index) {
+		return this.classes.get(index);
+	}
+
+	public int size() {
+		return this.classes.size();
+	}
+
+	/**
+	 * Returns the classes sorted by identity, re-indexing them accordingly (the provisional indices are kept).
+	 */
+	@Override
+	public Collection<AbstractTaskClass> getTaskClasses() {
+		List<XesTaskClass> sortedClasses = new ArrayList<XesTaskClass>(this.classes);
+		Collections.sort(sortedClasses);
+		Collection<AbstractTaskClass> taskClasses = new ArrayList<AbstractTaskClass>(sortedClasses.size());
+		XesTaskClass harmonizedClass = null;
+		for (int i = 0; i < sortedClasses.size(); i++) {
+			harmonizedClass = new XesTaskClass(new XEventClass(sortedClasses.get(i).getName(), i));
+			this.classes.set(this.classesIndex.get(harmonizedClass.getName()), harmonizedClass);
+			taskClasses.add(harmonizedClass);
+		}
+		return taskClasses;
+	}
+}
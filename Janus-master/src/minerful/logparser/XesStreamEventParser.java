@@ -0,0 +1,30 @@
+package minerful.logparser;
+
+import minerful.concept.Event;
+
+public class XesStreamEventParser implements LogEventParser {
+	private XesStreamTraceParser xesStreamTraceParser;
+	public final int index;
+
+	public XesStreamEventParser(XesStreamTraceParser xesStreamTraceParser, int index) {
+		this.xesStreamTraceParser = xesStreamTraceParser;
+		this.index = index;
+	}
+
+	@Override
+	public Character evtIdentifier() {
+		return this.xesStreamTraceParser.getEncodedEvent(index);
+	}
+
+	/**
+	 * @return The timestamp of the event, or {@link XesStreamLogParser#NO_TIMESTAMP} if not available
+	 */
+	public long getTimestamp() {
+		return this.xesStreamTraceParser.getTimestamp(index);
+	}
+
+	@Override
+	public Event getEvent() {
+		return new Event(this.xesStreamTraceParser.xesStreamLogParser.taChaEncoDeco.decode(evtIdentifier()));
+	}
+}
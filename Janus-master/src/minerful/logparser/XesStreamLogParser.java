@@ -0,0 +1,408 @@
+package minerful.logparser;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+
+import minerful.concept.AbstractTaskClass;
+import minerful.concept.TaskCharArchive;
+import minerful.io.encdec.TaskCharEncoderDecoder;
+
+/**
+ * Parser of XES logs (also compressed) reading the file as a stream of XML elements,
+ * instead of building the OpenXES log in memory as {@link XesLogParser} does.
+ * Only the class of every event (and, on request, its timestamp) is kept: each trace is stored as an array of
+ * characters encoded over the {@link TaskCharArchive} of the log (see {@link XesStreamTraceParser}).
+ * <p>
+ * In the default, one-pass mode, the traces are first stored with the provisional index of their event classes,
+ * then re-encoded once the alphabet is known.
+ * In the two-pass mode, the first read of the file only discovers the alphabet, so that the traces are encoded
+ * directly during the second read.
+ * The encoding is the same as the one of the {@link XesLogParser} on the same log.
+ */
+public class XesStreamLogParser extends AbstractLogParser implements LogParser {
+	public static final String LOG_ELEMENT = "log";
+	public static final String CLASSIFIER_ELEMENT = "classifier";
+	public static final String TRACE_ELEMENT = "trace";
+	public static final String EVENT_ELEMENT = "event";
+	public static final String DATE_ELEMENT = "date";
+	public static final String KEY_ATTRIBUTE = "key";
+	public static final String VALUE_ATTRIBUTE = "value";
+	public static final String KEYS_ATTRIBUTE = "keys";
+	/** Timestamp of the events with no (readable) timestamp */
+	public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+	private static final int INPUT_BUFFER_SIZE = 1 << 16;
+	private static final int INITIAL_TRACE_CAPACITY = 64;
+
+	protected XesStreamEventClassifier xesStreamEventClassifier;
+	protected boolean twoPasses;
+	protected boolean keepTimestamps;
+
+	protected XesStreamLogParser(TaskCharEncoderDecoder taChaEncoDeco,
+			TaskCharArchive taskCharArchive,
+			List<LogTraceParser> traceParsers,
+			Integer startingTrace,
+			Integer subLogLength,
+			XesStreamEventClassifier xesStreamEventClassifier,
+			boolean twoPasses,
+			boolean keepTimestamps) {
+		super(taChaEncoDeco, taskCharArchive, traceParsers, startingTrace, subLogLength);
+		this.xesStreamEventClassifier = xesStreamEventClassifier;
+		this.twoPasses = twoPasses;
+		this.keepTimestamps = keepTimestamps;
+	}
+
+	private void init(
+			LogEventClassifier.ClassificationType evtClassType,
+			Integer startingTrace,
+			Integer subLogLength,
+			boolean twoPasses,
+			boolean keepTimestamps) {
+		this.traceParsers = new ArrayList<LogTraceParser>();
+		this.taChaEncoDeco = new TaskCharEncoderDecoder();
+		this.xesStreamEventClassifier = new XesStreamEventClassifier(evtClassType);
+		this.twoPasses = twoPasses;
+		this.keepTimestamps = keepTimestamps;
+
+		super.init(startingTrace, subLogLength);
+	}
+
+	public XesStreamLogParser(File xesFile,
+			LogEventClassifier.ClassificationType evtClassType) throws Exception {
+		this(xesFile, evtClassType, 0, 0, null, false, false);
+	}
+
+	public XesStreamLogParser(File xesFile,
+			LogEventClassifier.ClassificationType evtClassType,
+			TaskCharArchive taskCharArchive) throws Exception {
+		this(xesFile, evtClassType, 0, 0, taskCharArchive, false, false);
+	}
+
+	/**
+	 * @param xesFile The XES file, either plain or gzip-compressed
+	 * @param evtClassType The classification of events
+	 * @param startingTrace Number of the trace to start the analysis from
+	 * @param subLogLength Length of the sub-sequence of traces to analyse
+	 * @param taskCharArchive Archive of the already encoded tasks, or <code>null</code>
+	 * @param twoPasses Whether the file should be read twice, first to discover the alphabet, then to encode the traces
+	 * @param keepTimestamps Whether the timestamps of the events should be kept (see {@link XesStreamTraceParser#getTimestamps()})
+	 * @throws Exception
+	 */
+	public XesStreamLogParser(
+			File xesFile,
+			LogEventClassifier.ClassificationType evtClassType,
+			Integer startingTrace,
+			Integer subLogLength,
+			TaskCharArchive taskCharArchive,
+			boolean twoPasses,
+			boolean keepTimestamps) throws Exception {
+		if (!xesFile.canRead()) {
+			throw new IllegalArgumentException("Unparsable log file: " + xesFile.getAbsolutePath());
+		}
+		this.init(evtClassType, startingTrace, subLogLength, twoPasses, keepTimestamps);
+
+		if (this.twoPasses) {
+			// First pass: alphabet discovery only
+			this.parseStream(xesFile, false, null);
+			super.archiveTaskChars(this.xesStreamEventClassifier.getTaskClasses(), taskCharArchive);
+			// Second pass: the traces are directly encoded
+			this.parseStream(xesFile, true, this.makeEncodingTable());
+		} else {
+			super.archiveTaskChars(this.parseLog(xesFile), taskCharArchive);
+			char[] encodingTable = this.makeEncodingTable();
+			for (LogTraceParser traceParser : this.traceParsers) {
+				((XesStreamTraceParser) traceParser).reEncode(encodingTable);
+			}
+		}
+
+		super.postInit();
+	}
+
+	/**
+	 * Reads the traces from an {@link EncodedLogArena} previously encoded from a XES log, instead of parsing the log again.
+	 * The tasks are encoded as the {@link XesLogParser} would encode them on the same log.
+	 * @param arena The encoded log
+	 * @param evtClassType The classification of events with which the arena was encoded
+	 * @param startingTrace Number of the trace to start the analysis from
+	 * @param subLogLength Length of the sub-sequence of traces to analyse
+	 * @param taskCharArchive Archive of the already encoded tasks, or <code>null</code>
+	 */
+	public XesStreamLogParser(
+			EncodedLogArena arena,
+			LogEventClassifier.ClassificationType evtClassType,
+			Integer startingTrace,
+			Integer subLogLength,
+			TaskCharArchive taskCharArchive) {
+		this.init(evtClassType, startingTrace, subLogLength, false, arena.hasTimestamps());
+
+		// Provisional index of the class of every character of the arena
+		char[] alphabet = arena.getAlphabet();
+		String[] alphabetNames = arena.getAlphabetNames();
+		int maxChar = 0;
+		for (char chr : alphabet) {
+			maxChar = Math.max(maxChar, chr);
+		}
+		char[] provisionalIndices = new char[maxChar + 1];
+		for (int i = 0; i < alphabet.length; i++) {
+			provisionalIndices[alphabet[i]] = (char) this.xesStreamEventClassifier.classify(new String[]{alphabetNames[i]});
+		}
+
+		char[] events = arena.getEvents();
+		long[] timestamps = arena.getTimestamps();
+		for (int t = 0; t < arena.length(); t++) {
+			int from = arena.getTraceStart(t), to = arena.getTraceStart(t + 1);
+			char[] encodedTrace = new char[to - from];
+			for (int i = from; i < to; i++) {
+				encodedTrace[i - from] = provisionalIndices[events[i]];
+			}
+			this.traceParsers.add(
+					new XesStreamTraceParser(
+							encodedTrace,
+							(timestamps == null ? null : Arrays.copyOfRange(timestamps, from, to)),
+							arena.getTraceName(t),
+							this));
+		}
+
+		super.archiveTaskChars(this.xesStreamEventClassifier.getTaskClasses(), taskCharArchive);
+		char[] encodingTable = this.makeEncodingTable();
+		for (LogTraceParser traceParser : this.traceParsers) {
+			((XesStreamTraceParser) traceParser).reEncode(encodingTable);
+		}
+
+		super.postInit();
+	}
+
+	/**
+	 * Reads the traces, storing the events with the provisional index of their class
+	 */
+	@Override
+	protected Collection<AbstractTaskClass> parseLog(File xesFile) throws Exception {
+		this.parseStream(xesFile, true, null);
+		return this.xesStreamEventClassifier.getTaskClasses();
+	}
+
+	/**
+	 * @return The encoded character of every event class, indexed by the index of the class
+	 */
+	private char[] makeEncodingTable() {
+		char[] encodingTable = new char[this.xesStreamEventClassifier.size()];
+		for (int i = 0; i < encodingTable.length; i++) {
+			encodingTable[i] = this.taChaEncoDeco.encode(this.xesStreamEventClassifier.getTaskClass(i));
+		}
+		return encodingTable;
+	}
+
+	/**
+	 * Reads the XES file as a stream.
+	 * @param xesFile The XES file, either plain or gzip-compressed
+	 * @param readTraces Whether the traces should be stored, or the event classes only discovered
+	 * @param encodingTable Encoded characters of the event classes, or <code>null</code> to store the provisional index of the classes
+	 */
+	protected void parseStream(File xesFile, boolean readTraces, char[] encodingTable) throws IOException, XMLStreamException {
+		XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+		xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+
+		InputStream in = openStream(xesFile);
+		XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+
+		List<String[]> declaredClassifiersKeys = new ArrayList<String[]>();
+		String[] classifyingKeys = null;
+		String[] classifyingValues = null;
+		char[] traceBuffer = new char[INITIAL_TRACE_CAPACITY];
+		long[] timestampsBuffer = (readTraces && keepTimestamps ? new long[INITIAL_TRACE_CAPACITY] : null);
+		int
+			depth = 0,
+			traceDepth = -1,
+			eventDepth = -1,
+			traceLength = 0,
+			classIndex = 0;
+		long eventTimestamp = NO_TIMESTAMP;
+		String
+			element = null,
+			key = null,
+			traceName = null;
+
+		try {
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					element = reader.getLocalName();
+					if (depth == 1) {
+						if (!LOG_ELEMENT.equals(element)) {
+							throw new IllegalArgumentException("Unparsable log file: " + xesFile.getAbsolutePath() + " is not a XES log");
+						}
+					} else if (eventDepth > 0) {
+						// Only the attributes of the event are considered, not the nested ones
+						if (depth == eventDepth + 1) {
+							key = reader.getAttributeValue(null, KEY_ATTRIBUTE);
+							for (int k = 0; k < classifyingKeys.length; k++) {
+								if (classifyingKeys[k].equals(key)) {
+									classifyingValues[k] = reader.getAttributeValue(null, VALUE_ATTRIBUTE);
+								}
+							}
+							if (timestampsBuffer != null && DATE_ELEMENT.equals(element) && XTimeExtension.KEY_TIMESTAMP.equals(key)) {
+								eventTimestamp = parseTimestamp(reader.getAttributeValue(null, VALUE_ATTRIBUTE));
+							}
+						}
+					} else if (traceDepth > 0) {
+						if (depth == traceDepth + 1) {
+							if (EVENT_ELEMENT.equals(element)) {
+								eventDepth = depth;
+								Arrays.fill(classifyingValues, null);
+								eventTimestamp = NO_TIMESTAMP;
+							} else if (XConceptExtension.KEY_NAME.equals(reader.getAttributeValue(null, KEY_ATTRIBUTE))) {
+								traceName = reader.getAttributeValue(null, VALUE_ATTRIBUTE);
+							}
+						}
+					} else if (depth == 2) {
+						if (TRACE_ELEMENT.equals(element)) {
+							// The classifiers are declared before the traces
+							if (classifyingKeys == null) {
+								this.xesStreamEventClassifier.addXesClassifiersKeys(declaredClassifiersKeys);
+								classifyingKeys = this.xesStreamEventClassifier.getClassifyingKeys();
+								classifyingValues = new String[classifyingKeys.length];
+							}
+							traceDepth = depth;
+							traceLength = 0;
+							traceName = null;
+						} else if (CLASSIFIER_ELEMENT.equals(element)) {
+							declaredClassifiersKeys.add(parseClassifierKeys(reader.getAttributeValue(null, KEYS_ATTRIBUTE)));
+						}
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (depth == eventDepth) {
+						classIndex = this.xesStreamEventClassifier.classify(classifyingValues);
+						if (readTraces) {
+							if (traceLength == traceBuffer.length) {
+								traceBuffer = Arrays.copyOf(traceBuffer, traceLength * 2);
+								if (timestampsBuffer != null)
+									timestampsBuffer = Arrays.copyOf(timestampsBuffer, traceLength * 2);
+							}
+							if (encodingTable == null) {
+								traceBuffer[traceLength] = (char) classIndex;
+							} else {
+								if (classIndex >= encodingTable.length)
+									throw new IllegalStateException("The log file " + xesFile.getAbsolutePath() + " changed between the two passes");
+								traceBuffer[traceLength] = encodingTable[classIndex];
+							}
+							if (timestampsBuffer != null)
+								timestampsBuffer[traceLength] = eventTimestamp;
+						}
+						traceLength++;
+						eventDepth = -1;
+					} else if (depth == traceDepth) {
+						if (readTraces) {
+							this.traceParsers.add(
+									new XesStreamTraceParser(
+											Arrays.copyOf(traceBuffer, traceLength),
+											(timestampsBuffer == null ? null : Arrays.copyOf(timestampsBuffer, traceLength)),
+											traceName,
+											this));
+						}
+						traceDepth = -1;
+					}
+					depth--;
+					break;
+				default:
+					break;
+				}
+			}
+		} finally {
+			reader.close();
+			in.close();
+		}
+	}
+
+	/**
+	 * Opens the file, decompressing it if it is gzip-compressed
+	 */
+	private static InputStream openStream(File xesFile) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(xesFile), INPUT_BUFFER_SIZE);
+		in.mark(2);
+		int
+			firstByte = in.read(),
+			secondByte = in.read();
+		in.reset();
+		if (firstByte == (GZIPInputStream.GZIP_MAGIC & 0xff) && secondByte == (GZIPInputStream.GZIP_MAGIC >> 8)) {
+			return new GZIPInputStream(in, INPUT_BUFFER_SIZE);
+		}
+		return in;
+	}
+
+	/**
+	 * Splits the keys of a XES classifier. Keys are separated by white spaces, unless enclosed in single quotes.
+	 */
+	private static String[] parseClassifierKeys(String keys) {
+		List<String> parsedKeys = new ArrayList<String>();
+		if (keys != null) {
+			StringBuilder sBuil = new StringBuilder();
+			boolean quoted = false;
+			for (char chr : keys.toCharArray()) {
+				if (chr == '\'') {
+					quoted = !quoted;
+				} else if (Character.isWhitespace(chr) && !quoted) {
+					if (sBuil.length() > 0) {
+						parsedKeys.add(sBuil.toString());
+						sBuil.setLength(0);
+					}
+				} else {
+					sBuil.append(chr);
+				}
+			}
+			if (sBuil.length() > 0) {
+				parsedKeys.add(sBuil.toString());
+			}
+		}
+		return parsedKeys.toArray(new String[parsedKeys.size()]);
+	}
+
+	private static long parseTimestamp(String value) {
+		if (value == null)
+			return NO_TIMESTAMP;
+		try {
+			return DatatypeConverter.parseDateTime(value).getTimeInMillis();
+		} catch (IllegalArgumentException e) {
+			logger.warn("Unreadable timestamp: " + value);
+			return NO_TIMESTAMP;
+		}
+	}
+
+	public boolean isKeepingTimestamps() {
+		return this.keepTimestamps;
+	}
+
+	@Override
+	public LogEventClassifier getEventClassifier() {
+		return this.xesStreamEventClassifier;
+	}
+
+	@Override
+	protected AbstractLogParser makeACopy(
+			TaskCharEncoderDecoder taChaEncoDeco,
+			TaskCharArchive taskCharArchive,
+			List<LogTraceParser> traceParsers,
+			Integer startingTrace,
+			Integer subLogLength) {
+		return new XesStreamLogParser(taChaEncoDeco, taskCharArchive, traceParsers, startingTrace, subLogLength, xesStreamEventClassifier, twoPasses, keepTimestamps);
+	}
+}
@@ -0,0 +1,151 @@
+package minerful.logparser;
+
+/**
+ * Trace of a {@link XesStreamLogParser}, stored as the sequence of the encoded characters of its events
+ * (and, on request, of their timestamps).
+ */
+public class XesStreamTraceParser extends AbstractTraceParser implements LogTraceParser {
+	private final char[] encodedTrace;
+	private final long[] timestamps;
+	private final String name;
+	protected XesStreamLogParser xesStreamLogParser;
+	private int currentIndex;
+	private XesStreamEventParser xesStreamEventParser;
+
+	public XesStreamTraceParser(char[] encodedTrace, long[] timestamps, String name, XesStreamLogParser xesStreamLogParser) {
+		this.encodedTrace = encodedTrace;
+		this.timestamps = timestamps;
+		this.name = name;
+		this.xesStreamLogParser = xesStreamLogParser;
+		this.parsing = true;
+
+		this.init();
+	}
+
+	/**
+	 * Replaces the provisional indices of the event classes with their encoded characters
+	 * @param encodingTable The encoded character of every event class, indexed by the index of the class
+	 */
+	void reEncode(char[] encodingTable) {
+		for (int i = 0; i < encodedTrace.length; i++) {
+			encodedTrace[i] = encodingTable[encodedTrace[i]];
+		}
+	}
+
+	@Override
+	public LogParser getLogParser() {
+		return this.xesStreamLogParser;
+	}
+
+	@Override
+	public Character parseSubsequentAndEncode() {
+		Character encodedEvent = null;
+		if (stepToSubsequent()) {
+			encodedEvent = xesStreamEventParser.evtIdentifier();
+		}
+		return encodedEvent;
+	}
+
+	@Override
+	public LogEventParser parseSubsequent() {
+		if (stepToSubsequent()) {
+			return xesStreamEventParser;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean isParsingOver() {
+		return (
+			this.isParsing() &&
+			(this.senseOfReading.equals(SenseOfReading.BACKWARDS) && this.currentIndex <= 0)
+			||
+			(this.senseOfReading.equals(SenseOfReading.ONWARDS) && this.currentIndex >= this.encodedTrace.length - 1));
+	}
+
+	@Override
+	public boolean stepToSubsequent() {
+		if (!isParsingOver()) {
+			switch(this.senseOfReading) {
+			case ONWARDS:
+				this.currentIndex++;
+				this.xesStreamEventParser = new XesStreamEventParser(this, this.currentIndex);
+				break;
+			case BACKWARDS:
+				this.currentIndex--;
+				this.xesStreamEventParser = new XesStreamEventParser(this, this.currentIndex);
+				break;
+			default:
+				break;
+			}
+		} else {
+			this.xesStreamEventParser = null;
+			this.parsing = false;
+		}
+		return isParsing();
+	}
+
+	@Override
+	public void init() {
+		switch (this.getSenseOfReading()) {
+		case BACKWARDS:
+			this.currentIndex = encodedTrace.length;
+			break;
+		case ONWARDS:
+		default:
+			this.currentIndex = -1;
+			break;
+		}
+		this.parsing = true;
+	}
+
+	@Override
+	public int length() {
+		return encodedTrace.length;
+	}
+
+	/**
+	 * @return The encoded character of the event at the given position
+	 */
+	public char getEncodedEvent(int index) {
+		return encodedTrace[index];
+	}
+
+	/**
+	 * @return The timestamp of the event at the given position, or {@link XesStreamLogParser#NO_TIMESTAMP} if not available
+	 */
+	public long getTimestamp(int index) {
+		return (timestamps == null ? XesStreamLogParser.NO_TIMESTAMP : timestamps[index]);
+	}
+
+	/**
+	 * @return The timestamps of the events (in milliseconds since the epoch), or <code>null</code> if they were not kept. BEWARE: not a copy!
+	 */
+	public long[] getTimestamps() {
+		return timestamps;
+	}
+
+	@Override
+	public String encodeTrace() {
+		return new String(encodedTrace);
+	}
+
+	@Override
+	public String printStringTrace() {
+		StringBuilder sBuil = new StringBuilder();
+		sBuil.append('<');
+		for (int i = 0; i < encodedTrace.length; i++) {
+			if (i > 0)
+				sBuil.append(',');
+			sBuil.append(xesStreamLogParser.taChaEncoDeco.decode(encodedTrace[i]));
+		}
+		sBuil.append('>');
+
+		return sBuil.toString();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+}
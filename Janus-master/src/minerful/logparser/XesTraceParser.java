@@ -1,8 +1,12 @@
 package minerful.logparser;
 
+import java.util.Date;
 import java.util.Iterator;
 import java.util.ListIterator;
 
+import org.deckfour.xes.extension.std.XConceptExtension;
+import org.deckfour.xes.extension.std.XTimeExtension;
+import org.deckfour.xes.model.XAttribute;
 import org.deckfour.xes.model.XEvent;
 import org.deckfour.xes.model.XTrace;
 
@@ -119,6 +123,27 @@ public class XesTraceParser extends AbstractTraceParser implements LogTraceParse
 
 	@Override
 	public String getName() {
-		return this.xesTrace.getAttributes().get("concept:name").toString();
+		XAttribute name = this.xesTrace.getAttributes().get(XConceptExtension.KEY_NAME);
+		return (name == null ? null : name.toString());
+	}
+
+	/**
+	 * @return The timestamps of the events (in milliseconds since the epoch), {@link XesStreamLogParser#NO_TIMESTAMP} for the events without one,
+	 * or <code>null</code> if no event has a timestamp
+	 */
+	public long[] extractTimestamps() {
+		long[] timestamps = new long[this.xesTrace.size()];
+		boolean timestamped = false;
+		int i = 0;
+		for (XEvent event : this.xesTrace) {
+			Date timestamp = XTimeExtension.instance().extractTimestamp(event);
+			if (timestamp == null) {
+				timestamps[i++] = XesStreamLogParser.NO_TIMESTAMP;
+			} else {
+				timestamps[i++] = timestamp.getTime();
+				timestamped = true;
+			}
+		}
+		return (timestamped ? timestamps : null);
 	}
 }
\ No newline at end of file
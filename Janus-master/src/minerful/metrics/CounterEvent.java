@@ -0,0 +1,30 @@
+package minerful.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the increment of a counter of {@link PipelineMetrics} during a phase,
+ * recorded when the phase ends.
+ */
+@Name("minerful.Counter")
+@Label("Pipeline Counter")
+@Category({ "MINERful", "Pipeline" })
+@Description("Increment of a counter of a MINERful or Janus pipeline during a phase")
+@StackTrace(false)
+public class CounterEvent extends jdk.jfr.Event {
+	@Label("Phase")
+	public String phase;
+
+	@Label("Counter")
+	public String counter;
+
+	@Label("Increment")
+	public long increment;
+
+	@Label("Total")
+	public long total;
+}
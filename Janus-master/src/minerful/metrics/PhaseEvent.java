@@ -0,0 +1,35 @@
+package minerful.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a phase of a pipeline, recorded by {@link PipelineMetrics.Phase}.
+ * The duration of the phase is the one of the event.
+ */
+@Name("minerful.Phase")
+@Label("Pipeline Phase")
+@Category({ "MINERful", "Pipeline" })
+@Description("A timed phase of a MINERful or Janus pipeline")
+@StackTrace(false)
+public class PhaseEvent extends jdk.jfr.Event {
+	@Label("Phase")
+	public String phase;
+
+	@Label("Used Heap Before")
+	@DataAmount
+	public long heapUsedBefore;
+
+	@Label("Used Heap After")
+	@DataAmount
+	public long heapUsedAfter;
+
+	@Label("Allocated")
+	@Description("Bytes allocated by the thread running the phase (-1 if not supported by the JVM)")
+	@DataAmount
+	public long allocatedBytes;
+}
@@ -0,0 +1,276 @@
+package minerful.metrics;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import minerful.utils.MessagePrinter;
+
+/**
+ * Process-wide metrics of the mining and measurement pipelines: named phases, timed along with the used heap before and after them
+ * and the bytes allocated by the thread running them, and counters of the processed items
+ * (e.g., {@link #TRACES traces}, {@link #EVENTS events}, {@link #AUTOMATA automata}, {@link #PERMUTATIONS permutations}).
+ * <p>
+ * Every phase is recorded as a {@link PhaseEvent} for the Java Flight Recorder (if a recording is active),
+ * followed by a {@link CounterEvent} for every counter incremented while the phase was running.
+ * All the phases and counters can also be saved as a JSON report with {@link #saveReport(File)}.
+ * <p>
+ * Usage:
+ * <pre>
+ * try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("kbConstruction")) {
+ *     ...
+ * }
+ * </pre>
+ */
+public class PipelineMetrics {
+	public static MessagePrinter logger = MessagePrinter.getInstance(PipelineMetrics.class);
+
+	public static final String TRACES = "traces";
+	public static final String EVENTS = "events";
+	public static final String AUTOMATA = "automata";
+	public static final String PERMUTATIONS = "permutations";
+
+	private static final PipelineMetrics INSTANCE = new PipelineMetrics();
+
+	private final Map<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+	private final List<PhaseRecord> phases = new ArrayList<PhaseRecord>();
+	private final long startTime = System.currentTimeMillis();
+
+	private PipelineMetrics() {
+	}
+
+	public static PipelineMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Starts a phase. The phase is recorded when it is {@link Phase#close() closed}.
+	 * @param name Name of the phase
+	 * @return The running phase
+	 */
+	public Phase startPhase(String name) {
+		return new Phase(name);
+	}
+
+	/**
+	 * Adds the given amount to a counter (created if missing)
+	 * @param counter Name of the counter
+	 * @param delta Amount to add
+	 */
+	public void count(String counter, long delta) {
+		AtomicLong value = counters.get(counter);
+		if (value == null) {
+			counters.putIfAbsent(counter, new AtomicLong());
+			value = counters.get(counter);
+		}
+		value.addAndGet(delta);
+	}
+
+	/**
+	 * @return The current value of the counter (0 if it was never incremented)
+	 */
+	public long getCount(String counter) {
+		AtomicLong value = counters.get(counter);
+		return value == null ? 0L : value.get();
+	}
+
+	private Map<String, Long> snapshotCounters() {
+		Map<String, Long> snapshot = new TreeMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> counter : counters.entrySet()) {
+			snapshot.put(counter.getKey(), counter.getValue().get());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Removes all the recorded phases and counters
+	 */
+	public synchronized void reset() {
+		phases.clear();
+		counters.clear();
+	}
+
+	private synchronized void record(PhaseRecord phaseRecord) {
+		phases.add(phaseRecord);
+	}
+
+	/**
+	 * @return The recorded phases, in order of end, and the counters as a JSON object
+	 */
+	public synchronized JsonObject toJson() {
+		JsonObject report = new JsonObject();
+		report.addProperty("startTime", startTime);
+		report.addProperty("reportTime", System.currentTimeMillis());
+
+		JsonArray phasesArray = new JsonArray();
+		for (PhaseRecord phaseRecord : phases) {
+			JsonObject phaseObject = new JsonObject();
+			phaseObject.addProperty("name", phaseRecord.name);
+			phaseObject.addProperty("thread", phaseRecord.thread);
+			phaseObject.addProperty("startTime", phaseRecord.startTime);
+			phaseObject.addProperty("durationMillis", phaseRecord.durationNanos / 1000000.0);
+			phaseObject.addProperty("heapUsedBefore", phaseRecord.heapUsedBefore);
+			phaseObject.addProperty("heapUsedAfter", phaseRecord.heapUsedAfter);
+			phaseObject.addProperty("allocatedBytes", phaseRecord.allocatedBytes);
+			JsonObject incrementsObject = new JsonObject();
+			for (Map.Entry<String, Long> increment : phaseRecord.counterIncrements.entrySet()) {
+				incrementsObject.addProperty(increment.getKey(), increment.getValue());
+			}
+			phaseObject.add("counters", incrementsObject);
+			phasesArray.add(phaseObject);
+		}
+		report.add("phases", phasesArray);
+
+		JsonObject countersObject = new JsonObject();
+		for (Map.Entry<String, Long> counter : snapshotCounters().entrySet()) {
+			countersObject.addProperty(counter.getKey(), counter.getValue());
+		}
+		report.add("counters", countersObject);
+		return report;
+	}
+
+	/**
+	 * Saves the recorded phases and counters as a JSON report
+	 * @param reportFile Output file
+	 */
+	public void saveReport(File reportFile) {
+		Gson gson = new GsonBuilder().setPrettyPrinting().create();
+		try (Writer writer = new FileWriter(reportFile)) {
+			gson.toJson(toJson(), writer);
+		} catch (IOException e) {
+			logger.error("Metrics report could not be saved in " + reportFile, e);
+			return;
+		}
+		logger.info("Metrics report saved in " + reportFile.getAbsolutePath());
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * @return The bytes allocated so far by the current thread, or -1 if the JVM cannot measure them
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+			if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+				return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1L;
+	}
+
+	/**
+	 * A running phase. Closing it records the phase and emits its Flight Recorder events.
+	 * The allocated bytes are the ones of the thread that started the phase, so the allocations of worker threads are not included.
+	 */
+	public class Phase implements AutoCloseable {
+		private final String name;
+		private final long startTime;
+		private final long startNanos;
+		private final long heapUsedBefore;
+		private final long allocatedBytesBefore;
+		private final Map<String, Long> countersBefore;
+		private final PhaseEvent event;
+		private boolean closed = false;
+
+		private Phase(String name) {
+			this.name = name;
+			this.event = new PhaseEvent();
+			this.event.begin();
+			this.countersBefore = snapshotCounters();
+			this.heapUsedBefore = usedHeap();
+			this.allocatedBytesBefore = allocatedBytes();
+			this.startTime = System.currentTimeMillis();
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * @return The elapsed time since the start of the phase, in milliseconds
+		 */
+		public long getElapsedMillis() {
+			return (System.nanoTime() - startNanos) / 1000000L;
+		}
+
+		@Override
+		public void close() {
+			if (closed)
+				return;
+			closed = true;
+			long durationNanos = System.nanoTime() - startNanos;
+			long allocatedBytesAfter = allocatedBytes();
+			long allocated = (allocatedBytesBefore < 0 || allocatedBytesAfter < 0) ? -1L : allocatedBytesAfter - allocatedBytesBefore;
+			long heapUsedAfter = usedHeap();
+
+			Map<String, Long> counterIncrements = new TreeMap<String, Long>();
+			for (Map.Entry<String, Long> counter : snapshotCounters().entrySet()) {
+				Long before = countersBefore.get(counter.getKey());
+				long increment = counter.getValue() - (before == null ? 0L : before);
+				if (increment != 0)
+					counterIncrements.put(counter.getKey(), increment);
+			}
+
+			event.end();
+			if (event.shouldCommit()) {
+				event.phase = name;
+				event.heapUsedBefore = heapUsedBefore;
+				event.heapUsedAfter = heapUsedAfter;
+				event.allocatedBytes = allocated;
+				event.commit();
+			}
+			for (Map.Entry<String, Long> increment : counterIncrements.entrySet()) {
+				CounterEvent counterEvent = new CounterEvent();
+				if (counterEvent.isEnabled()) {
+					counterEvent.phase = name;
+					counterEvent.counter = increment.getKey();
+					counterEvent.increment = increment.getValue();
+					counterEvent.total = getCount(increment.getKey());
+					counterEvent.commit();
+				}
+			}
+
+			record(new PhaseRecord(name, Thread.currentThread().getName(), startTime, durationNanos,
+					heapUsedBefore, heapUsedAfter, allocated, counterIncrements));
+		}
+	}
+
+	private static class PhaseRecord {
+		final String name;
+		final String thread;
+		final long startTime;
+		final long durationNanos;
+		final long heapUsedBefore;
+		final long heapUsedAfter;
+		final long allocatedBytes;
+		final Map<String, Long> counterIncrements;
+
+		PhaseRecord(String name, String thread, long startTime, long durationNanos,
+				long heapUsedBefore, long heapUsedAfter, long allocatedBytes, Map<String, Long> counterIncrements) {
+			this.name = name;
+			this.thread = thread;
+			this.startTime = startTime;
+			this.durationNanos = durationNanos;
+			this.heapUsedBefore = heapUsedBefore;
+			this.heapUsedAfter = heapUsedAfter;
+			this.allocatedBytes = allocatedBytes;
+			this.counterIncrements = counterIncrements;
+		}
+	}
+}
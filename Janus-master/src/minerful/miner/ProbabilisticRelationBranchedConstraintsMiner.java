@@ -76,6 +76,11 @@ public class ProbabilisticRelationBranchedConstraintsMiner extends RelationConst
 		return setOfConstraints;
 	}
 
+	/**
+	 * Discovers the branched relation constraints of the {@link #tasksToQueryFor tasksToQueryFor} only.
+	 * Every constraint is indexed by the task under analysis, i.e., its non-branched side,
+	 * thus the bag can be a slice limited to the tasks to query for (see {@link ConstraintsBag#slice(Set)}).
+	 */
 	@Override
 	public ConstraintsBag discoverConstraints(ConstraintsBag constraintsBag) {
         // Initialization
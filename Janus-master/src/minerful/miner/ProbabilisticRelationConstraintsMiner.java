@@ -39,6 +39,8 @@ import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 public class ProbabilisticRelationConstraintsMiner extends RelationConstraintsMiner {
 	private final boolean foreseeingDistances;
+	/** Tasks to be searched in relation with the pivot tasks (all of them, if <code>null</code>) */
+	private Set<TaskChar> searchedTasksToQueryFor = null;
 
     public ProbabilisticRelationConstraintsMiner(GlobalStatsTable globalStats, TaskCharArchive taskCharArchive, Set<TaskChar> tasksToQueryFor) {
         super(globalStats, taskCharArchive, tasksToQueryFor);
@@ -50,6 +52,14 @@ public class ProbabilisticRelationConstraintsMiner extends RelationConstraintsMi
     	this.foreseeingDistances = foreseeingDistances;
     }
     
+    /**
+     * Restricts the discovery to the relation constraints between the pivot tasks and the given searched tasks.
+     * @param searchedTasksToQueryFor Tasks to be searched in relation with the pivot tasks, or <code>null</code> for all of them
+     */
+    public void setSearchedTasksToQueryFor(Set<TaskChar> searchedTasksToQueryFor) {
+        this.searchedTasksToQueryFor = searchedTasksToQueryFor;
+    }
+
     @Override
     public ConstraintsBag discoverConstraints(ConstraintsBag constraintsBag) {
         // Inizialisation
@@ -117,6 +127,8 @@ public class ProbabilisticRelationConstraintsMiner extends RelationConstraintsMi
 
         // For each other character
         for (TaskChar searchedTask : pivotLocalStats.interplayStatsTable.keySet()) {
+        	if (searchedTasksToQueryFor != null && !searchedTasksToQueryFor.contains(searchedTask))
+        		continue;
         	nuRelaCons = super.makeNavigableSet();
             pivotParticipationFraction = this.computeParticipationFraction(pivotTask, pivotLocalStats, globalStats.logSize);
 
@@ -5,6 +5,7 @@ import java.util.concurrent.Callable;
 import minerful.concept.TaskCharArchive;
 import minerful.logparser.LogParser;
 import minerful.miner.params.MinerFulCmdParameters;
+import minerful.miner.stats.DenseOccurrencesStatsBuilder;
 import minerful.miner.stats.GlobalStatsTable;
 import minerful.miner.stats.OccurrencesStatsBuilder;
 
@@ -52,12 +53,18 @@ public class MinerFulKBCore implements Callable<GlobalStatsTable> {
         	after = 0L;
         
         before = System.currentTimeMillis();
-        // initialize the stats builder
-        OccurrencesStatsBuilder statsBuilder =
-//                new OccurrencesStatsBuilder(alphabet, TaskCharEncoderDecoder.CONTEMPORANEITY_CHARACTER_DELIMITER, branchingLimit);
-        		new OccurrencesStatsBuilder(taskCharArchive, branchingLimit);
-        // builds the (empty) stats table
-        GlobalStatsTable statsTable = statsBuilder.checkThisOut(logParser);
+        GlobalStatsTable statsTable = null;
+        if (branchingLimit == null) {
+        	// the knowledge base of non-branched constraints is built on dense arrays
+        	statsTable = new DenseOccurrencesStatsBuilder(taskCharArchive).checkThisOut(logParser);
+        } else {
+	        // initialize the stats builder
+	        OccurrencesStatsBuilder statsBuilder =
+//	                new OccurrencesStatsBuilder(alphabet, TaskCharEncoderDecoder.CONTEMPORANEITY_CHARACTER_DELIMITER, branchingLimit);
+	        		new OccurrencesStatsBuilder(taskCharArchive, branchingLimit);
+	        // builds the (empty) stats table
+	        statsTable = statsBuilder.checkThisOut(logParser);
+        }
         logger.info("Done!");
         
         after = System.currentTimeMillis();
@@ -9,6 +9,7 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -43,6 +44,10 @@ public class MinerFulQueryingCore implements Callable<ConstraintsBag> {
 	private Set<TaskChar> tasksToQueryFor;
 	protected ConstraintsBag bag; 
 	public final int jobNum;
+	/**
+	 * Time spent by this core in querying the knowledge base, in milliseconds
+	 */
+	private long queryingTime = 0L;
 
 	{
         if (logger == null) {
@@ -98,6 +103,14 @@ public class MinerFulQueryingCore implements Callable<ConstraintsBag> {
 		this.statsTable = statsTable;
 	}
 
+	public long getQueryingTime() {
+		return queryingTime;
+	}
+
+	public int getNumberOfTasksToQueryFor() {
+		return tasksToQueryFor.size();
+	}
+
 	public ConstraintsBag discover() {
         long
 	    	possibleNumberOfConstraints = 0L,
@@ -112,7 +125,8 @@ public class MinerFulQueryingCore implements Callable<ConstraintsBag> {
         	exiConTime = 0L,
         	relaConTime = 0L;
         
-        if (minerFulParams.statsOutputFile != null) {
+        // The statistics table is shared by all the cores: only the first one prints it
+        if (minerFulParams.statsOutputFile != null && jobNum == 0) {
         	try {
 				this.marshalStats(statsTable, minerFulParams.statsOutputFile, taskCharArchive);
 			} catch (JAXBException e) {
@@ -166,6 +180,7 @@ public class MinerFulQueryingCore implements Callable<ConstraintsBag> {
         after = System.currentTimeMillis();
 
         relaConTime = after - before;
+        queryingTime = exiConTime + relaConTime;
 
         /*
         // Calculate how much was the space for data structures
@@ -198,6 +213,61 @@ public class MinerFulQueryingCore implements Callable<ConstraintsBag> {
         return this.bag;
     }
 
+	/**
+	 * Re-queries the knowledge base only for the constraints that can be affected by a change of the statistics of the given tasks,
+	 * namely the constraints indexed by (i.e., having as pivot) one of those tasks, and the relation constraints of the other tasks
+	 * that have one of those tasks as searched task. The other constraints of the bag are left as they are.
+	 * This is correct only if the number of traces of the knowledge base did not change since the last query,
+	 * as all the measures are relative to it, and for non-branched constraints.
+	 * @param alteredTasks Tasks whose statistics changed
+	 * @return The updated bag
+	 */
+	public ConstraintsBag discoverAffectedBy(Set<TaskChar> alteredTasks) {
+		if (minerFulParams.isBranchingRequired()) {
+			throw new IllegalStateException("Partial re-querying is not available for branched constraints");
+		}
+		long before = System.currentTimeMillis();
+
+		Set<TaskChar>
+			alteredTasksToQueryFor = new TreeSet<TaskChar>(),
+			unalteredTasksToQueryFor = new TreeSet<TaskChar>();
+		for (TaskChar task : tasksToQueryFor) {
+			if (alteredTasks.contains(task)) {
+				alteredTasksToQueryFor.add(task);
+				// Constraints on tasks that no longer occur must disappear, as they would after a full query
+				this.bag.eraseConstraintsOf(task);
+			} else {
+				unalteredTasksToQueryFor.add(task);
+			}
+		}
+
+		ConstraintsMiner exiConMiner = new ProbabilisticExistenceConstraintsMiner(statsTable, taskCharArchive, alteredTasksToQueryFor);
+		exiConMiner.setSupportThreshold(postPrarams.supportThreshold);
+		exiConMiner.setConfidenceThreshold(postPrarams.confidenceThreshold);
+		exiConMiner.setInterestFactorThreshold(postPrarams.interestFactorThreshold);
+		exiConMiner.discoverConstraints(this.bag);
+
+		ProbabilisticRelationConstraintsMiner relaConMiner =
+				new ProbabilisticRelationConstraintsMiner(statsTable, taskCharArchive, alteredTasksToQueryFor, minerFulParams.foreseeDistances);
+		relaConMiner.setSupportThreshold(postPrarams.supportThreshold);
+		relaConMiner.setConfidenceThreshold(postPrarams.confidenceThreshold);
+		relaConMiner.setInterestFactorThreshold(postPrarams.interestFactorThreshold);
+		relaConMiner.discoverConstraints(this.bag);
+
+		relaConMiner =
+				new ProbabilisticRelationConstraintsMiner(statsTable, taskCharArchive, unalteredTasksToQueryFor, minerFulParams.foreseeDistances);
+		relaConMiner.setSearchedTasksToQueryFor(alteredTasksToQueryFor);
+		relaConMiner.setSupportThreshold(postPrarams.supportThreshold);
+		relaConMiner.setConfidenceThreshold(postPrarams.confidenceThreshold);
+		relaConMiner.setInterestFactorThreshold(postPrarams.interestFactorThreshold);
+		relaConMiner.discoverConstraints(this.bag);
+
+		queryingTime = System.currentTimeMillis() - before;
+		logger.debug("Constraints of " + alteredTasksToQueryFor.size() + " altered tasks re-queried in: " + queryingTime + " msec");
+
+		return this.bag;
+	}
+
 	public void printComputationStats(
 			//long occuTabTime, 
 			long exiConTime, 
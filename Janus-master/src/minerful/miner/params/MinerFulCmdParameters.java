@@ -32,6 +32,8 @@ public class MinerFulCmdParameters extends ParamsManager {
 	public static final String EXCLUDED_FROM_RESULTS_SPEC_FILE_PATH_PARAM_NAME = "exclTasks";
 	public static final String KB_PARALLEL_COMPUTATION_THREADS_PARAM_NAME = "para";
 	public static final String QUERY_PARALLEL_COMPUTATION_THREADS_PARAM_NAME = "paraQ";
+	public static final String KB_SNAPSHOT_OUT_PATH_PARAM_NAME = "kbOut";
+	public static final String KB_SNAPSHOT_TO_APPEND_TO_PATH_PARAM_NAME = "kbAppend";
 //	public static final String TIME_ANALYSIS_PARAM_NAME = "time";
 
 	public static final Integer MINIMUM_BRANCHING_LIMIT = 1;
@@ -42,6 +44,10 @@ public class MinerFulCmdParameters extends ParamsManager {
 	public Integer branchingLimit;
     /** Output file where log statistics are printed out */ 
     public File statsOutputFile;
+    /** Output file where the knowledge base is saved as a binary snapshot */ 
+    public File kbSnapshotOutputFile;
+    /** Binary snapshot of a knowledge base, to which the statistics of the input log are appended before querying */ 
+    public File kbSnapshotToAppendTo;
     /** Ignore this */
 	public Boolean foreseeDistances;
     /** Ignore this */
@@ -113,6 +119,8 @@ public class MinerFulCmdParameters extends ParamsManager {
 //        this.takeTime = line.hasOption(TIME_ANALYSIS_PARAM);
         
        	this.statsOutputFile = openOutputFile(line, STATS_OUT_PATH_PARAM_NAME);
+       	this.kbSnapshotOutputFile = openOutputFile(line, KB_SNAPSHOT_OUT_PATH_PARAM_NAME);
+       	this.kbSnapshotToAppendTo = openInputFile(line, KB_SNAPSHOT_TO_APPEND_TO_PATH_PARAM_NAME);
 
         File listOfExcludedOnesFromResultsFile = openInputFile(line, EXCLUDED_FROM_RESULTS_SPEC_FILE_PATH_PARAM_NAME);
         if (listOfExcludedOnesFromResultsFile != null) {
@@ -154,6 +162,22 @@ public class MinerFulCmdParameters extends ParamsManager {
 						.type(String.class)
 						.build()
         		);
+        options.addOption(
+				Option.builder(KB_SNAPSHOT_OUT_PATH_PARAM_NAME)
+						.hasArg().argName("path")
+						.longOpt("kb-snapshot-out")
+						.desc("path of the file in which the MINERful knowledge base should be saved as a binary snapshot, to which the statistics of new traces can be later appended (not for branched constraints)")
+						.type(String.class)
+						.build()
+        		);
+        options.addOption(
+				Option.builder(KB_SNAPSHOT_TO_APPEND_TO_PATH_PARAM_NAME)
+						.hasArg().argName("path")
+						.longOpt("kb-append-to")
+						.desc("path of a binary snapshot of the MINERful knowledge base: only the traces of the input log are read, and their statistics are added to those of the snapshot before the discovery (not for branched constraints)")
+						.type(String.class)
+						.build()
+        		);
         options.addOption(
                 Option.builder(EXCLUDED_FROM_RESULTS_SPEC_FILE_PATH_PARAM_NAME)
 						.hasArg().argName("path")
@@ -0,0 +1,298 @@
+package minerful.miner.stats;
+
+import java.util.Arrays;
+
+import minerful.concept.TaskChar;
+import minerful.concept.TaskCharArchive;
+import minerful.logparser.EncodedLogArena;
+import minerful.logparser.LogParser;
+import minerful.utils.MessagePrinter;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Builder of the knowledge base of the non-branched constraints, alternative to the {@link OccurrencesStatsBuilder}.
+ * The statistics are gathered in flat primitive arrays indexed by the ordinal of the tasks in the {@link TaskCharArchive}
+ * (pairs of tasks are at <code>pivot * alphabet size + searched</code>), the distances in {@link DistancesHistogram}s,
+ * and the status of the current trace in scratch buffers reused across traces.
+ * Only at the end, the statistics are copied in a {@link GlobalStatsTable}, so that the miners query the same structures as before.
+ * <p>
+ * The counters are the same of the {@link LocalStatsWrapper}, but the ones depending on the number of occurrences of the pivot
+ * after the last occurrence of another task (the alternations and the "never more" appearances)
+ * are derived from the number of occurrences of the pivot in the trace so far, instead of being incremented at every occurrence.
+ * Both the onwards and the backwards readings of a trace are done one after the other, on the encoded trace.
+ */
+public class DenseOccurrencesStatsBuilder {
+	private static final int PROGRESS_BAR_SCALE = 40;
+	private static final int NOT_IN_ALPHABET = -1;
+	private static final int INITIAL_POSITIONS_CAPACITY = 8;
+	protected static Logger logger;
+
+	private final TaskCharArchive taskCharArchive;
+	private final TaskChar[] tasks;
+	private final int alphabetSize;
+	/** Ordinal of the task encoded by every character, or {@link #NOT_IN_ALPHABET} */
+	private final int[] ordinalsOfChars;
+
+	// Knowledge base
+	private long logSize = 0L;
+	private final long[] totalAmountsOfOccurrences;
+	private final int[] occurrencesAsFirst;
+	private final int[] occurrencesAsLast;
+	/** Number of traces in which the pivot occurs exactly as many times as the index (from one on) */
+	private final int[][] repetitions;
+	private final int[] betweenOnwards;
+	private final int[] betweenBackwards;
+	private final DistancesHistogram[] distances;
+
+	// Scratch buffers for the trace under analysis
+	private final int[] occurrencesInTrace;
+	private final int[][] positionsInTrace;
+	/** Occurrences of the pivot when the searched task last appeared, or zero */
+	private final int[] occurrencesAtLastAppearance;
+	private final int[] appearedTasks;
+	private int appearedTasksNumber;
+	private int lastTask = NOT_IN_ALPHABET;
+
+	public DenseOccurrencesStatsBuilder(TaskCharArchive archive) {
+		if (logger == null) {
+			logger = Logger.getLogger(this.getClass().getCanonicalName());
+		}
+		this.taskCharArchive = archive;
+		this.tasks = archive.getTaskChars().toArray(new TaskChar[archive.size()]);
+		this.alphabetSize = this.tasks.length;
+
+		int maxChar = 0;
+		for (TaskChar task : this.tasks) {
+			maxChar = Math.max(maxChar, task.identifier);
+		}
+		this.ordinalsOfChars = new int[maxChar + 1];
+		Arrays.fill(this.ordinalsOfChars, NOT_IN_ALPHABET);
+		for (int i = 0; i < this.alphabetSize; i++) {
+			this.ordinalsOfChars[this.tasks[i].identifier] = i;
+		}
+
+		this.totalAmountsOfOccurrences = new long[alphabetSize];
+		this.occurrencesAsFirst = new int[alphabetSize];
+		this.occurrencesAsLast = new int[alphabetSize];
+		this.repetitions = new int[alphabetSize][INITIAL_POSITIONS_CAPACITY];
+		this.betweenOnwards = new int[alphabetSize * alphabetSize];
+		this.betweenBackwards = new int[alphabetSize * alphabetSize];
+		this.distances = new DistancesHistogram[alphabetSize * alphabetSize];
+
+		this.occurrencesInTrace = new int[alphabetSize];
+		this.positionsInTrace = new int[alphabetSize][INITIAL_POSITIONS_CAPACITY];
+		this.occurrencesAtLastAppearance = new int[alphabetSize * alphabetSize];
+		this.appearedTasks = new int[alphabetSize];
+		this.appearedTasksNumber = 0;
+	}
+
+	/**
+	 * Reads every trace of the log, onwards and backwards, and returns the resulting statistics
+	 */
+	public GlobalStatsTable checkThisOut(LogParser logParser) {
+		int counter = 0;
+		int analysedPortion = 0;
+		int tracesNumber = logParser.length();
+		EncodedLogArena arena = logParser.getEncodedLogArena();
+		char[] events = arena.getEvents();
+
+		this.logSize += tracesNumber;
+
+		for (int trace = 0; trace < arena.length(); trace++) {
+			this.readTrace(events, arena.getTraceStart(trace), arena.getTraceLength(trace), true);
+			this.readTrace(events, arena.getTraceStart(trace), arena.getTraceLength(trace), false);
+
+			counter++;
+			if (counter > tracesNumber / PROGRESS_BAR_SCALE * (analysedPortion + 1)) {
+				for (int i = analysedPortion + 1;
+						i < ((double) counter / tracesNumber * PROGRESS_BAR_SCALE);
+						i++) {
+					System.out.print("|");
+				}
+				analysedPortion = (int) Math.floor((double) counter / tracesNumber * PROGRESS_BAR_SCALE);
+			}
+		}
+		MessagePrinter.printlnOut("");
+
+		return this.toGlobalStatsTable();
+	}
+
+	private void readTrace(char[] events, int traceStart, int traceLength, boolean onwards) {
+		int task = 0, position = 0;
+		for (int cursor = 1; cursor <= traceLength; cursor++) {
+			task = this.ordinalOf(events[traceStart + (onwards ? cursor - 1 : traceLength - cursor)]);
+			if (task != NOT_IN_ALPHABET) {
+				position = (onwards ? cursor : 0 - cursor);
+				if (occurrencesInTrace[task] == 0) {
+					appearedTasks[appearedTasksNumber++] = task;
+				}
+				for (int i = 0; i < appearedTasksNumber; i++) {
+					this.newAtPosition(appearedTasks[i], task, position, onwards);
+				}
+				if (onwards) {
+					lastTask = task;
+				}
+			}
+		}
+		if (onwards) {
+			/* Record the information about which the last task is! */
+			if (lastTask != NOT_IN_ALPHABET)
+				occurrencesAsLast[lastTask]++;
+			this.setNeverAppearedStuffAtThisStep();
+			this.updateAppearancesCounters();
+		}
+		this.finalizeAnalysisStep(onwards);
+	}
+
+	private int ordinalOf(char encodedTask) {
+		return (encodedTask < ordinalsOfChars.length ? ordinalsOfChars[encodedTask] : NOT_IN_ALPHABET);
+	}
+
+	/**
+	 * Registers the occurrence of a task in the statistics of the given (already appeared) pivot
+	 */
+	private void newAtPosition(int pivot, int task, int position, boolean onwards) {
+		int occurrences = occurrencesInTrace[pivot];
+		int[] positions = positionsInTrace[pivot];
+		int pair = pivot * alphabetSize + task;
+
+		if (task != pivot) {
+			/* The alternations counter is flushed, and the "never more" counter restarts */
+			int pivotOccurrencesInBetween = occurrences - occurrencesAtLastAppearance[pair];
+			if (pivotOccurrencesInBetween > 1) {
+				if (onwards) {
+					betweenOnwards[pair] += pivotOccurrencesInBetween - 1;
+				} else {
+					betweenBackwards[pair] += pivotOccurrencesInBetween - 1;
+				}
+			}
+			occurrencesAtLastAppearance[pair] = occurrences;
+		}
+		/* Record the distance from every previous occurrence of the pivot */
+		if (occurrences > 0) {
+			DistancesHistogram histogram = this.getDistancesHistogram(pair);
+			for (int i = 0; i < occurrences; i++) {
+				histogram.add(position - positions[i], 1);
+			}
+		}
+		if (task == pivot) {
+			if (occurrences == positions.length) {
+				positions = Arrays.copyOf(positions, occurrences * 2);
+				positionsInTrace[pivot] = positions;
+			}
+			positions[occurrences] = position;
+			occurrencesInTrace[pivot] = occurrences + 1;
+		}
+	}
+
+	private DistancesHistogram getDistancesHistogram(int pair) {
+		DistancesHistogram histogram = distances[pair];
+		if (histogram == null) {
+			histogram = new DistancesHistogram();
+			distances[pair] = histogram;
+		}
+		return histogram;
+	}
+
+	/**
+	 * Records, in the statistics of the appeared tasks, which tasks did not appear at all in the trace
+	 */
+	private void setNeverAppearedStuffAtThisStep() {
+		if (appearedTasksNumber == alphabetSize)
+			return;
+		int pivot = 0;
+		for (int i = 0; i < appearedTasksNumber; i++) {
+			pivot = appearedTasks[i];
+			for (int searched = 0; searched < alphabetSize; searched++) {
+				if (occurrencesInTrace[searched] == 0) {
+					this.getDistancesHistogram(pivot * alphabetSize + searched).add(StatsCell.NEVER_EVER, occurrencesInTrace[pivot]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the amount of occurrences in the trace, and the appearances as the first task
+	 */
+	private void updateAppearancesCounters() {
+		int pivot = 0, occurrences = 0;
+		for (int i = 0; i < appearedTasksNumber; i++) {
+			pivot = appearedTasks[i];
+			occurrences = occurrencesInTrace[pivot];
+			if (positionsInTrace[pivot][0] == LocalStatsWrapper.FIRST_POSITION_IN_TRACE) {
+				occurrencesAsFirst[pivot]++;
+			}
+			if (occurrences >= repetitions[pivot].length) {
+				repetitions[pivot] = Arrays.copyOf(repetitions[pivot], Math.max(occurrences + 1, repetitions[pivot].length * 2));
+			}
+			repetitions[pivot][occurrences]++;
+			totalAmountsOfOccurrences[pivot] += occurrences;
+		}
+	}
+
+	/**
+	 * Records what did not appear any more after (or before) the last occurrence of the appeared tasks, and resets the scratch buffers
+	 */
+	private void finalizeAnalysisStep(boolean onwards) {
+		int pivot = 0, neverMoreAppearances = 0, pivotOffset = 0;
+		int neverMoreDistance = (onwards ? StatsCell.NEVER_ONWARDS : StatsCell.NEVER_BACKWARDS);
+		for (int i = 0; i < appearedTasksNumber; i++) {
+			pivot = appearedTasks[i];
+			pivotOffset = pivot * alphabetSize;
+			for (int searched = 0; searched < alphabetSize; searched++) {
+				if (searched != pivot) {
+					neverMoreAppearances = occurrencesInTrace[pivot] - occurrencesAtLastAppearance[pivotOffset + searched];
+					if (neverMoreAppearances > 0) {
+						this.getDistancesHistogram(pivotOffset + searched).add(neverMoreDistance, neverMoreAppearances);
+					}
+				}
+			}
+			if (occurrencesInTrace[pivot] == 1) {
+				this.getDistancesHistogram(pivotOffset + pivot).add(neverMoreDistance, 1);
+			}
+			Arrays.fill(occurrencesAtLastAppearance, pivotOffset, pivotOffset + alphabetSize, 0);
+			occurrencesInTrace[pivot] = 0;
+		}
+		appearedTasksNumber = 0;
+	}
+
+	/**
+	 * Copies the gathered statistics in a {@link GlobalStatsTable}
+	 */
+	private GlobalStatsTable toGlobalStatsTable() {
+		GlobalStatsTable statsTable = new GlobalStatsTable(taskCharArchive, null);
+		statsTable.logSize = this.logSize;
+
+		LocalStatsWrapper localStats = null;
+		StatsCell statsCell = null;
+		long tracesWithPivot = 0L;
+		for (int pivot = 0; pivot < alphabetSize; pivot++) {
+			localStats = statsTable.statsTable.get(tasks[pivot]);
+			localStats.totalAmountOfOccurrences = totalAmountsOfOccurrences[pivot];
+			localStats.occurencesAsFirst = occurrencesAsFirst[pivot];
+			localStats.occurrencesAsLast = occurrencesAsLast[pivot];
+
+			tracesWithPivot = 0L;
+			for (int occurrences = 1; occurrences < repetitions[pivot].length; occurrences++) {
+				if (repetitions[pivot][occurrences] > 0) {
+					localStats.repetitions.put(occurrences, repetitions[pivot][occurrences]);
+					tracesWithPivot += repetitions[pivot][occurrences];
+				}
+			}
+			if (logSize > tracesWithPivot) {
+				localStats.repetitions.put(0, (int) (logSize - tracesWithPivot));
+			}
+
+			for (int searched = 0; searched < alphabetSize; searched++) {
+				statsCell = localStats.interplayStatsTable.get(tasks[searched]);
+				statsCell.betweenOnwards = betweenOnwards[pivot * alphabetSize + searched];
+				statsCell.betweenBackwards = betweenBackwards[pivot * alphabetSize + searched];
+				if (distances[pivot * alphabetSize + searched] != null) {
+					distances[pivot * alphabetSize + searched].addTo(statsCell.distances);
+				}
+			}
+		}
+		return statsTable;
+	}
+}
@@ -0,0 +1,81 @@
+package minerful.miner.stats;
+
+import java.util.Map;
+
+/**
+ * Primitive counterpart of the {@link StatsCell#distances distances} of a {@link StatsCell}, used by the {@link DenseOccurrencesStatsBuilder}.
+ * It is an open-addressing hash table from distances to counters, so that no boxing occurs while the log is read.
+ * As the counters are only incremented by positive quantities, a zero counter marks a free slot.
+ */
+class DistancesHistogram {
+	private static final int INITIAL_CAPACITY = 8;
+
+	private int[] distances;
+	private int[] counters;
+	private int size;
+	private int mask;
+
+	DistancesHistogram() {
+		this.distances = new int[INITIAL_CAPACITY];
+		this.counters = new int[INITIAL_CAPACITY];
+		this.size = 0;
+		this.mask = INITIAL_CAPACITY - 1;
+	}
+
+	private static int hash(int distance) {
+		int h = distance * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Adds the given quantity (strictly positive) to the counter of the given distance
+	 */
+	void add(int distance, int quantity) {
+		int slot = hash(distance) & mask;
+		while (counters[slot] != 0) {
+			if (distances[slot] == distance) {
+				counters[slot] += quantity;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		distances[slot] = distance;
+		counters[slot] = quantity;
+		if (++size * 2 > distances.length) {
+			this.grow();
+		}
+	}
+
+	private void grow() {
+		int[]
+			oldDistances = this.distances,
+			oldCounters = this.counters;
+		this.distances = new int[oldDistances.length * 2];
+		this.counters = new int[oldCounters.length * 2];
+		this.mask = this.distances.length - 1;
+		int slot = 0;
+		for (int i = 0; i < oldDistances.length; i++) {
+			if (oldCounters[i] != 0) {
+				slot = hash(oldDistances[i]) & mask;
+				while (counters[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				distances[slot] = oldDistances[i];
+				counters[slot] = oldCounters[i];
+			}
+		}
+	}
+
+	/**
+	 * Adds the counters of this histogram to the given map of distances
+	 */
+	void addTo(Map<Integer, Integer> distancesMap) {
+		Integer distanceCounter = null;
+		for (int i = 0; i < distances.length; i++) {
+			if (counters[i] != 0) {
+				distanceCounter = distancesMap.get(distances[i]);
+				distancesMap.put(distances[i], (distanceCounter == null ? counters[i] : distanceCounter + counters[i]));
+			}
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package minerful.miner.stats;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import minerful.concept.AbstractTaskClass;
+import minerful.concept.TaskChar;
+import minerful.concept.TaskCharArchive;
+import minerful.logparser.CharTaskClass;
+import minerful.logparser.StringTaskClass;
+import minerful.logparser.XesTaskClass;
+
+import org.apache.log4j.Logger;
+import org.deckfour.xes.classification.XEventClass;
+
+/**
+ * Binary snapshot of the knowledge base of the non-branched constraints ({@link GlobalStatsTable}), saved on disk so that
+ * a later discovery can append the statistics of new traces to it, rather than re-reading the whole log.
+ * <p>
+ * The file starts with a magic number and a format version, and ends with the CRC32 checksum of all the preceding bytes.
+ * Tasks are stored with their names, and the statistics refer to tasks by their position in the stored list.
+ * Only the non-empty repetitions and distances are stored.
+ * </p>
+ */
+public class KnowledgeBaseSnapshot {
+	public static final int MAGIC_NUMBER = 0x4D464B42; // "MFKB"
+	public static final short FORMAT_VERSION = 1;
+
+	protected static Logger logger = Logger.getLogger(KnowledgeBaseSnapshot.class);
+
+	/** The tasks of the snapshot, with the identifiers and classes they had when it was saved */
+	public final TaskCharArchive taskCharArchive;
+	/** The knowledge base, referring to the tasks of {@link #taskCharArchive} */
+	public final GlobalStatsTable statsTable;
+
+	private KnowledgeBaseSnapshot(TaskCharArchive taskCharArchive, GlobalStatsTable statsTable) {
+		this.taskCharArchive = taskCharArchive;
+		this.statsTable = statsTable;
+	}
+
+	/**
+	 * Saves the given knowledge base in the binary format.
+	 * @param statsTable The knowledge base (not for branched constraints)
+	 * @param outFile The snapshot file
+	 * @throws IOException
+	 */
+	public static void marshal(GlobalStatsTable statsTable, File outFile) throws IOException {
+		if (statsTable.isForBranchedConstraints()) {
+			throw new IllegalArgumentException("Snapshots of the knowledge base for branched constraints are not supported");
+		}
+		TaskChar[] tasks = statsTable.taskCharArchive.getTaskChars().toArray(new TaskChar[0]);
+
+		FileOutputStream fos = new FileOutputStream(outFile);
+		CheckedOutputStream checkedOut = new CheckedOutputStream(new BufferedOutputStream(fos), new CRC32());
+		DataOutputStream out = new DataOutputStream(checkedOut);
+		try {
+			out.writeInt(MAGIC_NUMBER);
+			out.writeShort(FORMAT_VERSION);
+			out.writeUTF(tasks.length > 0 ? tasks[0].taskClass.getClass().getSimpleName() : "");
+			out.writeLong(statsTable.logSize);
+			out.writeInt(tasks.length);
+			for (TaskChar task : tasks) {
+				out.writeChar(task.identifier);
+				out.writeUTF(task.getName());
+			}
+
+			LocalStatsWrapper localStats = null;
+			StatsCell statsCell = null;
+			int nonEmptyCells = 0;
+			for (TaskChar pivot : tasks) {
+				localStats = statsTable.statsTable.get(pivot);
+				out.writeLong(localStats.totalAmountOfOccurrences);
+				out.writeInt(localStats.occurencesAsFirst);
+				out.writeInt(localStats.occurrencesAsLast);
+				writeCounters(out, localStats.repetitions);
+
+				nonEmptyCells = 0;
+				for (TaskChar searched : tasks) {
+					if (!isEmpty(localStats.interplayStatsTable.get(searched)))
+						nonEmptyCells++;
+				}
+				out.writeInt(nonEmptyCells);
+				for (int searched = 0; searched < tasks.length; searched++) {
+					statsCell = localStats.interplayStatsTable.get(tasks[searched]);
+					if (!isEmpty(statsCell)) {
+						out.writeInt(searched);
+						out.writeInt(statsCell.betweenOnwards);
+						out.writeInt(statsCell.betweenBackwards);
+						writeCounters(out, statsCell.distances);
+					}
+				}
+			}
+			out.flush();
+			// The checksum is not part of the checked content
+			new DataOutputStream(fos).writeLong(checkedOut.getChecksum().getValue());
+		} finally {
+			out.close();
+		}
+	}
+
+	private static boolean isEmpty(StatsCell statsCell) {
+		return statsCell == null
+				|| (statsCell.distances.isEmpty() && statsCell.betweenOnwards == 0 && statsCell.betweenBackwards == 0);
+	}
+
+	private static void writeCounters(DataOutputStream out, Map<Integer, Integer> counters) throws IOException {
+		out.writeInt(counters.size());
+		for (Map.Entry<Integer, Integer> counter : counters.entrySet()) {
+			out.writeInt(counter.getKey());
+			out.writeInt(counter.getValue());
+		}
+	}
+
+	private static void readCounters(DataInputStream in, Map<Integer, Integer> counters) throws IOException {
+		int size = in.readInt();
+		for (int i = 0; i < size; i++) {
+			counters.put(in.readInt(), in.readInt());
+		}
+	}
+
+	/**
+	 * Loads a snapshot, checking its format version and its checksum.
+	 * @param inFile The snapshot file
+	 * @return The loaded snapshot
+	 * @throws IOException If the file cannot be read, or it is not a valid snapshot
+	 */
+	public static KnowledgeBaseSnapshot unmarshal(File inFile) throws IOException {
+		byte[] content = Files.readAllBytes(inFile.toPath());
+		if (content.length < 4 + 2 + 8) {
+			throw new IOException(inFile + " is not a knowledge base snapshot");
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+		if (in.readInt() != MAGIC_NUMBER) {
+			throw new IOException(inFile + " is not a knowledge base snapshot");
+		}
+		short version = in.readShort();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported version of the knowledge base snapshot: " + version + " (expected: " + FORMAT_VERSION + ")");
+		}
+		CRC32 crc = new CRC32();
+		crc.update(content, 0, content.length - 8);
+		long storedChecksum = new DataInputStream(new ByteArrayInputStream(content, content.length - 8, 8)).readLong();
+		if (crc.getValue() != storedChecksum) {
+			throw new IOException("Corrupted knowledge base snapshot: checksum mismatch in " + inFile);
+		}
+
+		String taskClassType = in.readUTF();
+		long logSize = in.readLong();
+		TaskChar[] tasks = new TaskChar[in.readInt()];
+		for (int i = 0; i < tasks.length; i++) {
+			char identifier = in.readChar();
+			tasks[i] = new TaskChar(identifier, makeTaskClass(taskClassType, in.readUTF(), i));
+		}
+		TaskCharArchive archive = new TaskCharArchive(tasks);
+		GlobalStatsTable statsTable = new GlobalStatsTable(archive, (Integer) null);
+		statsTable.logSize = logSize;
+
+		LocalStatsWrapper localStats = null;
+		StatsCell statsCell = null;
+		int cellsNumber = 0;
+		for (TaskChar pivot : tasks) {
+			localStats = statsTable.statsTable.get(pivot);
+			localStats.totalAmountOfOccurrences = in.readLong();
+			localStats.occurencesAsFirst = in.readInt();
+			localStats.occurrencesAsLast = in.readInt();
+			readCounters(in, localStats.repetitions);
+			cellsNumber = in.readInt();
+			for (int i = 0; i < cellsNumber; i++) {
+				statsCell = localStats.interplayStatsTable.get(tasks[in.readInt()]);
+				statsCell.betweenOnwards = in.readInt();
+				statsCell.betweenBackwards = in.readInt();
+				readCounters(in, statsCell.distances);
+			}
+		}
+		in.close();
+		return new KnowledgeBaseSnapshot(archive, statsTable);
+	}
+
+	private static AbstractTaskClass makeTaskClass(String taskClassType, String name, int index) throws IOException {
+		if (taskClassType.equals(XesTaskClass.class.getSimpleName())) {
+			return new XesTaskClass(new XEventClass(name, index));
+		} else if (taskClassType.equals(CharTaskClass.class.getSimpleName())) {
+			return new CharTaskClass(name.charAt(0));
+		} else if (taskClassType.equals(StringTaskClass.class.getSimpleName())) {
+			return new StringTaskClass(name);
+		}
+		throw new IOException("Unknown type of task classes in the knowledge base snapshot: " + taskClassType);
+	}
+
+	/**
+	 * Returns the knowledge base of this snapshot, referring to the tasks of the given archive, matched by name.
+	 * The archive can include tasks that are not in the snapshot: they are recorded as never appearing in the traces of the snapshot.
+	 * Tasks of the snapshot that are not in the archive are left out.
+	 * @param archive The tasks to which the returned knowledge base refers
+	 * @return A new knowledge base, which can be {@link GlobalStatsTable#mergeAdditively(GlobalStatsTable) merged} with the knowledge base of new traces
+	 */
+	public GlobalStatsTable toGlobalStatsTable(TaskCharArchive archive) {
+		Map<String, TaskChar> snapshotTasksByName = new HashMap<String, TaskChar>(this.taskCharArchive.size() * 2);
+		for (TaskChar task : this.taskCharArchive.getTaskChars()) {
+			snapshotTasksByName.put(task.getName(), task);
+		}
+		List<TaskChar> newTasks = new ArrayList<TaskChar>();
+		for (TaskChar task : archive.getTaskChars()) {
+			if (!snapshotTasksByName.containsKey(task.getName()))
+				newTasks.add(task);
+		}
+		if (newTasks.size() > 0) {
+			logger.info(newTasks.size() + " task(s) not in the knowledge base snapshot: " + newTasks);
+		}
+
+		GlobalStatsTable statsTable = new GlobalStatsTable(archive, (Integer) null);
+		statsTable.logSize = this.statsTable.logSize;
+
+		TaskChar snapshotPivot = null, snapshotSearched = null;
+		LocalStatsWrapper localStats = null, snapshotLocalStats = null;
+		StatsCell statsCell = null, snapshotStatsCell = null;
+		for (TaskChar pivot : archive.getTaskChars()) {
+			localStats = statsTable.statsTable.get(pivot);
+			snapshotPivot = snapshotTasksByName.get(pivot.getName());
+			if (snapshotPivot == null) {
+				/* The task never occurred in any of the traces of the snapshot */
+				if (this.statsTable.logSize > 0)
+					localStats.repetitions.put(0, (int) this.statsTable.logSize);
+				continue;
+			}
+			snapshotLocalStats = this.statsTable.statsTable.get(snapshotPivot);
+			localStats.totalAmountOfOccurrences = snapshotLocalStats.totalAmountOfOccurrences;
+			localStats.occurencesAsFirst = snapshotLocalStats.occurencesAsFirst;
+			localStats.occurrencesAsLast = snapshotLocalStats.occurrencesAsLast;
+			localStats.repetitions.putAll(snapshotLocalStats.repetitions);
+			for (TaskChar searched : archive.getTaskChars()) {
+				statsCell = localStats.interplayStatsTable.get(searched);
+				snapshotSearched = snapshotTasksByName.get(searched.getName());
+				if (snapshotSearched == null) {
+					/* The searched task never occurred, neither before nor after, any occurrence of the pivot */
+					if (snapshotLocalStats.totalAmountOfOccurrences > 0) {
+						statsCell.distances.put(StatsCell.NEVER_EVER, (int) snapshotLocalStats.totalAmountOfOccurrences);
+						statsCell.distances.put(StatsCell.NEVER_ONWARDS, (int) snapshotLocalStats.totalAmountOfOccurrences);
+						statsCell.distances.put(StatsCell.NEVER_BACKWARDS, (int) snapshotLocalStats.totalAmountOfOccurrences);
+					}
+				} else {
+					snapshotStatsCell = snapshotLocalStats.interplayStatsTable.get(snapshotSearched);
+					statsCell.betweenOnwards = snapshotStatsCell.betweenOnwards;
+					statsCell.betweenBackwards = snapshotStatsCell.betweenBackwards;
+					statsCell.distances = new TreeMap<Integer, Integer>(snapshotStatsCell.distances);
+				}
+			}
+		}
+		return statsTable;
+	}
+}
@@ -6,7 +6,6 @@ package minerful.miner.stats;
 
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
@@ -15,8 +14,8 @@ import java.util.TreeSet;
 import minerful.concept.Event;
 import minerful.concept.TaskChar;
 import minerful.concept.TaskCharArchive;
+import minerful.logparser.EncodedLogArena;
 import minerful.logparser.LogParser;
-import minerful.logparser.LogTraceParser;
 import minerful.utils.MessagePrinter;
 
 import org.apache.log4j.Logger;
@@ -63,53 +62,41 @@ public class OccurrencesStatsBuilder {
         int counter = 0;
         int analysedPortion = 0;
 
-        Iterator<LogTraceParser> traceParsersIterator = logParser.traceIterator();
-        LogTraceParser auxTraceParser = null;
+        // the events are read from the encoded log, resolving the task of each character only once
+        EncodedLogArena arena = logParser.getEncodedLogArena();
+        char[] events = arena.getEvents();
+        Event[] eventsByEncodedChar = this.decodeEvents(logParser, arena);
         
         SortedSet<TaskChar> occurredEvents = null;
-        Event auxEvent = null;
         TaskChar auxTaskChar = null;
 
-        while (traceParsersIterator.hasNext()) {
-        	auxTraceParser = traceParsersIterator.next();
-            if (!onwards) {
-            	auxTraceParser.reverse();
-            }
-        	auxTraceParser.init();
+        for (int trace = 0; trace < arena.length(); trace++) {
+            int traceStart = arena.getTraceStart(trace);
+            int traceLength = arena.getTraceLength(trace);
 
             occurredEvents = new TreeSet<TaskChar>();
-            auxEvent = null;
             int positionCursor = 0;
-//            boolean contemporaneity = false;
-            while (!auxTraceParser.isParsingOver()) {
-            	auxEvent = auxTraceParser.parseSubsequent().getEvent();
-
-//            	if (chr.equals(this.contemporaneityDelimiter)) {
-//            		contemporaneity = true;
-//            	} else {
-                    // for the sake of robustness
-//	                if (!contemporaneity) {
-	                	positionCursor++;
-//	                } else {
-//	                	contemporaneity = false;
-//	                }
-                    if (this.statsTable.taskCharArchive.containsTaskCharByEvent(auxEvent)) {
-                    	auxTaskChar = this.statsTable.taskCharArchive.getTaskCharByEvent(auxEvent);
-    	                // record the occurrence of this chr in the current string
-    	                occurredEvents.add(auxTaskChar);
-    	                for (TaskChar appChr : occurredEvents) {
-    	                    // for each already appeared chr, register the new occurrence of the current in its own stats table, at the proper distance.
-    	                	this.statsTable.statsTable.get(appChr).newAtPosition(
-    	                			auxEvent, 
-    	                            (   onwards
-    	                                ?   positionCursor
-    	                                :   0 - positionCursor
-    	                            ),
-    	                            onwards
-    	                    );
-    	                }
-                    }
-//            	}
+            while (positionCursor < traceLength) {
+                char chr = events[onwards ? traceStart + positionCursor : traceStart + traceLength - 1 - positionCursor];
+                // for the sake of robustness
+                positionCursor++;
+                Event auxEvent = (chr < eventsByEncodedChar.length) ? eventsByEncodedChar[chr] : null;
+                if (auxEvent != null) {
+                	auxTaskChar = this.statsTable.taskCharArchive.getTaskCharByEvent(auxEvent);
+	                // record the occurrence of this chr in the current string
+	                occurredEvents.add(auxTaskChar);
+	                for (TaskChar appChr : occurredEvents) {
+	                    // for each already appeared chr, register the new occurrence of the current in its own stats table, at the proper distance.
+	                	this.statsTable.statsTable.get(appChr).newAtPosition(
+	                			auxEvent,
+	                            (   onwards
+	                                ?   positionCursor
+	                                :   0 - positionCursor
+	                            ),
+	                            onwards
+	                    );
+	                }
+                }
             }
             if (!secondPass) {
                 /* Record the information about which the last task is! */
@@ -136,17 +123,31 @@ public class OccurrencesStatsBuilder {
         		analysedPortion = (int) Math.floor((double)counter / logParser.length() * PROGRESS_BAR_SCALE);
         	}
 
-        	/*
-        	 * If the analysis is made backwards, we should toggle the reverse sense of reading again to put the log parser in its initial status
-        	 */
-            if (!onwards) {
-            	auxTraceParser.reverse();
-            }
         }
         if (secondPass) { MessagePrinter.printlnOut(""); }
         return this.statsTable;
     }
     
+    /**
+     * Decodes the characters of the encoded log into events, once and for all
+     * @return The event of each encoded character, or <code>null</code> if its task is not in the statistics table
+     */
+    private Event[] decodeEvents(LogParser logParser, EncodedLogArena arena) {
+    	char maxChar = 0;
+    	for (char chr : arena.getAlphabet()) {
+    		if (chr > maxChar)
+    			maxChar = chr;
+    	}
+    	Event[] eventsByEncodedChar = new Event[maxChar + 1];
+    	for (char chr : arena.getAlphabet()) {
+    		Event event = new Event(logParser.getEventEncoderDecoder().decode(chr));
+    		if (this.statsTable.taskCharArchive.containsTaskCharByEvent(event)) {
+    			eventsByEncodedChar[chr] = event;
+    		}
+    	}
+    	return eventsByEncodedChar;
+    }
+
     private void finalizeAnalysisStep(boolean onwards, boolean secondPass) {
         for (TaskChar key: this.taskCharArchive.getTaskChars()) {
             this.statsTable.statsTable.get(key).finalizeAnalysisStep(onwards, secondPass);
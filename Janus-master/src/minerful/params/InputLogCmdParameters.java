@@ -6,6 +6,8 @@ package minerful.params;
 
 import java.io.File;
 
+import minerful.logparser.EncodedLogArena;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
@@ -23,6 +25,9 @@ public class InputLogCmdParameters extends ParamsManager {
 	public static final Integer FIRST_TRACE_NUM = 0;
 	public static final String SUB_LOG_SIZE_PARAM_NAME = "iLSubLen";
 	public static final Integer WHOLE_LOG_LENGTH = 0;
+	public static final String TWO_PASSES_STREAMING_PARAM_NAME = "iLTwoPasses";
+	public static final String ARENA_CACHE_PARAM_NAME = "iLArena";
+	public static final String KEEP_TIMESTAMPS_PARAM_NAME = "iLTimestamps";
 
 	public enum InputEncoding {
 		/**
@@ -36,7 +41,11 @@ public class InputLogCmdParameters extends ParamsManager {
 		/**
 		 * For string-encoded traces, where each character is assumed to be a task symbol
 		 */
-		strings;
+		strings,
+		/**
+		 * For XES logs (also compressed), read as a stream keeping only the sequence of event classes of every trace
+		 */
+		xesstream;
 	}
 	
 	public enum EventClassification {
@@ -54,6 +63,12 @@ public class InputLogCmdParameters extends ParamsManager {
 	public Integer startFromTrace;
 	/** Length of the sub-sequence of traces to analyse */
 	public Integer subLogLength;
+	/** Whether a streamed log (see {@link minerful.params.InputLogCmdParameters.InputEncoding#xesstream InputEncoding.xesstream}) should be read twice, first to discover the alphabet, then to encode the traces */
+	public boolean twoPassesStreaming;
+	/** Whether the encoded XES log should be cached in a file next to the log, and read from there instead of parsing the log in later runs (see {@link minerful.logparser.EncodedLogArena}) */
+	public boolean arenaCache;
+	/** Whether the timestamps of the events of a streamed log (see {@link minerful.params.InputLogCmdParameters.InputEncoding#xesstream InputEncoding.xesstream}) should be kept along with the event classes */
+	public boolean keepTimestamps;
 
     public InputLogCmdParameters() {
     	super();
@@ -61,6 +76,9 @@ public class InputLogCmdParameters extends ParamsManager {
     	eventClassification = DEFAULT_EVENT_CLASSIFICATION;
 		this.startFromTrace = FIRST_TRACE_NUM;
 		this.subLogLength = WHOLE_LOG_LENGTH;
+		this.twoPassesStreaming = false;
+		this.arenaCache = false;
+		this.keepTimestamps = false;
     	inputLogFile = null;
     }
     
@@ -104,6 +122,9 @@ public class InputLogCmdParameters extends ParamsManager {
                     this.subLogLength.toString()
                 )
             );
+        this.twoPassesStreaming = line.hasOption(TWO_PASSES_STREAMING_PARAM_NAME);
+        this.arenaCache = line.hasOption(ARENA_CACHE_PARAM_NAME);
+        this.keepTimestamps = line.hasOption(KEEP_TIMESTAMPS_PARAM_NAME);
     }
     
 	@Override
@@ -166,6 +187,24 @@ public class InputLogCmdParameters extends ParamsManager {
 						.type(Long.class)
 				.build()
 				);
+        options.addOption(
+        		Option.builder(TWO_PASSES_STREAMING_PARAM_NAME)
+						.longOpt("in-log-two-passes")
+						.desc("read a streamed log (" + fromEnumValueToString(InputEncoding.xesstream) + " encoding) twice: first to discover the alphabet, then to encode the traces")
+				.build()
+				);
+        options.addOption(
+        		Option.builder(ARENA_CACHE_PARAM_NAME)
+						.longOpt("in-log-arena-cache")
+						.desc("cache the encoded XES log in a file next to it (with the " + EncodedLogArena.CACHE_FILE_EXTENSION + " extension), and read that file instead of the log in later runs, as long as the log is not modified")
+				.build()
+				);
+        options.addOption(
+        		Option.builder(KEEP_TIMESTAMPS_PARAM_NAME)
+						.longOpt("in-log-timestamps")
+						.desc("keep the timestamps of the events of a streamed log (" + fromEnumValueToString(InputEncoding.xesstream) + " encoding), which are otherwise discarded")
+				.build()
+				);
         return options;
 	}
 }
\ No newline at end of file
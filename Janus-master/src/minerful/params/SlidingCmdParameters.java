@@ -15,18 +15,24 @@ public class SlidingCmdParameters extends ParamsManager {
 
 	public static final String INTERMEDIATE_OUTPUT_PARAM_NAME = "sliOut";
 
+	public static final String CACHED_SLICES_PARAM_NAME = "sliCache";
+	public static final int DEFAULT_CACHED_SLICES = 64;
+
 	/** Sets how long is the step to slide the window on the event log. The default is {@link SlidingCmdParameters#DEFAULT_SLIDING_STEP DEFAULT_SLIDING_STEP} */
     public Integer slidingStep;
     /** The file where to store as a CSV file the constraints' support while MINERful slides over the traces. */
     public File intermediateOutputCsvFile;
     /** Determines whether to stick the tail at the beginning, so that the sliding corresponds to the expansion of the window. The default is {@link SlidingCmdParameters#DEFAULT_STICKY_TAIL_POLICY DEFAULT_STICKY_TAIL_POLICY} */
     public Boolean stickTail;
+    /** Maximum number of knowledge bases of the slices entering the window kept in memory, so that they are not recomputed when the slices leave the window. The default is {@link SlidingCmdParameters#DEFAULT_CACHED_SLICES DEFAULT_CACHED_SLICES} */
+    public Integer cachedSlices;
     
 	public SlidingCmdParameters() {
 		super();
 		slidingStep = DEFAULT_SLIDING_STEP;
 		intermediateOutputCsvFile = null;
 		stickTail = DEFAULT_STICKY_TAIL_POLICY;
+		cachedSlices = DEFAULT_CACHED_SLICES;
 	}
 
 
@@ -57,6 +63,16 @@ public class SlidingCmdParameters extends ParamsManager {
         this.intermediateOutputCsvFile = openOutputFile(line, INTERMEDIATE_OUTPUT_PARAM_NAME);
 
         this.stickTail = line.hasOption(STICK_TAIL_PARAM_NAME);
+
+        this.cachedSlices =
+        		Integer.valueOf(line.getOptionValue(
+        						CACHED_SLICES_PARAM_NAME,
+        						this.cachedSlices.toString()
+        						)
+        				);
+        if (cachedSlices < 0) {
+        	throw new IllegalArgumentException("The number of cached slices should be an integer higher than, or equal to, 0");
+        }
 	}
 	
 	@SuppressWarnings("static-access")
@@ -76,6 +92,14 @@ public class SlidingCmdParameters extends ParamsManager {
 						.desc("block the tail and slide only the head (increasing the window length at every step)" + printDefault(DEFAULT_STICKY_TAIL_POLICY))
 						.build()
         		);
+        options.addOption(
+        		Option.builder(CACHED_SLICES_PARAM_NAME)
+						.hasArg().argName("num")
+						.longOpt("sliding-cached-slices")
+						.desc("maximum number of knowledge bases of the slices entering the window to keep in memory, so as not to recompute them when they leave the window (0 to always recompute them)" + printDefault(DEFAULT_CACHED_SLICES))
+						.type(Integer.class)
+						.build()
+        		);
        options.addOption(
         		Option.builder(INTERMEDIATE_OUTPUT_PARAM_NAME)
 						.hasArg().argName("file")
@@ -4,6 +4,11 @@
  */
 package minerful.params;
 
+import java.io.File;
+
+import minerful.automaton.TemplateAutomataCache;
+import minerful.utils.MessagePrinter;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
@@ -16,16 +21,24 @@ public class SystemCmdParameters extends ParamsManager {
 
     public static final char DEBUG_PARAM_NAME = 'd';
 	public static final char HELP_PARAM_NAME = 'h';
+	public static final String METRICS_REPORT_PARAM_NAME = "metricsJSON";
+	public static final String AUTOMATA_CACHE_SIZE_PARAM_NAME = "autoCache";
 
 	/** Desired level of debugging (see enum {@link minerful.params.SystemCmdParameters.DebugLevel DebugLevel}) */
     public DebugLevel debugLevel;
 	/** Set this variable to <code>true</code> to print out a help screen */
 	public Boolean help;
+	/** File in which the JSON report of the phases and counters of the pipeline is saved (see {@link minerful.metrics.PipelineMetrics}), or <code>null</code> */
+	public File metricsReportFile;
+	/** Maximum number of automata kept by the process-wide cache of the automata of the constraints (see {@link minerful.automaton.TemplateAutomataCache}) */
+	public int automataCacheSize;
 
 	public SystemCmdParameters() {
 		super();
 		debugLevel = DEFAULT_DEBUG_LEVEL;
 		help = false;
+		metricsReportFile = null;
+		automataCacheSize = TemplateAutomataCache.DEFAULT_MAXIMUM_SIZE;
 	}
 	
     public SystemCmdParameters(Options options, String[] args) {
@@ -40,6 +53,16 @@ public class SystemCmdParameters extends ParamsManager {
     	this.parseAndSetup(new Options(), args);
 	}
 
+	/**
+	 * Applies the process-wide settings of the given parameters, namely the level of logging and the maximum size of the cache of the automata
+	 * (see {@link minerful.automaton.TemplateAutomataCache}). Launchers call it once, as soon as the parameters are read.
+	 * @param systemParams The parameters read from the command line
+	 */
+	public static void configureProcess(SystemCmdParameters systemParams) {
+		MessagePrinter.configureLogging(systemParams.debugLevel);
+		TemplateAutomataCache.getInstance().setMaximumSize(systemParams.automataCacheSize);
+	}
+
 	@Override
 	protected void setup(CommandLine line) {
         this.help =
@@ -50,6 +73,13 @@ public class SystemCmdParameters extends ParamsManager {
                     this.debugLevel.toString()
                 )
             );
+        this.metricsReportFile = openOutputFile(line, METRICS_REPORT_PARAM_NAME);
+        this.automataCacheSize = Integer.valueOf(
+                line.getOptionValue(
+                    AUTOMATA_CACHE_SIZE_PARAM_NAME,
+                    Integer.toString(this.automataCacheSize)
+                )
+            );
     }
     
 	@Override
@@ -83,6 +113,23 @@ public class SystemCmdParameters extends ParamsManager {
 						.type(Integer.class)
 						.build()
         );
+        options.addOption(
+				Option.builder(METRICS_REPORT_PARAM_NAME)
+						.hasArg().argName("path")
+						.longOpt("metrics-json")
+						.desc("path of the JSON file in which the timings, heap usage and counters of the phases of the run are saved")
+						.type(String.class)
+						.build()
+        );
+        options.addOption(
+				Option.builder(AUTOMATA_CACHE_SIZE_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("automata-cache-size")
+						.desc("maximum number of automata of constraint templates kept in memory for reuse"
+								+ printDefault(TemplateAutomataCache.DEFAULT_MAXIMUM_SIZE))
+						.type(Integer.class)
+						.build()
+        );
         return options;
 	}
 }
\ No newline at end of file
@@ -102,6 +102,7 @@ public class PostProcessingCmdParameters extends ParamsManager {
 //	public static final String HIERARCHY_SUBSUMPTION_PRUNING_POLICY_PARAM_NAME = "ppHSPP"; // TODO One day
 	public static final String KEEP_CONSTRAINTS_PARAM_NAME = "keep";
 	public static final String KEEP_MODEL_PARAM_NAME = "keepModel";
+	public static final String PRUNING_PARALLEL_COMPUTATION_THREADS_PARAM_NAME = "pruneP";
 	public static final char SUPPORT_THRESHOLD_PARAM_NAME = 's';
 	public static final char INTEREST_THRESHOLD_PARAM_NAME = 'i';
 	public static final char CONFIDENCE_THRESHOLD_PARAM_NAME = 'c';
@@ -112,6 +113,7 @@ public class PostProcessingCmdParameters extends ParamsManager {
 	public static final PostProcessingAnalysisType DEFAULT_POST_PROCESSING_ANALYSIS_TYPE = PostProcessingAnalysisType.HIERARCHY;
 	public static final HierarchySubsumptionPruningPolicy DEFAULT_HIERARCHY_POLICY = HierarchySubsumptionPruningPolicy.SUPPORTHIERARCHY;
 	public static final boolean DEFAULT_REDUNDANT_INCONSISTENT_CONSTRAINTS_KEEPING_POLICY = false;
+	public static final Integer MINIMUM_PARALLEL_EXECUTION_THREADS = 1;
 
 	/** Policies according to which constraints are ranked in terms of significance. The position in the array reflects the order with which the policies are used. When a criterion does not establish which constraint in a pair should be put ahead in the ranking, the following in the array is utilised. Default value is {@link #DEFAULT_PRIORITY_POLICIES DEFAULT_PRIORITY_POLICIES}. */
 	public ConstraintSortingPolicy[] sortingPolicies;	// mandatory assignment
@@ -129,6 +131,8 @@ public class PostProcessingCmdParameters extends ParamsManager {
 	public boolean cropRedundantAndInconsistentConstraints;
 	/** JSON File contining a model (set of constraints) that must not be removed in the pruning */
 	public File fixpointModel;
+	/** Number of parallel threads to use while building the automata of the second-pass redundancy check (must be greater than or equal to {@link #MINIMUM_PARALLEL_EXECUTION_THREADS MINIMUM_PARALLEL_EXECUTION_THREADS}, the default) */
+	public Integer pruningParallelProcessingThreads;
 
 	public static final ConstraintSortingPolicy[] DEFAULT_PRIORITY_POLICIES = new ConstraintSortingPolicy[] {
 		ConstraintSortingPolicy.ACTIVATIONTARGETBONDS,
@@ -145,6 +149,7 @@ public class PostProcessingCmdParameters extends ParamsManager {
 	    this.confidenceThreshold = DEFAULT_CONFIDENCE_THRESHOLD;
 	    this.interestFactorThreshold = DEFAULT_INTEREST_FACTOR_THRESHOLD;
 	    this.cropRedundantAndInconsistentConstraints = !DEFAULT_REDUNDANT_INCONSISTENT_CONSTRAINTS_KEEPING_POLICY;
+	    this.pruningParallelProcessingThreads = MINIMUM_PARALLEL_EXECUTION_THREADS;
 	}
 	
 	public static PostProcessingCmdParameters makeParametersForNoPostProcessing() {
@@ -211,6 +216,17 @@ public class PostProcessingCmdParameters extends ParamsManager {
 			this.fixpointModel =openInputFile(line, KEEP_MODEL_PARAM_NAME);
 		}
 
+		this.pruningParallelProcessingThreads = Integer.valueOf(line.getOptionValue(
+				PRUNING_PARALLEL_COMPUTATION_THREADS_PARAM_NAME,
+				this.pruningParallelProcessingThreads.toString()
+				)
+		);
+		if (this.pruningParallelProcessingThreads < MINIMUM_PARALLEL_EXECUTION_THREADS) {
+			throw new IllegalArgumentException(
+					"Invalid value for " + PRUNING_PARALLEL_COMPUTATION_THREADS_PARAM_NAME + " option" +
+					" (must be equal to or greater than " + (MINIMUM_PARALLEL_EXECUTION_THREADS) + ")");
+		}
+
 		this.updateRankingPolicies(line.getOptionValue(RANKING_POLICY_PARAM_NAME));
 	}
 
@@ -302,6 +318,17 @@ public class PostProcessingCmdParameters extends ParamsManager {
 						.type(String.class)
 						.build()
 		);
+		options.addOption(
+				Option.builder(PRUNING_PARALLEL_COMPUTATION_THREADS_PARAM_NAME)
+						.hasArg().argName("number")
+						.longOpt("prune-ll-threads")
+						.desc("threads for building in parallel the automata of the second-pass redundancy check (must be greater than or equal to "
+						+ (MINIMUM_PARALLEL_EXECUTION_THREADS)
+						+ ")"
+						+ printDefault(MINIMUM_PARALLEL_EXECUTION_THREADS))
+						.type(String.class)
+						.build()
+		);
         return options;
 	}
 	
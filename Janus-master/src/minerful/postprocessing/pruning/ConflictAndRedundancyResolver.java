@@ -3,6 +3,7 @@ package minerful.postprocessing.pruning;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
 import java.util.TreeSet;
@@ -10,8 +11,9 @@ import java.util.TreeSet;
 import org.apache.log4j.Logger;
 
 import dk.brics.automaton.Automaton;
-import dk.brics.automaton.RegExp;
-import minerful.automaton.AutomatonFactory;
+import minerful.automaton.LeaveOneOutAutomataTree;
+import minerful.automaton.TemplateAutomataCache;
+import minerful.automaton.utils.AutomatonUtils;
 import minerful.concept.ProcessModel;
 import minerful.concept.constraint.Constraint;
 import minerful.concept.constraint.ConstraintFamily.RelationConstraintSubFamily;
@@ -33,6 +35,7 @@ public class ConflictAndRedundancyResolver {
     private boolean checking;
     private final boolean avoidingRedundancy;
     private final boolean avoidingRedundancyWithDoubleCheck;
+    private final int parallelThreads;
     private ModularConstraintsSorter sorter;
     private SubsumptionHierarchyMarker subsumMarker;
     private ProcessModel fixpointModel;
@@ -62,6 +65,7 @@ public class ConflictAndRedundancyResolver {
     public ConflictAndRedundancyResolver(ProcessModel process, PostProcessingCmdParameters params) {
         this.avoidingRedundancyWithDoubleCheck = params.postProcessingAnalysisType.isRedundancyResolutionDoubleCheckRequested();
         this.avoidingRedundancy = this.avoidingRedundancyWithDoubleCheck || params.postProcessingAnalysisType.isRedundancyResolutionRequested();
+        this.parallelThreads = params.pruningParallelProcessingThreads;
         this.originalProcess = process;
         this.sorter = new ModularConstraintsSorter();
         this.rankingPolicies = params.sortingPolicies;
@@ -73,6 +77,7 @@ public class ConflictAndRedundancyResolver {
     public ConflictAndRedundancyResolver(ProcessModel process, PostProcessingCmdParameters params, ProcessModel fixpointModel) {
         this.avoidingRedundancyWithDoubleCheck = params.postProcessingAnalysisType.isRedundancyResolutionDoubleCheckRequested();
         this.avoidingRedundancy = this.avoidingRedundancyWithDoubleCheck || params.postProcessingAnalysisType.isRedundancyResolutionRequested();
+        this.parallelThreads = params.pruningParallelProcessingThreads;
         this.originalProcess = process;
         this.sorter = new ModularConstraintsSorter();
         this.rankingPolicies = params.sortingPolicies;
@@ -126,7 +131,7 @@ public class ConflictAndRedundancyResolver {
             this.safeAutomaton = this.safeProcess.buildAlphabetAcceptingAutomaton();
             for (Constraint candidateCon : this.sorter.sort(this.rankingPolicies)) {
                 logger.trace("Checking redundancy of " + candidateCon);
-                candidateAutomaton = new RegExp(candidateCon.getRegularExpression()).toAutomaton();
+                candidateAutomaton = TemplateAutomataCache.getInstance().getAutomaton(candidateCon);
                 if (!candidateCon.isRedundant()    // If this constraint was not already found to be redundant in some way before
                         && !this.isConstraintAlreadyChecked(candidateCon)    // If this constraint was not already checked
                         && this.checkRedundancy(this.safeAutomaton, this.safeProcess.bag, candidateAutomaton, candidateCon)
@@ -169,7 +174,7 @@ public class ConflictAndRedundancyResolver {
                 logger.trace("Checking consistency of " + candidateCon);
 //System.out.println("PRESENTATION -- The unsafe constraint: " + candidateCon + " supp: " + candidateCon.support + "; conf: " + candidateCon.confidence + "; inf.f: " + candidateCon.interestFactor);
 //System.out.println("PRESENTATION -- The unsafe constraint automaton: " + candidateCon + " \n" + safeProcess.buildAlphabetAcceptingAutomaton().intersection(new RegExp(candidateCon.getRegularExpression()).toAutomaton()).toDot());
-                candidateAutomaton = new RegExp(candidateCon.getRegularExpression()).toAutomaton();
+                candidateAutomaton = TemplateAutomataCache.getInstance().getAutomaton(candidateCon);
                 if (!this.avoidingRedundancy || this.checkRedundancy(candidateAutomaton, candidateCon))
                     resolveConflictsRecursively(candidateAutomaton, candidateCon);
             }
@@ -208,17 +213,26 @@ public class ConflictAndRedundancyResolver {
                                     // The last one is the constraint that we checked last. In theory, it should not constitute a problem
                                     - 2);
             Constraint candidateCon = null;
+            int candidateIndex = 0;
             Automaton secondPassGridCheckAutomaton = null;
 
+            /* The automaton of all the constraints BUT the candidate one is combined from a tree of partial intersections, built once,
+             * instead of being rebuilt from the regular expressions of all the other constraints at every check */
+            List<Automaton> constraintsAutomata = new ArrayList<Automaton>(constraintsSortedForDoubleCheck.size());
+            for (Constraint con : constraintsSortedForDoubleCheck) {
+                constraintsAutomata.add(TemplateAutomataCache.getInstance().getAutomaton(con));
+            }
+            LeaveOneOutAutomataTree leaveOneOutTree = new LeaveOneOutAutomataTree(
+                    constraintsAutomata,
+                    TemplateAutomataCache.getInstance().getAutomaton(AutomatonUtils.createRegExpLimitingTheAlphabet(this.safeProcess.getTaskCharArchive().getIdentifiersAlphabet())),
+                    this.parallelThreads);
+
             while (iterator.hasPrevious()) {
+                candidateIndex = iterator.previousIndex();
                 candidateCon = iterator.previous();
                 logger.trace("Second-pass grid check of constraint: " + candidateCon);
 
-                secondPassGridCheckAutomaton =
-                        AutomatonFactory.buildAutomaton(
-                                this.safeProcess.bag,
-                                this.safeProcess.getTaskCharArchive().getIdentifiersAlphabet(),
-                                candidateCon);
+                secondPassGridCheckAutomaton = leaveOneOutTree.buildAllBut(candidateIndex);
 
                 // If the safe automaton accepts
                 if (secondPassGridCheckAutomaton.subsetOf(
@@ -229,6 +243,7 @@ public class ConflictAndRedundancyResolver {
                         this.safeAutomaton)) {
                     // ... then the current constraint is basically useless. Explanation is: some other constraint had been added later that made an already saved constraint redundant.
                     this.safeProcess.bag.remove(candidateCon);
+                    leaveOneOutTree.remove(candidateIndex);
                     this.redundantConstraintsAtSecondPass.add(candidateCon);
                     this.redundantConstraints.add(candidateCon);
                     candidateCon.setRedundant(true);
@@ -274,7 +289,7 @@ public class ConflictAndRedundancyResolver {
             } else {
                 logger.trace(candidateCon + " relaxed to " + relaxedCon);
 
-                resolveConflictsRecursively(new RegExp(relaxedCon.getRegularExpression()).toAutomaton(), relaxedCon);
+                resolveConflictsRecursively(TemplateAutomataCache.getInstance().getAutomaton(relaxedCon), relaxedCon);
             }
 
             if (candidateCon.getSubFamily().equals(RelationConstraintSubFamily.COUPLING)) {
@@ -289,10 +304,10 @@ public class ConflictAndRedundancyResolver {
                             + coCandidateCon.getForwardConstraint() + " and "
                             + coCandidateCon.getBackwardConstraint());
                     this.resolveConflictsRecursively(
-                            new RegExp(forwardCon.getRegularExpression()).toAutomaton(),
+                            TemplateAutomataCache.getInstance().getAutomaton(forwardCon),
                             forwardCon);
                     this.resolveConflictsRecursively(
-                            new RegExp(backwardCon.getRegularExpression()).toAutomaton(),
+                            TemplateAutomataCache.getInstance().getAutomaton(backwardCon),
                             backwardCon);
                 }
             }
@@ -0,0 +1,95 @@
+package minerful.reactive.automaton;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense transition table version of a (deterministic) automaton over a small alphabet, meant for the offline evaluation of traces.
+ * <p>
+ * The symbols of the alphabet are remapped to the indices of the given array of characters,
+ * so a step is a plain array lookup instead of the scan of the transition ranges done by {@link State#step(char)}.
+ * Only the states reachable through the given symbols are compiled.
+ * A missing transition leads to an extra non-accepting sink state.
+ */
+public class CompiledAutomaton {
+    private final int[][] transitions; // [state][symbol]
+    private final boolean[] accept;
+    private final int initialState;
+
+    private static final int MISSING_TRANSITION = -1;
+
+    /**
+     * Compile the given automaton over the given symbols
+     *
+     * @param automaton automaton to compile
+     * @param symbols   characters of the alphabet, the position of each one is its symbol index
+     */
+    public CompiledAutomaton(Automaton automaton, char[] symbols) {
+        Map<State, Integer> statesIndex = new HashMap<State, Integer>();
+        List<State> states = new ArrayList<State>();
+        List<int[]> rows = new ArrayList<int[]>();
+        boolean sinkRequired = false;
+
+        states.add(automaton.getInitialState());
+        statesIndex.put(automaton.getInitialState(), 0);
+        for (int s = 0; s < states.size(); s++) {
+            int[] row = new int[symbols.length];
+            for (int symbol = 0; symbol < symbols.length; symbol++) {
+                State next = states.get(s).step(symbols[symbol]);
+                if (next == null) {
+                    row[symbol] = MISSING_TRANSITION;
+                    sinkRequired = true;
+                    continue;
+                }
+                Integer nextIndex = statesIndex.get(next);
+                if (nextIndex == null) {
+                    nextIndex = states.size();
+                    states.add(next);
+                    statesIndex.put(next, nextIndex);
+                }
+                row[symbol] = nextIndex;
+            }
+            rows.add(row);
+        }
+
+//        the sink, if any, comes right after the proper states
+        int sink = states.size();
+        this.transitions = new int[sinkRequired ? sink + 1 : sink][];
+        this.accept = new boolean[this.transitions.length];
+        for (int s = 0; s < sink; s++) {
+            int[] row = rows.get(s);
+            for (int symbol = 0; symbol < row.length; symbol++) {
+                if (row[symbol] == MISSING_TRANSITION) row[symbol] = sink;
+            }
+            this.transitions[s] = row;
+            this.accept[s] = states.get(s).isAccept();
+        }
+        if (sinkRequired) {
+            this.transitions[sink] = new int[symbols.length];
+            Arrays.fill(this.transitions[sink], sink);
+        }
+        this.initialState = 0;
+    }
+
+    public int getInitialState() {
+        return initialState;
+    }
+
+    public int step(int state, int symbol) {
+        return transitions[state][symbol];
+    }
+
+    public boolean isAccept(int state) {
+        return accept[state];
+    }
+
+    public int getStatesNumber() {
+        return accept.length;
+    }
+}
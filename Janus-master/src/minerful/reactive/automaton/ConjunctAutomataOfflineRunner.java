@@ -6,78 +6,99 @@ import java.util.*;
 
 
 /**
- * Object to run a trace over conjunct automata
+ * Object to run a trace over conjunct automata.
+ * The automata are compiled into transition tables (see {@link CompiledAutomaton}) over the symbols of the separated automaton they belong to.
  */
 public class ConjunctAutomataOfflineRunner {
     private ConjunctAutomata automata;
     private Collection<Character> alphabet;
 
-    private State currentPastState = null;
-    private State currentPresentState = null;
-    private State currentFutureState = null;
+    private CompiledAutomaton pastAutomaton = null;
+    private CompiledAutomaton presentAutomaton = null;
+    private CompiledAutomaton futureAutomaton = null;
 
+    private int currentPastState;
+    private int currentPresentState;
+    private int currentFutureState;
 
-    private State initialPastState = null;
-    private State initialPresentState = null;
-    private State initialFutureState = null;
+    //    evaluation of past and present, reused across the traces
+    private boolean[] forwardEvaluation = new boolean[0];
 
 
     /**
      * Initialize a runner for a given conjunct automata
      *  @param automata Conjunct Automata to be run
      * @param alphabet
+     * @param symbols  characters of the (parametric) alphabet, the position of each one is the symbol index used to evaluate the traces
      */
-    public ConjunctAutomataOfflineRunner(ConjunctAutomata automata, Collection<Character> alphabet) {
+    public ConjunctAutomataOfflineRunner(ConjunctAutomata automata, Collection<Character> alphabet, char[] symbols) {
         this.automata = automata;
         this.alphabet =alphabet;
 
         if (automata.hasPast()) {
-            this.initialPastState = automata.getPastAutomaton().getInitialState();
-            this.currentPastState = this.initialPastState;
+            this.pastAutomaton = new CompiledAutomaton(automata.getPastAutomaton(), symbols);
         }
         if (automata.hasPresent()) {
-            this.initialPresentState = automata.getPresentAutomaton().getInitialState();
-            this.currentPresentState = this.initialPresentState;
+            this.presentAutomaton = new CompiledAutomaton(automata.getPresentAutomaton(), symbols);
         }
         if (automata.hasFuture()) {
 //            Reversed future for offline settings
             Automaton newFut = Utils.getReversedAutomaton(automata.getFutureAutomaton(), (Set) alphabet);
-            this.initialFutureState = newFut.getInitialState();
-            this.currentFutureState = this.initialFutureState;
+            this.futureAutomaton = new CompiledAutomaton(newFut, symbols);
         }
+        this.reset();
     }
 
     /**
-     * replay a trace on the automata and return a vector with the acceptance of each state
+     * Copy constructor sharing the (already reversed and compiled) automata of the given runner, but not its current states
      *
-     * @param trace trace as char[] to be evaluate by the conjunct automata.
+     * @param runner runner to copy
      */
-    public boolean[] evaluateTrace(char[] trace, int traceLength, Map<Character, Character> parametricMapping) {
+    public ConjunctAutomataOfflineRunner(ConjunctAutomataOfflineRunner runner) {
+        this.automata = runner.automata;
+        this.alphabet = runner.alphabet;
+
+        this.pastAutomaton = runner.pastAutomaton;
+        this.presentAutomaton = runner.presentAutomaton;
+        this.futureAutomaton = runner.futureAutomaton;
+        this.reset();
+    }
 
-        boolean[] result = new boolean[traceLength];
-        Arrays.fill(result, Boolean.TRUE);
+    /**
+     * replay a trace on the automata and set the target bit of the events accepted by all of them
+     *
+     * @param trace       trace as array of symbol indices to be evaluate by the conjunct automata.
+     * @param traceLength number of events of the trace
+     * @param result      evaluation of the events, to which the target bit is added in OR
+     */
+    public void evaluateTrace(int[] trace, int traceLength, byte[] result) {
+        if (forwardEvaluation.length < traceLength) {
+            forwardEvaluation = new boolean[traceLength];
+        }
 
+        //        PAST and PRESENT
         for (int i = 0; i < traceLength; i++) {
-            char transition_onward = parametricMapping.getOrDefault(trace[i], 'z');
-
-            //        PAST
-            if (currentPastState != null) {
-                currentPastState = currentPastState.step(transition_onward);
-                result[i] &= currentPastState.isAccept();
-            }
-            //        PRESENT
-            if (currentPresentState != null) {
-                currentPresentState = currentPresentState.step(transition_onward);
-                result[i] &= currentPresentState.isAccept();
+            boolean eval = true;
+            if (pastAutomaton != null) {
+                currentPastState = pastAutomaton.step(currentPastState, trace[i]);
+                eval = pastAutomaton.isAccept(currentPastState);
             }
-            //        FUTURE (backward)
-            if (currentFutureState != null) {
-                currentFutureState = currentFutureState.step(parametricMapping.getOrDefault(trace[traceLength - 1 - i], 'z'));
-                result[traceLength - 1 - i] &= currentFutureState.isAccept();
+            if (presentAutomaton != null) {
+                currentPresentState = presentAutomaton.step(currentPresentState, trace[i]);
+                eval &= presentAutomaton.isAccept(currentPresentState);
             }
+            forwardEvaluation[i] = eval;
         }
 
-        return result;
+        //        FUTURE (backward)
+        for (int i = traceLength - 1; i >= 0; i--) {
+            boolean eval = forwardEvaluation[i];
+            if (futureAutomaton != null) {
+                currentFutureState = futureAutomaton.step(currentFutureState, trace[i]);
+                eval &= futureAutomaton.isAccept(currentFutureState);
+            }
+            if (eval) result[i] |= 1;
+        }
     }
 
 
@@ -85,9 +106,9 @@ public class ConjunctAutomataOfflineRunner {
      * Reset the automata state to make it ready for a new trace
      */
     public void reset() {
-        this.currentPastState = this.initialPastState;
-        this.currentPresentState = this.initialPresentState;
-        this.currentFutureState = this.initialFutureState;
+        if (pastAutomaton != null) this.currentPastState = pastAutomaton.getInitialState();
+        if (presentAutomaton != null) this.currentPresentState = presentAutomaton.getInitialState();
+        if (futureAutomaton != null) this.currentFutureState = futureAutomaton.getInitialState();
     }
 
 }
@@ -50,6 +50,22 @@ public class ConjunctAutomataRunner {
         return currentPastState;
     }
 
+    /**
+     * @return initial state of the past automaton, null if there is no past automaton
+     */
+    public State getInitialPastState() {
+        return automata.hasPast() ? automata.getPastAutomaton().getInitialState() : null;
+    }
+
+    /**
+     * Move the pointer of the past automaton to the given state, to resume a trace
+     *
+     * @param pastState state of the past automaton, null if there is no past automaton
+     */
+    public void setCurrentPastState(State pastState) {
+        this.currentPastState = pastState;
+    }
+
     /**
      * Add a new token in starting state of future automaton and give the reference to AToken object
      *
@@ -1,7 +1,5 @@
 package minerful.reactive.automaton;
 
-import dk.brics.automaton.State;
-
 import java.util.*;
 
 /**
@@ -18,6 +16,18 @@ public class SeparatedAutomatonOfflineRunner {
     private List<Character> specificAlphabet;
     private Map<Character, Character> parametricMapping;
 
+    //    compiled version of the parametric mapping: trace character -> symbol index of the compiled automata
+    private int[] symbolsMapping;
+    private int otherSymbol;
+    private CompiledAutomaton activator;
+    //    trace translated into symbol indices, reused across the traces
+    private int[] encodedTrace = new int[0];
+
+    /**
+     * Character used for the events of the trace that are not part of the specific alphabet
+     */
+    public static final char OTHER_CHARACTER = 'z';
+
 
     /**
      * Initialize a runner object to run trace on a given separated automaton.
@@ -38,30 +48,113 @@ public class SeparatedAutomatonOfflineRunner {
         }
 //        (parametric)Alphabet required in order to reverse the future automata
         LinkedHashSet<Character> alphabet =  new LinkedHashSet<>(parametricMapping.values());
+
+//        Symbols of the compiled automata: the parametric characters, in order, plus the one for any other character
+        char[] symbols = new char[specificAlphabet.size() + 1];
+        for (int i = 0; i < specificAlphabet.size(); i++) {
+            symbols[i] = par[i];
+        }
+        this.otherSymbol = specificAlphabet.size();
+        symbols[otherSymbol] = OTHER_CHARACTER;
+        this.symbolsMapping = buildSymbolsMapping(specificAlphabet);
+
+        this.activator = new CompiledAutomaton(automaton.getActivator(), symbols);
         for (ConjunctAutomata ca : automaton.getDisjunctAutomata()) {
-            this.disjunctAutomataOfflineRunners.add(new ConjunctAutomataOfflineRunner(ca, alphabet));
+            this.disjunctAutomataOfflineRunners.add(new ConjunctAutomataOfflineRunner(ca, alphabet, symbols));
         }
 
     }
 
+    /**
+     * Initialize a runner for the given specific alphabet sharing the automata of a runner of the same template and parametric alphabet size.
+     * The automata are reversed and compiled only once per template, and are only read during a run:
+     * only the mapping of the specific alphabet and the current states belong to the new runner.
+     *
+     * @param templateRunner   runner of another constraint of the same template, with a specific alphabet of the same size
+     * @param specificAlphabet ordered array of character from the trace to be used in the parametric automaton
+     */
+    public SeparatedAutomatonOfflineRunner(SeparatedAutomatonOfflineRunner templateRunner, List<Character> specificAlphabet) {
+        this.automaton = templateRunner.automaton;
+        this.specificAlphabet = specificAlphabet;
+        this.parametricMapping = new HashMap<Character, Character>();
+        char[] par = automaton.getParametricAlphabet();
+        for (int i = 0; i < specificAlphabet.size(); i++) {
+            parametricMapping.put(specificAlphabet.get(i), par[i]);
+        }
+        this.otherSymbol = templateRunner.otherSymbol;
+        this.symbolsMapping = buildSymbolsMapping(specificAlphabet);
+        this.activator = templateRunner.activator;
+        this.disjunctAutomataOfflineRunners = new ArrayList<ConjunctAutomataOfflineRunner>(templateRunner.disjunctAutomataOfflineRunners.size());
+        for (ConjunctAutomataOfflineRunner car : templateRunner.disjunctAutomataOfflineRunners) {
+            this.disjunctAutomataOfflineRunners.add(new ConjunctAutomataOfflineRunner(car));
+        }
+    }
+
+    /**
+     * Map each character of the specific alphabet to its symbol index, and any other character to the symbol index of {@link #OTHER_CHARACTER}
+     */
+    private int[] buildSymbolsMapping(List<Character> specificAlphabet) {
+        int maxSpecificCharacter = 0;
+        for (Character c : specificAlphabet) {
+            maxSpecificCharacter = Math.max(maxSpecificCharacter, c);
+        }
+        int[] mapping = new int[maxSpecificCharacter + 1];
+        Arrays.fill(mapping, otherSymbol);
+        for (int i = 0; i < specificAlphabet.size(); i++) {
+            mapping[specificAlphabet.get(i)] = i;
+        }
+        return mapping;
+    }
+
+    /**
+     * Copy constructor.
+     * The automata, the alphabet and the parametric mapping are shared with the original runner (they are only read during a run),
+     * while each disjunct runner gets its own current states, so that the copy can run traces concurrently with the original.
+     *
+     * @param runner runner to copy
+     */
+    public SeparatedAutomatonOfflineRunner(SeparatedAutomatonOfflineRunner runner) {
+        this.automaton = runner.automaton;
+        this.specificAlphabet = runner.specificAlphabet;
+        this.parametricMapping = runner.parametricMapping;
+        this.symbolsMapping = runner.symbolsMapping;
+        this.otherSymbol = runner.otherSymbol;
+        this.activator = runner.activator;
+        this.disjunctAutomataOfflineRunners = new ArrayList<ConjunctAutomataOfflineRunner>(runner.disjunctAutomataOfflineRunners.size());
+        for (ConjunctAutomataOfflineRunner car : runner.disjunctAutomataOfflineRunners) {
+            this.disjunctAutomataOfflineRunners.add(new ConjunctAutomataOfflineRunner(car));
+        }
+    }
+
     /**
      * run the separatedAutomaton on the given trace
      */
     public void runTrace(char[] trace, int traceLength, byte[] result) {
+        runTrace(trace, 0, traceLength, result);
+    }
+
+    /**
+     * run the separatedAutomaton on the trace starting at the given offset of the given events, e.g., of an encoded log arena
+     */
+    public void runTrace(char[] events, int offset, int traceLength, byte[] result) {
+        if (encodedTrace.length < traceLength) {
+            encodedTrace = new int[traceLength];
+        }
+        for (int i = 0; i < traceLength; i++) {
+            char event = events[offset + i];
+            encodedTrace[i] = (event < symbolsMapping.length) ? symbolsMapping[event] : otherSymbol;
+        }
+
         //        Target
         for (ConjunctAutomataOfflineRunner car : disjunctAutomataOfflineRunners) {
-            int i = 0;
-            for (boolean eval : car.evaluateTrace(trace, traceLength, parametricMapping)) {
-                result[i] |= (eval) ? 1 : 0;
-                i++;
-            }
+            car.evaluateTrace(encodedTrace, traceLength, result);
         }
         //        Activation
-        State activatorPointer = automaton.getActivator().getInitialState();
+        int activatorPointer = activator.getInitialState();
         for (int i = 0; i < traceLength; i++) {
-            char transition_onward = parametricMapping.getOrDefault(trace[i], 'z');
-            activatorPointer = activatorPointer.step(transition_onward);
-            result[i] += (activatorPointer.isAccept()) ? 2 : 0; // we are adding the second bit on the left, i.e., [activator-bit][target-bit]
+            activatorPointer = activator.step(activatorPointer, encodedTrace[i]);
+            if (activator.isAccept(activatorPointer))
+                result[i] += 2; // we are adding the second bit on the left, i.e., [activator-bit][target-bit]
         }
 
     }
@@ -175,6 +175,84 @@ public class SeparatedAutomatonRunner {
 	}
 
 
+	/**
+	 * @return Number of activations whose outcome depends on the future of the trace, i.e., of the launched ATokens
+	 */
+	public int getPendingActivationCounter() {
+		return aTokensRunners.size();
+	}
+
+	/**
+	 * @return the current results of the launched ATokens, in order of activation
+	 */
+	public boolean[] getPendingActivationResults() {
+		boolean[] results = new boolean[aTokensRunners.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = aTokensRunners.get(i).getCurrentResult();
+		}
+		return results;
+	}
+
+	/**
+	 * @return a new state of this runner at the beginning of a trace, to be loaded with {@link #loadState(RunnerState) loadState}
+	 */
+	public RunnerState newState() {
+		RunnerState state = new RunnerState(disjunctAutomataRunners.size());
+		state.activatorPointer = automaton.getActivator().getInitialState();
+		for (int i = 0; i < disjunctAutomataRunners.size(); i++) {
+			state.pastStates[i] = disjunctAutomataRunners.get(i).getInitialPastState();
+		}
+		return state;
+	}
+
+	/**
+	 * Resume the run of a trace from the given state, so that the same runner can be moved among many interleaved traces.
+	 * The ATokens of the state are not copied: the state must be saved back with {@link #saveState(RunnerState) saveState}
+	 * before loading another one.
+	 *
+	 * @param state state of the runner on a trace, created by {@link #newState() newState}
+	 */
+	public void loadState(RunnerState state) {
+		activatorPointer = state.activatorPointer;
+		activationCounter = state.activationCounter;
+		fulfilledActivationCounter = state.fulfilledActivationCounter;
+		aTokensRunners = state.aTokensRunners;
+		for (int i = 0; i < disjunctAutomataRunners.size(); i++) {
+			disjunctAutomataRunners.get(i).setCurrentPastState(state.pastStates[i]);
+		}
+	}
+
+	/**
+	 * Save the current state of the run into the given state object
+	 *
+	 * @param state state of the runner on a trace, created by {@link #newState() newState}
+	 */
+	public void saveState(RunnerState state) {
+		state.activatorPointer = activatorPointer;
+		state.activationCounter = activationCounter;
+		state.fulfilledActivationCounter = fulfilledActivationCounter;
+		state.aTokensRunners = aTokensRunners;
+		for (int i = 0; i < disjunctAutomataRunners.size(); i++) {
+			state.pastStates[i] = disjunctAutomataRunners.get(i).getCurrentPastState();
+		}
+	}
+
+	/**
+	 * Minimal state of a runner on a trace: pointers of the activator and of the past automata, counters and launched ATokens.
+	 * The automata are not part of the state, so one runner per constraint can serve any number of traces.
+	 */
+	public static class RunnerState {
+		private State activatorPointer;
+		private final State[] pastStates;
+		private int activationCounter = 0;
+		private int fulfilledActivationCounter = 0;
+		private List<ATokenRunner> aTokensRunners = new ArrayList<ATokenRunner>(0);
+
+		private RunnerState(int disjunctsNumber) {
+			this.pastStates = new State[disjunctsNumber];
+		}
+	}
+
 	/**
 	 * Reset the automaton state to make it ready for a new trace
 	 */
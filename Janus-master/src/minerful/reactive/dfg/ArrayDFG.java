@@ -0,0 +1,160 @@
+package minerful.reactive.dfg;
+
+import minerful.concept.TaskClass;
+import minerful.reactive.variant.DFGEncodedEvent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primitive counterpart of a {@link DFG}, for a fixed set of tasks encoded as indices.
+ * The transition from the task i to the task j is the cell i*N+j of flat arrays storing the sum, minimum, maximum of the times and the counter of the transition.
+ * A transition exists in the DFG if its counter is greater than zero.
+ * <p>
+ * The DFG is built by adding the {@link TraceContribution}s of the traces, precomputed once, so that it can be rebuilt without allocations.
+ */
+public class ArrayDFG {
+    private final int tasksNumber;
+    final long[] timeSum;
+    final long[] timeMin;
+    final long[] timeMax;
+    final int[] counter;
+
+    /**
+     * Constructor. Build an empty DFG over the given number of tasks
+     *
+     * @param tasksNumber
+     */
+    public ArrayDFG(int tasksNumber) {
+        this.tasksNumber = tasksNumber;
+        this.timeSum = new long[tasksNumber * tasksNumber];
+        this.timeMin = new long[tasksNumber * tasksNumber];
+        this.timeMax = new long[tasksNumber * tasksNumber];
+        this.counter = new int[tasksNumber * tasksNumber];
+    }
+
+    /**
+     * Remove all the transitions from the DFG
+     */
+    public void clear() {
+        Arrays.fill(counter, 0);
+    }
+
+    /**
+     * Add the transitions of a trace to the DFG
+     *
+     * @param trace
+     */
+    public void add(TraceContribution trace) {
+        for (int e = 0; e < trace.cells.length; e++) {
+            int cell = trace.cells[e];
+            if (counter[cell] == 0) {
+                timeSum[cell] = trace.timeSum[e];
+                timeMin[cell] = trace.timeMin[e];
+                timeMax[cell] = trace.timeMax[e];
+            } else {
+                timeSum[cell] += trace.timeSum[e];
+                timeMin[cell] = Math.min(timeMin[cell], trace.timeMin[e]);
+                timeMax[cell] = Math.max(timeMax[cell], trace.timeMax[e]);
+            }
+            counter[cell] += trace.counter[e];
+        }
+    }
+
+    /**
+     * Compare two DFGs and write in the given buffer the time differences between their transitions considering <AVG,MIN,MAX>,
+     * as {@link minerful.reactive.variant.DFGtimesVariantAnalysisCore} does for the graph-based DFGs:
+     * the difference is 0 if the transition is in neither DFG, NaN if it is only in one of them.
+     * The result of the transition i*N+j is in the positions (i*N+j)*3, (i*N+j)*3+1, (i*N+j)*3+2 of the buffer.
+     *
+     * @param dfg1
+     * @param dfg2
+     * @param result buffer of size N*N*3
+     */
+    public static void compare(ArrayDFG dfg1, ArrayDFG dfg2, float[] result) {
+        for (int cell = 0; cell < dfg1.counter.length; cell++) {
+            int c1 = dfg1.counter[cell];
+            int c2 = dfg2.counter[cell];
+            if (c1 > 0 && c2 > 0) {
+                result[cell * 3] = Math.abs((float) dfg1.timeSum[cell] / c1 - (float) dfg2.timeSum[cell] / c2);
+                result[cell * 3 + 1] = Math.abs(dfg1.timeMin[cell] - dfg2.timeMin[cell]);
+                result[cell * 3 + 2] = Math.abs(dfg1.timeMax[cell] - dfg2.timeMax[cell]);
+            } else if (c1 == 0 && c2 == 0) {
+                result[cell * 3] = 0.0F;
+                result[cell * 3 + 1] = 0.0F;
+                result[cell * 3 + 2] = 0.0F;
+            } else {
+                result[cell * 3] = Float.NaN;
+                result[cell * 3 + 1] = Float.NaN;
+                result[cell * 3 + 2] = Float.NaN;
+            }
+        }
+    }
+
+    public int getTasksNumber() {
+        return tasksNumber;
+    }
+
+    /**
+     * Sparse transitions of a single trace, with their time sum, minimum, maximum and counter.
+     * Each transition appears once, even if the trace traverses it more times.
+     */
+    public static class TraceContribution {
+        final int[] cells;
+        final long[] timeSum;
+        final long[] timeMin;
+        final long[] timeMax;
+        final int[] counter;
+
+        /**
+         * Encode the transitions of the given trace. The transitions from or to a task without index are skipped.
+         *
+         * @param trace
+         * @param taskToIndexMap
+         * @param tasksNumber
+         */
+        public TraceContribution(List<DFGEncodedEvent> trace, Map<TaskClass, Integer> taskToIndexMap, int tasksNumber) {
+            int[] cellsBuffer = new int[Math.max(0, trace.size() - 1)];
+            long[] sumBuffer = new long[cellsBuffer.length];
+            long[] minBuffer = new long[cellsBuffer.length];
+            long[] maxBuffer = new long[cellsBuffer.length];
+            int[] counterBuffer = new int[cellsBuffer.length];
+            Map<Integer, Integer> cellToPosition = new HashMap<>();
+            int size = 0;
+
+            for (int e = 1; e < trace.size(); e++) {
+                DFGEncodedEvent previous = trace.get(e - 1);
+                DFGEncodedEvent current = trace.get(e);
+                Integer source = taskToIndexMap.get(previous.eventsSequence);
+                Integer destination = taskToIndexMap.get(current.eventsSequence);
+                if (source == null || destination == null)
+                    continue;
+                int cell = source * tasksNumber + destination;
+                long timeDiff = Math.abs(current.timesSequence - previous.timesSequence);
+
+                Integer position = cellToPosition.get(cell);
+                if (position == null) {
+                    cellToPosition.put(cell, size);
+                    cellsBuffer[size] = cell;
+                    sumBuffer[size] = timeDiff;
+                    minBuffer[size] = timeDiff;
+                    maxBuffer[size] = timeDiff;
+                    counterBuffer[size] = 1;
+                    size++;
+                } else {
+                    sumBuffer[position] += timeDiff;
+                    minBuffer[position] = Math.min(minBuffer[position], timeDiff);
+                    maxBuffer[position] = Math.max(maxBuffer[position], timeDiff);
+                    counterBuffer[position]++;
+                }
+            }
+            this.cells = Arrays.copyOf(cellsBuffer, size);
+            this.timeSum = Arrays.copyOf(sumBuffer, size);
+            this.timeMin = Arrays.copyOf(minBuffer, size);
+            this.timeMax = Arrays.copyOf(maxBuffer, size);
+            this.counter = Arrays.copyOf(counterBuffer, size);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package minerful.reactive.io;
+
+import minerful.reactive.measurements.MeasureStatistics;
+import minerful.reactive.measurements.MegaMatrixMonster;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer of the Janus results in a compact binary columnar format, meant to be memory-mapped by the consumers
+ * (e.g., <code>numpy.memmap</code> or <code>numpy.frombuffer</code> with the offsets below) without any parsing.
+ * <p>
+ * Each matrix is written in its own file. All the numbers are little-endian, and every section starts at a multiple of 8 bytes.
+ * <p>
+ * Header:
+ * <pre>
+ * offset  0 : 8 bytes    magic "JANUSBIN"
+ * offset  8 : int32      format version ({@link #FORMAT_VERSION})
+ * offset 12 : int32      content type (EVENTS, EVENTS_COUNTERS, TRACES_MEASURES, TRACES_MEASURES_STATS, LOG_MEASURES)
+ * offset 16 : int32      T, number of traces of the log
+ * offset 20 : int32      R, number of rows of the matrices (T, or the number of variants if the log has been collapsed into variants)
+ * offset 24 : int32      C, number of constraints, the last one is the whole MODEL
+ * offset 28 : int32      M, number of measures (or counters) of the content, 0 for the events
+ * offset 32 : int64      D, offset of the data
+ * offset 40 : C constraint names followed by M measure (or counter) names, each one as int32 length + UTF-8 bytes
+ * </pre>
+ * Data, from offset D:
+ * <pre>
+ * all but LOG_MEASURES : int32[T]  row of each trace of the log (padded)
+ * EVENTS               : int64[R+1] offset of the first event of each row (the last one is the total number of events E),
+ *                        then, for each constraint, E 2-bit codes packed 4 per byte, [activator-bit][target-bit] (each block padded).
+ *                        The code of the event e is in byte e/4 of the block of the constraint, at bits 2*(e%4) and 2*(e%4)+1
+ * EVENTS_COUNTERS      : int32[R][C][M] counters as in MegaMatrixMonster
+ * TRACES_MEASURES      : float32[M][C][R] one column per measure and constraint
+ * TRACES_MEASURES_STATS: float64[C][M][7] mean, geometric mean, variance, population variance, standard deviation, max, min
+ * LOG_MEASURES         : float32[C][M]
+ * </pre>
+ */
+public class JanusBinaryOutputWriter implements Closeable {
+    public static final byte[] MAGIC = "JANUSBIN".getBytes(StandardCharsets.US_ASCII);
+    public static final int FORMAT_VERSION = 1;
+
+    public static final int EVENTS = 0;
+    public static final int EVENTS_COUNTERS = 1;
+    public static final int TRACES_MEASURES = 2;
+    public static final int TRACES_MEASURES_STATS = 3;
+    public static final int LOG_MEASURES = 4;
+
+    public static final String[] COUNTERS_NAMES = new String[]{
+            "N(A)", "N(T)", "N(¬A)", "N(¬T)", "N(¬A¬T)", "N(¬AT)", "N(A¬T)", "N(AT)", "Length"
+    };
+    public static final int STATS_NUMBER = 7;
+
+    private static final int FIXED_HEADER_SIZE = 40;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long position = 0;
+
+    private JanusBinaryOutputWriter(File outputFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(outputFile, "rw");
+        file.setLength(0);
+        this.channel = file.getChannel();
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /*
+     * ************************** Layout sizes
+     */
+
+    /**
+     * @return the size in bytes of the given number of bytes padded to a multiple of 8
+     */
+    public static long padded(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @return the size in bytes of the header, padding included
+     */
+    public static long getHeaderSize(String[] constraintsNames, String[] measuresNames) {
+        long size = FIXED_HEADER_SIZE;
+        for (String name : constraintsNames) size += 4 + name.getBytes(StandardCharsets.UTF_8).length;
+        for (String name : measuresNames) size += 4 + name.getBytes(StandardCharsets.UTF_8).length;
+        return padded(size);
+    }
+
+    /**
+     * @return the size in bytes of the data of the events evaluation
+     */
+    public static long getEventsDataSize(int tracesNumber, int rowsNumber, int constraintsNumber, long eventsNumber) {
+        return padded(4L * tracesNumber) + 8L * (rowsNumber + 1) + constraintsNumber * padded((eventsNumber + 3) / 4);
+    }
+
+    /**
+     * @return the size in bytes of the data of the events counters
+     */
+    public static long getEventsCountersDataSize(int tracesNumber, int rowsNumber, int constraintsNumber) {
+        return padded(4L * tracesNumber) + padded(4L * rowsNumber * constraintsNumber * COUNTERS_NAMES.length);
+    }
+
+    /**
+     * @return the size in bytes of the data of the traces measures
+     */
+    public static long getTracesMeasuresDataSize(int tracesNumber, int rowsNumber, int constraintsNumber, int measuresNumber) {
+        return padded(4L * tracesNumber) + padded(4L * measuresNumber * constraintsNumber * rowsNumber);
+    }
+
+    /**
+     * @return the size in bytes of the data of the traces measures descriptive statistics
+     */
+    public static long getTracesMeasuresStatsDataSize(int tracesNumber, int constraintsNumber, int measuresNumber) {
+        return padded(4L * tracesNumber) + 8L * constraintsNumber * measuresNumber * STATS_NUMBER;
+    }
+
+    /**
+     * @return the size in bytes of the data of the log measures
+     */
+    public static long getLogMeasuresDataSize(int constraintsNumber, int measuresNumber) {
+        return padded(4L * constraintsNumber * measuresNumber);
+    }
+
+    /*
+     * ************************** Export
+     */
+
+    /**
+     * Export the events evaluation, 2-bit packed, one column per constraint
+     */
+    public static void exportEventsEvaluation(MegaMatrixMonster megaMatrix, File outputFile, String[] constraintsNames) throws IOException {
+        int rowsNumber = megaMatrix.getRowsNumber();
+        long[] eventsOffsets = new long[rowsNumber + 1];
+        for (int row = 0; row < rowsNumber; row++) {
+            eventsOffsets[row + 1] = eventsOffsets[row] + megaMatrix.getRowLength(row);
+        }
+
+        try (JanusBinaryOutputWriter out = new JanusBinaryOutputWriter(outputFile)) {
+            out.writeHeader(EVENTS, megaMatrix, constraintsNames, new String[0]);
+            out.writeTracesRows(megaMatrix);
+            for (long offset : eventsOffsets) {
+                out.putLong(offset);
+            }
+            for (int constraint = 0; constraint < constraintsNames.length; constraint++) {
+                int packed = 0;
+                int packedNumber = 0;
+                for (int row = 0; row < rowsNumber; row++) {
+                    for (int event = 0; event < megaMatrix.getRowLength(row); event++) {
+                        packed |= megaMatrix.getEventEvaluation(row, constraint, event) << (2 * packedNumber);
+                        if (++packedNumber == 4) {
+                            out.putByte((byte) packed);
+                            packed = 0;
+                            packedNumber = 0;
+                        }
+                    }
+                }
+                if (packedNumber > 0) out.putByte((byte) packed);
+                out.pad();
+            }
+        }
+    }
+
+    /**
+     * Export the events evaluation counters
+     */
+    public static void exportEventsEvaluationLite(MegaMatrixMonster megaMatrix, File outputFile, String[] constraintsNames) throws IOException {
+        int[][][] matrix = megaMatrix.getEventsEvaluationMatrixLite();
+        try (JanusBinaryOutputWriter out = new JanusBinaryOutputWriter(outputFile)) {
+            out.writeHeader(EVENTS_COUNTERS, megaMatrix, constraintsNames, COUNTERS_NAMES);
+            out.writeTracesRows(megaMatrix);
+            for (int[][] row : matrix) {
+                for (int[] counters : row) {
+                    for (int counter : counters) {
+                        out.putInt(counter);
+                    }
+                }
+            }
+            out.pad();
+        }
+    }
+
+    /**
+     * Export the traces measures, one float32 column per measure and constraint
+     */
+    public static void exportTracesMeasures(MegaMatrixMonster megaMatrix, File outputFile, String[] constraintsNames, String[] measuresNames) throws IOException {
+        float[][][] matrix = megaMatrix.getTraceMeasuresMatrix();
+        try (JanusBinaryOutputWriter out = new JanusBinaryOutputWriter(outputFile)) {
+            out.writeHeader(TRACES_MEASURES, megaMatrix, constraintsNames, measuresNames);
+            out.writeTracesRows(megaMatrix);
+            for (int measure = 0; measure < measuresNames.length; measure++) {
+                for (int constraint = 0; constraint < constraintsNames.length; constraint++) {
+                    for (float[][] row : matrix) {
+                        out.putFloat(row[constraint][measure]);
+                    }
+                }
+            }
+            out.pad();
+        }
+    }
+
+    /**
+     * Export the descriptive statistics of the traces measures
+     */
+    public static void exportTracesMeasuresStatistics(MegaMatrixMonster megaMatrix, File outputFile, String[] constraintsNames, String[] measuresNames) throws IOException {
+        MeasureStatistics[][] stats = megaMatrix.getTraceMeasuresDescriptiveStatistics();
+        try (JanusBinaryOutputWriter out = new JanusBinaryOutputWriter(outputFile)) {
+            out.writeHeader(TRACES_MEASURES_STATS, megaMatrix, constraintsNames, measuresNames);
+            out.writeTracesRows(megaMatrix);
+            for (int constraint = 0; constraint < constraintsNames.length; constraint++) {
+                for (int measure = 0; measure < measuresNames.length; measure++) {
+                    MeasureStatistics measureStats = stats[constraint][measure];
+                    out.putDouble(measureStats.getMean());
+                    out.putDouble(measureStats.getGeometricMean());
+                    out.putDouble(measureStats.getVariance());
+                    out.putDouble(measureStats.getPopulationVariance());
+                    out.putDouble(measureStats.getStandardDeviation());
+                    out.putDouble(measureStats.getMax());
+                    out.putDouble(measureStats.getMin());
+                }
+            }
+        }
+    }
+
+    /**
+     * Export the log measures
+     */
+    public static void exportLogMeasures(MegaMatrixMonster megaMatrix, File outputFile, String[] constraintsNames, String[] measuresNames) throws IOException {
+        float[][] matrix = megaMatrix.getLogMeasuresMatrix();
+        try (JanusBinaryOutputWriter out = new JanusBinaryOutputWriter(outputFile)) {
+            out.writeHeader(LOG_MEASURES, megaMatrix, constraintsNames, measuresNames);
+            for (int constraint = 0; constraint < constraintsNames.length; constraint++) {
+                for (int measure = 0; measure < measuresNames.length; measure++) {
+                    out.putFloat(matrix[constraint][measure]);
+                }
+            }
+            out.pad();
+        }
+    }
+
+    /*
+     * ************************** Low level writing
+     */
+
+    private void writeHeader(int contentType, MegaMatrixMonster megaMatrix, String[] constraintsNames, String[] measuresNames) throws IOException {
+        int rowsNumber = megaMatrix.getRowsNumber();
+        for (byte b : MAGIC) putByte(b);
+        putInt(FORMAT_VERSION);
+        putInt(contentType);
+        putInt(megaMatrix.getTracesNumber());
+        putInt(rowsNumber);
+        putInt(constraintsNames.length);
+        putInt(measuresNames.length);
+        putLong(getHeaderSize(constraintsNames, measuresNames));
+        for (String name : constraintsNames) putString(name);
+        for (String name : measuresNames) putString(name);
+        pad();
+    }
+
+    private void writeTracesRows(MegaMatrixMonster megaMatrix) throws IOException {
+        for (int trace = 0; trace < megaMatrix.getTracesNumber(); trace++) {
+            putInt(megaMatrix.getTraceRowIndex(trace));
+        }
+        pad();
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) flush();
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putByte(byte value) throws IOException {
+        ensureRemaining(1);
+        buffer.put(value);
+        position += 1;
+    }
+
+    private void putInt(int value) throws IOException {
+        ensureRemaining(4);
+        buffer.putInt(value);
+        position += 4;
+    }
+
+    private void putLong(long value) throws IOException {
+        ensureRemaining(8);
+        buffer.putLong(value);
+        position += 8;
+    }
+
+    private void putFloat(float value) throws IOException {
+        ensureRemaining(4);
+        buffer.putFloat(value);
+        position += 4;
+    }
+
+    private void putDouble(double value) throws IOException {
+        ensureRemaining(8);
+        buffer.putDouble(value);
+        position += 8;
+    }
+
+    private void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        for (byte b : bytes) putByte(b);
+    }
+
+    /**
+     * Pad the output with zeros up to the next multiple of 8 bytes
+     */
+    private void pad() throws IOException {
+        while ((position & 7) != 0) putByte((byte) 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
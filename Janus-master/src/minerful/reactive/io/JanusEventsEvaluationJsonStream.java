@@ -0,0 +1,122 @@
+package minerful.reactive.io;
+
+import minerful.reactive.measurements.PackedEvaluation;
+import minerful.utils.MessagePrinter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the events evaluation JSON file while the evaluation is still in progress.
+ * <p>
+ * The evaluation notifies every row of the results as soon as it is evaluated (see {@link #rowEvaluated(int, long[][], int)}
+ * and {@link #rowEvaluatedLite(int, int[][])}), possibly from several threads and not in order.
+ * The rows are written in order nonetheless: a row evaluated before the previous ones is kept aside (by reference) until they are written,
+ * so only the rows evaluated ahead of the slowest thread are pending at any time.
+ * A row whose key is null is not written, e.g., a trace identical to a previous one: in this way, every key is written exactly once.
+ * The resulting file is the same written at the end of the evaluation by
+ * {@link JanusMeasurementsOutputManagementLauncher#exportEventsEvaluationToJson} and
+ * {@link JanusMeasurementsOutputManagementLauncher#exportEventsEvaluationLiteToJson}.
+ */
+public class JanusEventsEvaluationJsonStream implements Closeable {
+    private static MessagePrinter logger = MessagePrinter.getInstance(JanusEventsEvaluationJsonStream.class);
+
+    private final JanusJsonStreamWriter streamWriter;
+    private final File outputFile;
+    private final String[] rowsKeys;
+    private final String[] constraintsNames;
+    /**
+     * rows evaluated but not written yet, because some previous row is still being evaluated
+     */
+    private final Map<Integer, Object> pendingRows = new HashMap<Integer, Object>();
+    private final Map<Integer, Integer> pendingRowsLength = new HashMap<Integer, Integer>();
+    private int nextRow = 0;
+
+    /**
+     * Open the output file
+     *
+     * @param outputFile       file to write
+     * @param compact          if true, no indentation and new lines are written
+     * @param rowsKeys         name of the entry of each row of the results, or null if the row must not be written
+     * @param constraintsNames names of the constraints, in the same order of the evaluations, the last one being the whole model
+     * @throws IOException
+     */
+    public JanusEventsEvaluationJsonStream(File outputFile, boolean compact, String[] rowsKeys, String[] constraintsNames) throws IOException {
+        this.streamWriter = new JanusJsonStreamWriter(outputFile, compact);
+        this.outputFile = outputFile;
+        this.rowsKeys = rowsKeys;
+        this.constraintsNames = constraintsNames;
+    }
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Notify the packed events evaluation of a row (see {@link PackedEvaluation})
+     *
+     * @param row              index of the row
+     * @param packedEvaluation packed evaluation of each constraint, plus the model, not modified afterwards
+     * @param length           number of events of the row
+     */
+    public synchronized void rowEvaluated(int row, long[][] packedEvaluation, int length) {
+        pendingRows.put(row, packedEvaluation);
+        pendingRowsLength.put(row, length);
+        writeReadyRows();
+    }
+
+    /**
+     * Notify the events evaluation counters of a row
+     *
+     * @param row      index of the row
+     * @param counters counters of each constraint, plus the model, not modified afterwards
+     */
+    public synchronized void rowEvaluatedLite(int row, int[][] counters) {
+        pendingRows.put(row, counters);
+        writeReadyRows();
+    }
+
+    /**
+     * Write the pending rows following the last written one, until a missing one is met
+     */
+    private void writeReadyRows() {
+        try {
+            Object evaluation;
+            while ((evaluation = pendingRows.remove(nextRow)) != null) {
+                Integer length = pendingRowsLength.remove(nextRow);
+                if (rowsKeys[nextRow] != null) {
+                    if (length == null) {
+                        streamWriter.writeTraceEventsEvaluationLite(rowsKeys[nextRow], constraintsNames, (int[][]) evaluation);
+                    } else {
+                        long[][] packedEvaluation = (long[][]) evaluation;
+                        byte[][] eventsEvaluation = new byte[packedEvaluation.length][];
+                        for (int constraint = 0; constraint < packedEvaluation.length; constraint++) {
+                            eventsEvaluation[constraint] = PackedEvaluation.unpack(packedEvaluation[constraint], length);
+                        }
+                        streamWriter.writeTraceEventsEvaluation(rowsKeys[nextRow], constraintsNames, eventsEvaluation);
+                    }
+                }
+                nextRow++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Events evaluation not written in " + outputFile, e);
+        }
+    }
+
+    /**
+     * Close the output file
+     *
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (nextRow < rowsKeys.length) {
+            logger.warn("Events evaluation written only for " + nextRow + " rows out of " + rowsKeys.length);
+        }
+        streamWriter.close();
+    }
+}
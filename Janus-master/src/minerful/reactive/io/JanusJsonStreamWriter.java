@@ -0,0 +1,132 @@
+package minerful.reactive.io;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming writer for the Janus JSON outputs.
+ * <p>
+ * Differently from building a Gson DOM of the whole result and serializing it at the end,
+ * the entries are written into a buffered file one by one, so the memory required does not depend on the size of the output.
+ * The produced JSON is the same Gson would produce from the equivalent DOM (pretty printed, unless compact).
+ * No check is made on the keys of the entries: the callers write one entry per constraint and one per variant of the log
+ * (identical traces have identical results), so that the keys are unique by construction.
+ * <p>
+ * The methods to write a whole trace are synchronized, so the trace entries can be emitted by the threads evaluating the traces as soon as they are ready
+ * (see {@link JanusEventsEvaluationJsonStream}).
+ */
+public class JanusJsonStreamWriter implements Closeable {
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    private static final String[] LITE_COUNTERS_NAMES = new String[]{
+            "N(A)",
+            "N(T)",
+            "N(¬A)",
+            "N(¬T)",
+            "N(¬A¬T)",
+            "N(¬AT)",
+            "N(A¬T)",
+            "N(AT)",
+            "Length"
+    };
+
+    private final Writer fileWriter;
+    private final JsonWriter jsonWriter;
+
+    /**
+     * Open the output file and the root JSON object
+     *
+     * @param outputFile file to write
+     * @param compact    if true, no indentation and new lines are written
+     * @throws IOException
+     */
+    public JanusJsonStreamWriter(File outputFile, boolean compact) throws IOException {
+        this.fileWriter = new BufferedWriter(new FileWriter(outputFile), BUFFER_SIZE);
+        this.jsonWriter = new JsonWriter(fileWriter);
+        if (!compact) {
+            this.jsonWriter.setIndent("  ");
+        }
+//        same settings used by Gson when serializing a DOM (e.g., NaN measures are written as they are)
+        this.jsonWriter.setLenient(true);
+        this.jsonWriter.setHtmlSafe(true);
+        this.jsonWriter.beginObject();
+    }
+
+    /**
+     * Get the underlying writer, to write custom entries
+     */
+    public JsonWriter getJsonWriter() {
+        return jsonWriter;
+    }
+
+    /**
+     * Start a new entry of the root object
+     *
+     * @param key name of the entry, not used by any other entry
+     * @throws IOException
+     */
+    public void beginEntry(String key) throws IOException {
+        jsonWriter.name(key);
+    }
+
+    /**
+     * Write the events evaluation of a trace, i.e., for each constraint the array of the evaluations of its events
+     *
+     * @param traceString      name of the trace
+     * @param constraintsNames names of the constraints, in the same order of the evaluations
+     * @param eventsEvaluation events evaluations of each constraint in the trace
+     * @throws IOException
+     */
+    public synchronized void writeTraceEventsEvaluation(String traceString, String[] constraintsNames, byte[][] eventsEvaluation) throws IOException {
+        beginEntry(traceString);
+        jsonWriter.beginObject();
+        for (int constraint = 0; constraint < eventsEvaluation.length; constraint++) {
+            jsonWriter.name(constraintsNames[constraint]);
+            jsonWriter.beginArray();
+            for (byte e : eventsEvaluation[constraint]) {
+                jsonWriter.value(e);
+            }
+            jsonWriter.endArray();
+        }
+        jsonWriter.endObject();
+    }
+
+    /**
+     * Write the events evaluation counters of a trace, i.e., for each constraint its counters
+     *
+     * @param traceString      name of the trace
+     * @param constraintsNames names of the constraints, in the same order of the evaluations
+     * @param counters         events evaluation counters of each constraint in the trace
+     * @throws IOException
+     */
+    public synchronized void writeTraceEventsEvaluationLite(String traceString, String[] constraintsNames, int[][] counters) throws IOException {
+        beginEntry(traceString);
+        jsonWriter.beginObject();
+        for (int constraint = 0; constraint < counters.length; constraint++) {
+            jsonWriter.name(constraintsNames[constraint]);
+            jsonWriter.beginObject();
+            for (int i = 0; i < LITE_COUNTERS_NAMES.length; i++) {
+                jsonWriter.name(LITE_COUNTERS_NAMES[i]).value(counters[constraint][i]);
+            }
+            jsonWriter.endObject();
+        }
+        jsonWriter.endObject();
+    }
+
+    /**
+     * Close the root object and the file
+     *
+     * @throws IOException
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        jsonWriter.endObject();
+        jsonWriter.close();
+    }
+}
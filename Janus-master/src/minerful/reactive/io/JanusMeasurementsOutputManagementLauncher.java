@@ -1,12 +1,15 @@
 package minerful.reactive.io;
 
-import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import minerful.MinerFulOutputManagementLauncher;
 import minerful.concept.TaskCharArchive;
 import minerful.io.params.OutputModelParameters;
+import minerful.logparser.EncodedLogArena;
+import minerful.logparser.LogParser;
 import minerful.logparser.LogTraceParser;
 import minerful.params.SystemCmdParameters;
 import minerful.reactive.automaton.SeparatedAutomatonOfflineRunner;
+import minerful.reactive.measurements.MeasureStatistics;
 import minerful.reactive.measurements.Measures;
 import minerful.reactive.measurements.MegaMatrixMonster;
 import minerful.reactive.params.JanusMeasurementsCmdParameters;
@@ -15,7 +18,6 @@ import minerful.reactive.params.JanusPrintParameters;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.io.*;
 import java.util.*;
@@ -25,6 +27,80 @@ import java.util.*;
  */
 public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputManagementLauncher {
 
+    /**
+     * if true, the JSON files are written without pretty-printing
+     */
+    private boolean compactJsonOutput = false;
+
+    public boolean isCompactJsonOutput() {
+        return compactJsonOutput;
+    }
+
+    public void setCompactJsonOutput(boolean compactJsonOutput) {
+        this.compactJsonOutput = compactJsonOutput;
+    }
+
+    /**
+     * events evaluation JSON file already written while evaluating the log (see {@link #openEventsEvaluationJsonStream}), if any
+     */
+    private File streamedEventsEvaluationJsonFile = null;
+
+    /**
+     * Get the file in which the events evaluation is saved as JSON, if required by the input parameters
+     *
+     * @return the file of the events evaluation, or null if not required
+     */
+    private static File getEventsEvaluationJsonFile(OutputModelParameters outParams, JanusMeasurementsCmdParameters measurementsParams) {
+        if (outParams.fileToSaveAsJSON == null ||
+                !(measurementsParams.detailsLevel.equals(DetailLevel.event) || measurementsParams.detailsLevel.equals(DetailLevel.all))) {
+            return null;
+        }
+        String baseOutputPath = outParams.fileToSaveAsJSON.getAbsolutePath().substring(0, outParams.fileToSaveAsJSON.getAbsolutePath().indexOf(".json"));
+        return new File(baseOutputPath.concat("[eventsEvaluation].json"));
+    }
+
+    /**
+     * Open the stream to which the events evaluation is written as JSON while the log is evaluated
+     * (see {@link minerful.reactive.measurements.ReactiveMeasurementsOfflineQueryingCore#setEventsEvaluationStream}), if required by the input parameters.
+     * The events evaluation is then no more exported by {@link #manageMeasurementsOutput}.
+     *
+     * @param log                log to evaluate
+     * @param automata           automata of the constraints to evaluate
+     * @param janusViewParams
+     * @param outParams
+     * @param measurementsParams
+     * @param alphabet           alphabet to decode the events and the constraints
+     * @return the stream of the events evaluation, or null if not required
+     * @throws IOException
+     */
+    public JanusEventsEvaluationJsonStream openEventsEvaluationJsonStream(LogParser log, List<SeparatedAutomatonOfflineRunner> automata,
+                                                                          JanusPrintParameters janusViewParams,
+                                                                          OutputModelParameters outParams,
+                                                                          JanusMeasurementsCmdParameters measurementsParams,
+                                                                          TaskCharArchive alphabet) throws IOException {
+        File outputFile = getEventsEvaluationJsonFile(outParams, measurementsParams);
+        if (outputFile == null) {
+            return null;
+        }
+        logger.info("Saving the events evaluation as JSON in " + outputFile + " while evaluating...");
+        this.compactJsonOutput = janusViewParams.compactJsonOutput;
+        String[] variantsStrings = getVariantsStrings(log, outParams.encodeOutputTasks);
+        String[] rowsKeys;
+        if (measurementsParams.variantsFlag) {
+            rowsKeys = variantsStrings;
+        } else {
+            EncodedLogArena arena = log.getEncodedLogArena();
+            rowsKeys = new String[arena.length()];
+            for (int variant = 0; variant < arena.numberOfVariants(); variant++) {
+                rowsKeys[arena.getVariantRepresentative(variant)] = variantsStrings[variant];
+            }
+        }
+        JanusEventsEvaluationJsonStream stream = new JanusEventsEvaluationJsonStream(outputFile, compactJsonOutput, rowsKeys,
+                getConstraintsNames(automata, outParams.encodeOutputTasks, alphabet));
+        this.streamedEventsEvaluationJsonFile = outputFile;
+        return stream;
+    }
+
     /**
      * reads the terminal input parameters and launch the proper output functions
      *
@@ -42,6 +118,7 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
                                          TaskCharArchive alphabet) {
         String baseOutputPath;
         File outputFile;
+        this.compactJsonOutput = janusViewParams.compactJsonOutput;
         System.gc();
 
         // ************* CSV
@@ -127,7 +204,9 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
             ) {
                 logger.info("Events Evaluation...");
                 outputFile = new File(baseOutputPath.concat("[eventsEvaluation].json"));
-                if (matrix.getEventsEvaluationMatrixLite() == null) {
+                if (outputFile.equals(streamedEventsEvaluationJsonFile)) {
+                    logger.info("Events evaluation already written while evaluating");
+                } else if (matrix.getEventsEvaluationMatrixLite() == null) {
                     exportEventsEvaluationToJson(matrix, outputFile, outParams.encodeOutputTasks, alphabet);
                 } else {
                     exportEventsEvaluationLiteToJson(matrix, outputFile, outParams.encodeOutputTasks, alphabet);
@@ -170,6 +249,22 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
             double after = System.currentTimeMillis();
             logger.info("Total JSON serialization time: " + (after - before));
         }
+
+        // ************* Binary
+        if (outParams.fileToSaveAsBinary != null) {
+            String outputPath = outParams.fileToSaveAsBinary.getAbsolutePath();
+            String extension = ".bin";
+            if (outputPath.lastIndexOf('.') > outputPath.lastIndexOf(File.separatorChar)) {
+                extension = outputPath.substring(outputPath.lastIndexOf('.'));
+                outputPath = outputPath.substring(0, outputPath.lastIndexOf('.'));
+            }
+            logger.info("Saving the measures as binary in " + outputPath + "...");
+
+            double before = System.currentTimeMillis();
+            exportToBinary(matrix, outputPath, extension, measurementsParams, outParams.encodeOutputTasks, alphabet);
+            double after = System.currentTimeMillis();
+            logger.info("Total binary serialization time: " + (after - before));
+        }
         logger.info("Output encoding: " + outParams.encodeOutputTasks);
     }
 
@@ -194,42 +289,27 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
         });
 
         try {
-            FileWriter fw = new FileWriter(outputFile);
+            Writer fw = newBufferedWriter(outputFile);
             CSVPrinter printer = new CSVPrinter(fw, CSVFormat.DEFAULT.withHeader(header).withDelimiter(';'));
 
-            byte[][][] matrix = megaMatrix.getEventsEvaluationMatrix();
-            Iterator<LogTraceParser> it = megaMatrix.getLog().traceIterator();
-            List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
+            String[] tracesStrings = getTracesStrings(megaMatrix.getLog(), encodeOutputTasks);
+            String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
+            int constraintsNum = megaMatrix.getConstraintsNumber();
 
             //		Row builder
 //        for the entire log
-            for (int trace = 0; trace < matrix.length; trace++) {
-                LogTraceParser tr = it.next();
-
-                String traceString;
-                if (encodeOutputTasks) {
-                    traceString = tr.encodeTrace();
-                } else {
-                    traceString = tr.printStringTrace();
-                }
+            for (int trace = 0; trace < megaMatrix.getTracesNumber(); trace++) {
+                int traceRow = megaMatrix.getTraceRowIndex(trace);
+                String traceString = tracesStrings[trace];
 
-                for (int constraint = 0; constraint < matrix[trace].length; constraint++) {
+                for (int constraint = 0; constraint < constraintsNum; constraint++) {
 //                  for each constraint
-                    String constraintName;
-                    if (constraint == matrix[trace].length - 1) {
-                        constraintName = "MODEL";
-                    } else {
-                        if (encodeOutputTasks) {
-                            constraintName = automata.get(constraint).toString();
-                        } else {
-                            constraintName = automata.get(constraint).toStringDecoded(alphabet.getTranslationMapById());
-                        }
-                    }
+                    String constraintName = constraintsNames[constraint];
                     String[] row = ArrayUtils.addAll(
                             new String[]{
                                     traceString,
                                     constraintName,
-                                    Arrays.toString(matrix[trace][constraint])
+                                    Arrays.toString(megaMatrix.getEventsEvaluation(traceRow, constraint))
                             });
                     printer.printRecord(row);
                 }
@@ -269,52 +349,37 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
         });
 
         try {
-            FileWriter fw = new FileWriter(outputFile);
+            Writer fw = newBufferedWriter(outputFile);
             CSVPrinter printer = new CSVPrinter(fw, CSVFormat.DEFAULT.withHeader(header).withDelimiter(';'));
 
             int[][][] matrix = megaMatrix.getEventsEvaluationMatrixLite();
-            Iterator<LogTraceParser> it = megaMatrix.getLog().traceIterator();
-            List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
+            String[] tracesStrings = getTracesStrings(megaMatrix.getLog(), encodeOutputTasks);
+            String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
 
             //		Row builder
 //        for the entire log
-            for (int trace = 0; trace < matrix.length; trace++) {
-                LogTraceParser tr = it.next();
-
-                String traceString;
-                if (encodeOutputTasks) {
-                    traceString = tr.encodeTrace();
-                } else {
-                    traceString = tr.printStringTrace();
-                }
+            for (int trace = 0; trace < megaMatrix.getTracesNumber(); trace++) {
+                int traceRow = megaMatrix.getTraceRowIndex(trace);
+                String traceString = tracesStrings[trace];
 
 //              for each trace
-                for (int constraint = 0; constraint < matrix[trace].length; constraint++) {
+                for (int constraint = 0; constraint < matrix[traceRow].length; constraint++) {
 //                  for each constraint
-                    String constraintName;
-                    if (constraint == matrix[trace].length - 1) {
-                        constraintName = "MODEL";
-                    } else {
-                        if (encodeOutputTasks) {
-                            constraintName = automata.get(constraint).toString();
-                        } else {
-                            constraintName = automata.get(constraint).toStringDecoded(alphabet.getTranslationMapById());
-                        }
-                    }
+                    String constraintName = constraintsNames[constraint];
 
                     String[] row = ArrayUtils.addAll(
                             new String[]{
                                     traceString,
                                     constraintName,
-                                    String.valueOf(matrix[trace][constraint][0]),
-                                    String.valueOf(matrix[trace][constraint][1]),
-                                    String.valueOf(matrix[trace][constraint][2]),
-                                    String.valueOf(matrix[trace][constraint][3]),
-                                    String.valueOf(matrix[trace][constraint][4]),
-                                    String.valueOf(matrix[trace][constraint][5]),
-                                    String.valueOf(matrix[trace][constraint][6]),
-                                    String.valueOf(matrix[trace][constraint][7]),
-                                    String.valueOf(matrix[trace][constraint][8])
+                                    String.valueOf(matrix[traceRow][constraint][0]),
+                                    String.valueOf(matrix[traceRow][constraint][1]),
+                                    String.valueOf(matrix[traceRow][constraint][2]),
+                                    String.valueOf(matrix[traceRow][constraint][3]),
+                                    String.valueOf(matrix[traceRow][constraint][4]),
+                                    String.valueOf(matrix[traceRow][constraint][5]),
+                                    String.valueOf(matrix[traceRow][constraint][6]),
+                                    String.valueOf(matrix[traceRow][constraint][7]),
+                                    String.valueOf(matrix[traceRow][constraint][8])
                             });
                     printer.printRecord(row);
 
@@ -356,24 +421,17 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
         }
 
         try {
-            FileWriter fw = new FileWriter(outputFile);
+            Writer fw = newBufferedWriter(outputFile);
             CSVPrinter printer = new CSVPrinter(fw, CSVFormat.DEFAULT.withHeader(header).withDelimiter(';'));
 
             int contraintsNum = megaMatrix.getConstraintsNumber();
-            Iterator<LogTraceParser> it = megaMatrix.getLog().traceIterator();
-            List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
+            String[] tracesStrings = getTracesStrings(megaMatrix.getLog(), encodeOutputTasks);
+            String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
 
             //		Row builder
 //        for the entire log
-            for (int trace = 0; trace < megaMatrix.getLog().wholeLength(); trace++) {
-                LogTraceParser tr = it.next();
-
-                String traceString;
-                if (encodeOutputTasks) {
-                    traceString = tr.encodeTrace();
-                } else {
-                    traceString = tr.printStringTrace();
-                }
+            for (int trace = 0; trace < megaMatrix.getTracesNumber(); trace++) {
+                String traceString = tracesStrings[trace];
 
 
                 for (int constraint = 0; constraint < contraintsNum; constraint++) {
@@ -386,18 +444,9 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
                         }
                     } else {
                         measurements = new String[1];
-                        measurements[0] = String.valueOf(megaMatrix.getTraceMeasuresMatrix()[trace][constraint][0]);
-                    }
-                    String constraintName;
-                    if (constraint == contraintsNum - 1) {
-                        constraintName = "MODEL";
-                    } else {
-                        if (encodeOutputTasks) {
-                            constraintName = automata.get(constraint).toString();
-                        } else {
-                            constraintName = automata.get(constraint).toStringDecoded(alphabet.getTranslationMapById());
-                        }
+                        measurements[0] = String.valueOf(megaMatrix.getSpecificMeasure(trace, constraint, 0));
                     }
+                    String constraintName = constraintsNames[constraint];
                     String[] row = ArrayUtils.addAll(
                             new String[]{
                                     traceString,
@@ -428,7 +477,7 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
      */
     public void exportTracesMeasuresStatisticsToCSV(MegaMatrixMonster megaMatrix, File outputAggregatedMeasuresFile, JanusMeasurementsCmdParameters measurementsParams, boolean encodeOutputTasks, TaskCharArchive alphabet) {
         logger.debug("CSV aggregated measures...");
-        SummaryStatistics[][] constraintsLogMeasure = megaMatrix.getTraceMeasuresDescriptiveStatistics();
+        MeasureStatistics[][] constraintsLogMeasure = megaMatrix.getTraceMeasuresDescriptiveStatistics();
 
         List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
 
@@ -449,7 +498,7 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
         };
 
         try {
-            FileWriter fw = new FileWriter(outputAggregatedMeasuresFile);
+            Writer fw = newBufferedWriter(outputAggregatedMeasuresFile);
             CSVPrinter printer = new CSVPrinter(fw, CSVFormat.DEFAULT.withHeader(header).withDelimiter(';'));
 
             //		Row builder
@@ -465,7 +514,7 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
                     }
                 }
 
-                SummaryStatistics[] constraintLogMeasure = constraintsLogMeasure[constraint]; //TODO performance slowdown
+                MeasureStatistics[] constraintLogMeasure = constraintsLogMeasure[constraint]; //TODO performance slowdown
 
                 if (measurementsParams.measure.equals(measurementsParams.getDefaultMeasure())) {
                     for (int measureIndex = 0; measureIndex < megaMatrix.getMeasureNames().length; measureIndex++) {
@@ -541,7 +590,7 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
         }
 
         try {
-            FileWriter fw = new FileWriter(outputAggregatedMeasuresFile);
+            Writer fw = newBufferedWriter(outputAggregatedMeasuresFile);
             CSVPrinter printer = new CSVPrinter(fw, CSVFormat.DEFAULT.withHeader(header).withDelimiter(';'));
 
             //		Row builder
@@ -578,104 +627,154 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
 
 
     /**
-     * Builds the json structure for a given constraint
+     * Export in binary columnar format all the matrices required by the details level, one file each (see {@link JanusBinaryOutputWriter})
+     *
+     * @param megaMatrix
+     * @param baseOutputPath     path of the output files, without extension
+     * @param extension          extension of the output files
+     * @param measurementsParams
+     * @param encodeOutputTasks
+     * @param alphabet
      */
-    private JsonElement tracesMeasuresStatisticsJsonBuilder(MegaMatrixMonster megaMatrix, SummaryStatistics[] constraintLogMeasure, JanusMeasurementsCmdParameters measurementsParams) {
-        JsonObject constraintJson = new JsonObject();
-
+    public void exportToBinary(MegaMatrixMonster megaMatrix, String baseOutputPath, String extension, JanusMeasurementsCmdParameters measurementsParams, boolean encodeOutputTasks, TaskCharArchive alphabet) {
+        String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
+        String[] measuresNames;
         if (measurementsParams.measure.equals(measurementsParams.getDefaultMeasure())) {
-
-            for (int measureIndex = 0; measureIndex < megaMatrix.getMeasureNames().length; measureIndex++) {
-//            JsonObject measure = new JsonObject();
-
-                JsonObject stats = new JsonObject();
-
-                stats.addProperty("Mean", constraintLogMeasure[measureIndex].getMean());
-                stats.addProperty("Geometric Mean", constraintLogMeasure[measureIndex].getGeometricMean());
-                stats.addProperty("Variance", constraintLogMeasure[measureIndex].getVariance());
-                stats.addProperty("Population  variance", constraintLogMeasure[measureIndex].getPopulationVariance());
-                stats.addProperty("Standard Deviation", constraintLogMeasure[measureIndex].getStandardDeviation());
-//            stats.addProperty("Percentile 75th", constraintLogMeasure[measureIndex].getPercentile(75));
-                stats.addProperty("Max", constraintLogMeasure[measureIndex].getMax());
-                stats.addProperty("Min", constraintLogMeasure[measureIndex].getMin());
-
-
-//            measure.add("stats", stats);
-//            measure.addProperty("duck tape", Measures.getLogDuckTapeMeasures(constraintIndex, measureIndex, megaMatrix.getMatrix()));
-
-                constraintJson.add(megaMatrix.getMeasureName(measureIndex), stats);
-            }
+            measuresNames = Measures.MEASURE_NAMES;
         } else {
-            JsonObject stats = new JsonObject();
-
-            stats.addProperty("Mean", constraintLogMeasure[0].getMean());
-            stats.addProperty("Geometric Mean", constraintLogMeasure[0].getGeometricMean());
-            stats.addProperty("Variance", constraintLogMeasure[0].getVariance());
-            stats.addProperty("Population  variance", constraintLogMeasure[0].getPopulationVariance());
-            stats.addProperty("Standard Deviation", constraintLogMeasure[0].getStandardDeviation());
-//            stats.addProperty("Percentile 75th", constraintLogMeasure[0].getPercentile(75));
-            stats.addProperty("Max", constraintLogMeasure[0].getMax());
-            stats.addProperty("Min", constraintLogMeasure[0].getMin());
-
-
-//            measure.add("stats", stats);
-//            measure.addProperty("duck tape", Measures.getLogDuckTapeMeasures(constraintIndex, measureIndex, megaMatrix.getMatrix()));
+            measuresNames = new String[]{measurementsParams.measure};
+        }
+        DetailLevel detailsLevel = measurementsParams.detailsLevel;
 
-            constraintJson.add(measurementsParams.measure, stats);
+        try {
+            // Events evaluation
+            if (detailsLevel.equals(DetailLevel.event) || detailsLevel.equals(DetailLevel.all)) {
+                logger.info("Events Evaluation...");
+                File outputFile = new File(baseOutputPath.concat("[eventsEvaluation]").concat(extension));
+                if (megaMatrix.getEventsEvaluationMatrixLite() == null) {
+                    JanusBinaryOutputWriter.exportEventsEvaluation(megaMatrix, outputFile, constraintsNames);
+                } else {
+                    JanusBinaryOutputWriter.exportEventsEvaluationLite(megaMatrix, outputFile, constraintsNames);
+                }
+            }
+            // Trace Measures
+            if (detailsLevel.equals(DetailLevel.trace) || detailsLevel.equals(DetailLevel.allTrace) || detailsLevel.equals(DetailLevel.all)) {
+                logger.info("Traces Measures...");
+                JanusBinaryOutputWriter.exportTracesMeasures(megaMatrix, new File(baseOutputPath.concat("[tracesMeasures]").concat(extension)), constraintsNames, measuresNames);
+            }
+            // Trace Measures descriptive statistics
+            if (detailsLevel.equals(DetailLevel.traceStats) || detailsLevel.equals(DetailLevel.allTrace) || detailsLevel.equals(DetailLevel.allLog) || detailsLevel.equals(DetailLevel.all)) {
+                logger.info("Traces Measures Stats...");
+                JanusBinaryOutputWriter.exportTracesMeasuresStatistics(megaMatrix, new File(baseOutputPath.concat("[tracesMeasuresStats]").concat(extension)), constraintsNames, measuresNames);
+            }
+            // Log Measures
+            if (detailsLevel.equals(DetailLevel.log) || detailsLevel.equals(DetailLevel.allLog) || detailsLevel.equals(DetailLevel.all)) {
+                logger.info("Log Measures...");
+                JanusBinaryOutputWriter.exportLogMeasures(megaMatrix, new File(baseOutputPath.concat("[logMeasures]").concat(extension)), constraintsNames, measuresNames);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        return constraintJson;
     }
 
     /**
-     * Builds the json structure for a given constraint
+     * Open a buffered writer on the given output file
      */
-    private JsonElement tracesMeasuresJsonBuilder(MegaMatrixMonster megaMatrix, int traceIndex, JanusMeasurementsCmdParameters measurementsParams, boolean encodeOutputTasks, TaskCharArchive alphabet) {
-        JsonObject traceJson = new JsonObject();
-        int constraintsnum = megaMatrix.getConstraintsNumber();
-        List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
+    private static Writer newBufferedWriter(File outputFile) throws IOException {
+        return new BufferedWriter(new FileWriter(outputFile), JanusJsonStreamWriter.BUFFER_SIZE);
+    }
 
-        //              for each trace
-        for (int constraint = 0; constraint < constraintsnum; constraint++) {
-            JsonObject constraintJson = new JsonObject();
-//          Constraint name
-            String constraintName;
-            if (constraint == constraintsnum - 1) {
-                constraintName = "MODEL";
-            } else {
+    /**
+     * Retrieve the string of each variant of the log, as found in its {@link EncodedLogArena}
+     *
+     * @param log               log reader
+     * @param encodeOutputTasks if true, the traces are encoded, decoded otherwise
+     * @return the strings of the variants, in order of first appearance in the log
+     */
+    private static String[] getVariantsStrings(LogParser log, boolean encodeOutputTasks) {
+        EncodedLogArena arena = log.getEncodedLogArena();
+        String[] result = new String[arena.numberOfVariants()];
+        Iterator<LogTraceParser> it = log.traceIterator();
+        for (int trace = 0; trace < arena.length(); trace++) {
+            LogTraceParser tr = it.next();
+            int variant = arena.getVariantId(trace);
+            if (result[variant] == null) {
                 if (encodeOutputTasks) {
-                    constraintName = automata.get(constraint).toString();
+                    result[variant] = arena.getEncodedTrace(trace);
                 } else {
-                    constraintName = automata.get(constraint).toStringDecoded(alphabet.getTranslationMapById());
-                }
-            }
-//          trace Measures
-            if (measurementsParams.measure.equals(measurementsParams.getDefaultMeasure())) {
-                for (int measureIndex = 0; measureIndex < Measures.MEASURE_NUM; measureIndex++) {
-                    constraintJson.addProperty(Measures.MEASURE_NAMES[measureIndex], megaMatrix.getSpecificMeasure(traceIndex, constraint, measureIndex));
+                    tr.init();
+                    result[variant] = tr.printStringTrace();
                 }
-            } else {
-                constraintJson.addProperty(measurementsParams.measure, megaMatrix.getTraceMeasuresMatrix()[traceIndex][constraint][0]);
             }
-            traceJson.add(constraintName, constraintJson);
         }
-        return traceJson;
+        return result;
     }
 
+    /**
+     * Retrieve the string of each trace of the log, computed only once per variant of its {@link EncodedLogArena}
+     *
+     * @param log               log reader
+     * @param encodeOutputTasks if true, the traces are encoded, decoded otherwise
+     * @return the strings of the traces, in the order of the log
+     */
+    private static String[] getTracesStrings(LogParser log, boolean encodeOutputTasks) {
+        EncodedLogArena arena = log.getEncodedLogArena();
+        String[] variantsStrings = getVariantsStrings(log, encodeOutputTasks);
+        String[] result = new String[arena.length()];
+        for (int trace = 0; trace < arena.length(); trace++) {
+            result[trace] = variantsStrings[arena.getVariantId(trace)];
+        }
+        return result;
+    }
 
     /**
-     * Builds the json structure for a given constraint
+     * Retrieve the names of all the constraints of the matrix, the last one being the whole model
+     *
+     * @param megaMatrix
+     * @param encodeOutputTasks if true, the constraints are encoded, decoded otherwise
+     * @param alphabet          alphabet to decode the constraints
+     * @return the names of the constraints, in the same order of the matrix
      */
-    private JsonElement logMeasuresJsonBuilder(MegaMatrixMonster megaMatrix, float[] constraintLogMeasure, JanusMeasurementsCmdParameters measurementsParams) {
-        JsonObject constraintJson = new JsonObject();
+    private static String[] getConstraintsNames(MegaMatrixMonster megaMatrix, boolean encodeOutputTasks, TaskCharArchive alphabet) {
+        return getConstraintsNames(megaMatrix.getAutomata(), encodeOutputTasks, alphabet);
+    }
 
-        if (measurementsParams.measure.equals(measurementsParams.getDefaultMeasure())) {
-            for (int measureIndex = 0; measureIndex < megaMatrix.getMeasureNames().length; measureIndex++) {
-                constraintJson.addProperty(megaMatrix.getMeasureName(measureIndex), constraintLogMeasure[measureIndex]);
+    /**
+     * Retrieve the names of all the constraints of the given automata, the last one being the whole model
+     *
+     * @param automata          automata of the constraints
+     * @param encodeOutputTasks if true, the constraints are encoded, decoded otherwise
+     * @param alphabet          alphabet to decode the constraints
+     * @return the names of the constraints, in the same order of the automata
+     */
+    private static String[] getConstraintsNames(Collection<SeparatedAutomatonOfflineRunner> automata, boolean encodeOutputTasks, TaskCharArchive alphabet) {
+        String[] constraintsNames = new String[automata.size() + 1];
+        int constraint = 0;
+        for (SeparatedAutomatonOfflineRunner automaton : automata) {
+            if (encodeOutputTasks) {
+                constraintsNames[constraint++] = automaton.toString();
+            } else {
+                constraintsNames[constraint++] = automaton.toStringDecoded(alphabet.getTranslationMapById());
             }
-        } else {
-            constraintJson.addProperty(measurementsParams.measure, constraintLogMeasure[0]);
         }
-        return constraintJson;
+        constraintsNames[automata.size()] = "MODEL";
+        return constraintsNames;
+    }
+
+    /**
+     * Write the descriptive statistics of a trace measure
+     */
+    private void writeTraceMeasureStatistics(JsonWriter jsonWriter, MeasureStatistics measureStatistics) throws IOException {
+        jsonWriter.beginObject();
+        jsonWriter.name("Mean").value((Number) measureStatistics.getMean());
+        jsonWriter.name("Geometric Mean").value((Number) measureStatistics.getGeometricMean());
+        jsonWriter.name("Variance").value((Number) measureStatistics.getVariance());
+        jsonWriter.name("Population  variance").value((Number) measureStatistics.getPopulationVariance());
+        jsonWriter.name("Standard Deviation").value((Number) measureStatistics.getStandardDeviation());
+//        jsonWriter.name("Percentile 75th").value((Number) measureStatistics.getPercentile(75));
+        jsonWriter.name("Max").value((Number) measureStatistics.getMax());
+        jsonWriter.name("Min").value((Number) measureStatistics.getMin());
+        jsonWriter.endObject();
     }
 
     /**
@@ -689,35 +788,27 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
      */
     public void exportTracesMeasuresStatisticsToJson(MegaMatrixMonster megaMatrix, File outputFile, JanusMeasurementsCmdParameters measurementsParams, boolean encodeOutputTasks, TaskCharArchive alphabet) {
         logger.debug("JSON aggregated measures...");
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try {
-            FileWriter fw = new FileWriter(outputFile);
-            JsonObject jsonOutput = new JsonObject();
-
-            List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
+        try (JanusJsonStreamWriter streamWriter = new JanusJsonStreamWriter(outputFile, compactJsonOutput)) {
+            JsonWriter jsonWriter = streamWriter.getJsonWriter();
+            String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
 
 //			\/ \/ \/ LOG RESULTS
-            SummaryStatistics[][] constraintLogMeasure = megaMatrix.getTraceMeasuresDescriptiveStatistics();
+            MeasureStatistics[][] constraintLogMeasure = megaMatrix.getTraceMeasuresDescriptiveStatistics();
 
-            String constraintName;
             for (int constraint = 0; constraint < constraintLogMeasure.length; constraint++) {
-                if (constraint == constraintLogMeasure.length - 1) {
-                    constraintName = "MODEL";
-                } else {
-                    if (encodeOutputTasks) {
-                        constraintName = automata.get(constraint).toString();
-                    } else {
-                        constraintName = automata.get(constraint).toStringDecoded(alphabet.getTranslationMapById());
+                streamWriter.beginEntry(constraintsNames[constraint]);
+                jsonWriter.beginObject();
+                if (measurementsParams.measure.equals(measurementsParams.getDefaultMeasure())) {
+                    for (int measureIndex = 0; measureIndex < megaMatrix.getMeasureNames().length; measureIndex++) {
+                        jsonWriter.name(megaMatrix.getMeasureName(measureIndex));
+                        writeTraceMeasureStatistics(jsonWriter, constraintLogMeasure[constraint][measureIndex]);
                     }
+                } else {
+                    jsonWriter.name(measurementsParams.measure);
+                    writeTraceMeasureStatistics(jsonWriter, constraintLogMeasure[constraint][0]);
                 }
-
-                jsonOutput.add(
-                        constraintName,
-                        tracesMeasuresStatisticsJsonBuilder(megaMatrix, constraintLogMeasure[constraint], measurementsParams)
-                );
+                jsonWriter.endObject();
             }
-            gson.toJson(jsonOutput, fw);
-            fw.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -735,34 +826,25 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
      */
     public void exportLogMeasuresToJson(MegaMatrixMonster megaMatrix, File outputFile, JanusMeasurementsCmdParameters measurementsParams, boolean encodeOutputTasks, TaskCharArchive alphabet) {
         logger.debug("JSON log measures...");
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try {
-            FileWriter fw = new FileWriter(outputFile);
-            JsonObject jsonOutput = new JsonObject();
-
-            List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
+        try (JanusJsonStreamWriter streamWriter = new JanusJsonStreamWriter(outputFile, compactJsonOutput)) {
+            JsonWriter jsonWriter = streamWriter.getJsonWriter();
+            String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
 
 //			\/ \/ \/ LOG RESULTS
             float[][] neuConstraintsLogMeasure = megaMatrix.getLogMeasuresMatrix();
 
-            String constraintName;
             for (int constraint = 0; constraint < neuConstraintsLogMeasure.length; constraint++) {
-                if (constraint == neuConstraintsLogMeasure.length - 1) {
-                    constraintName = "MODEL";
-                } else {
-                    if (encodeOutputTasks) {
-                        constraintName = automata.get(constraint).toString();
-                    } else {
-                        constraintName = automata.get(constraint).toStringDecoded(alphabet.getTranslationMapById());
+                streamWriter.beginEntry(constraintsNames[constraint]);
+                jsonWriter.beginObject();
+                if (measurementsParams.measure.equals(measurementsParams.getDefaultMeasure())) {
+                    for (int measureIndex = 0; measureIndex < megaMatrix.getMeasureNames().length; measureIndex++) {
+                        jsonWriter.name(megaMatrix.getMeasureName(measureIndex)).value((Number) neuConstraintsLogMeasure[constraint][measureIndex]);
                     }
+                } else {
+                    jsonWriter.name(measurementsParams.measure).value((Number) neuConstraintsLogMeasure[constraint][0]);
                 }
-                jsonOutput.add(
-                        constraintName,
-                        logMeasuresJsonBuilder(megaMatrix, neuConstraintsLogMeasure[constraint], measurementsParams)
-                );
+                jsonWriter.endObject();
             }
-            gson.toJson(jsonOutput, fw);
-            fw.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -770,7 +852,8 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
     }
 
     /**
-     * Serialize the events evaluations into a Json file to have a readable result
+     * Serialize the events evaluations into a Json file to have a readable result.
+     * The traces are streamed one by one, see {@link JanusJsonStreamWriter}.
      *
      * @param megaMatrix
      * @param outputFile
@@ -779,54 +862,17 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
      */
     public void exportEventsEvaluationToJson(MegaMatrixMonster megaMatrix, File outputFile, boolean encodeOutputTasks, TaskCharArchive alphabet) {
         logger.debug("JSON readable serialization...");
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try {
-            FileWriter fw = new FileWriter(outputFile);
-            JsonObject jsonOutput = new JsonObject();
-
-            byte[][][] matrix = megaMatrix.getEventsEvaluationMatrix();
-            Iterator<LogTraceParser> it = megaMatrix.getLog().traceIterator();
-            List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
-
-//        for the entire log
-            for (int trace = 0; trace < matrix.length; trace++) {
-                JsonObject traceJson = new JsonObject();
-
-                LogTraceParser tr = it.next();
-                tr.init();
-                String traceString;
-                if (encodeOutputTasks) {
-                    traceString = tr.encodeTrace();
-                } else {
-                    traceString = tr.printStringTrace();
-                }
+        try (JanusJsonStreamWriter streamWriter = new JanusJsonStreamWriter(outputFile, compactJsonOutput)) {
+            EncodedLogArena arena = megaMatrix.getLog().getEncodedLogArena();
+            String[] variantsStrings = getVariantsStrings(megaMatrix.getLog(), encodeOutputTasks);
+            String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
 
-//              for each trace
-                for (int constraint = 0; constraint < matrix[trace].length; constraint++) {
-                    tr.init();
-//                  contraint name
-                    String constraintName;
-                    if (constraint == matrix[trace].length - 1) {
-                        constraintName = "MODEL";
-                    } else {
-                        if (encodeOutputTasks) {
-                            constraintName = automata.get(constraint).toString();
-                        } else {
-                            constraintName = automata.get(constraint).toStringDecoded(alphabet.getTranslationMapById());
-                        }
-                    }
-//                    events evaluation
-                    JsonArray eventsJson = new JsonArray();
-                    for (byte e : matrix[trace][constraint]) {
-                        eventsJson.add(Integer.valueOf(e));
-                    }
-                    traceJson.add(constraintName, eventsJson);
-                }
+//        for the entire log, once per variant (identical traces have identical results)
+            for (int variant = 0; variant < variantsStrings.length; variant++) {
+                int traceRow = megaMatrix.getTraceRowIndex(arena.getVariantRepresentative(variant));
 
-                jsonOutput.add(traceString, traceJson);
+                streamWriter.writeTraceEventsEvaluation(variantsStrings[variant], constraintsNames, megaMatrix.getEventsEvaluation(traceRow));
             }
-            gson.toJson(jsonOutput, fw);
-            fw.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -844,61 +890,18 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
      */
     public void exportEventsEvaluationLiteToJson(MegaMatrixMonster megaMatrix, File outputFile, boolean encodeOutputTasks, TaskCharArchive alphabet) {
         logger.debug("JSON readable serialization...");
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try {
-            FileWriter fw = new FileWriter(outputFile);
-            JsonObject jsonOutput = new JsonObject();
-
+        try (JanusJsonStreamWriter streamWriter = new JanusJsonStreamWriter(outputFile, compactJsonOutput)) {
             int[][][] matrix = megaMatrix.getEventsEvaluationMatrixLite();
-            Iterator<LogTraceParser> it = megaMatrix.getLog().traceIterator();
-            List<SeparatedAutomatonOfflineRunner> automata = (List) megaMatrix.getAutomata();
-
-//        for the entire log
-            for (int trace = 0; trace < matrix.length; trace++) {
-                JsonObject traceJson = new JsonObject();
+            EncodedLogArena arena = megaMatrix.getLog().getEncodedLogArena();
+            String[] variantsStrings = getVariantsStrings(megaMatrix.getLog(), encodeOutputTasks);
+            String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
 
-                LogTraceParser tr = it.next();
-                tr.init();
-                String traceString;
-                if (encodeOutputTasks) {
-                    traceString = tr.encodeTrace();
-                } else {
-                    traceString = tr.printStringTrace();
-                }
+//        for the entire log, once per variant (identical traces have identical results)
+            for (int variant = 0; variant < variantsStrings.length; variant++) {
+                int traceRow = megaMatrix.getTraceRowIndex(arena.getVariantRepresentative(variant));
 
-//              for each trace
-                for (int constraint = 0; constraint < matrix[trace].length; constraint++) {
-                    tr.init();
-//                  for each constraint
-                    String constraintName;
-                    if (constraint == matrix[trace].length - 1) {
-                        constraintName = "MODEL";
-                    } else {
-                        if (encodeOutputTasks) {
-                            constraintName = automata.get(constraint).toString();
-                        } else {
-                            constraintName = automata.get(constraint).toStringDecoded(alphabet.getTranslationMapById());
-                        }
-                    }
-
-                    JsonObject frequenciesJson = new JsonObject();
-
-                    frequenciesJson.addProperty("N(A)", matrix[trace][constraint][0]);
-                    frequenciesJson.addProperty("N(T)", matrix[trace][constraint][1]);
-                    frequenciesJson.addProperty("N(¬A)", matrix[trace][constraint][2]);
-                    frequenciesJson.addProperty("N(¬T)", matrix[trace][constraint][3]);
-                    frequenciesJson.addProperty("N(¬A¬T)", matrix[trace][constraint][4]);
-                    frequenciesJson.addProperty("N(¬AT)", matrix[trace][constraint][5]);
-                    frequenciesJson.addProperty("N(A¬T)", matrix[trace][constraint][6]);
-                    frequenciesJson.addProperty("N(AT)", matrix[trace][constraint][7]);
-                    frequenciesJson.addProperty("Length", matrix[trace][constraint][8]);
-
-                    traceJson.add(constraintName, frequenciesJson);
-                }
-                jsonOutput.add(traceString, traceJson);
+                streamWriter.writeTraceEventsEvaluationLite(variantsStrings[variant], constraintsNames, matrix[traceRow]);
             }
-            gson.toJson(jsonOutput, fw);
-            fw.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -918,30 +921,34 @@ public class JanusMeasurementsOutputManagementLauncher extends MinerFulOutputMan
      */
     public void exportTracesMeasuresToJson(MegaMatrixMonster megaMatrix, File outputFile, JanusMeasurementsCmdParameters measurementsParams, boolean encodeOutputTasks, TaskCharArchive alphabet) {
         logger.debug("JSON trace measures...");
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try {
-            FileWriter fw = new FileWriter(outputFile);
-            JsonObject jsonOutput = new JsonObject();
-
-            Iterator<LogTraceParser> it = megaMatrix.getLog().traceIterator();
-
-//        for the entire log
-            for (int trace = 0; trace < megaMatrix.getLog().wholeLength(); trace++) {
-                LogTraceParser tr = it.next();
-                tr.init();
-                String traceString;
-                if (encodeOutputTasks) {
-                    traceString = tr.encodeTrace();
-                } else {
-                    traceString = tr.printStringTrace();
+        try (JanusJsonStreamWriter streamWriter = new JanusJsonStreamWriter(outputFile, compactJsonOutput)) {
+            JsonWriter jsonWriter = streamWriter.getJsonWriter();
+            EncodedLogArena arena = megaMatrix.getLog().getEncodedLogArena();
+            String[] variantsStrings = getVariantsStrings(megaMatrix.getLog(), encodeOutputTasks);
+            String[] constraintsNames = getConstraintsNames(megaMatrix, encodeOutputTasks, alphabet);
+            int constraintsNum = megaMatrix.getConstraintsNumber();
+
+//        for the entire log, once per variant (identical traces have identical results)
+            for (int variant = 0; variant < variantsStrings.length; variant++) {
+                int trace = arena.getVariantRepresentative(variant);
+                streamWriter.beginEntry(variantsStrings[variant]);
+
+                jsonWriter.beginObject();
+                for (int constraint = 0; constraint < constraintsNum; constraint++) {
+                    jsonWriter.name(constraintsNames[constraint]);
+                    jsonWriter.beginObject();
+//                  trace Measures
+                    if (measurementsParams.measure.equals(measurementsParams.getDefaultMeasure())) {
+                        for (int measureIndex = 0; measureIndex < Measures.MEASURE_NUM; measureIndex++) {
+                            jsonWriter.name(Measures.MEASURE_NAMES[measureIndex]).value((Number) megaMatrix.getSpecificMeasure(trace, constraint, measureIndex));
+                        }
+                    } else {
+                        jsonWriter.name(measurementsParams.measure).value((Number) megaMatrix.getSpecificMeasure(trace, constraint, 0));
+                    }
+                    jsonWriter.endObject();
                 }
-                jsonOutput.add(
-                        traceString,
-                        tracesMeasuresJsonBuilder(megaMatrix, trace, measurementsParams, encodeOutputTasks, alphabet)
-                );
+                jsonWriter.endObject();
             }
-            gson.toJson(jsonOutput, fw);
-            fw.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,112 @@
+package minerful.reactive.measurements;
+
+import minerful.logparser.EncodedLogArena;
+import minerful.reactive.automaton.SeparatedAutomatonOfflineRunner;
+import minerful.reactive.io.JanusEventsEvaluationJsonStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker evaluating a share of the traces of a log for the parallel events evaluation, read directly from the {@link EncodedLogArena} of the log.
+ * <p>
+ * Each worker owns a private copy of the runners, so that their current states are never shared among threads.
+ * The traces are not statically split among the workers: each one repeatedly takes the next chunk of rows from a shared cursor
+ * until all the traces are evaluated, so that workers that happen to get shorter traces are not left idle.
+ * Every row of the result matrix is written by exactly one worker, which also notifies it to the stream of the events evaluation, if any.
+ */
+public class CallableTracesEvaluator implements Callable<Integer> {
+    private final EncodedLogArena arena;
+    private final int[] rowsTrace;
+    private final int rowsNumber;
+    private final List<SeparatedAutomatonOfflineRunner> automata;
+    private final AtomicInteger nextRow;
+    private final int chunkSize;
+    private final long[][][] results;
+    private final int[] rowsLength;
+    private final int[][][] resultsLite;
+    private final JanusEventsEvaluationJsonStream eventsEvaluationStream;
+    private byte[] eventsBuffer = new byte[0];
+
+    private CallableTracesEvaluator(EncodedLogArena arena, int[] rowsTrace, int rowsNumber, List<SeparatedAutomatonOfflineRunner> automata, AtomicInteger nextRow, int chunkSize, long[][][] results, int[] rowsLength, int[][][] resultsLite, JanusEventsEvaluationJsonStream eventsEvaluationStream) {
+        this.arena = arena;
+        this.rowsTrace = rowsTrace;
+        this.rowsNumber = rowsNumber;
+        this.automata = new ArrayList<SeparatedAutomatonOfflineRunner>(automata.size());
+        for (SeparatedAutomatonOfflineRunner automatonOfflineRunner : automata) {
+            this.automata.add(new SeparatedAutomatonOfflineRunner(automatonOfflineRunner));
+        }
+        this.nextRow = nextRow;
+        this.chunkSize = chunkSize;
+        this.results = results;
+        this.rowsLength = rowsLength;
+        this.resultsLite = resultsLite;
+        this.eventsEvaluationStream = eventsEvaluationStream;
+    }
+
+    /**
+     * Constructor for the full events evaluation (see {@link ReactiveMeasurementsOfflineQueryingCore#runLog})
+     *
+     * @param arena      encoded log
+     * @param rowsTrace  index in the arena of the trace of each row of the results, or null if the rows are the traces of the arena, in order
+     * @param rowsNumber number of rows of the results
+     * @param automata   runners of the constraints (copied, not modified)
+     * @param nextRow    cursor shared among the workers pointing to the next row to evaluate
+     * @param chunkSize  number of rows taken at once from the cursor
+     * @param results    packed matrix to fill
+     * @param rowsLength length of each row to fill
+     * @param eventsEvaluationStream stream to which each row is written as soon as it is evaluated, or null
+     */
+    public CallableTracesEvaluator(EncodedLogArena arena, int[] rowsTrace, int rowsNumber, List<SeparatedAutomatonOfflineRunner> automata, AtomicInteger nextRow, int chunkSize, long[][][] results, int[] rowsLength, JanusEventsEvaluationJsonStream eventsEvaluationStream) {
+        this(arena, rowsTrace, rowsNumber, automata, nextRow, chunkSize, results, rowsLength, null, eventsEvaluationStream);
+    }
+
+    /**
+     * Constructor for the counters-only evaluation (see {@link ReactiveMeasurementsOfflineQueryingCore#runLogLite})
+     *
+     * @param arena       encoded log
+     * @param rowsTrace   index in the arena of the trace of each row of the results, or null if the rows are the traces of the arena, in order
+     * @param rowsNumber  number of rows of the results
+     * @param automata    runners of the constraints (copied, not modified)
+     * @param nextRow     cursor shared among the workers pointing to the next row to evaluate
+     * @param chunkSize   number of rows taken at once from the cursor
+     * @param resultsLite matrix to fill
+     * @param eventsEvaluationStream stream to which each row is written as soon as it is evaluated, or null
+     */
+    public CallableTracesEvaluator(EncodedLogArena arena, int[] rowsTrace, int rowsNumber, List<SeparatedAutomatonOfflineRunner> automata, AtomicInteger nextRow, int chunkSize, int[][][] resultsLite, JanusEventsEvaluationJsonStream eventsEvaluationStream) {
+        this(arena, rowsTrace, rowsNumber, automata, nextRow, chunkSize, null, null, resultsLite, eventsEvaluationStream);
+    }
+
+    /**
+     * @return the number of traces evaluated by this worker
+     */
+    @Override
+    public Integer call() throws Exception {
+        int evaluatedTraces = 0;
+        char[] events = arena.getEvents();
+        int from;
+        while ((from = nextRow.getAndAdd(chunkSize)) < rowsNumber) {
+            int to = Math.min(from + chunkSize, rowsNumber);
+            for (int row = from; row < to; row++) {
+                int trace = (rowsTrace == null) ? row : rowsTrace[row];
+                int traceStart = arena.getTraceStart(trace);
+                int traceLength = arena.getTraceLength(trace);
+                if (resultsLite == null) {
+                    eventsBuffer = ReactiveMeasurementsOfflineQueryingCore.runTracePacked(events, traceStart, traceLength, automata, eventsBuffer, results[row]);
+                    rowsLength[row] = traceLength;
+                    if (eventsEvaluationStream != null)
+                        eventsEvaluationStream.rowEvaluated(row, results[row], traceLength);
+                } else {
+                    ReactiveMeasurementsOfflineQueryingCore.runTraceLite(events, traceStart, traceLength, automata, resultsLite[row]);
+                    ReactiveMeasurementsOfflineQueryingCore.computeModelTraceEvaluationLite(resultsLite[row]);
+                    if (eventsEvaluationStream != null)
+                        eventsEvaluationStream.rowEvaluatedLite(row, resultsLite[row]);
+                }
+                evaluatedTraces++;
+            }
+        }
+        return evaluatedTraces;
+    }
+}
@@ -0,0 +1,133 @@
+package minerful.reactive.measurements;
+
+import org.apache.commons.math3.stat.descriptive.StatisticalSummary;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.apache.commons.math3.stat.descriptive.moment.Mean;
+import org.apache.commons.math3.stat.descriptive.moment.Variance;
+import org.apache.commons.math3.util.FastMath;
+
+import java.io.Serializable;
+
+/**
+ * Immutable descriptive statistics of the distribution of a measure over the traces of a log.
+ * <p>
+ * They are either copied from a {@link SummaryStatistics} fed with the value of every trace,
+ * or computed from the values of the variants of the log weighted by their number of traces (see {@link #weighted(double[], double[], int)}).
+ * In the latter case, each value is not added as many times as its weight, but the statistics are the same.
+ */
+public class MeasureStatistics implements StatisticalSummary, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long n;
+    private final double sum;
+    private final double mean;
+    private final double geometricMean;
+    private final double variance;
+    private final double populationVariance;
+    private final double standardDeviation;
+    private final double max;
+    private final double min;
+
+    private MeasureStatistics(long n, double sum, double mean, double geometricMean, double variance, double populationVariance, double standardDeviation, double max, double min) {
+        this.n = n;
+        this.sum = sum;
+        this.mean = mean;
+        this.geometricMean = geometricMean;
+        this.variance = variance;
+        this.populationVariance = populationVariance;
+        this.standardDeviation = standardDeviation;
+        this.max = max;
+        this.min = min;
+    }
+
+    /**
+     * @param statistics statistics fed with the value of every trace
+     */
+    public MeasureStatistics(SummaryStatistics statistics) {
+        this(statistics.getN(), statistics.getSum(), statistics.getMean(), statistics.getGeometricMean(),
+                statistics.getVariance(), statistics.getPopulationVariance(), statistics.getStandardDeviation(),
+                statistics.getMax(), statistics.getMin());
+    }
+
+    /**
+     * @param values  value of each variant
+     * @param weights number of traces of each variant
+     * @param length  number of (value, weight) pairs to consider, from the beginning of the arrays
+     * @return the statistics of the values, each one repeated as many times as its weight
+     */
+    public static MeasureStatistics weighted(double[] values, double[] weights, int length) {
+        long n = 0;
+        double sum = 0;
+        double sumOfLogs = 0;
+        double max = Double.NaN;
+        double min = Double.NaN;
+        for (int i = 0; i < length; i++) {
+            n += (long) weights[i];
+            sum += weights[i] * values[i];
+            sumOfLogs += weights[i] * FastMath.log(values[i]);
+            if (Double.isNaN(max) || values[i] > max) max = values[i];
+            if (Double.isNaN(min) || values[i] < min) min = values[i];
+        }
+        double variance = new Variance(true).evaluate(values, weights, 0, length);
+        return new MeasureStatistics(
+                n,
+                (n == 0) ? 0 : sum,
+                new Mean().evaluate(values, weights, 0, length),
+                (n == 0) ? Double.NaN : FastMath.exp(sumOfLogs / n),
+                variance,
+                new Variance(false).evaluate(values, weights, 0, length),
+                (n == 0) ? Double.NaN : FastMath.sqrt(variance),
+                max,
+                min);
+    }
+
+    @Override
+    public long getN() {
+        return n;
+    }
+
+    @Override
+    public double getSum() {
+        return sum;
+    }
+
+    @Override
+    public double getMean() {
+        return mean;
+    }
+
+    public double getGeometricMean() {
+        return geometricMean;
+    }
+
+    @Override
+    public double getVariance() {
+        return variance;
+    }
+
+    public double getPopulationVariance() {
+        return populationVariance;
+    }
+
+    @Override
+    public double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    @Override
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public double getMin() {
+        return min;
+    }
+
+    @Override
+    public String toString() {
+        return "MeasureStatistics [n=" + n + ", sum=" + sum + ", mean=" + mean + ", geometricMean=" + geometricMean
+                + ", variance=" + variance + ", populationVariance=" + populationVariance
+                + ", standardDeviation=" + standardDeviation + ", max=" + max + ", min=" + min + "]";
+    }
+}
@@ -57,6 +57,58 @@ public class Measures {
     //    	TODO improve this hard-code shame
     public static int MEASURE_NUM = MEASURE_NAMES.length;
 
+    /**
+     * Function computing a measure from the probabilities of a trace (or of a log), see {@link #getTraceProbabilities(int[])}
+     */
+    private interface MeasureFunction {
+        float compute(float[] probabilities);
+    }
+
+    /**
+     * Function of each measure, in the same order of {@link #MEASURE_NAMES}.
+     * Both the single measure ({@link #getTraceMeasure(float[], int)}) and all the measures at once
+     * ({@link #getTraceMeasures(float[], boolean, double, float[])}) are computed through it.
+     */
+    private static final MeasureFunction[] MEASURE_FUNCTIONS = {
+            Measures::getTraceSupport,
+            Measures::getTraceConfidence,
+            Measures::getTraceRecall,
+            Measures::getTraceLovinger,
+            Measures::getTraceSpecificity,
+            Measures::getTraceAccuracy,
+            Measures::getTraceLift,
+            Measures::getTraceLeverage,
+            Measures::getTraceCompliance,
+            Measures::getTraceOddsRatio,
+            Measures::getTraceGiniIndex,
+            Measures::getTraceCertaintyFactor,
+            Measures::getTraceCoverage,
+            Measures::getTracePrevalence,
+            Measures::getTraceAddedValue,
+            Measures::getTraceRelativeRisk,
+            Measures::getTraceJaccard,
+            Measures::getTraceYlueQ,
+            Measures::getTraceYlueY,
+            Measures::getTraceKlosgen,
+            Measures::getTraceConviction,
+            Measures::getTraceInterestingnessWeightingDependency,
+            Measures::getTraceCollectiveStrength,
+            Measures::getTraceLaplaceCorrection,
+            Measures::getTraceJMeasure,
+            Measures::getTraceOneWaySupport,
+            Measures::getTraceTwoWaySupport,
+            Measures::getTraceTwoWaySupportVariation,
+            Measures::getTraceLinearCorrelationCoefficient,
+            Measures::getTracePiatetskyShapiro,
+            Measures::getTraceCosine,
+            Measures::getTraceInformationGain,
+            Measures::getTraceSebagSchoenauer,
+            Measures::getTraceLeastContradiction,
+            Measures::getTraceOddMultiplier,
+            Measures::getTraceExampleCounterexampleRate,
+            Measures::getTraceZhang
+    };
+
     /**
      * Retrieves the name of a measure given its index
      *
@@ -91,6 +143,18 @@ public class Measures {
         return result;
     }
 
+    public static float getTraceMeasure(long[] packedEvaluation, int traceLength, int measureIndex, boolean nanTraceSubstituteFlag, double nanTraceSubstituteValue) {
+        float[] traceProbabilities = getTraceProbabilities(packedEvaluation, traceLength);
+
+        float result = getTraceMeasure(traceProbabilities, measureIndex);
+
+        // according to the input setting, substitute the measure value if it is NaN
+        if (nanTraceSubstituteFlag && Float.isNaN(result))
+            return (float) nanTraceSubstituteValue;
+
+        return result;
+    }
+
     public static float getTraceMeasure(int[] traceEvaluation, int measureIndex, boolean nanTraceSubstituteFlag, double nanTraceSubstituteValue) {
         float[] traceProbabilities = getTraceProbabilities(traceEvaluation);
 
@@ -301,163 +365,50 @@ public class Measures {
      * @return
      */
     public static float getTraceMeasure(float[] traceProbabilities, int measureIndex) {
-        //    	TODO improve this hard-code shame
-        float result = 0;
-        switch (measureIndex) {
-            case 0:
-//				support
-                result = getTraceSupport(traceProbabilities);
-                break;
-            case 1:
-//				confidence
-                result = getTraceConfidence(traceProbabilities);
-                break;
-            case 2:
-//				recall
-                result = getTraceRecall(traceProbabilities);
-                break;
-            case 3:
-//				Lovinger
-                result = getTraceLovinger(traceProbabilities);
-                break;
-            case 4:
-//				Specificity
-                result = getTraceSpecificity(traceProbabilities);
-                break;
-            case 5:
-//				Accuracy
-                result = getTraceAccuracy(traceProbabilities);
-                break;
-            case 6:
-//				Accuracy
-                result = getTraceLift(traceProbabilities);
-                break;
-            case 7:
-//				Leverage
-                result = getTraceLeverage(traceProbabilities);
-                break;
-            case 8:
-//				Compliance
-                result = getTraceCompliance(traceProbabilities);
-                break;
-            case 9:
-//				Odds Ratio
-                result = getTraceOddsRatio(traceProbabilities);
-                break;
-            case 10:
-//				Gini Index
-                result = getTraceGiniIndex(traceProbabilities);
-                break;
-            case 11:
-//				Certainty factor
-                result = getTraceCertaintyFactor(traceProbabilities);
-                break;
-            case 12:
-//				Coverage
-                result = getTraceCoverage(traceProbabilities);
-                break;
-            case 13:
-//				Prevalence
-                result = getTracePrevalence(traceProbabilities);
-                break;
-            case 14:
-//				Added Value
-                result = getTraceAddedValue(traceProbabilities);
-                break;
-            case 15:
-//				Relative Risk
-                result = getTraceRelativeRisk(traceProbabilities);
-                break;
-            case 16:
-//				Jaccard
-                result = getTraceJaccard(traceProbabilities);
-                break;
-            case 17:
-//				Ylue Q
-                result = getTraceYlueQ(traceProbabilities);
-                break;
-            case 18:
-//				Ylue Y
-                result = getTraceYlueY(traceProbabilities);
-                break;
-            case 19:
-//				Klosgen
-                result = getTraceKlosgen(traceProbabilities);
-                break;
-            case 20:
-//				Conviction
-                result = getTraceConviction(traceProbabilities);
-                break;
-            case 21:
-//				Interestingness Weighting Dependency
-                result = getTraceInterestingnessWeightingDependency(traceProbabilities);
-                break;
-            case 22:
-//				Collective Strength
-                result = getTraceCollectiveStrength(traceProbabilities);
-                break;
-            case 23:
-//				Laplace Correction
-                result = getTraceLaplaceCorrection(traceProbabilities);
-                break;
-            case 24:
-//				J Measure
-                result = getTraceJMeasure(traceProbabilities);
-                break;
-            case 25:
-//				One-way Support
-                result = getTraceOneWaySupport(traceProbabilities);
-                break;
-            case 26:
-//				Two-way Support
-                result = getTraceTwoWaySupport(traceProbabilities);
-                break;
-            case 27:
-//				Two-way Support Variation
-                result = getTraceTwoWaySupportVariation(traceProbabilities);
-                break;
-            case 28:
-//				Linear Correlation Coefficient
-                result = getTraceLinearCorrelationCoefficient(traceProbabilities);
-                break;
-            case 29:
-//				Piatetsky-Shapiro
-                result = getTracePiatetskyShapiro(traceProbabilities);
-                break;
-            case 30:
-//				Cosine
-                result = getTraceCosine(traceProbabilities);
-                break;
-            case 31:
-//				Information Gain
-                result = getTraceInformationGain(traceProbabilities);
-                break;
-            case 32:
-//				Sebag-Schoenauer
-                result = getTraceSebagSchoenauer(traceProbabilities);
-                break;
-            case 33:
-//				Least Contradiction
-                result = getTraceLeastContradiction(traceProbabilities);
-                break;
-            case 34:
-//				Odd Multiplier
-                result = getTraceOddMultiplier(traceProbabilities);
-                break;
-            case 35:
-//				Example and Counterexample Rate
-                result = getTraceExampleCounterexampleRate(traceProbabilities);
-                break;
-            case 36:
-//				Zhang
-                result = getTraceZhang(traceProbabilities);
-                break;
-        }
+        if (measureIndex < 0 || measureIndex >= MEASURE_FUNCTIONS.length)
+            return 0;
+        return MEASURE_FUNCTIONS[measureIndex].compute(traceProbabilities);
+    }
 
-        return result;
 
+    /**
+     * Fused computation of all the trace measures from the already computed trace probabilities.
+     * <p>
+     * The probabilities are derived once per trace and constraint and then all the measures are evaluated from them in a row,
+     * thus the cost is proportional to the events of the trace plus the number of measures, not to their product.
+     * The measures are stored in the same order of {@link #MEASURE_NAMES}.
+     *
+     * @param traceProbabilities      probabilities of the trace, see {@link #getTraceProbabilities(int[])}
+     * @param nanTraceSubstituteFlag
+     * @param nanTraceSubstituteValue
+     * @param result                  array of (at least) {@link #MEASURE_NUM} elements to fill
+     */
+    public static void getTraceMeasures(float[] traceProbabilities, boolean nanTraceSubstituteFlag, double nanTraceSubstituteValue, float[] result) {
+        for (int measureIndex = 0; measureIndex < MEASURE_FUNCTIONS.length; measureIndex++) {
+            result[measureIndex] = MEASURE_FUNCTIONS[measureIndex].compute(traceProbabilities);
+        }
+        // according to the input setting, substitute the measures values if they are NaN
+        if (nanTraceSubstituteFlag) {
+            for (int measureIndex = 0; measureIndex < MEASURE_NUM; measureIndex++) {
+                if (Float.isNaN(result[measureIndex]))
+                    result[measureIndex] = (float) nanTraceSubstituteValue;
+            }
+        }
     }
 
+    /**
+     * Fused computation of all the trace measures from the packed events evaluation, see {@link #getTraceMeasures(float[], boolean, double, float[])}
+     */
+    public static void getTraceMeasures(long[] packedEvaluation, int traceLength, boolean nanTraceSubstituteFlag, double nanTraceSubstituteValue, float[] result) {
+        getTraceMeasures(getTraceProbabilities(packedEvaluation, traceLength), nanTraceSubstituteFlag, nanTraceSubstituteValue, result);
+    }
+
+    /**
+     * Fused computation of all the trace measures from the evaluation counters, see {@link #getTraceMeasures(float[], boolean, double, float[])}
+     */
+    public static void getTraceMeasures(int[] traceEvaluation, boolean nanTraceSubstituteFlag, double nanTraceSubstituteValue, float[] result) {
+        getTraceMeasures(getTraceProbabilities(traceEvaluation), nanTraceSubstituteFlag, nanTraceSubstituteValue, result);
+    }
 
     /**
      * From the events evaluation, retrieve the probabilities of both activator and target (plus their negatives) formula of a reactive constraint.
@@ -499,6 +450,38 @@ public class Measures {
         return currentTraceProbability;
     }
 
+    /**
+     * From the packed events evaluation (see {@link PackedEvaluation}), retrieve the probabilities of both activator and target (plus their negatives) formula of a reactive constraint.
+     * * i.e. P(A),P(T),P(¬A),P(¬T)
+     * and the probabilities of the combinations of  activator and target formula of a reactive constraint.
+     * * i.e. P(¬A¬T),P(A¬T),P(¬AT),P(¬A¬T)
+     * and the lenght of the trace
+     * <p>
+     * The counters are retrieved by popcount over the packed words, and a new array is returned at each call, thus it is thread-safe.
+     *
+     * @param packedEvaluation
+     * @param traceLength
+     * @return
+     */
+    public static float[] getTraceProbabilities(long[] packedEvaluation, int traceLength) {
+        float[] result = new float[9];
+        if (traceLength == 0) return result;
+
+        int[] counters = PackedEvaluation.getCounters(packedEvaluation, traceLength);
+        float l = traceLength;
+
+        result[0] = counters[0] / l;
+        result[1] = counters[1] / l;
+        result[2] = counters[2] / l;
+        result[3] = counters[3] / l;
+        result[4] = counters[4] / l;
+        result[5] = counters[5] / l;
+        result[6] = counters[6] / l;
+        result[7] = counters[7] / l;
+        result[8] = l;
+        return result;
+    }
+
     /**
      * From the trace evaluation, retrieve the probabilities of both activator and target (plus their negatives) formula of a reactive constraint.
      * * i.e. P(A),P(T),P(¬A),P(¬T)
@@ -2559,25 +2542,50 @@ public class Measures {
      * @param nanLogSkipFlag
      * @return
      */
-    public static SummaryStatistics getMeasureDistributionObject(int constraintIndex, int measureIndex, float[][][] traceMeasuresMatrix, boolean nanLogSkipFlag) {
+    public static MeasureStatistics getMeasureDistributionObject(int constraintIndex, int measureIndex, float[][][] traceMeasuresMatrix, boolean nanLogSkipFlag) {
+        return getMeasureDistributionObject(constraintIndex, measureIndex, traceMeasuresMatrix, null, nanLogSkipFlag);
+    }
+
+    /**
+     * Returns an object containing the statistic of the measure distribution for a given measure and constraint over the MegaMatrixMonster,
+     * where each row of the matrix is a variant weighted by its multiplicity (see {@link MeasureStatistics#weighted(double[], double[], int)})
+     *
+     * @param constraintIndex
+     * @param measureIndex
+     * @param traceMeasuresMatrix
+     * @param rowsMultiplicity    number of traces of each row of the matrix, null if each row is a single trace
+     * @param nanLogSkipFlag
+     * @return
+     */
+    public static MeasureStatistics getMeasureDistributionObject(int constraintIndex, int measureIndex, float[][][] traceMeasuresMatrix, int[] rowsMultiplicity, boolean nanLogSkipFlag) {
         SummaryStatistics measureDistribution = new SummaryStatistics();
-        for (float[][] traceEval : traceMeasuresMatrix) {
-            if (nanLogSkipFlag && Float.isNaN(traceEval[constraintIndex][measureIndex]))
+        double[] values = (rowsMultiplicity == null) ? null : new double[traceMeasuresMatrix.length];
+        double[] weights = (rowsMultiplicity == null) ? null : new double[traceMeasuresMatrix.length];
+        int weightedValues = 0;
+        for (int row = 0; row < traceMeasuresMatrix.length; row++) {
+            float value = traceMeasuresMatrix[row][constraintIndex][measureIndex];
+            if (nanLogSkipFlag && Float.isNaN(value))
                 continue;
             /*
                 infinity vales make SummaryStatistics returns NaN for the mean and other stats.
                 Either skip them or change the mean function to consider them
             */
-            if (Float.isInfinite(traceEval[constraintIndex][measureIndex])) {
-                if (traceEval[constraintIndex][measureIndex] > 0)
-                    measureDistribution.addValue(Float.MAX_VALUE);
+            if (Float.isInfinite(value)) {
+                if (value > 0)
+                    value = Float.MAX_VALUE;
                 else
-                    measureDistribution.addValue(Float.MIN_VALUE);
-            } else
-                measureDistribution.addValue(traceEval[constraintIndex][measureIndex]);
+                    value = Float.MIN_VALUE;
+            }
+            if (rowsMultiplicity == null) {
+                measureDistribution.addValue(value);
+            } else {
+                values[weightedValues] = value;
+                weights[weightedValues] = rowsMultiplicity[row];
+                weightedValues++;
+            }
         }
 
-        return measureDistribution;
+        return (rowsMultiplicity == null) ? new MeasureStatistics(measureDistribution) : MeasureStatistics.weighted(values, weights, weightedValues);
     }
 
     /**
@@ -2588,15 +2596,38 @@ public class Measures {
      * @param nanLogSkipFlag
      * @return
      */
-    public static SummaryStatistics getMeasureDistributionObject(int constraintIndex, float[][] traceMeasureMatrix, boolean nanLogSkipFlag) {
+    public static MeasureStatistics getMeasureDistributionObject(int constraintIndex, float[][] traceMeasureMatrix, boolean nanLogSkipFlag) {
+        return getMeasureDistributionObject(constraintIndex, traceMeasureMatrix, null, nanLogSkipFlag);
+    }
+
+    /**
+     * Returns an object containing the statistic of the measure distribution for a given constraint given the matrix result of only one measure over the log,
+     * where each row of the matrix is a variant weighted by its multiplicity (see {@link MeasureStatistics#weighted(double[], double[], int)})
+     *
+     * @param constraintIndex
+     * @param traceMeasureMatrix
+     * @param rowsMultiplicity   number of traces of each row of the matrix, null if each row is a single trace
+     * @param nanLogSkipFlag
+     * @return
+     */
+    public static MeasureStatistics getMeasureDistributionObject(int constraintIndex, float[][] traceMeasureMatrix, int[] rowsMultiplicity, boolean nanLogSkipFlag) {
         SummaryStatistics measureDistribution = new SummaryStatistics();
-        for (float[] traceEval : traceMeasureMatrix) {
-            if (nanLogSkipFlag && Float.isNaN(traceEval[constraintIndex]))
+        double[] values = (rowsMultiplicity == null) ? null : new double[traceMeasureMatrix.length];
+        double[] weights = (rowsMultiplicity == null) ? null : new double[traceMeasureMatrix.length];
+        int weightedValues = 0;
+        for (int row = 0; row < traceMeasureMatrix.length; row++) {
+            if (nanLogSkipFlag && Float.isNaN(traceMeasureMatrix[row][constraintIndex]))
                 continue;
-            measureDistribution.addValue(traceEval[constraintIndex]);
+            if (rowsMultiplicity == null) {
+                measureDistribution.addValue(traceMeasureMatrix[row][constraintIndex]);
+            } else {
+                values[weightedValues] = traceMeasureMatrix[row][constraintIndex];
+                weights[weightedValues] = rowsMultiplicity[row];
+                weightedValues++;
+            }
         }
 
-        return measureDistribution;
+        return (rowsMultiplicity == null) ? new MeasureStatistics(measureDistribution) : MeasureStatistics.weighted(values, weights, weightedValues);
     }
 
     /**
@@ -1,10 +1,10 @@
 package minerful.reactive.measurements;
 
 import minerful.logparser.LogParser;
+import minerful.reactive.io.JanusBinaryOutputWriter;
 import minerful.reactive.automaton.SeparatedAutomatonOfflineRunner;
 import minerful.reactive.miner.ReactiveMinerOfflineQueryingCore;
 import minerful.reactive.params.JanusPrintParameters;
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.apache.log4j.Logger;
 
 import java.io.*;
@@ -22,6 +22,11 @@ import java.util.Collection;
  * 1 -> 01 -> Activator: False, Target: true
  * 2 -> 10 -> Activator: True,  Target: False
  * 3 -> 11 -> Activator: True,  Target: True
+ * <p>
+ * The matrix is stored packed (see {@link PackedEvaluation}): the 2-bit codes of 32 events fit in a long word,
+ * thus each trace and constraint takes a long[] of ceil(length/32) words, and rowsLength keeps the length of each row.
+ * The single evaluations are accessed through {@link #getEventEvaluation(int, int, int)} and {@link #getEventsEvaluation(int, int)},
+ * while the measures are computed directly on the packed words.
  *
  * <p>
  * About variable matrixLite (int[][][]) meaning:
@@ -52,21 +57,32 @@ import java.util.Collection;
  * else if there is at least one 11, then the entire model evaluates to 11,
  * else if there is at least one 01, then the entire model evaluates to 01,
  * otherwise the entire model evaluates to 00.
+ * <p>
+ * About variants:
+ * if the log has been evaluated per variant (i.e., each distinct trace only once),
+ * the first index of the events and traces matrices is the variant index and not the trace index.
+ * variantsMultiplicity stores how many traces of the log belong to each variant and
+ * tracesVariantIndex stores the variant index of each trace of the log.
+ * The traces measures statistics and the log measures are weighted by the variants multiplicity.
  */
 public class MegaMatrixMonster {
     protected static Logger logger;
     private final LogParser log;
     private final Collection<SeparatedAutomatonOfflineRunner> automata;
 
-    private byte[][][] eventsEvaluationMatrix; // [trace index][constraint index][event index]
+    private long[][][] eventsEvaluationMatrix; // [trace index][constraint index][packed events word index]
+    private int[] rowsLength; // [trace index] -> number of events, null if the matrixLite is used
     private int[][][] eventsEvaluationMatrixLite; // [trace index][constraint index][counter index]
 
     private float[][][] traceMeasuresMatrix; // [trace index][constraint index][measure index] -> support:0, confidence:1, lovinger: 2
 
-    private SummaryStatistics[][] traceMeasuresDescriptiveStatistics; // [constraint index][measure index]
+    private MeasureStatistics[][] traceMeasuresDescriptiveStatistics; // [constraint index][measure index]
 
     private float[][] logMeasuresMatrix; // [constraint index][measure index]
 
+    private int[] variantsMultiplicity; // [variant index] -> number of traces, null if the log is not collapsed into variants
+    private int[] tracesVariantIndex; // [trace index] -> variant index, null if the log is not collapsed into variants
+
     private JanusPrintParameters janusViewParams;
 
     {
@@ -86,9 +102,35 @@ public class MegaMatrixMonster {
         this.janusViewParams = janusViewParams;
     }
 
+    public MegaMatrixMonster(long[][][] packedMatrix, int[] rowsLength, LogParser log, Collection<SeparatedAutomatonOfflineRunner> automata) {
+        this(log, automata);
+        this.eventsEvaluationMatrix = packedMatrix;
+        this.rowsLength = rowsLength;
+        System.gc();
+    }
+
+    public MegaMatrixMonster(long[][][] packedMatrix, int[] rowsLength, LogParser log, Collection<SeparatedAutomatonOfflineRunner> automata, JanusPrintParameters janusViewParams) {
+        this(packedMatrix, rowsLength, log, automata);
+        this.janusViewParams = janusViewParams;
+    }
+
+    public MegaMatrixMonster(long[][][] packedMatrix, int[] rowsLength, int[] variantsMultiplicity, int[] tracesVariantIndex, LogParser log, Collection<SeparatedAutomatonOfflineRunner> automata, JanusPrintParameters janusViewParams) {
+        this(packedMatrix, rowsLength, log, automata, janusViewParams);
+        this.variantsMultiplicity = variantsMultiplicity;
+        this.tracesVariantIndex = tracesVariantIndex;
+    }
+
     public MegaMatrixMonster(byte[][][] matrix, LogParser log, Collection<SeparatedAutomatonOfflineRunner> automata) {
         this(log, automata);
-        this.eventsEvaluationMatrix = matrix;
+        this.rowsLength = new int[matrix.length];
+        this.eventsEvaluationMatrix = new long[matrix.length][][];
+        for (int trace = 0; trace < matrix.length; trace++) {
+            rowsLength[trace] = matrix[trace][0].length;
+            eventsEvaluationMatrix[trace] = new long[matrix[trace].length][];
+            for (int constraint = 0; constraint < matrix[trace].length; constraint++) {
+                eventsEvaluationMatrix[trace][constraint] = PackedEvaluation.pack(matrix[trace][constraint], rowsLength[trace]);
+            }
+        }
         System.gc();
     }
 
@@ -108,87 +150,66 @@ public class MegaMatrixMonster {
         this.janusViewParams = janusViewParams;
     }
 
+    public MegaMatrixMonster(byte[][][] matrix, int[] variantsMultiplicity, int[] tracesVariantIndex, LogParser log, Collection<SeparatedAutomatonOfflineRunner> automata, JanusPrintParameters janusViewParams) {
+        this(matrix, log, automata, janusViewParams);
+        this.variantsMultiplicity = variantsMultiplicity;
+        this.tracesVariantIndex = tracesVariantIndex;
+    }
+
+    public MegaMatrixMonster(int[][][] matrixLite, int[] variantsMultiplicity, int[] tracesVariantIndex, LogParser log, Collection<SeparatedAutomatonOfflineRunner> automata, JanusPrintParameters janusViewParams) {
+        this(matrixLite, log, automata, janusViewParams);
+        this.variantsMultiplicity = variantsMultiplicity;
+        this.tracesVariantIndex = tracesVariantIndex;
+    }
+
     /**
-     * Return the space required to serialize the current results of the Mega Matrix Monster
+     * Return the space required to store the current results of the Mega Matrix Monster in the binary format of {@link JanusBinaryOutputWriter}.
+     * The sizes are computed from the layout (data only, i.e., header excluded), without serializing anything,
+     * and are appended to the given file as a row "traces;events-TOT;Constraints;Measures;EventsSpace;TracesSpace;TracesStatsSpace;LogSpace".
      *
-     * @return
+     * @return total size in MB
      * @throws IOException
      */
     public double getSpaceConsumption(String filePath) throws IOException {
         double result = 0.0;
-        //        events
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ObjectOutputStream oos = null;
+        int tracesNumber = getTracesNumber();
+        int rowsNumber = getRowsNumber();
+        int constraintsNumber = getConstraintsNumber();
+        int measuresNumber = traceMeasuresMatrix[0][0].length;
+
         FileOutputStream fos = new FileOutputStream(filePath, true);
-//        fos.write("traces;events-TOT;Constraints;Measures;EventsSpace;TracesSpace;LogSpace\n".getBytes());
-        if (eventsEvaluationMatrixLite != null)
-            fos.write(("" + eventsEvaluationMatrixLite.length + ";" + log.numberOfEvents() + ";" + eventsEvaluationMatrixLite[0].length + ";" + traceMeasuresMatrix[0][0].length + ";").getBytes());
-        else
-            fos.write(("" + eventsEvaluationMatrix.length + ";" + log.numberOfEvents() + ";" + eventsEvaluationMatrix[0].length + ";" + traceMeasuresMatrix[0][0].length + ";").getBytes());
-
-        try {
-            oos = new ObjectOutputStream(baos);
-            if (eventsEvaluationMatrixLite != null)
-                oos.writeObject(eventsEvaluationMatrixLite);
-            else
-                oos.writeObject(eventsEvaluationMatrix);
-            oos.flush();
-            oos.close();
-
-            logger.info("size of events measures data structure : " + baos.size() / 1024d / 1024d + " MB");
-            fos.write(("" + baos.size() / 1024d / 1024d + " MB;").getBytes());
-            result += baos.size();
-        } catch (IOException | OutOfMemoryError e) {
-            logger.error("size of events measures data structure TOO BIG for serialization");
-            fos.write(("outOfMem").getBytes());
-            e.printStackTrace();
+//        fos.write("traces;events-TOT;Constraints;Measures;EventsSpace;TracesSpace;TracesStatsSpace;LogSpace\n".getBytes());
+        fos.write(("" + rowsNumber + ";" + log.numberOfEvents() + ";" + constraintsNumber + ";" + measuresNumber + ";").getBytes());
+
+        //        events
+        long size;
+        if (eventsEvaluationMatrixLite != null) {
+            size = JanusBinaryOutputWriter.getEventsCountersDataSize(tracesNumber, rowsNumber, constraintsNumber);
+        } else {
+            long eventsNumber = 0;
+            for (int rowLength : rowsLength) {
+                eventsNumber += rowLength;
+            }
+            size = JanusBinaryOutputWriter.getEventsDataSize(tracesNumber, rowsNumber, constraintsNumber, eventsNumber);
         }
+        logger.info("size of events measures data structure : " + size / 1024d / 1024d + " MB");
+        fos.write(("" + size / 1024d / 1024d + " MB;").getBytes());
+        result += size;
         //        traces
-        try {
-            baos = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(baos);
-            oos.writeObject(traceMeasuresMatrix);
-            oos.flush();
-            oos.close();
-            logger.info("size of traces measures data structure : " + baos.size() / 1024d / 1024d + " MB");
-            fos.write(("" + baos.size() / 1024d / 1024d + " MB;").getBytes());
-            result += baos.size();
-        } catch (IOException | OutOfMemoryError e) {
-            logger.error("size of traces measures data structure TOO BIG for serialization");
-            fos.write(("outOfMem").getBytes());
-            e.printStackTrace();
-        }
+        size = JanusBinaryOutputWriter.getTracesMeasuresDataSize(tracesNumber, rowsNumber, constraintsNumber, measuresNumber);
+        logger.info("size of traces measures data structure : " + size / 1024d / 1024d + " MB");
+        fos.write(("" + size / 1024d / 1024d + " MB;").getBytes());
+        result += size;
         //        TRACE STATSS
-        try {
-            baos = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(baos);
-            oos.writeObject(traceMeasuresDescriptiveStatistics);
-            oos.flush();
-            oos.close();
-            logger.info("size of trace measures stats data structure : " + baos.size() / 1024d / 1024d + " MB");
-            fos.write(("" + baos.size() / 1024d / 1024d + " MB\n").getBytes());
-            result += baos.size();
-        } catch (IOException | OutOfMemoryError e) {
-            logger.error("size of trace measures stats data structure TOO BIG for serialization");
-            fos.write(("outOfMem\n").getBytes());
-            e.printStackTrace();
-        }
-        // NEU LOG
+        size = JanusBinaryOutputWriter.getTracesMeasuresStatsDataSize(tracesNumber, constraintsNumber, measuresNumber);
+        logger.info("size of trace measures stats data structure : " + size / 1024d / 1024d + " MB");
+        fos.write(("" + size / 1024d / 1024d + " MB;").getBytes());
+        result += size;
         //        log
-        try {
-            baos = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(baos);
-            oos.writeObject(logMeasuresMatrix);
-            oos.flush();
-            oos.close();
-            logger.info("size of log measures data structure : " + baos.size() / 1024d / 1024d + " MB");
-            fos.write(("" + baos.size() / 1024d / 1024d + " MB\n").getBytes());
-            result += baos.size();
-        } catch (IOException | OutOfMemoryError e) {
-            logger.error("size of log measures data structure TOO BIG for serialization");
-            fos.write(("outOfMem\n").getBytes());
-            e.printStackTrace();
-        }
+        size = JanusBinaryOutputWriter.getLogMeasuresDataSize(constraintsNumber, measuresNumber);
+        logger.info("size of log measures data structure : " + size / 1024d / 1024d + " MB");
+        fos.write(("" + size / 1024d / 1024d + " MB\n").getBytes());
+        result += size;
 
         logger.info("Size of MegaMatrixMonster results : " + result / 1024d / 1024d + " MB");
         fos.close();
@@ -200,10 +221,67 @@ public class MegaMatrixMonster {
         return logMeasuresMatrix;
     }
 
-    public byte[][][] getEventsEvaluationMatrix() {
+    /**
+     * @return the packed events evaluation matrix, see {@link PackedEvaluation}
+     */
+    public long[][][] getEventsEvaluationMatrixPacked() {
         return eventsEvaluationMatrix;
     }
 
+    /**
+     * @return true if the events evaluation matrix is available, false if only its counters (matrixLite) are
+     */
+    public boolean hasEventsEvaluation() {
+        return eventsEvaluationMatrix != null;
+    }
+
+    /**
+     * Get the number of events of a row of the events evaluation matrix
+     *
+     * @param row
+     * @return
+     */
+    public int getRowLength(int row) {
+        return rowsLength[row];
+    }
+
+    /**
+     * Get the evaluation of a single event of a row for a constraint
+     *
+     * @param row
+     * @param constraint
+     * @param event
+     * @return the evaluation code {0,1,2,3}
+     */
+    public byte getEventEvaluation(int row, int constraint, int event) {
+        return PackedEvaluation.get(eventsEvaluationMatrix[row][constraint], event);
+    }
+
+    /**
+     * Get the evaluation of all the events of a row for a constraint, unpacked into a new byte array
+     *
+     * @param row
+     * @param constraint
+     * @return the evaluation codes {0,1,2,3}, one per event
+     */
+    public byte[] getEventsEvaluation(int row, int constraint) {
+        return PackedEvaluation.unpack(eventsEvaluationMatrix[row][constraint], rowsLength[row]);
+    }
+
+    /**
+     * Get the evaluation of all the events of a row for all the constraints, unpacked into new byte arrays
+     *
+     * @param row
+     * @return the evaluation codes {0,1,2,3}, [constraint index][event index]
+     */
+    public byte[][] getEventsEvaluation(int row) {
+        byte[][] result = new byte[eventsEvaluationMatrix[row].length][];
+        for (int constraint = 0; constraint < result.length; constraint++) {
+            result[constraint] = getEventsEvaluation(row, constraint);
+        }
+        return result;
+    }
+
     public int[][][] getEventsEvaluationMatrixLite() {
         return eventsEvaluationMatrixLite;
     }
@@ -212,6 +290,72 @@ public class MegaMatrixMonster {
         return log;
     }
 
+    /**
+     * @return true if each row of the matrices refers to a distinct variant of the log instead of a single trace
+     */
+    public boolean isVariantsCollapsed() {
+        return variantsMultiplicity != null;
+    }
+
+    public int[] getVariantsMultiplicity() {
+        return variantsMultiplicity;
+    }
+
+    public int[] getTracesVariantIndex() {
+        return tracesVariantIndex;
+    }
+
+    /**
+     * Get the row of the matrices in which the results of a given trace are stored
+     *
+     * @param trace index of the trace in the log
+     * @return
+     */
+    public int getTraceRowIndex(int trace) {
+        if (tracesVariantIndex == null) {
+            return trace;
+        }
+        return tracesVariantIndex[trace];
+    }
+
+    /**
+     * Get the number of traces of the log represented by a given row of the matrices
+     *
+     * @param row
+     * @return
+     */
+    public int getRowMultiplicity(int row) {
+        if (variantsMultiplicity == null) {
+            return 1;
+        }
+        return variantsMultiplicity[row];
+    }
+
+    /**
+     * Return the number of rows of the matrices, i.e., the number of traces or of variants if the log is collapsed into variants
+     *
+     * @return
+     */
+    public int getRowsNumber() {
+        if (eventsEvaluationMatrixLite == null) {
+            return eventsEvaluationMatrix.length;
+        } else {
+            return eventsEvaluationMatrixLite.length;
+        }
+    }
+
+    /**
+     * Return the number of traces of the evaluated log, regardless of their collapse into variants
+     *
+     * @return
+     */
+    public int getTracesNumber() {
+        if (tracesVariantIndex != null) {
+            return tracesVariantIndex.length;
+        }
+        return getRowsNumber();
+    }
+
     public Collection<SeparatedAutomatonOfflineRunner> getAutomata() {
         return automata;
     }
@@ -251,7 +395,7 @@ public class MegaMatrixMonster {
      * @return
      */
     public double getSpecificMeasure(int trace, int constraint, int measureIndex) {
-        return traceMeasuresMatrix[trace][constraint][measureIndex];
+        return traceMeasuresMatrix[getTraceRowIndex(trace)][constraint][measureIndex];
     }
 
     /**
@@ -282,7 +426,7 @@ public class MegaMatrixMonster {
             if (!janusViewParams.suppressMeasuresStatusPrint)
                 System.out.print("\rConstraint: " + constraint + "/" + constraintsNum);  // Status counter "current trace/total trace"
             for (int measure = 0; measure < Measures.MEASURE_NUM; measure++) {
-                traceMeasuresDescriptiveStatistics[constraint][measure] = Measures.getMeasureDistributionObject(constraint, measure, traceMeasuresMatrix, nanLogSkipFlag);
+                traceMeasuresDescriptiveStatistics[constraint][measure] = Measures.getMeasureDistributionObject(constraint, measure, traceMeasuresMatrix, variantsMultiplicity, nanLogSkipFlag);
             }
         }
         if (!janusViewParams.suppressMeasuresStatusPrint) {
@@ -338,7 +482,7 @@ public class MegaMatrixMonster {
                     System.out.print("\rTraces: " + trace + "/" + eventsEvaluationMatrix.length);  // Status counter "current trace/total trace"
 //              for each trace
                 for (int constraint = 0; constraint < eventsEvaluationMatrix[trace].length; constraint++) {
-                    traceMeasuresMatrix[trace][constraint][0] = Measures.getTraceMeasure(eventsEvaluationMatrix[trace][constraint], measureIndex, nanTraceSubstituteFlag, nanTraceSubstituteValue);
+                    traceMeasuresMatrix[trace][constraint][0] = Measures.getTraceMeasure(eventsEvaluationMatrix[trace][constraint], rowsLength[trace], measureIndex, nanTraceSubstituteFlag, nanTraceSubstituteValue);
                 }
             }
             if (!janusViewParams.suppressMeasuresStatusPrint) {
@@ -350,7 +494,7 @@ public class MegaMatrixMonster {
             //        for the entire log
             for (int trace = 0; trace < eventsEvaluationMatrixLite.length; trace++) {
                 if (!janusViewParams.suppressMeasuresStatusPrint)
-                    System.out.print("\rTraces: " + trace + "/" + eventsEvaluationMatrix.length);  // Status counter "current trace/total trace"
+                    System.out.print("\rTraces: " + trace + "/" + eventsEvaluationMatrixLite.length);  // Status counter "current trace/total trace"
 //              for each trace
                 for (int constraint = 0; constraint < eventsEvaluationMatrixLite[trace].length; constraint++) {
 //                  for each constraint
@@ -358,7 +502,7 @@ public class MegaMatrixMonster {
                 }
             }
             if (!janusViewParams.suppressMeasuresStatusPrint) {
-                System.out.print("\rTraces: " + eventsEvaluationMatrix.length + "/" + eventsEvaluationMatrix.length);  // Status counter "current trace/total trace"
+                System.out.print("\rTraces: " + eventsEvaluationMatrixLite.length + "/" + eventsEvaluationMatrixLite.length);  // Status counter "current trace/total trace"
                 System.out.println();
             }
         }
@@ -372,14 +516,14 @@ public class MegaMatrixMonster {
      */
     public void computeAllTraceMeasuresStats(boolean nanLogSkipFlag) {
         logger.info("Retrieving Trace measures log statistics...");
-        traceMeasuresDescriptiveStatistics = new SummaryStatistics[automata.size() + 1][Measures.MEASURE_NUM];
+        traceMeasuresDescriptiveStatistics = new MeasureStatistics[automata.size() + 1][Measures.MEASURE_NUM];
         //		trace measure LOG STATISTICS
         int constraintsNum = automata.size() + 1;
         for (int constraint = 0; constraint < (automata.size() + 1); constraint++) {
             if (!janusViewParams.suppressMeasuresStatusPrint)
                 System.out.print("\rConstraint: " + constraint + "/" + constraintsNum);  // Status counter "current trace/total trace"
             for (int measure = 0; measure < Measures.MEASURE_NUM; measure++) {
-                traceMeasuresDescriptiveStatistics[constraint][measure] = Measures.getMeasureDistributionObject(constraint, measure, traceMeasuresMatrix, nanLogSkipFlag);
+                traceMeasuresDescriptiveStatistics[constraint][measure] = Measures.getMeasureDistributionObject(constraint, measure, traceMeasuresMatrix, variantsMultiplicity, nanLogSkipFlag);
             }
         }
         if (!janusViewParams.suppressMeasuresStatusPrint) {
@@ -397,13 +541,13 @@ public class MegaMatrixMonster {
      */
     public void computeSingleTraceMeasuresStats(boolean nanLogSkipFlag) {
         logger.info("Retrieving Trace measures log statistics...");
-        traceMeasuresDescriptiveStatistics = new SummaryStatistics[automata.size() + 1][1];
+        traceMeasuresDescriptiveStatistics = new MeasureStatistics[automata.size() + 1][1];
         //		trace measure LOG STATISTICS
         int constraintsNum = automata.size() + 1;
         for (int constraint = 0; constraint < (automata.size() + 1); constraint++) {
             if (!janusViewParams.suppressMeasuresStatusPrint)
                 System.out.print("\rConstraint: " + constraint + "/" + constraintsNum);  // Status counter "current trace/total trace"
-            traceMeasuresDescriptiveStatistics[constraint][0] = Measures.getMeasureDistributionObject(constraint, 0, traceMeasuresMatrix, nanLogSkipFlag);
+            traceMeasuresDescriptiveStatistics[constraint][0] = Measures.getMeasureDistributionObject(constraint, 0, traceMeasuresMatrix, variantsMultiplicity, nanLogSkipFlag);
         }
         if (!janusViewParams.suppressMeasuresStatusPrint) {
             System.out.print("\rConstraint: " + constraintsNum + "/" + constraintsNum);  // Status counter "current trace/total trace"
@@ -446,7 +590,7 @@ public class MegaMatrixMonster {
                     System.out.print("\rTraces: " + trace + "/" + eventsEvaluationMatrix.length);  // Status counter "current trace/total trace"
 //              for each trace
                 for (int constraint = 0; constraint < eventsEvaluationMatrix[trace].length; constraint++) {
-                    measureResult[trace][constraint] = Measures.getTraceMeasure(eventsEvaluationMatrix[trace][constraint], measureIndex, nanTraceSubstituteFlag, nanTraceSubstituteValue);
+                    measureResult[trace][constraint] = Measures.getTraceMeasure(eventsEvaluationMatrix[trace][constraint], rowsLength[trace], measureIndex, nanTraceSubstituteFlag, nanTraceSubstituteValue);
                 }
             }
             if (!janusViewParams.suppressMeasuresStatusPrint) {
@@ -458,7 +602,7 @@ public class MegaMatrixMonster {
             //        for the entire log
             for (int trace = 0; trace < eventsEvaluationMatrixLite.length; trace++) {
                 if (!janusViewParams.suppressMeasuresStatusPrint)
-                    System.out.print("\rTraces: " + trace + "/" + eventsEvaluationMatrix.length);  // Status counter "current trace/total trace"
+                    System.out.print("\rTraces: " + trace + "/" + eventsEvaluationMatrixLite.length);  // Status counter "current trace/total trace"
 //              for each trace
                 for (int constraint = 0; constraint < eventsEvaluationMatrixLite[trace].length; constraint++) {
 //                  for each constraint
@@ -466,7 +610,7 @@ public class MegaMatrixMonster {
                 }
             }
             if (!janusViewParams.suppressMeasuresStatusPrint) {
-                System.out.print("\rTraces: " + eventsEvaluationMatrix.length + "/" + eventsEvaluationMatrix.length);  // Status counter "current trace/total trace"
+                System.out.print("\rTraces: " + eventsEvaluationMatrixLite.length + "/" + eventsEvaluationMatrixLite.length);  // Status counter "current trace/total trace"
                 System.out.println();
             }
         }
@@ -479,16 +623,16 @@ public class MegaMatrixMonster {
      *
      * @param nanLogSkipFlag
      */
-    public SummaryStatistics[] computeSingleMeasureLog(float[][] traceMeasures, boolean nanLogSkipFlag) {
+    public MeasureStatistics[] computeSingleMeasureLog(float[][] traceMeasures, boolean nanLogSkipFlag) {
         logger.info("Initializing log measure matrix...");
         int constraintsNum = automata.size() + 1;
-        SummaryStatistics[] logMeasuresresult = new SummaryStatistics[constraintsNum];
+        MeasureStatistics[] logMeasuresresult = new MeasureStatistics[constraintsNum];
 
         logger.info("Retrieving Log Measures...");
         for (int constraint = 0; constraint < constraintsNum; constraint++) {
             if (!janusViewParams.suppressMeasuresStatusPrint)
                 System.out.print("\rConstraint: " + constraint + "/" + constraintsNum);  // Status counter "current trace/total trace"
-            logMeasuresresult[constraint] = Measures.getMeasureDistributionObject(constraint, traceMeasures, nanLogSkipFlag);
+            logMeasuresresult[constraint] = Measures.getMeasureDistributionObject(constraint, traceMeasures, variantsMultiplicity, nanLogSkipFlag);
         }
         if (!janusViewParams.suppressMeasuresStatusPrint) System.out.println();
         return logMeasuresresult;
@@ -496,7 +640,8 @@ public class MegaMatrixMonster {
 
 
     /**
-     * retrieve the measurements for the current matrix
+     * retrieve the measurements for the current matrix.
+     * All the measures of a trace and constraint are computed from a single pass over its evaluation, see {@link Measures#getTraceMeasures(float[], boolean, double, float[])}
      *
      * @param nanTraceSubstituteFlag
      * @param nanTraceSubstituteValue
@@ -509,9 +654,7 @@ public class MegaMatrixMonster {
 //              for each trace
             for (int constraint = 0; constraint < eventsEvaluationMatrix[trace].length; constraint++) {
 //                  for each constraint
-                for (int measure = 0; measure < Measures.MEASURE_NUM; measure++) {
-                    traceMeasuresMatrix[trace][constraint][measure] = Measures.getTraceMeasure(eventsEvaluationMatrix[trace][constraint], measure, nanTraceSubstituteFlag, nanTraceSubstituteValue);
-                }
+                Measures.getTraceMeasures(eventsEvaluationMatrix[trace][constraint], rowsLength[trace], nanTraceSubstituteFlag, nanTraceSubstituteValue, traceMeasuresMatrix[trace][constraint]);
             }
         }
         if (!janusViewParams.suppressMeasuresStatusPrint) {
@@ -539,6 +682,11 @@ public class MegaMatrixMonster {
      */
     public float[] getLogProbabilities(int constraint) {
         int tracesNum = log.wholeLength();
+        int rowsNum = tracesNum;
+        if (isVariantsCollapsed()) {
+            tracesNum = tracesVariantIndex.length;
+            rowsNum = variantsMultiplicity.length;
+        }
 
         //            for each measure
         float[] currentTraceProbabilities = new float[9];
@@ -552,26 +700,27 @@ public class MegaMatrixMonster {
         float pAnT = 0;
         float pAT = 0;
 
-        for (int trace = 0; trace < tracesNum; trace++) {
+        for (int trace = 0; trace < rowsNum; trace++) {
             // result { 0: activation, 1: target, 2: no activation, 3: no target}
             // result {4: 00, 5: 01, , 6: 10, 7:11}
             // result {8: trace length}
 //          trace P:  A/n	-A/n	T/n	    -T/n	AT/n	A-T/n	-AT/n	-A-T/n  N
 //                    0	    2	    1   	3   	7   	6   	5   	4       8
             if (eventsEvaluationMatrixLite == null) {
-                currentTraceProbabilities = Measures.getTraceProbabilities(eventsEvaluationMatrix[trace][constraint]);
+                currentTraceProbabilities = Measures.getTraceProbabilities(eventsEvaluationMatrix[trace][constraint], rowsLength[trace]);
             } else {
                 currentTraceProbabilities = Measures.getTraceProbabilities(eventsEvaluationMatrixLite[trace][constraint]);
             }
-//          accumulated log P: P(constraint(L))= sum( P(constraint(t in L)) ) / |L|
-            pA += currentTraceProbabilities[0];
-            pT += currentTraceProbabilities[1];
-            pnA += currentTraceProbabilities[2];
-            pnT += currentTraceProbabilities[3];
-            pnAnT += currentTraceProbabilities[4];
-            pnAT += currentTraceProbabilities[5];
-            pAnT += currentTraceProbabilities[6];
-            pAT += currentTraceProbabilities[7];
+//          accumulated log P: P(constraint(L))= sum( P(constraint(t in L)) ) / |L|, each variant counts as many times as its traces
+            int multiplicity = getRowMultiplicity(trace);
+            pA += currentTraceProbabilities[0] * multiplicity;
+            pT += currentTraceProbabilities[1] * multiplicity;
+            pnA += currentTraceProbabilities[2] * multiplicity;
+            pnT += currentTraceProbabilities[3] * multiplicity;
+            pnAnT += currentTraceProbabilities[4] * multiplicity;
+            pnAT += currentTraceProbabilities[5] * multiplicity;
+            pAnT += currentTraceProbabilities[6] * multiplicity;
+            pAT += currentTraceProbabilities[7] * multiplicity;
         }
         pA /= tracesNum;
         pT /= tracesNum;
@@ -640,7 +789,8 @@ public class MegaMatrixMonster {
 
 
     /**
-     * retrieve the measurements for the current matrixLite
+     * retrieve the measurements for the current matrixLite.
+     * All the measures of a trace and constraint are computed from a single pass over its evaluation, see {@link Measures#getTraceMeasures(float[], boolean, double, float[])}
      *
      * @param nanTraceSubstituteFlag
      * @param nanTraceSubstituteValue
@@ -651,15 +801,13 @@ public class MegaMatrixMonster {
 //              for each trace
             for (int constraint = 0; constraint < eventsEvaluationMatrixLite[trace].length; constraint++) {
 //                  for each constraint
-                for (int measure = 0; measure < Measures.MEASURE_NUM; measure++) {
-                    traceMeasuresMatrix[trace][constraint][measure] = Measures.getTraceMeasure(eventsEvaluationMatrixLite[trace][constraint], measure, nanTraceSubstituteFlag, nanTraceSubstituteValue);
-                }
+                Measures.getTraceMeasures(eventsEvaluationMatrixLite[trace][constraint], nanTraceSubstituteFlag, nanTraceSubstituteValue, traceMeasuresMatrix[trace][constraint]);
             }
         }
     }
 
 
-    public SummaryStatistics[][] getTraceMeasuresDescriptiveStatistics() {
+    public MeasureStatistics[][] getTraceMeasuresDescriptiveStatistics() {
         return traceMeasuresDescriptiveStatistics;
     }
 
@@ -0,0 +1,134 @@
+package minerful.reactive.measurements;
+
+/**
+ * Utilities for the packed representation of the events evaluation of a constraint in a trace.
+ * <p>
+ * Each event evaluation takes only 2 bits ([activator-bit][target-bit], as in the byte representation),
+ * thus a long word holds the evaluation of {@link #EVENTS_PER_WORD} events:
+ * the event i is stored in the word i/32 at bits 2*(i%32) (target) and 2*(i%32)+1 (activator).
+ * The bits after the last event of the trace are always 0.
+ * <p>
+ * The counters needed by the measures (see {@link ReactiveMeasurementsOfflineQueryingCore#runLogLite}) are retrieved
+ * with a few bitwise operations and a popcount per word, instead of a loop over the single events.
+ */
+public class PackedEvaluation {
+    public static final int EVENTS_PER_WORD = 32;
+    /**
+     * mask of the target bits of a word, i.e., the even ones
+     */
+    private static final long TARGET_BITS = 0x5555555555555555L;
+
+    /**
+     * @return number of words required to pack the given number of events
+     */
+    public static int getWordsNumber(int eventsNumber) {
+        return (eventsNumber + EVENTS_PER_WORD - 1) / EVENTS_PER_WORD;
+    }
+
+    /**
+     * Pack the first length events evaluations of the given byte array
+     *
+     * @param evaluation events evaluation, one byte {0,1,2,3} per event
+     * @param length     number of events of the trace
+     * @return packed events evaluation
+     */
+    public static long[] pack(byte[] evaluation, int length) {
+        long[] result = new long[getWordsNumber(length)];
+        for (int i = 0; i < length; i++) {
+            result[i / EVENTS_PER_WORD] |= ((long) (evaluation[i] & 3)) << (2 * (i % EVENTS_PER_WORD));
+        }
+        return result;
+    }
+
+    /**
+     * @return evaluation {0,1,2,3} of the given event
+     */
+    public static byte get(long[] packed, int event) {
+        return (byte) ((packed[event / EVENTS_PER_WORD] >>> (2 * (event % EVENTS_PER_WORD))) & 3);
+    }
+
+    /**
+     * Unpack the events evaluation into the byte representation
+     *
+     * @param packed packed events evaluation
+     * @param length number of events of the trace
+     * @return one byte {0,1,2,3} per event
+     */
+    public static byte[] unpack(long[] packed, int length) {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = get(packed, i);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve the counters of the evaluations of a trace from its packed evaluation, see {@link ReactiveMeasurementsOfflineQueryingCore#runLogLite}.
+     *
+     * @param packed packed events evaluation
+     * @param length number of events of the trace
+     * @return counters {N(A), N(T), N(¬A), N(¬T), N(¬A¬T), N(¬AT), N(A¬T), N(AT), length}
+     */
+    public static int[] getCounters(long[] packed, int length) {
+        int[] result = new int[9];
+        fillCounters(packed, length, result);
+        return result;
+    }
+
+    /**
+     * Same as {@link #getCounters(long[], int)}, but filling the given array
+     */
+    public static void fillCounters(long[] packed, int length, int[] result) {
+        int activations = 0;
+        int targets = 0;
+        int both = 0;
+        for (long word : packed) {
+            long activator = (word >>> 1) & TARGET_BITS;
+            long target = word & TARGET_BITS;
+            activations += Long.bitCount(activator);
+            targets += Long.bitCount(target);
+            both += Long.bitCount(activator & target);
+        }
+        result[0] = activations;
+        result[1] = targets;
+        result[2] = length - activations;
+        result[3] = length - targets;
+        result[4] = length - activations - targets + both;
+        result[5] = targets - both;
+        result[6] = activations - both;
+        result[7] = both;
+        result[8] = length;
+    }
+
+    /**
+     * Compute the evaluation of the whole model in a trace from the packed evaluations of its constraints,
+     * with the same rationale of {@link ReactiveMeasurementsOfflineQueryingCore#computeModelTraceEvaluation(byte[][])}:
+     * 10 if at least one constraint is 10, else 11 if at least one is 11, else 00 if at least one is 00, else 01.
+     *
+     * @param packedResult packed evaluations of the constraints of a trace, the last one (the model) is filled by this method
+     * @param length       number of events of the trace
+     */
+    public static void computeModelEvaluation(long[][] packedResult, int length) {
+        int modelIndex = packedResult.length - 1;
+        int wordsNumber = getWordsNumber(length);
+        long[] model = new long[wordsNumber];
+        for (int w = 0; w < wordsNumber; w++) {
+            int eventsInWord = Math.min(EVENTS_PER_WORD, length - w * EVENTS_PER_WORD);
+            long validEvents = (eventsInWord == EVENTS_PER_WORD) ? TARGET_BITS : TARGET_BITS & ((1L << (2 * eventsInWord)) - 1);
+            long has10 = 0;
+            long has11 = 0;
+            long has00 = 0;
+            for (int c = 0; c < modelIndex; c++) {
+                long activator = (packedResult[c][w] >>> 1) & TARGET_BITS;
+                long target = packedResult[c][w] & TARGET_BITS;
+                has10 |= activator & ~target;
+                has11 |= activator & target;
+                has00 |= ~activator & ~target;
+            }
+            long modelActivator = (has10 | has11) & validEvents;
+            long modelTarget = ~has10 & (has11 | ~has00) & validEvents;
+            model[w] = (modelActivator << 1) | modelTarget;
+        }
+        packedResult[modelIndex] = model;
+    }
+}
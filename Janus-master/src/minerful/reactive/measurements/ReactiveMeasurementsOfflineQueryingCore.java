@@ -2,18 +2,26 @@ package minerful.reactive.measurements;
 
 import minerful.concept.TaskCharArchive;
 import minerful.concept.constraint.ConstraintsBag;
+import minerful.logparser.EncodedLogArena;
 import minerful.logparser.LogParser;
 import minerful.logparser.LogTraceParser;
 import minerful.reactive.params.JanusMeasurementsCmdParameters;
 import minerful.miner.stats.GlobalStatsTable;
 import minerful.postprocessing.params.PostProcessingCmdParameters;
 import minerful.reactive.automaton.SeparatedAutomatonOfflineRunner;
+import minerful.reactive.io.JanusEventsEvaluationJsonStream;
 import minerful.reactive.params.JanusPrintParameters;
 import org.apache.log4j.Logger;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class to manage and organize the run of automata over a Log/Trace
@@ -30,6 +38,7 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
     private final ConstraintsBag bag;  // rules to mine
     private final int jobNum;
     private MegaMatrixMonster megaMonster; // £d byte matrix with fine grain result
+    private JanusEventsEvaluationJsonStream eventsEvaluationStream; // if not null, receives each row of the events evaluation as soon as it is evaluated
 
     {
         if (logger == null) {
@@ -61,6 +70,16 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
         this.bag = bag;
     }
 
+    /**
+     * Set the stream to which each row of the events evaluation is written as soon as it is evaluated, instead of at the end of the evaluation.
+     * Its rows are the traces of the log, or its variants if {@link JanusMeasurementsCmdParameters#variantsFlag} is set.
+     *
+     * @param eventsEvaluationStream stream of the events evaluation, or null
+     */
+    public void setEventsEvaluationStream(JanusEventsEvaluationJsonStream eventsEvaluationStream) {
+        this.eventsEvaluationStream = eventsEvaluationStream;
+    }
+
     /**
      * Run a set of separatedAutomata over a single trace
      *
@@ -69,15 +88,26 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
      * @return boolean matrix with the evaluation in each single event of all the constraints
      */
     public static void runTrace(LogTraceParser logTraceParser, List<SeparatedAutomatonOfflineRunner> automata, byte[][] results) {
+//      retrieve the entire trace
+        logTraceParser.init();
+        char[] trace = logTraceParser.encodeTrace().toCharArray();
+
+        runTrace(trace, automata, results);
+    }
+
+    /**
+     * Run a set of separatedAutomata over a single already encoded trace
+     *
+     * @param trace    encoded trace
+     * @param automata set of separatedAutomata to test over the trace
+     * @param results  byte matrix to fill with the evaluation in each single event of all the constraints
+     */
+    public static void runTrace(char[] trace, List<SeparatedAutomatonOfflineRunner> automata, byte[][] results) {
 //        reset automata for a clean run
         for (SeparatedAutomatonOfflineRunner automatonOfflineRunner : automata) {
             automatonOfflineRunner.reset();
         }
 
-//      retrieve the entire trace
-        logTraceParser.init();
-        char[] trace = logTraceParser.encodeTrace().toCharArray();
-
 //        evaluate the trace with each constraint (i.e. separated automaton)
         int i = 0;
         for (SeparatedAutomatonOfflineRunner automatonOfflineRunner : automata) {
@@ -87,6 +117,56 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
 
     }
 
+    /**
+     * Run a set of separatedAutomata over a single already encoded trace, storing the packed evaluations (see {@link PackedEvaluation}).
+     * The model evaluation (last row of the results) is computed as well.
+     * <p>
+     * Each automaton writes into the given temporary buffer, which is reused for all the constraints and returned for the next traces.
+     *
+     * @param trace         encoded trace
+     * @param automata      set of separatedAutomata to test over the trace
+     * @param eventsBuffer  temporary buffer of the evaluation of a constraint, replaced if shorter than the trace
+     * @param packedResults matrix to fill with the packed evaluation of all the constraints, plus the model
+     * @return the buffer to reuse for the next traces
+     */
+    public static byte[] runTracePacked(char[] trace, List<SeparatedAutomatonOfflineRunner> automata, byte[] eventsBuffer, long[][] packedResults) {
+        return runTracePacked(trace, 0, trace.length, automata, eventsBuffer, packedResults);
+    }
+
+    /**
+     * Same as {@link #runTracePacked(char[], List, byte[], long[][])}, for the trace starting at the given offset of the given events,
+     * e.g., of an {@link EncodedLogArena}.
+     *
+     * @param events        encoded events
+     * @param offset        position of the first event of the trace
+     * @param traceLength   number of events of the trace
+     * @param automata      set of separatedAutomata to test over the trace
+     * @param eventsBuffer  temporary buffer of the evaluation of a constraint, replaced if shorter than the trace
+     * @param packedResults matrix to fill with the packed evaluation of all the constraints, plus the model
+     * @return the buffer to reuse for the next traces
+     */
+    public static byte[] runTracePacked(char[] events, int offset, int traceLength, List<SeparatedAutomatonOfflineRunner> automata, byte[] eventsBuffer, long[][] packedResults) {
+        if (eventsBuffer.length < traceLength) {
+            eventsBuffer = new byte[traceLength];
+        }
+//        reset automata for a clean run
+        for (SeparatedAutomatonOfflineRunner automatonOfflineRunner : automata) {
+            automatonOfflineRunner.reset();
+        }
+
+//        evaluate the trace with each constraint (i.e. separated automaton)
+        int i = 0;
+        for (SeparatedAutomatonOfflineRunner automatonOfflineRunner : automata) {
+            Arrays.fill(eventsBuffer, 0, traceLength, (byte) 0);
+            automatonOfflineRunner.runTrace(events, offset, traceLength, eventsBuffer);
+            packedResults[i++] = PackedEvaluation.pack(eventsBuffer, traceLength);
+        }
+
+        // MODEL TRACE EVALUATION
+        PackedEvaluation.computeModelEvaluation(packedResults, traceLength);
+        return eventsBuffer;
+    }
+
     /**
      * Run a set of separatedAutomata over a single trace
      *
@@ -95,21 +175,45 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
      * @return boolean matrix with the evaluation in each single event of all the constraints
      */
     public static void runTraceLite(LogTraceParser logTraceParser, List<SeparatedAutomatonOfflineRunner> automata, int[][] results) {
+//      retrieve the entire trace
+        logTraceParser.init();
+        char[] trace = logTraceParser.encodeTrace().toCharArray();
+
+        runTraceLite(trace, automata, results);
+    }
+
+    /**
+     * Run a set of separatedAutomata over a single already encoded trace
+     *
+     * @param trace    encoded trace
+     * @param automata set of separatedAutomata to test over the trace
+     * @param results  counters matrix to fill with the evaluation of all the constraints
+     */
+    public static void runTraceLite(char[] trace, List<SeparatedAutomatonOfflineRunner> automata, int[][] results) {
+        runTraceLite(trace, 0, trace.length, automata, results);
+    }
+
+    /**
+     * Run a set of separatedAutomata over the trace starting at the given offset of the given events, e.g., of an {@link EncodedLogArena}
+     *
+     * @param events      encoded events
+     * @param offset      position of the first event of the trace
+     * @param traceLength number of events of the trace
+     * @param automata    set of separatedAutomata to test over the trace
+     * @param results     counters matrix to fill with the evaluation of all the constraints
+     */
+    public static void runTraceLite(char[] events, int offset, int traceLength, List<SeparatedAutomatonOfflineRunner> automata, int[][] results) {
 //        reset automata for a clean run
         for (SeparatedAutomatonOfflineRunner automatonOfflineRunner : automata) {
             automatonOfflineRunner.reset();
         }
 
-//      retrieve the entire trace
-        logTraceParser.init();
-        char[] trace = logTraceParser.encodeTrace().toCharArray();
-
 //        evaluate the trace with each constraint (i.e. separated automaton)
         int i = 0;
         byte[] temp;
         for (SeparatedAutomatonOfflineRunner automatonOfflineRunner : automata) {
-            temp = new byte[trace.length];
-            automatonOfflineRunner.runTrace(trace, trace.length, temp);
+            temp = new byte[traceLength];
+            automatonOfflineRunner.runTrace(events, offset, traceLength, temp);
             results[i] = getTraceCounters(temp);
             i++;
         }
@@ -146,35 +250,75 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
      * 1 -> 01 -> Activator: False, Target: true
      * 2 -> 10 -> Activator: True,  Target: False
      * 3 -> 11 -> Activator: True,  Target: True
+     * The evaluations are stored packed, 32 events per long word (see {@link PackedEvaluation}).
      *
      * @param logParser log reader
      * @param automata  set of separatedAutomata to test over the log
      * @return ordered Array of supports for the full log for each automaton
      */
     public void runLog(LogParser logParser, List<SeparatedAutomatonOfflineRunner> automata) {
-        byte[][][] finalResults = new byte[logParser.length()][automata.size() + 1][]; // TODO case length=0
-        logger.info("Basic result matrix created! Size: [" + logParser.length() + "][" + (automata.size() + 1) + "][*]");
+        runLog(logParser.getEncodedLogArena(), null, logParser.length(), automata, null, null);
+    }
 
-        int currentTraceNumber = 0;
-        int numberOfTotalTraces = logParser.length();
+    /**
+     * Run a set of separatedAutomata over the given traces of an encoded log, one per row of the resulting (packed) events matrix.
+     * See {@link #runLog(LogParser, List) runLog} for the traces of the log and {@link #runLogVariants(LogParser, List) runLogVariants} for its variants.
+     *
+     * @param arena                encoded log
+     * @param rowsTrace            index in the arena of the trace of each row, or null if the rows are the traces of the arena, in order
+     * @param rowsNumber           number of rows
+     * @param automata             set of separatedAutomata to test over the traces
+     * @param variantsMultiplicity number of traces of each row, or null if each row is a single trace
+     * @param tracesVariantIndex   row of each trace of the log, or null if each row is a single trace
+     */
+    private void runLog(EncodedLogArena arena, int[] rowsTrace, int rowsNumber, List<SeparatedAutomatonOfflineRunner> automata, int[] variantsMultiplicity, int[] tracesVariantIndex) {
+        long[][][] finalResults = new long[rowsNumber][automata.size() + 1][]; // TODO case length=0
+        int[] rowsLength = new int[rowsNumber];
+        logger.info("Basic result matrix created! Size: [" + rowsNumber + "][" + (automata.size() + 1) + "][*]" + describeRows(arena, rowsTrace));
 
-        for (Iterator<LogTraceParser> it = logParser.traceIterator(); it.hasNext(); ) {
-            LogTraceParser tr = it.next();
-            runTrace(tr, automata, finalResults[currentTraceNumber]);
+        if (janusCheckingParams.isParallelEvaluationRequired()) {
+            evaluateTracesInParallel(arena, rowsTrace, rowsNumber, automata, finalResults, rowsLength, null);
+        } else {
+            byte[] eventsBuffer = new byte[0];
+            char[] events = arena.getEvents();
+
+            for (int row = 0; row < rowsNumber; row++) {
+                int trace = (rowsTrace == null) ? row : rowsTrace[row];
+                int traceLength = arena.getTraceLength(trace);
+                eventsBuffer = runTracePacked(events, arena.getTraceStart(trace), traceLength, automata, eventsBuffer, finalResults[row]);
+                rowsLength[row] = traceLength;
+                if (eventsEvaluationStream != null)
+                    eventsEvaluationStream.rowEvaluated(row, finalResults[row], traceLength);
+
+                printRowsStatus(rowsTrace, row + 1, rowsNumber, false);
+            }
+            printRowsStatus(rowsTrace, rowsNumber, rowsNumber, true);
+        }
 
-            // MODEL TRACE EVALUATION
-            computeModelTraceEvaluation(finalResults[currentTraceNumber]);
+        this.megaMonster = new MegaMatrixMonster(finalResults, rowsLength, variantsMultiplicity, tracesVariantIndex, this.logParser, this.bag.getSeparatedAutomataOfflineRunners(), janusViewParams);
+    }
 
-            currentTraceNumber++;
-            if (!janusViewParams.suppressMeasuresStatusPrint)
-                System.out.print("\rTraces: " + currentTraceNumber + "/" + numberOfTotalTraces);  // Status counter "current trace/total trace"
-        }
-        if (!janusViewParams.suppressMeasuresStatusPrint) {
-            System.out.print("\rTraces: " + currentTraceNumber + "/" + numberOfTotalTraces);
-            System.out.println();
-        }
+    /**
+     * @return the detail of the number of traces of the log to the size of the result matrix, if its rows are variants
+     */
+    private static String describeRows(EncodedLogArena arena, int[] rowsTrace) {
+        return (rowsTrace == null) ? "" : " for " + arena.length() + " traces";
+    }
 
-        this.megaMonster = new MegaMatrixMonster(finalResults, this.logParser, this.bag.getSeparatedAutomataOfflineRunners(), janusViewParams);
+    /**
+     * Print the status counter of the sequential evaluation of the rows, i.e., "current trace/total traces" or "current variant/total variants"
+     *
+     * @param rowsTrace     index in the arena of the trace of each row, or null if the rows are the traces of the arena
+     * @param evaluatedRows number of rows evaluated so far
+     * @param rowsNumber    number of rows
+     * @param done          true if all the rows are evaluated
+     */
+    private void printRowsStatus(int[] rowsTrace, int evaluatedRows, int rowsNumber, boolean done) {
+        if (janusViewParams.suppressMeasuresStatusPrint)
+            return;
+        System.out.print("\r" + ((rowsTrace == null) ? "Traces: " : "Variants: ") + evaluatedRows + "/" + rowsNumber);
+        if (done)
+            System.out.println();
     }
 
     /**
@@ -187,10 +331,12 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
      * elif    11 in at least one i -> 11 : 3
      * elif    00 in at least one i -> 00 : 0
      * else                         -> 01 : 1
+     * <p>
+     * See {@link PackedEvaluation#computeModelEvaluation(long[][], int)} for the same evaluation over packed results.
      *
      * @param finalResult
      */
-    private void computeModelTraceEvaluation(byte[][] finalResult) {
+    static void computeModelTraceEvaluation(byte[][] finalResult) {
         int traceLen = finalResult[0].length;
         int modelIndex = finalResult.length - 1;
         finalResult[modelIndex] = new byte[traceLen];
@@ -208,7 +354,7 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
         }
     }
 
-    private void computeModelTraceEvaluationLite(int[][] finalResult) {
+    static void computeModelTraceEvaluationLite(int[][] finalResult) {
         int traceLen = finalResult[0].length;
         int modelIndex = finalResult.length - 1;
         byte[] tempResults = new byte[traceLen];
@@ -251,29 +397,157 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
      * @return ordered Array of supports for the full log for each automaton
      */
     public void runLogLite(LogParser logParser, List<SeparatedAutomatonOfflineRunner> automata) {
-        int[][][] finalResults = new int[logParser.length()][automata.size() + 1][9]; // TODO case length=0
-        logger.info("Basic result matrix-LITE created! Size: [" + logParser.length() + "][" + (automata.size() + 1) + "][9]");
+        runLogLite(logParser.getEncodedLogArena(), null, logParser.length(), automata, null, null);
+    }
+
+    /**
+     * Run a set of separatedAutomata over the given traces of an encoded log keeping only the counters of the evaluations, one trace per row of the resulting int[][][].
+     * See {@link #runLogLite(LogParser, List) runLogLite} for the traces of the log and {@link #runLogLiteVariants(LogParser, List) runLogLiteVariants} for its variants.
+     *
+     * @param arena                encoded log
+     * @param rowsTrace            index in the arena of the trace of each row, or null if the rows are the traces of the arena, in order
+     * @param rowsNumber           number of rows
+     * @param automata             set of separatedAutomata to test over the traces
+     * @param variantsMultiplicity number of traces of each row, or null if each row is a single trace
+     * @param tracesVariantIndex   row of each trace of the log, or null if each row is a single trace
+     */
+    private void runLogLite(EncodedLogArena arena, int[] rowsTrace, int rowsNumber, List<SeparatedAutomatonOfflineRunner> automata, int[] variantsMultiplicity, int[] tracesVariantIndex) {
+        int[][][] finalResults = new int[rowsNumber][automata.size() + 1][9]; // TODO case length=0
+        logger.info("Basic result matrix-LITE created! Size: [" + rowsNumber + "][" + (automata.size() + 1) + "][9]" + describeRows(arena, rowsTrace));
+
+        if (janusCheckingParams.isParallelEvaluationRequired()) {
+            evaluateTracesInParallel(arena, rowsTrace, rowsNumber, automata, null, null, finalResults);
+        } else {
+            char[] events = arena.getEvents();
+
+            for (int row = 0; row < rowsNumber; row++) {
+                int trace = (rowsTrace == null) ? row : rowsTrace[row];
+                runTraceLite(events, arena.getTraceStart(trace), arena.getTraceLength(trace), automata, finalResults[row]);
 
-        int currentTraceNumber = 0;
-        int numberOfTotalTraces = logParser.length();
+                // MODEL TRACE EVALUATION
+                computeModelTraceEvaluationLite(finalResults[row]);
+                if (eventsEvaluationStream != null)
+                    eventsEvaluationStream.rowEvaluatedLite(row, finalResults[row]);
+
+                printRowsStatus(rowsTrace, row + 1, rowsNumber, false);
+            }
+            printRowsStatus(rowsTrace, rowsNumber, rowsNumber, true);
+        }
 
-        for (Iterator<LogTraceParser> it = logParser.traceIterator(); it.hasNext(); ) {
-            LogTraceParser tr = it.next();
-            runTraceLite(tr, automata, finalResults[currentTraceNumber]);
+        this.megaMonster = new MegaMatrixMonster(finalResults, variantsMultiplicity, tracesVariantIndex, this.logParser, this.bag.getSeparatedAutomataOfflineRunners(), janusViewParams);
+    }
 
-            // MODEL TRACE EVALUATION
-            computeModelTraceEvaluationLite(finalResults[currentTraceNumber]);
+    /**
+     * Evaluate the rows of the result matrices with {@link JanusMeasurementsCmdParameters#evaluationParallelProcessingThreads} threads.
+     * <p>
+     * The traces are read by the workers directly from the {@link EncodedLogArena} of the log, so that the log parser is never accessed concurrently.
+     * Exactly one of the two result matrices is expected to be not null: the full events evaluation or the counters-only one.
+     *
+     * @param arena        encoded log
+     * @param rowsTrace    index in the arena of the trace of each row of the results, or null if the rows are the traces of the arena, in order
+     * @param rowsNumber   number of rows of the results
+     * @param automata     set of separatedAutomata to test over the traces
+     * @param finalResults packed events evaluation matrix to fill, or null
+     * @param rowsLength   length of each row of the packed events evaluation matrix to fill, or null
+     * @param finalResultsLite counters matrix to fill, or null
+     * @throws IllegalStateException if the evaluation of a worker fails or is interrupted
+     */
+    private void evaluateTracesInParallel(EncodedLogArena arena, int[] rowsTrace, int rowsNumber, List<SeparatedAutomatonOfflineRunner> automata, long[][][] finalResults, int[] rowsLength, int[][][] finalResultsLite) {
+        int threads = janusCheckingParams.evaluationParallelProcessingThreads;
+        // small chunks balance the load among the workers, while keeping the contention on the shared cursor negligible
+        int chunkSize = Math.max(1, rowsNumber / (threads * 16));
+        logger.info("Evaluating " + rowsNumber + " traces with " + threads + " threads (chunks of " + chunkSize + ")");
+
+        AtomicInteger nextRow = new AtomicInteger(0);
+        List<CallableTracesEvaluator> evaluators = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            if (finalResultsLite == null) {
+                evaluators.add(new CallableTracesEvaluator(arena, rowsTrace, rowsNumber, automata, nextRow, chunkSize, finalResults, rowsLength, eventsEvaluationStream));
+            } else {
+                evaluators.add(new CallableTracesEvaluator(arena, rowsTrace, rowsNumber, automata, nextRow, chunkSize, finalResultsLite, eventsEvaluationStream));
+            }
+        }
 
-            currentTraceNumber++;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int evaluatedTraces = 0;
+            for (Future<Integer> evaluated : executor.invokeAll(evaluators)) {
+                evaluatedTraces += evaluated.get();
+            }
             if (!janusViewParams.suppressMeasuresStatusPrint)
-                System.out.print("\rTraces: " + currentTraceNumber + "/" + numberOfTotalTraces);  // Status counter "current trace/total trace"
+                System.out.println("Traces: " + evaluatedTraces + "/" + rowsNumber);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Event log not evaluated in parallel", e);
+        } finally {
+            executor.shutdown();
         }
-        if (!janusViewParams.suppressMeasuresStatusPrint) {
-            System.out.print("\rTraces: " + currentTraceNumber + "/" + numberOfTotalTraces);
-            System.out.println();
+    }
+
+    /**
+     * Group the identical encoded traces of the log, i.e., the variants of the log, as found in its {@link EncodedLogArena}.
+     *
+     * @param arena              encoded log
+     * @param tracesVariantIndex array to fill with the index of the variant of each trace, in the order of the log
+     * @return the index in the arena of the representative trace of each variant, in order of first appearance in the log
+     */
+    public static int[] getVariantsRepresentatives(EncodedLogArena arena, int[] tracesVariantIndex) {
+        int[] representatives = new int[arena.numberOfVariants()];
+        for (int v = 0; v < representatives.length; v++) {
+            representatives[v] = arena.getVariantRepresentative(v);
+        }
+        for (int t = 0; t < arena.length(); t++) {
+            tracesVariantIndex[t] = arena.getVariantId(t);
         }
+        return representatives;
+    }
 
-        this.megaMonster = new MegaMatrixMonster(finalResults, this.logParser, this.bag.getSeparatedAutomataOfflineRunners(), janusViewParams);
+    /**
+     * Count how many traces of the log belong to each variant
+     *
+     * @param tracesVariantIndex index of the variant of each trace
+     * @param variantsNumber     number of distinct variants
+     * @return multiplicity of each variant
+     */
+    private static int[] getVariantsMultiplicity(int[] tracesVariantIndex, int variantsNumber) {
+        int[] result = new int[variantsNumber];
+        for (int variantIndex : tracesVariantIndex) {
+            result[variantIndex]++;
+        }
+        return result;
+    }
+
+    /**
+     * Run a set of separatedAutomata over the distinct variants of a log.
+     * <p>
+     * Each variant is evaluated only once, thus the first dimension of the resulting (packed) events matrix is the variant index and not the trace index.
+     * The multiplicity of each variant and the mapping from traces to variants are carried along into the MegaMatrixMonster,
+     * so that the traces and log measures are weighted accordingly.
+     * The bytes meaning is the same of {@link #runLog(LogParser, List) runLog}.
+     *
+     * @param logParser log reader
+     * @param automata  set of separatedAutomata to test over the log
+     */
+    public void runLogVariants(LogParser logParser, List<SeparatedAutomatonOfflineRunner> automata) {
+        int[] tracesVariantIndex = new int[logParser.length()];
+        EncodedLogArena arena = logParser.getEncodedLogArena();
+        int[] variants = getVariantsRepresentatives(arena, tracesVariantIndex);
+        runLog(arena, variants, variants.length, automata, getVariantsMultiplicity(tracesVariantIndex, variants.length), tracesVariantIndex);
+    }
+
+    /**
+     * Run a set of separatedAutomata over the distinct variants of a log keeping only the counters of the evaluations.
+     * <p>
+     * Each variant is evaluated only once, thus the first dimension of the resulting int[][][] is the variant index and not the trace index.
+     * The counters meaning is the same of {@link #runLogLite(LogParser, List) runLogLite}.
+     *
+     * @param logParser log reader
+     * @param automata  set of separatedAutomata to test over the log
+     */
+    public void runLogLiteVariants(LogParser logParser, List<SeparatedAutomatonOfflineRunner> automata) {
+        int[] tracesVariantIndex = new int[logParser.length()];
+        EncodedLogArena arena = logParser.getEncodedLogArena();
+        int[] variants = getVariantsRepresentatives(arena, tracesVariantIndex);
+        runLogLite(arena, variants, variants.length, automata, getVariantsMultiplicity(tracesVariantIndex, variants.length), tracesVariantIndex);
     }
 
     /**
@@ -282,7 +556,13 @@ public class ReactiveMeasurementsOfflineQueryingCore implements Callable<MegaMat
      * @return
      */
     public MegaMatrixMonster check() {
-        if (janusCheckingParams.liteFlag) {
+        if (janusCheckingParams.variantsFlag) {
+            if (janusCheckingParams.liteFlag) {
+                runLogLiteVariants(this.logParser, this.bag.getSeparatedAutomataOfflineRunners());
+            } else {
+                runLogVariants(this.logParser, this.bag.getSeparatedAutomataOfflineRunners());
+            }
+        } else if (janusCheckingParams.liteFlag) {
             runLogLite(this.logParser, this.bag.getSeparatedAutomataOfflineRunners());
         } else {
             runLog(this.logParser, this.bag.getSeparatedAutomataOfflineRunners());
@@ -0,0 +1,147 @@
+package minerful.reactive.monitor;
+
+import minerful.utils.MessagePrinter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Pattern;
+
+/**
+ * Reader of a stream of events, one per line, feeding a {@link StreamingConformanceMonitor}.
+ * <p>
+ * Every line has the form <code>case;activity;timestamp</code> (the separator is configurable).
+ * The timestamp is either a number of milliseconds since the epoch or an ISO-8601 date-time (UTC if no offset is given);
+ * if it is missing, the time of arrival of the line is used.
+ * An event whose activity is the end-of-case marker (if any) closes its case instead of being checked.
+ * Empty lines and lines starting with <code>#</code> are skipped, as well as malformed lines, with a warning.
+ * <p>
+ * In follow mode the end of the input is not the end of the stream: the reader waits for new lines to be appended, as <code>tail -f</code> does,
+ * until the thread is interrupted.
+ */
+public class EventStreamReader {
+    private static MessagePrinter logger = MessagePrinter.getInstance(EventStreamReader.class);
+
+    public static final long FOLLOW_POLLING_INTERVAL_MILLIS = 200L;
+    private static final String COMMENT_PREFIX = "#";
+    private static final int READ_BUFFER_SIZE = 1 << 13;
+
+    private final StreamingConformanceMonitor monitor;
+    private final Pattern separator;
+    private final String caseEndActivity;
+    private final boolean follow;
+    private long readLines = 0;
+    private long skippedLines = 0;
+
+    /**
+     * @param monitor         monitor to feed
+     * @param separator       separator of the fields of the lines
+     * @param caseEndActivity name of the activity marking the end of a case, or null
+     * @param follow          keep waiting for new lines at the end of the input
+     */
+    public EventStreamReader(StreamingConformanceMonitor monitor, String separator, String caseEndActivity, boolean follow) {
+        this.monitor = monitor;
+        this.separator = Pattern.compile(Pattern.quote(separator));
+        this.caseEndActivity = caseEndActivity;
+        this.follow = follow;
+    }
+
+    /**
+     * Feed the monitor with all the events of the input. The open cases are not closed at the end of the input.
+     * Lines are processed only once their line terminator is read, so that, in follow mode, a line still being written is not cut.
+     *
+     * @param input
+     * @throws IOException
+     */
+    public void feed(Reader input) throws IOException {
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        StringBuilder line = new StringBuilder();
+        while (!Thread.currentThread().isInterrupted()) {
+            int read = input.read(buffer);
+            if (read < 0) {
+                if (!follow)
+                    break;
+                try {
+                    Thread.sleep(FOLLOW_POLLING_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                continue;
+            }
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == '\n') {
+                    processLine(line.toString());
+                    line.setLength(0);
+                } else if (c != '\r') {
+                    line.append(c);
+                }
+            }
+        }
+        if (line.length() > 0) {
+            processLine(line.toString());
+        }
+    }
+
+    private void processLine(String line) {
+        readLines++;
+        if (line.trim().isEmpty() || line.startsWith(COMMENT_PREFIX))
+            return;
+        String[] fields = separator.split(line, -1);
+        if (fields.length < 2) {
+            skipLine(line, "missing fields");
+            return;
+        }
+        String caseId = fields[0].trim();
+        String activity = fields[1].trim();
+        long timestamp;
+        if (fields.length < 3 || fields[2].trim().isEmpty()) {
+            timestamp = System.currentTimeMillis();
+        } else {
+            try {
+                timestamp = parseTimestamp(fields[2].trim());
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                skipLine(line, "unreadable timestamp");
+                return;
+            }
+        }
+        if (activity.equals(caseEndActivity)) {
+            monitor.closeCase(caseId);
+        } else {
+            monitor.ingest(caseId, activity, timestamp);
+        }
+    }
+
+    private void skipLine(String line, String reason) {
+        skippedLines++;
+        logger.warn("Line skipped (" + reason + "): " + line);
+    }
+
+    /**
+     * @param timestamp milliseconds since the epoch, or ISO-8601 date-time
+     * @return milliseconds since the epoch
+     */
+    public static long parseTimestamp(String timestamp) {
+        try {
+            return Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            // not a number: try with a date-time
+        }
+        try {
+            return OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(timestamp).toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+    }
+
+    public long getReadLines() {
+        return readLines;
+    }
+
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+}
@@ -0,0 +1,13 @@
+package minerful.reactive.monitor;
+
+/**
+ * Receiver of the updates of a {@link StreamingConformanceMonitor}
+ */
+public interface MonitorListener {
+    /**
+     * Called for every update, in the order in which the events are ingested
+     *
+     * @param update
+     */
+    void onUpdate(MonitorUpdate update);
+}
@@ -0,0 +1,71 @@
+package minerful.reactive.monitor;
+
+import minerful.concept.constraint.Constraint;
+
+/**
+ * Update emitted by the {@link StreamingConformanceMonitor} for an activation of a constraint in a case,
+ * along with the running support and confidence of the constraint over all the cases seen so far.
+ */
+public class MonitorUpdate {
+    public enum UpdateType {
+        /**
+         * The constraint has been activated, and the outcome of the activation depends on the future events of the case
+         */
+        activation,
+        /**
+         * An activation of the constraint has been fulfilled
+         */
+        fulfilment,
+        /**
+         * An activation of the constraint has been violated
+         */
+        violation;
+    }
+
+    public final UpdateType type;
+    public final String caseId;
+    public final Constraint constraint;
+    /**
+     * Name of the constraint, computed once by the monitor
+     */
+    public final String constraintName;
+    /**
+     * Timestamp of the event that caused the update, or of the last event of the case if the update is due to its closure
+     */
+    public final long timestamp;
+    /**
+     * True if the update is due to the closure (or eviction) of the case, which resolves its pending activations
+     */
+    public final boolean caseClosure;
+    public final double support;
+    public final double confidence;
+
+    public MonitorUpdate(UpdateType type, String caseId, Constraint constraint, String constraintName, long timestamp, boolean caseClosure, double support, double confidence) {
+        this.type = type;
+        this.caseId = caseId;
+        this.constraint = constraint;
+        this.constraintName = constraintName;
+        this.timestamp = timestamp;
+        this.caseClosure = caseClosure;
+        this.support = support;
+        this.confidence = confidence;
+    }
+
+    /**
+     * @param separator separator of the fields
+     * @return the update as a line of a CSV with the fields of {@link #csvHeader(String) csvHeader}
+     */
+    public String toCsvLine(String separator) {
+        return timestamp + separator + caseId + separator + type + separator + constraintName + separator + caseClosure + separator + support + separator + confidence;
+    }
+
+    public static String csvHeader(String separator) {
+        return "timestamp" + separator + "case" + separator + "update" + separator + "constraint" + separator + "caseClosure" + separator + "support" + separator + "confidence";
+    }
+
+    @Override
+    public String toString() {
+        return "MonitorUpdate [type=" + type + ", caseId=" + caseId + ", constraint=" + constraint + ", timestamp=" + timestamp
+                + ", caseClosure=" + caseClosure + ", support=" + support + ", confidence=" + confidence + "]";
+    }
+}
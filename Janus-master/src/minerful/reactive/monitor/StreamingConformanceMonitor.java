@@ -0,0 +1,319 @@
+package minerful.reactive.monitor;
+
+import minerful.concept.ProcessModel;
+import minerful.concept.TaskChar;
+import minerful.concept.TaskCharArchive;
+import minerful.concept.constraint.Constraint;
+import minerful.reactive.automaton.SeparatedAutomatonRunner;
+import minerful.reactive.monitor.MonitorUpdate.UpdateType;
+import minerful.utils.MessagePrinter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Online conformance checking of a stream of interleaved events against all the constraints of a process model.
+ * <p>
+ * The monitor keeps one {@link SeparatedAutomatonRunner} per constraint, shared by all the cases:
+ * every open case only stores the {@link SeparatedAutomatonRunner.RunnerState state} of each runner,
+ * which is loaded before the event of the case is stepped and saved back afterwards.
+ * At every event, the {@link MonitorListener} receives a {@link UpdateType#fulfilment fulfilment} or a {@link UpdateType#violation violation}
+ * for every activation with a clear result, or an {@link UpdateType#activation activation} if the outcome depends on the future of the case.
+ * The pending activations are resolved when the case is closed.
+ * <p>
+ * The support and the confidence of each constraint are the ones of {@link minerful.reactive.miner.ReactiveMinerQueryingCore#runLog},
+ * where the open cases count with the degree of truth of the events seen so far.
+ * They are kept up to date at every event, so they are available at any time without re-running the log.
+ * <p>
+ * The open cases are bounded in number: when a new case exceeds the bound, the least recently updated case is closed.
+ * Cases without events for longer than the maximum idle time (measured on the timestamps of the events) are closed as well.
+ * Closed cases are forgotten, except for their contribution to the measures: if an event of a closed case arrives later, it starts a new case.
+ */
+public class StreamingConformanceMonitor {
+    private static MessagePrinter logger = MessagePrinter.getInstance(StreamingConformanceMonitor.class);
+
+    private final SeparatedAutomatonRunner[] runners;
+    private final Constraint[] constraints;
+    private final String[] constraintsNames;
+    private final TaskCharArchive taskCharArchive;
+    private final Map<String, Character> activitiesEncoding = new HashMap<String, Character>();
+    private final char unknownActivityCharacter;
+    private final int maxOpenCases;
+    private final long maxIdleTime;
+    private final List<MonitorListener> listeners = new ArrayList<MonitorListener>();
+
+    private final LinkedHashMap<String, CaseState> openCases = new LinkedHashMap<String, CaseState>(16, 0.75f, true); // access-order, i.e., least recently updated first
+
+    // running measures: the degrees of truth of the closed cases are summed once, when the cases are closed,
+    // so that the rounding errors of the updates of the open cases do not pile up along the stream
+    private final double[] closedCasesDegreesOfTruthSum;
+    private final double[] openCasesDegreesOfTruthSum;
+    private final int[] activatedCases;
+    private long casesNumber = 0;
+    private long eventsNumber = 0;
+    private long closedCasesNumber = 0;
+    private long evictedCasesNumber = 0;
+
+    /**
+     * State of the runners on an open case
+     */
+    private static class CaseState {
+        private final SeparatedAutomatonRunner.RunnerState[] runnersStates;
+        private final double[] degreesOfTruth;
+        private long lastTimestamp;
+
+        private CaseState(SeparatedAutomatonRunner[] runners) {
+            this.runnersStates = new SeparatedAutomatonRunner.RunnerState[runners.length];
+            for (int c = 0; c < runners.length; c++) {
+                this.runnersStates[c] = runners[c].newState();
+            }
+            this.degreesOfTruth = new double[runners.length];
+        }
+    }
+
+    /**
+     * @param processModel model to check. Its automata are built if they have not been yet
+     * @param maxOpenCases maximum number of cases kept in memory
+     * @param maxIdleTime  maximum time (in the unit of the timestamps of the events) since the last event of an open case, before it is closed. Non-positive values disable the idle-time eviction
+     */
+    public StreamingConformanceMonitor(ProcessModel processModel, int maxOpenCases, long maxIdleTime) {
+        if (maxOpenCases < 1) {
+            throw new IllegalArgumentException("The maximum number of open cases must be greater than 0");
+        }
+        if (processModel.bag.getSeparatedAutomataRunners() == null) {
+            processModel.bag.initAutomataBag();
+        }
+        List<SeparatedAutomatonRunner> runnersList = processModel.bag.getSeparatedAutomataRunners();
+        this.runners = runnersList.toArray(new SeparatedAutomatonRunner[runnersList.size()]);
+        this.constraints = new Constraint[runners.length];
+        this.constraintsNames = new String[runners.length];
+        for (int c = 0; c < runners.length; c++) {
+            this.constraints[c] = processModel.bag.getConstraintOfRunner(runners[c]);
+            this.constraintsNames[c] = constraints[c].toString();
+        }
+        this.taskCharArchive = processModel.getTaskCharArchive();
+        this.unknownActivityCharacter = findUnusedCharacter(taskCharArchive);
+        this.maxOpenCases = maxOpenCases;
+        this.maxIdleTime = maxIdleTime;
+        this.closedCasesDegreesOfTruthSum = new double[runners.length];
+        this.openCasesDegreesOfTruthSum = new double[runners.length];
+        this.activatedCases = new int[runners.length];
+        logger.info("Monitoring " + runners.length + " constraints (max open cases: " + maxOpenCases
+                + (maxIdleTime > 0 ? ", max idle time: " + maxIdleTime : "") + ")");
+    }
+
+    /**
+     * The activities that are not in the model are all stepped with the same character, which is not the identifier of any task of the model
+     */
+    private static char findUnusedCharacter(TaskCharArchive taskCharArchive) {
+        char candidate = Character.MAX_VALUE;
+        while (taskCharArchive.getTaskChar(candidate) != null) {
+            candidate--;
+        }
+        return candidate;
+    }
+
+    public void addListener(MonitorListener listener) {
+        this.listeners.add(listener);
+    }
+
+    private char encode(String activity) {
+        Character encoded = activitiesEncoding.get(activity);
+        if (encoded == null) {
+            TaskChar taskChar = taskCharArchive.getTaskChar(activity);
+            encoded = (taskChar == null) ? unknownActivityCharacter : taskChar.identifier;
+            activitiesEncoding.put(activity, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * Step the given event on all the constraints, in the state of its case, and notify the listeners of the resulting updates.
+     * A case is opened at its first event.
+     *
+     * @param caseId    identifier of the case
+     * @param activity  name of the activity
+     * @param timestamp time of the event, used to close the idle cases
+     */
+    public void ingest(String caseId, String activity, long timestamp) {
+        evictIdleCases(timestamp);
+        CaseState caseState = openCases.get(caseId);
+        if (caseState == null) {
+            caseState = new CaseState(runners);
+            openCases.put(caseId, caseState);
+            casesNumber++;
+            evictExceedingCases();
+        }
+        caseState.lastTimestamp = timestamp;
+        eventsNumber++;
+
+        char transition = encode(activity);
+        for (int c = 0; c < runners.length; c++) {
+            SeparatedAutomatonRunner runner = runners[c];
+            runner.loadState(caseState.runnersStates[c]);
+            int activations = runner.getActivationCounter();
+            int fulfilledActivations = runner.getFulfilledActivationCounter();
+            int pendingActivations = runner.getPendingActivationCounter();
+
+            runner.step(transition);
+
+            if (activations == 0 && runner.isActivated()) {
+                activatedCases[c]++;
+            }
+            double degreeOfTruth = runner.getDegreeOfTruth();
+            openCasesDegreesOfTruthSum[c] += degreeOfTruth - caseState.degreesOfTruth[c];
+            caseState.degreesOfTruth[c] = degreeOfTruth;
+            runner.saveState(caseState.runnersStates[c]);
+
+            if (runner.getActivationCounter() > activations && !listeners.isEmpty()) {
+                UpdateType type;
+                if (runner.getFulfilledActivationCounter() > fulfilledActivations) {
+                    type = UpdateType.fulfilment;
+                } else if (runner.getPendingActivationCounter() > pendingActivations) {
+                    type = UpdateType.activation;
+                } else {
+                    type = UpdateType.violation;
+                }
+                notifyListeners(new MonitorUpdate(type, caseId, constraints[c], constraintsNames[c], timestamp, false, getSupport(c), getConfidence(c)));
+            }
+        }
+    }
+
+    /**
+     * Close a case, resolving its pending activations with the events seen so far. Nothing happens if the case is not open.
+     *
+     * @param caseId
+     */
+    public void closeCase(String caseId) {
+        CaseState caseState = openCases.remove(caseId);
+        if (caseState != null) {
+            close(caseId, caseState);
+        }
+    }
+
+    /**
+     * Close all the open cases, e.g., at the end of the stream
+     */
+    public void closeAllCases() {
+        for (Iterator<Map.Entry<String, CaseState>> it = openCases.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, CaseState> entry = it.next();
+            it.remove();
+            close(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Move the degrees of truth of a case removed from the open ones to the closed ones, and resolve its pending activations
+     */
+    private void close(String caseId, CaseState caseState) {
+        for (int c = 0; c < runners.length; c++) {
+            openCasesDegreesOfTruthSum[c] -= caseState.degreesOfTruth[c];
+            closedCasesDegreesOfTruthSum[c] += caseState.degreesOfTruth[c];
+        }
+        if (openCases.isEmpty()) {
+            Arrays.fill(openCasesDegreesOfTruthSum, 0.0);
+        }
+        closedCasesNumber++;
+        if (listeners.isEmpty())
+            return;
+        for (int c = 0; c < runners.length; c++) {
+            runners[c].loadState(caseState.runnersStates[c]);
+            for (boolean result : runners[c].getPendingActivationResults()) {
+                notifyListeners(new MonitorUpdate(result ? UpdateType.fulfilment : UpdateType.violation,
+                        caseId, constraints[c], constraintsNames[c], caseState.lastTimestamp, true, getSupport(c), getConfidence(c)));
+            }
+        }
+    }
+
+    private void evictIdleCases(long timestamp) {
+        if (maxIdleTime <= 0)
+            return;
+        Iterator<Map.Entry<String, CaseState>> it = openCases.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, CaseState> eldest = it.next();
+            if (timestamp - eldest.getValue().lastTimestamp <= maxIdleTime)
+                break;
+            it.remove();
+            logger.debug("Case " + eldest.getKey() + " idle since " + eldest.getValue().lastTimestamp + ": closed");
+            close(eldest.getKey(), eldest.getValue());
+            evictedCasesNumber++;
+        }
+    }
+
+    private void evictExceedingCases() {
+        Iterator<Map.Entry<String, CaseState>> it = openCases.entrySet().iterator();
+        while (openCases.size() > maxOpenCases) {
+            Map.Entry<String, CaseState> eldest = it.next();
+            it.remove();
+            logger.debug("Case " + eldest.getKey() + " evicted to respect the maximum number of open cases: closed");
+            close(eldest.getKey(), eldest.getValue());
+            evictedCasesNumber++;
+        }
+    }
+
+    private void notifyListeners(MonitorUpdate update) {
+        for (MonitorListener listener : listeners) {
+            listener.onUpdate(update);
+        }
+    }
+
+    /**
+     * @param constraintIndex index of the constraint in {@link #getConstraints()}
+     * @return the sum of the degrees of truth of the constraint in all the cases, divided by the number of cases
+     */
+    public double getSupport(int constraintIndex) {
+        return (closedCasesDegreesOfTruthSum[constraintIndex] + openCasesDegreesOfTruthSum[constraintIndex]) / casesNumber;
+    }
+
+    /**
+     * @param constraintIndex index of the constraint in {@link #getConstraints()}
+     * @return the sum of the degrees of truth of the constraint in all the cases, divided by the number of cases activating it
+     */
+    public double getConfidence(int constraintIndex) {
+        return (closedCasesDegreesOfTruthSum[constraintIndex] + openCasesDegreesOfTruthSum[constraintIndex]) / activatedCases[constraintIndex];
+    }
+
+    /**
+     * Set the current support and confidence (and interest factor, as {@link minerful.reactive.miner.ReactiveMinerQueryingCore#runLog} does)
+     * to the constraints of the model
+     */
+    public void updateConstraintsMeasures() {
+        for (int c = 0; c < constraints.length; c++) {
+            constraints[c].setSupport(getSupport(c));
+            constraints[c].setConfidence(getConfidence(c));
+            constraints[c].setInterestFactor(getConfidence(c));
+        }
+    }
+
+    /**
+     * @return the monitored constraints, in the order of the measures getters
+     */
+    public Constraint[] getConstraints() {
+        return constraints;
+    }
+
+    public int getOpenCasesNumber() {
+        return openCases.size();
+    }
+
+    public long getCasesNumber() {
+        return casesNumber;
+    }
+
+    public long getClosedCasesNumber() {
+        return closedCasesNumber;
+    }
+
+    public long getEvictedCasesNumber() {
+        return evictedCasesNumber;
+    }
+
+    public long getEventsNumber() {
+        return eventsNumber;
+    }
+}
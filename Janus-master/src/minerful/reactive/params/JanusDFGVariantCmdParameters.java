@@ -19,6 +19,10 @@ public class JanusDFGVariantCmdParameters extends ParamsManager {
 //    public static final Integer DEFAULT_BEST_N_RESULTS_VALUE = 10;  // number of rules in the TOP result list. default= 10
     public static final String N_PERMUTATIONS_PARAM_NAME = "permutations";
     public static final Integer DEFAULT_N_PERMUTATIONS = 1000;  // default number of permutations
+    public static final String PERMUTATIONS_SEED_PARAM_NAME = "permSeed";
+    public static final String PERMUTATION_PARALLEL_THREADS_PARAM_NAME = "paraP";
+    public static final Integer MINIMUM_PARALLEL_EXECUTION_THREADS = 1;
+    public static final Integer DEFAULT_PERMUTATION_PARALLEL_THREADS = Runtime.getRuntime().availableProcessors();
     public static final String OUTPUT_FILE_CSV_PARAM_NAME = "oCSV";
     public static final String OUTPUT_FILE_JSON_PARAM_NAME = "oJSON";
     public static final String OUTPUT_KEEP_FLAG_NAME = "oKeep";
@@ -98,6 +102,14 @@ public class JanusDFGVariantCmdParameters extends ParamsManager {
      * number of permutations to perform, default: 1000
      */
     public int nPermutations;
+    /**
+     * seed of the random permutations, default: a new seed at every run
+     */
+    public Long permutationsSeed;
+    /**
+     * number of parallel threads performing the permutations, default: the number of available processors
+     */
+    public Integer permutationParallelProcessingThreads;
     /**
      * output file in CSV format
      */
@@ -128,6 +140,8 @@ public class JanusDFGVariantCmdParameters extends ParamsManager {
         this.inputLogFile2 = null;
         this.pValue = DEFAULT_P_VALUE;
         this.nPermutations = DEFAULT_N_PERMUTATIONS;
+        this.permutationsSeed = null;
+        this.permutationParallelProcessingThreads = DEFAULT_PERMUTATION_PARALLEL_THREADS;
         this.outputCvsFile = null;
         this.outputJsonFile = null;
         this.oKeep = false;
@@ -193,6 +207,19 @@ public class JanusDFGVariantCmdParameters extends ParamsManager {
                         Integer.toString(this.nPermutations)
                 )
         );
+        if (line.hasOption(PERMUTATIONS_SEED_PARAM_NAME)) {
+            this.permutationsSeed = Long.parseLong(line.getOptionValue(PERMUTATIONS_SEED_PARAM_NAME));
+        }
+        this.permutationParallelProcessingThreads = Integer.valueOf(line.getOptionValue(
+                PERMUTATION_PARALLEL_THREADS_PARAM_NAME,
+                this.permutationParallelProcessingThreads.toString()
+                )
+        );
+        if (this.permutationParallelProcessingThreads < MINIMUM_PARALLEL_EXECUTION_THREADS) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + PERMUTATION_PARALLEL_THREADS_PARAM_NAME + " option" +
+                            " (must be equal to or greater than " + (MINIMUM_PARALLEL_EXECUTION_THREADS) + ")");
+        }
         this.outputCvsFile = openOutputFile(line, OUTPUT_FILE_CSV_PARAM_NAME);
         this.outputJsonFile = openOutputFile(line, OUTPUT_FILE_JSON_PARAM_NAME);
         this.oKeep = line.hasOption(OUTPUT_KEEP_FLAG_NAME);
@@ -294,6 +321,24 @@ public class JanusDFGVariantCmdParameters extends ParamsManager {
                         .type(Double.class)
                         .build()
         );
+        options.addOption(
+                Option.builder(PERMUTATIONS_SEED_PARAM_NAME)
+                        .hasArg().argName("number")
+                        .longOpt("permutations-seed")
+                        .desc("seed of the random permutations, to get reproducible results with the same number of threads. default: a new seed at every run")
+                        .type(Long.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(PERMUTATION_PARALLEL_THREADS_PARAM_NAME)
+                        .hasArg().argName("number")
+                        .longOpt("permutations-ll-threads")
+                        .desc("threads for the parallel execution of the permutations (must be greater than or equal to "
+                                + (MINIMUM_PARALLEL_EXECUTION_THREADS)
+                                + "). default: the number of available processors")
+                        .type(Integer.class)
+                        .build()
+        );
         options.addOption(
                 Option.builder(OUTPUT_FILE_CSV_PARAM_NAME)
                         .hasArg().argName("path")
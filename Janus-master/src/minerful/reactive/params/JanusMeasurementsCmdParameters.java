@@ -12,6 +12,9 @@ public class JanusMeasurementsCmdParameters extends ParamsManager {
     public static final String NaN_TRACE_SUBSTITUTE_VALUE_PARAM_NAME = "nanTraceValue";
     public static final String NaN_LOG_SKIP_FLAG_PARAM_NAME = "nanLogSkip";
     public static final String LITE_FLAG_PARAM_NAME = "lite";
+    public static final String VARIANTS_FLAG_PARAM_NAME = "variants";
+    public static final String EVALUATION_PARALLEL_THREADS_PARAM_NAME = "paraE";
+    public static final Integer MINIMUM_PARALLEL_EXECUTION_THREADS = 1;
 
     public static final String MEASURE_NAME = "measure";  // measure to use for the measurements, default: "all"
     public static final String DEFAULT_MEASURE = "all";
@@ -65,6 +68,14 @@ public class JanusMeasurementsCmdParameters extends ParamsManager {
      * decide if to use the MEgaMatrixMonster (details for singles events) or the MegaMatrixLite (space reduction, only traces results)
      */
     public boolean liteFlag;
+    /**
+     * decide if to evaluate each distinct trace (variant) only once and weight the results by its multiplicity in the log
+     */
+    public boolean variantsFlag;
+    /**
+     * Number of parallel threads to use while evaluating the traces (must be greater than or equal to {@link #MINIMUM_PARALLEL_EXECUTION_THREADS MINIMUM_PARALLEL_EXECUTION_THREADS}, the default)
+     */
+    public Integer evaluationParallelProcessingThreads;
     /**
      * parameter to set to output only the traces result, the aggregated measures, or both. default= both
      **/
@@ -80,12 +91,15 @@ public class JanusMeasurementsCmdParameters extends ParamsManager {
         this.nanTraceSubstituteValue = 0;
         this.nanLogSkipFlag = false;
         this.liteFlag = false;
+        this.variantsFlag = false;
+        this.evaluationParallelProcessingThreads = MINIMUM_PARALLEL_EXECUTION_THREADS;
         this.detailsLevel = DEFAULT_DETAILS_LEVEL;
         this.measure = DEFAULT_MEASURE;
     }
 
     public JanusMeasurementsCmdParameters(boolean nanTraceSubstituteFlag, double nanTraceSubstituteValue, boolean nanLogSkipFlag) {
         super();
+        this.evaluationParallelProcessingThreads = MINIMUM_PARALLEL_EXECUTION_THREADS;
         this.nanTraceSubstituteFlag = nanTraceSubstituteFlag;
         this.nanTraceSubstituteValue = nanTraceSubstituteValue;
         this.nanLogSkipFlag = nanLogSkipFlag;
@@ -93,6 +107,7 @@ public class JanusMeasurementsCmdParameters extends ParamsManager {
 
     public JanusMeasurementsCmdParameters(boolean nanTraceSubstituteFlag, double nanTraceSubstituteValue, boolean nanLogSkipFlag, boolean liteFlag) {
         super();
+        this.evaluationParallelProcessingThreads = MINIMUM_PARALLEL_EXECUTION_THREADS;
         this.nanTraceSubstituteFlag = nanTraceSubstituteFlag;
         this.nanTraceSubstituteValue = nanTraceSubstituteValue;
         this.nanLogSkipFlag = nanLogSkipFlag;
@@ -101,6 +116,7 @@ public class JanusMeasurementsCmdParameters extends ParamsManager {
 
     public JanusMeasurementsCmdParameters(DetailLevel detailsLevel) {
         super();
+        this.evaluationParallelProcessingThreads = MINIMUM_PARALLEL_EXECUTION_THREADS;
         this.detailsLevel = detailsLevel;
     }
 
@@ -148,6 +164,18 @@ public class JanusMeasurementsCmdParameters extends ParamsManager {
         this.liteFlag = liteFlag;
     }
 
+    public boolean isVariantsFlag() {
+        return variantsFlag;
+    }
+
+    public void setVariantsFlag(boolean variantsFlag) {
+        this.variantsFlag = variantsFlag;
+    }
+
+    public boolean isParallelEvaluationRequired() {
+        return this.evaluationParallelProcessingThreads > MINIMUM_PARALLEL_EXECUTION_THREADS;
+    }
+
     public static String getDefaultMeasure() {
         return DEFAULT_MEASURE;
     }
@@ -162,6 +190,17 @@ public class JanusMeasurementsCmdParameters extends ParamsManager {
         );
         this.nanLogSkipFlag = line.hasOption(NaN_LOG_SKIP_FLAG_PARAM_NAME);
         this.liteFlag = line.hasOption(LITE_FLAG_PARAM_NAME);
+        this.variantsFlag = line.hasOption(VARIANTS_FLAG_PARAM_NAME);
+        this.evaluationParallelProcessingThreads = Integer.valueOf(line.getOptionValue(
+                EVALUATION_PARALLEL_THREADS_PARAM_NAME,
+                evaluationParallelProcessingThreads.toString()
+                )
+        );
+        if (this.evaluationParallelProcessingThreads < MINIMUM_PARALLEL_EXECUTION_THREADS) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + EVALUATION_PARALLEL_THREADS_PARAM_NAME + " option" +
+                            " (must be equal to or greater than " + (MINIMUM_PARALLEL_EXECUTION_THREADS) + ")");
+        }
         this.detailsLevel = DetailLevel.valueOf(
                 line.getOptionValue(
                         DETAILS_LEVEL_PARAM_NAME,
@@ -216,6 +255,23 @@ public class JanusMeasurementsCmdParameters extends ParamsManager {
                         .desc("Flag to use the space saving data structure")
                         .build()
         );
+        options.addOption(
+                Option.builder(VARIANTS_FLAG_PARAM_NAME)
+                        .longOpt("variants-flag")
+                        .desc("Flag to evaluate each distinct trace only once and weight the measures by the number of its occurrences in the log")
+                        .build()
+        );
+        options.addOption(
+                Option.builder(EVALUATION_PARALLEL_THREADS_PARAM_NAME)
+                        .hasArg().argName("number")
+                        .longOpt("eval-ll-threads")
+                        .desc("threads for the parallel evaluation of the traces (must be greater than or equal to "
+                                + (MINIMUM_PARALLEL_EXECUTION_THREADS)
+                                + ")"
+                                + printDefault(MINIMUM_PARALLEL_EXECUTION_THREADS))
+                        .type(String.class)
+                        .build()
+        );
         options.addOption(
                 Option.builder(DETAILS_LEVEL_PARAM_NAME)
                         .hasArg().argName("name")
@@ -0,0 +1,189 @@
+package minerful.reactive.params;
+
+import minerful.params.ParamsManager;
+import minerful.reactive.monitor.MonitorUpdate.UpdateType;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import java.io.File;
+import java.util.EnumSet;
+
+public class JanusMonitorCmdParameters extends ParamsManager {
+    public static final String INPUT_STREAM_PARAM_NAME = "iStream";
+    public static final String FOLLOW_FLAG_PARAM_NAME = "follow";
+    public static final String STREAM_SEPARATOR_PARAM_NAME = "streamSep";
+    public static final String CASE_END_ACTIVITY_PARAM_NAME = "caseEnd";
+    public static final String MAX_OPEN_CASES_PARAM_NAME = "maxCases";
+    public static final String MAX_IDLE_TIME_PARAM_NAME = "maxIdle";
+    public static final String UPDATE_TYPES_PARAM_NAME = "updates";
+    public static final String OUTPUT_UPDATES_PARAM_NAME = "oUpdates";
+
+    public static final String DEFAULT_STREAM_SEPARATOR = ";";
+    public static final Integer DEFAULT_MAX_OPEN_CASES = 100000;
+    public static final Long DEFAULT_MAX_IDLE_TIME = 0L;
+
+    /**
+     * File containing the events stream, one event per line. If null, the events are read from the standard input
+     */
+    public File inputStreamFile;
+    /**
+     * Keep waiting for new events appended to the input file once its end is reached
+     */
+    public boolean follow;
+    /**
+     * Separator of the fields of the events lines
+     */
+    public String streamSeparator;
+    /**
+     * Name of the activity marking the end of a case, or null
+     */
+    public String caseEndActivity;
+    /**
+     * Maximum number of cases kept in memory. The least recently updated cases are closed first
+     */
+    public Integer maxOpenCases;
+    /**
+     * Maximum time in milliseconds between two events of a case, after which it is closed. If not positive, cases are never closed for being idle
+     */
+    public Long maxIdleTime;
+    /**
+     * Types of the updates to print
+     */
+    public EnumSet<UpdateType> updateTypes;
+    /**
+     * File in which the updates are written as CSV. If null, they are printed on the standard output
+     */
+    public File outputUpdatesFile;
+
+    public JanusMonitorCmdParameters() {
+        super();
+        this.inputStreamFile = null;
+        this.follow = false;
+        this.streamSeparator = DEFAULT_STREAM_SEPARATOR;
+        this.caseEndActivity = null;
+        this.maxOpenCases = DEFAULT_MAX_OPEN_CASES;
+        this.maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+        this.updateTypes = EnumSet.allOf(UpdateType.class);
+        this.outputUpdatesFile = null;
+    }
+
+    public JanusMonitorCmdParameters(Options options, String[] args) {
+        this();
+        // parse the command line arguments
+        this.parseAndSetup(options, args);
+    }
+
+    public JanusMonitorCmdParameters(String[] args) {
+        this();
+        // parse the command line arguments
+        this.parseAndSetup(new Options(), args);
+    }
+
+    @Override
+    protected void setup(CommandLine line) {
+        this.inputStreamFile = openInputFile(line, INPUT_STREAM_PARAM_NAME);
+        this.follow = line.hasOption(FOLLOW_FLAG_PARAM_NAME);
+        this.streamSeparator = line.getOptionValue(STREAM_SEPARATOR_PARAM_NAME, this.streamSeparator);
+        this.caseEndActivity = line.getOptionValue(CASE_END_ACTIVITY_PARAM_NAME, this.caseEndActivity);
+        this.maxOpenCases = Integer.valueOf(line.getOptionValue(MAX_OPEN_CASES_PARAM_NAME, this.maxOpenCases.toString()));
+        this.maxIdleTime = Long.valueOf(line.getOptionValue(MAX_IDLE_TIME_PARAM_NAME, this.maxIdleTime.toString()));
+        if (line.hasOption(UPDATE_TYPES_PARAM_NAME)) {
+            this.updateTypes = EnumSet.noneOf(UpdateType.class);
+            for (String token : tokenise(line.getOptionValue(UPDATE_TYPES_PARAM_NAME))) {
+                this.updateTypes.add(UpdateType.valueOf(token.trim()));
+            }
+        }
+        this.outputUpdatesFile = openOutputFile(line, OUTPUT_UPDATES_PARAM_NAME);
+
+        if (this.maxOpenCases < 1) {
+            throw new IllegalArgumentException("Invalid value for " + MAX_OPEN_CASES_PARAM_NAME + " option (must be greater than 0)");
+        }
+        if (this.follow && this.inputStreamFile == null) {
+            throw new IllegalArgumentException("The " + FOLLOW_FLAG_PARAM_NAME + " option requires an input file (" + INPUT_STREAM_PARAM_NAME + " option)");
+        }
+    }
+
+    @Override
+    public Options addParseableOptions(Options options) {
+        Options myOptions = listParseableOptions();
+        for (Object myOpt : myOptions.getOptions())
+            options.addOption((Option) myOpt);
+        return options;
+    }
+
+    @Override
+    public Options listParseableOptions() {
+        return parseableOptions();
+    }
+
+    @SuppressWarnings("static-access")
+    public static Options parseableOptions() {
+        Options options = new Options();
+        options.addOption(
+                Option.builder(INPUT_STREAM_PARAM_NAME)
+                        .hasArg().argName("path")
+                        .longOpt("input-stream-file")
+                        .desc("path of the file of the events, one per line as \"case" + DEFAULT_STREAM_SEPARATOR + "activity" + DEFAULT_STREAM_SEPARATOR
+                                + "timestamp\" (timestamp in milliseconds since the epoch or ISO-8601). If not given, the events are read from the standard input")
+                        .type(String.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(FOLLOW_FLAG_PARAM_NAME)
+                        .longOpt("follow-stream")
+                        .desc("keep waiting for the events appended to the input file, as \"tail -f\" does")
+                        .build()
+        );
+        options.addOption(
+                Option.builder(STREAM_SEPARATOR_PARAM_NAME)
+                        .hasArg().argName("separator")
+                        .longOpt("stream-separator")
+                        .desc("separator of the fields of the events" + printDefault(DEFAULT_STREAM_SEPARATOR))
+                        .type(String.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(CASE_END_ACTIVITY_PARAM_NAME)
+                        .hasArg().argName("activity")
+                        .longOpt("case-end-activity")
+                        .desc("name of the activity marking the end of a case: its events close the case instead of being checked")
+                        .type(String.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(MAX_OPEN_CASES_PARAM_NAME)
+                        .hasArg().argName("number")
+                        .longOpt("max-open-cases")
+                        .desc("maximum number of cases kept in memory; the least recently updated cases are closed first" + printDefault(DEFAULT_MAX_OPEN_CASES))
+                        .type(Integer.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(MAX_IDLE_TIME_PARAM_NAME)
+                        .hasArg().argName("millis")
+                        .longOpt("max-idle-time")
+                        .desc("time without events after which a case is closed, according to the timestamps of the events; 0 never closes idle cases" + printDefault(DEFAULT_MAX_IDLE_TIME))
+                        .type(Long.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(UPDATE_TYPES_PARAM_NAME)
+                        .hasArg().argName("types")
+                        .longOpt("update-types")
+                        .desc("types of the updates to print, separated by \"" + ARRAY_TOKENISER_SEPARATOR + "\" " + printValues((Object[]) UpdateType.values())
+                                + printDefault("all"))
+                        .type(String.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(OUTPUT_UPDATES_PARAM_NAME)
+                        .hasArg().argName("path")
+                        .longOpt("out-updates-csv")
+                        .desc("path of the CSV file in which the updates are written. If not given, they are printed on the standard output")
+                        .type(String.class)
+                        .build()
+        );
+        return options;
+    }
+}
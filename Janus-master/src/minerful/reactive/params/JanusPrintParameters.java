@@ -10,11 +10,13 @@ public class JanusPrintParameters extends ParamsManager {
     public static final String SUPPRESS_SCREEN_PRINT_OUT_DISCOVERY_STATUS_PARAM_NAME = "suppressDiscoveryStatus";
     public static final String SUPPRESS_SCREEN_PRINT_OUT_MEASURES_STATUS_PARAM_NAME = "suppressMeasuresStatus";
     public static final String SUPPRESS_SCREEN_PRINT_OUT_PERMUTATION_STATUS_PARAM_NAME = "suppressPermutationStatus";
+    public static final String COMPACT_JSON_OUTPUT_PARAM_NAME = "compactJson";
 
     public static final Boolean DEFAULT_DO_SUPPRESS_SCREEN_PRINT_OUT_RESULTS = false;
     public static final Boolean DEFAULT_DO_SUPPRESS_SCREEN_PRINT_OUT_DISCOVERY_STATUS = false;
     public static final Boolean DEFAULT_DO_SUPPRESS_SCREEN_PRINT_OUT_MEASURES_STATUS = false;
     public static final Boolean DEFAULT_DO_SUPPRESS_SCREEN_PRINT_OUT_PERMUTATION_STATUS = false;
+    public static final Boolean DEFAULT_DO_COMPACT_JSON_OUTPUT = false;
 
     /**
      * Set this field to <code>true</code> to avoid the results to be printed on terminal.
@@ -32,6 +34,10 @@ public class JanusPrintParameters extends ParamsManager {
      * Set this field to <code>true</code> to avoid the status bar of permutations to be printed.
      */
     public Boolean suppressPermutationStatusPrint;
+    /**
+     * Set this field to <code>true</code> to write the JSON output files without indentation and new lines.
+     */
+    public Boolean compactJsonOutput;
 
     /**
      *
@@ -42,6 +48,7 @@ public class JanusPrintParameters extends ParamsManager {
         suppressDiscoveryStatusPrint = DEFAULT_DO_SUPPRESS_SCREEN_PRINT_OUT_DISCOVERY_STATUS;
         suppressMeasuresStatusPrint = DEFAULT_DO_SUPPRESS_SCREEN_PRINT_OUT_MEASURES_STATUS;
         suppressPermutationStatusPrint = DEFAULT_DO_SUPPRESS_SCREEN_PRINT_OUT_PERMUTATION_STATUS;
+        compactJsonOutput = DEFAULT_DO_COMPACT_JSON_OUTPUT;
     }
 
 
@@ -63,6 +70,7 @@ public class JanusPrintParameters extends ParamsManager {
         this.suppressDiscoveryStatusPrint = line.hasOption(SUPPRESS_SCREEN_PRINT_OUT_DISCOVERY_STATUS_PARAM_NAME);
         this.suppressMeasuresStatusPrint = line.hasOption(SUPPRESS_SCREEN_PRINT_OUT_MEASURES_STATUS_PARAM_NAME);
         this.suppressPermutationStatusPrint = line.hasOption(SUPPRESS_SCREEN_PRINT_OUT_PERMUTATION_STATUS_PARAM_NAME);
+        this.compactJsonOutput = line.hasOption(COMPACT_JSON_OUTPUT_PARAM_NAME);
     }
 
     @SuppressWarnings("static-access")
@@ -100,6 +108,14 @@ public class JanusPrintParameters extends ParamsManager {
                         .type(Boolean.class)
                         .build()
         );
+        options.addOption(
+                Option.builder(COMPACT_JSON_OUTPUT_PARAM_NAME)
+                        .longOpt("compact-json-output")
+                        .desc("writes the JSON output files without pretty-printing" +
+                                printDefault(DEFAULT_DO_COMPACT_JSON_OUTPUT))
+                        .type(Boolean.class)
+                        .build()
+        );
         return options;
     }
 }
@@ -32,6 +32,11 @@ public class JanusVariantCmdParameters extends ParamsManager {
     public static final String INPUT_LOG_2_ENCODING_PARAM_NAME = "iLE2";  // second log variant to analyse
     public static final String EVENT_CLASSIFICATION_PARAM_NAME = "iLClassif";
     public static final String N_PERMUTATIONS_PARAM_NAME = "permutations";
+    public static final String PERMUTATIONS_SEED_PARAM_NAME = "permSeed";
+    public static final String PERMUTATION_PARALLEL_THREADS_PARAM_NAME = "paraP";
+    public static final String VARIANTS_PERMUTATION_FLAG = "permVariants";  // flag to permute the multiplicities of the variants instead of the traces
+    public static final Integer MINIMUM_PARALLEL_EXECUTION_THREADS = 1;
+    public static final Integer DEFAULT_PERMUTATION_PARALLEL_THREADS = Runtime.getRuntime().availableProcessors();
     public static final String OUTPUT_FILE_CSV_PARAM_NAME = "oCSV";
     public static final String OUTPUT_FILE_JSON_PARAM_NAME = "oJSON";
     public static final String OUTPUT_KEEP_FLAG_NAME = "oKeep";
@@ -137,6 +142,18 @@ public class JanusVariantCmdParameters extends ParamsManager {
      * number of permutations to perform, default: 1000
      */
     public int nPermutations;
+    /**
+     * seed of the random permutations, for reproducible results. default: null (a new seed is drawn at every run)
+     */
+    public Long permutationsSeed;
+    /**
+     * number of parallel threads performing the permutations, default: the number of available processors
+     */
+    public Integer permutationParallelProcessingThreads;
+    /**
+     * Flag if the permutation test should work at the level of variants, drawing how many traces of each distinct variant fall in each log, rather than permuting the single traces. Default=false
+     */
+    public boolean variantsPermutation;
     /**
      * output file in CSV format
      */
@@ -197,6 +214,9 @@ public class JanusVariantCmdParameters extends ParamsManager {
         this.measure = DEFAULT_MEASURE;
         this.measureThreshold = DEFAULT_MEASURE_THRESHOLD;
         this.nPermutations = 1000;
+        this.permutationsSeed = null;
+        this.permutationParallelProcessingThreads = DEFAULT_PERMUTATION_PARALLEL_THREADS;
+        this.variantsPermutation = false;
         this.outputCvsFile = null;
         this.outputJsonFile = null;
         this.oKeep = false;
@@ -297,6 +317,20 @@ public class JanusVariantCmdParameters extends ParamsManager {
                         Integer.toString(this.nPermutations)
                 )
         );
+        if (line.hasOption(PERMUTATIONS_SEED_PARAM_NAME)) {
+            this.permutationsSeed = Long.parseLong(line.getOptionValue(PERMUTATIONS_SEED_PARAM_NAME));
+        }
+        this.permutationParallelProcessingThreads = Integer.valueOf(line.getOptionValue(
+                PERMUTATION_PARALLEL_THREADS_PARAM_NAME,
+                this.permutationParallelProcessingThreads.toString()
+                )
+        );
+        if (this.permutationParallelProcessingThreads < MINIMUM_PARALLEL_EXECUTION_THREADS) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + PERMUTATION_PARALLEL_THREADS_PARAM_NAME + " option" +
+                            " (must be equal to or greater than " + (MINIMUM_PARALLEL_EXECUTION_THREADS) + ")");
+        }
+        this.variantsPermutation = line.hasOption(VARIANTS_PERMUTATION_FLAG);
         this.outputCvsFile = openOutputFile(line, OUTPUT_FILE_CSV_PARAM_NAME);
         this.outputJsonFile = openOutputFile(line, OUTPUT_FILE_JSON_PARAM_NAME);
         this.oKeep = line.hasOption(OUTPUT_KEEP_FLAG_NAME);
@@ -462,6 +496,31 @@ public class JanusVariantCmdParameters extends ParamsManager {
                         .type(Double.class)
                         .build()
         );
+        options.addOption(
+                Option.builder(PERMUTATIONS_SEED_PARAM_NAME)
+                        .hasArg().argName("number")
+                        .longOpt("permutations-seed")
+                        .desc("seed of the random permutations, to get reproducible results with the same number of threads. default: a new seed at every run")
+                        .type(Long.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(PERMUTATION_PARALLEL_THREADS_PARAM_NAME)
+                        .hasArg().argName("number")
+                        .longOpt("permutations-ll-threads")
+                        .desc("threads for the parallel execution of the permutations (must be greater than or equal to "
+                                + (MINIMUM_PARALLEL_EXECUTION_THREADS)
+                                + "). default: the number of available processors")
+                        .type(Integer.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(VARIANTS_PERMUTATION_FLAG)
+                        .longOpt("permute-variants")
+                        .desc("permute the multiplicities of the distinct variants of the logs instead of the single traces (faster on logs with few variants). Default: false")
+                        .type(Boolean.class)
+                        .build()
+        );
         options.addOption(
                 Option.builder(OUTPUT_FILE_CSV_PARAM_NAME)
                         .hasArg().argName("path")
@@ -0,0 +1,337 @@
+package minerful.reactive.variant;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Worker performing a share of the permutations of the permutation test of {@link ReactiveVariantAnalysisCore}.
+ * <p>
+ * Each worker owns its random stream and its buffers, so that no object is allocated while permuting.
+ * At every permutation, only the smaller partition of the traces is drawn (by a partial Fisher-Yates shuffle of the traces indices)
+ * and summed: the sums of the other partition are derived from the totals over all the traces.
+ * The counters of the permutations in which the difference of a constraint is at least the initial one are shared among the workers,
+ * so that a constraint whose p-value already exceeds the threshold is discarded by every worker.
+ * <p>
+ * In the variant-level mode, the rows of the measures are the distinct variants of the two logs, with their multiplicities.
+ * A permutation draws how many traces of each variant fall in the smaller partition (a multivariate hypergeometric draw),
+ * and the sums are weighted accordingly, so that a permutation costs O(variants * constraints) instead of O(traces * constraints).
+ */
+public class CallablePermutationsTester implements Callable<Integer> {
+    private static final int STATUS_PRINT_STEP = 25;
+
+    private final float[][] lCodedIndex;
+    private final int log1Size;
+    private final int log2Size;
+    private final boolean nanCheck;
+    private final double[] totals;
+    private final int[] totalNaNs;
+    private final double[] initialDifferences;
+    private final AtomicIntegerArray exceedingCounts;
+    private final int nPermutations;
+    private final double discardingPValue;
+    private final int permutationsToPerform;
+    private final SplittableRandom random;
+    private final AtomicInteger performedPermutations;
+    private final boolean printStatus;
+
+    // buffers
+    private final int partitionSize;
+    private final boolean log1IsPartition;
+    private final int[] tracesOrder;
+    private final int[] variantsMultiplicity;
+    private final int[] partitionMultiplicity;
+    private final double[] logFactorials;
+    private final double[] partitionSums;
+    private final int[] partitionNaNs;
+    private final BitSet discarded;
+    private final int[] activeConstraints;
+    private int activeConstraintsNumber;
+
+    private CallablePermutationsTester(float[][] lCodedIndex, int log1Size, int log2Size, boolean nanCheck, int[] tracesOrder, int[] variantsMultiplicity,
+                                       double[] totals, int[] totalNaNs, double[] initialDifferences, AtomicIntegerArray exceedingCounts,
+                                       int nPermutations, double discardingPValue, int permutationsToPerform, SplittableRandom random,
+                                       AtomicInteger performedPermutations, boolean printStatus) {
+        this.lCodedIndex = lCodedIndex;
+        this.log1Size = log1Size;
+        this.log2Size = log2Size;
+        this.nanCheck = nanCheck;
+        this.totals = totals;
+        this.totalNaNs = totalNaNs;
+        this.initialDifferences = initialDifferences;
+        this.exceedingCounts = exceedingCounts;
+        this.nPermutations = nPermutations;
+        this.discardingPValue = discardingPValue;
+        this.permutationsToPerform = permutationsToPerform;
+        this.random = random;
+        this.performedPermutations = performedPermutations;
+        this.printStatus = printStatus;
+
+        this.partitionSize = Math.min(log1Size, log2Size);
+        this.log1IsPartition = log1Size <= log2Size;
+        if (variantsMultiplicity == null) {
+            this.tracesOrder = tracesOrder.clone();
+            this.variantsMultiplicity = null;
+            this.partitionMultiplicity = null;
+            this.logFactorials = null;
+        } else {
+            this.tracesOrder = null;
+            this.variantsMultiplicity = variantsMultiplicity;
+            this.partitionMultiplicity = new int[variantsMultiplicity.length];
+            this.logFactorials = logFactorials(log1Size + log2Size);
+        }
+        this.partitionSums = new double[totals.length];
+        this.partitionNaNs = new int[totals.length];
+        this.discarded = new BitSet(totals.length);
+        this.activeConstraints = new int[totals.length];
+        for (int c = 0; c < totals.length; c++) {
+            this.activeConstraints[c] = c;
+        }
+        this.activeConstraintsNumber = totals.length;
+    }
+
+    /**
+     * Constructor for the trace-level permutations
+     *
+     * @param lCodedIndex           measures of the constraints (columns) in the traces (rows), the ones of the first log first
+     * @param log1Size              number of traces of the first log
+     * @param log2Size              number of traces of the second log
+     * @param nanCheck              skip the NaN measures in the averages
+     * @param tracesOrder           initial order of the traces indices, copied
+     * @param totals                sum of the measures of each constraint over all the traces (see {@link #sumPartition})
+     * @param totalNaNs             number of NaN measures of each constraint over all the traces
+     * @param initialDifferences    difference of the measures of each constraint between the two original logs
+     * @param exceedingCounts       shared counters of the permutations in which the difference of each constraint reaches the initial one
+     * @param nPermutations         total number of permutations of the test
+     * @param discardingPValue      p-value above which a constraint is discarded, or a negative value to keep all the constraints
+     * @param permutationsToPerform permutations to perform by this worker
+     * @param random                random stream of this worker
+     * @param performedPermutations shared counter of the performed permutations
+     * @param printStatus           print the status counter
+     */
+    public CallablePermutationsTester(float[][] lCodedIndex, int log1Size, int log2Size, boolean nanCheck, int[] tracesOrder,
+                                      double[] totals, int[] totalNaNs, double[] initialDifferences, AtomicIntegerArray exceedingCounts,
+                                      int nPermutations, double discardingPValue, int permutationsToPerform, SplittableRandom random,
+                                      AtomicInteger performedPermutations, boolean printStatus) {
+        this(lCodedIndex, log1Size, log2Size, nanCheck, tracesOrder, null, totals, totalNaNs, initialDifferences, exceedingCounts,
+                nPermutations, discardingPValue, permutationsToPerform, random, performedPermutations, printStatus);
+    }
+
+    /**
+     * Constructor for the variant-level permutations
+     *
+     * @param lVariantsCodedIndex   measures of the constraints (columns) in the distinct variants (rows)
+     * @param variantsMultiplicity  number of traces of each variant in the two logs together
+     * @param totals                sum of the measures of each constraint over all the traces (see {@link #sumWeightedPartition})
+     * @see #CallablePermutationsTester(float[][], int, int, boolean, int[], double[], int[], double[], AtomicIntegerArray, int, double, int, SplittableRandom, AtomicInteger, boolean)
+     */
+    public CallablePermutationsTester(float[][] lVariantsCodedIndex, int[] variantsMultiplicity, int log1Size, int log2Size, boolean nanCheck,
+                                      double[] totals, int[] totalNaNs, double[] initialDifferences, AtomicIntegerArray exceedingCounts,
+                                      int nPermutations, double discardingPValue, int permutationsToPerform, SplittableRandom random,
+                                      AtomicInteger performedPermutations, boolean printStatus) {
+        this(lVariantsCodedIndex, log1Size, log2Size, nanCheck, null, variantsMultiplicity, totals, totalNaNs, initialDifferences, exceedingCounts,
+                nPermutations, discardingPValue, permutationsToPerform, random, performedPermutations, printStatus);
+    }
+
+    /**
+     * @return the number of permutations performed by this worker
+     */
+    @Override
+    public Integer call() throws Exception {
+        for (int i = 0; i < permutationsToPerform; i++) {
+            if (variantsMultiplicity == null) {
+                shufflePartition();
+                sumPartition(lCodedIndex, tracesOrder, 0, partitionSize, activeConstraints, activeConstraintsNumber, nanCheck, partitionSums, partitionNaNs);
+            } else {
+                drawPartitionMultiplicity();
+                sumWeightedPartition(lCodedIndex, partitionMultiplicity, activeConstraints, activeConstraintsNumber, nanCheck, partitionSums, partitionNaNs);
+            }
+            evaluatePermutation();
+
+            int performed = performedPermutations.incrementAndGet();
+            if (printStatus && performed % STATUS_PRINT_STEP == 0)
+                System.out.print("\rPermutation: " + performed + "/" + nPermutations);  // Status counter "current permutation/total permutations"
+        }
+        return permutationsToPerform;
+    }
+
+    /**
+     * Draws the traces of the smaller partition in the first positions of the traces order
+     */
+    private void shufflePartition() {
+        int tracesNumber = tracesOrder.length;
+        for (int i = 0; i < partitionSize; i++) {
+            int j = i + random.nextInt(tracesNumber - i);
+            int swap = tracesOrder[i];
+            tracesOrder[i] = tracesOrder[j];
+            tracesOrder[j] = swap;
+        }
+    }
+
+    /**
+     * Draws how many traces of each variant fall in the smaller partition, by conditional hypergeometric draws
+     */
+    private void drawPartitionMultiplicity() {
+        int remainingTraces = log1Size + log2Size;
+        int remainingDraws = partitionSize;
+        int lastVariant = variantsMultiplicity.length - 1;
+        for (int v = 0; v <= lastVariant; v++) {
+            if (remainingDraws == 0) {
+                partitionMultiplicity[v] = 0;
+            } else if (v == lastVariant) {
+                partitionMultiplicity[v] = remainingDraws;
+            } else {
+                partitionMultiplicity[v] = drawHypergeometric(remainingTraces, variantsMultiplicity[v], remainingDraws);
+            }
+            remainingTraces -= variantsMultiplicity[v];
+            remainingDraws -= partitionMultiplicity[v];
+        }
+    }
+
+    /**
+     * Draws the number of successes in <code>draws</code> draws without replacement from a population with <code>successes</code> successes.
+     * The cumulative distribution is inverted starting from the mode, alternately moving downwards and upwards,
+     * so that the expected number of steps is in the order of the standard deviation.
+     */
+    private int drawHypergeometric(int population, int successes, int draws) {
+        int failures = population - successes;
+        int low = Math.max(0, draws - failures);
+        int high = Math.min(draws, successes);
+        if (low == high)
+            return low;
+        int mode = (int) (((long) draws + 1) * ((long) successes + 1) / ((long) population + 2));
+        mode = Math.max(low, Math.min(high, mode));
+        double modeProbability = Math.exp(
+                logFactorials[successes] - logFactorials[mode] - logFactorials[successes - mode]
+                        + logFactorials[failures] - logFactorials[draws - mode] - logFactorials[failures - draws + mode]
+                        - logFactorials[population] + logFactorials[draws] + logFactorials[population - draws]);
+
+        double u = random.nextDouble() - modeProbability;
+        int down = mode, up = mode;
+        double downProbability = modeProbability, upProbability = modeProbability;
+        while (u > 0 && (down > low || up < high)) {
+            if (up < high) {
+                upProbability *= ((double) (successes - up) * (draws - up)) / ((double) (up + 1) * (failures - draws + up + 1));
+                up++;
+                u -= upProbability;
+                if (u <= 0)
+                    return up;
+            }
+            if (down > low) {
+                downProbability *= ((double) down * (failures - draws + down)) / ((double) (successes - down + 1) * (draws - down + 1));
+                down--;
+                u -= downProbability;
+                if (u <= 0)
+                    return down;
+            }
+        }
+        return mode;
+    }
+
+    private static double[] logFactorials(int n) {
+        double[] logFactorials = new double[n + 1];
+        for (int i = 2; i <= n; i++) {
+            logFactorials[i] = logFactorials[i - 1] + Math.log(i);
+        }
+        return logFactorials;
+    }
+
+    private void evaluatePermutation() {
+        boolean newlyDiscarded = false;
+        for (int a = 0; a < activeConstraintsNumber; a++) {
+            int c = activeConstraints[a];
+            if (discardingPValue >= 0 && (double) exceedingCounts.get(c) / nPermutations > discardingPValue) {
+                // discarded by another worker in the meanwhile
+                discarded.set(c);
+                newlyDiscarded = true;
+                continue;
+            }
+            double difference = log1IsPartition ?
+                    difference(partitionSums[c], partitionNaNs[c], totals[c], totalNaNs[c], log1Size, log2Size) :
+                    difference(totals[c] - partitionSums[c], totalNaNs[c] - partitionNaNs[c], totals[c], totalNaNs[c], log1Size, log2Size);
+            if (difference >= initialDifferences[c]) {
+                int exceeding = exceedingCounts.incrementAndGet(c);
+                //if the constraints present a pValues greater than the threshold before the end of the permutations, we can discard it immediately
+                if (discardingPValue >= 0 && (double) exceeding / nPermutations > discardingPValue) {
+                    discarded.set(c);
+                    newlyDiscarded = true;
+                }
+            }
+        }
+        if (newlyDiscarded) {
+            int kept = 0;
+            for (int a = 0; a < activeConstraintsNumber; a++) {
+                if (!discarded.get(activeConstraints[a]))
+                    activeConstraints[kept++] = activeConstraints[a];
+            }
+            activeConstraintsNumber = kept;
+        }
+    }
+
+    /**
+     * Sums the measures of the given constraints over the traces in the given range of the traces order.
+     *
+     * @param sums output, sum of the (non-NaN, if nanCheck) measures of each constraint
+     * @param naNs output, number of NaN measures of each constraint (if nanCheck)
+     */
+    static void sumPartition(float[][] lCodedIndex, int[] tracesOrder, int from, int to, int[] constraints, int constraintsNumber,
+                             boolean nanCheck, double[] sums, int[] naNs) {
+        for (int a = 0; a < constraintsNumber; a++) {
+            sums[constraints[a]] = 0.0;
+            naNs[constraints[a]] = 0;
+        }
+        for (int t = from; t < to; t++) {
+            float[] traceMeasures = lCodedIndex[tracesOrder[t]];
+            for (int a = 0; a < constraintsNumber; a++) {
+                int c = constraints[a];
+                float measure = traceMeasures[c];
+                if (nanCheck && Float.isNaN(measure)) {
+                    naNs[c]++;
+                } else {
+                    sums[c] += measure;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sums the measures of the given constraints over the variants, each weighted by the given number of traces.
+     *
+     * @param sums output, sum of the (non-NaN, if nanCheck) measures of each constraint
+     * @param naNs output, number of traces with NaN measures of each constraint (if nanCheck)
+     */
+    static void sumWeightedPartition(float[][] lVariantsCodedIndex, int[] multiplicity, int[] constraints, int constraintsNumber,
+                                     boolean nanCheck, double[] sums, int[] naNs) {
+        for (int a = 0; a < constraintsNumber; a++) {
+            sums[constraints[a]] = 0.0;
+            naNs[constraints[a]] = 0;
+        }
+        for (int v = 0; v < multiplicity.length; v++) {
+            int weight = multiplicity[v];
+            if (weight == 0)
+                continue;
+            float[] variantMeasures = lVariantsCodedIndex[v];
+            for (int a = 0; a < constraintsNumber; a++) {
+                int c = constraints[a];
+                float measure = variantMeasures[c];
+                if (nanCheck && Float.isNaN(measure)) {
+                    naNs[c] += weight;
+                } else {
+                    sums[c] += (double) weight * measure;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the absolute difference between the average measure in the first log and the one in the second log,
+     * given the sum of the first and the total
+     */
+    static double difference(double sum1, int naNs1, double total, int totalNaNs, int log1Size, int log2Size) {
+        double average1 = sum1 / (log1Size - naNs1);
+        double average2 = (total - sum1) / (log2Size - (totalNaNs - naNs1));
+        return Math.abs(average1 - average2);
+    }
+}
@@ -0,0 +1,119 @@
+package minerful.reactive.variant;
+
+import minerful.reactive.dfg.ArrayDFG;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker performing a share of the permutations of the DFG permutation test of {@link DFGtimesVariantAnalysisCore}.
+ * <p>
+ * Each worker owns its random stream, its two {@link ArrayDFG} buffers and its counters, so that no object is allocated while permuting.
+ * At every permutation, the traces of the first log are drawn by a partial Fisher-Yates shuffle of the traces indices,
+ * and the two DFGs are rebuilt by adding the precomputed contributions of the traces.
+ * The returned counters, to be summed with the ones of the other workers, are in the same flat layout as the results of {@link ArrayDFG#compare}.
+ */
+public class DFGCallablePermutationsTester implements Callable<int[]> {
+    private static final int STATUS_PRINT_STEP = 25;
+
+    private final ArrayDFG.TraceContribution[] traces;
+    private final int log1Size;
+    private final float[] initialDifferences;
+    private final int nPermutations;
+    private final int permutationsToPerform;
+    private final SplittableRandom random;
+    private final AtomicInteger performedPermutations;
+    private final boolean printStatus;
+
+    // buffers
+    private final int[] tracesOrder;
+    private final ArrayDFG dfg1;
+    private final ArrayDFG dfg2;
+    private final float[] currentDifferences;
+    private final int[] relevantCounter;
+
+    /**
+     * @param traces                transitions of the traces of the two logs, the ones of the first log first
+     * @param log1Size              number of traces of the first log
+     * @param tasksNumber           number of tasks
+     * @param initialDifferences    differences between the DFGs of the two original logs (see {@link ArrayDFG#compare})
+     * @param nPermutations         total number of permutations of the test
+     * @param permutationsToPerform permutations to perform by this worker
+     * @param random                random stream of this worker
+     * @param performedPermutations shared counter of the performed permutations
+     * @param printStatus           print the status counter
+     */
+    public DFGCallablePermutationsTester(ArrayDFG.TraceContribution[] traces, int log1Size, int tasksNumber, float[] initialDifferences,
+                                        int nPermutations, int permutationsToPerform, SplittableRandom random,
+                                        AtomicInteger performedPermutations, boolean printStatus) {
+        this.traces = traces;
+        this.log1Size = log1Size;
+        this.initialDifferences = initialDifferences;
+        this.nPermutations = nPermutations;
+        this.permutationsToPerform = permutationsToPerform;
+        this.random = random;
+        this.performedPermutations = performedPermutations;
+        this.printStatus = printStatus;
+
+        this.tracesOrder = new int[traces.length];
+        for (int t = 0; t < traces.length; t++) {
+            this.tracesOrder[t] = t;
+        }
+        this.dfg1 = new ArrayDFG(tasksNumber);
+        this.dfg2 = new ArrayDFG(tasksNumber);
+        this.currentDifferences = new float[initialDifferences.length];
+        this.relevantCounter = new int[initialDifferences.length];
+    }
+
+    /**
+     * @return the counters of the permutations in which each difference was relevant
+     */
+    @Override
+    public int[] call() throws Exception {
+        for (int i = 0; i < permutationsToPerform; i++) {
+            shuffleLog1();
+            dfg1.clear();
+            dfg2.clear();
+            for (int t = 0; t < log1Size; t++) {
+                dfg1.add(traces[tracesOrder[t]]);
+            }
+            for (int t = log1Size; t < tracesOrder.length; t++) {
+                dfg2.add(traces[tracesOrder[t]]);
+            }
+            ArrayDFG.compare(dfg1, dfg2, currentDifferences);
+            checkDifferencesAgainstReference();
+
+            int performed = performedPermutations.incrementAndGet();
+            if (printStatus && performed % STATUS_PRINT_STEP == 0)
+                System.out.print("\rPermutation: " + performed + "/" + nPermutations);  // Status counter "current permutation/total permutations"
+        }
+        return relevantCounter;
+    }
+
+    /**
+     * Draws the traces of the first log in the first positions of the traces order
+     */
+    private void shuffleLog1() {
+        int tracesNumber = tracesOrder.length;
+        for (int i = 0; i < log1Size; i++) {
+            int j = i + random.nextInt(tracesNumber - i);
+            int swap = tracesOrder[i];
+            tracesOrder[i] = tracesOrder[j];
+            tracesOrder[j] = swap;
+        }
+    }
+
+    /**
+     * Update the counters if the current difference is NaN and the initial one is not (or vice versa),
+     * or if the current difference reaches the initial one
+     */
+    private void checkDifferencesAgainstReference() {
+        for (int k = 0; k < currentDifferences.length; k++) {
+            boolean currentNaN = Float.isNaN(currentDifferences[k]);
+            boolean initialNaN = Float.isNaN(initialDifferences[k]);
+            if (currentNaN != initialNaN || currentDifferences[k] >= initialDifferences[k])
+                relevantCounter[k]++;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package minerful.reactive.variant;
 import minerful.concept.TaskChar;
 import minerful.concept.TaskClass;
 import minerful.logparser.*;
+import minerful.metrics.PipelineMetrics;
+import minerful.reactive.dfg.ArrayDFG;
 import minerful.reactive.dfg.DFG;
 import minerful.reactive.dfg.DFGTransition;
 import minerful.reactive.params.JanusDFGVariantCmdParameters;
@@ -12,6 +14,11 @@ import org.apache.log4j.Logger;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class to organize the variant analysis based on DFG times
@@ -65,37 +72,41 @@ public class DFGtimesVariantAnalysisCore {
         logger.info("Pre-processing time: " + Duration.between(start, Instant.now()));
 
         logger.info("Permutation test with Graphs and XES parser...");
-        start = Instant.now();
+        List<DFGPermutationResult> result;
+        try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("dfgPermutationTest")) {
 
 //        structure to store the initial difference
-        //        matrix NxN where N is the number of tasks
+            //        matrix NxN where N is the number of tasks
 
-        DFGEncodedLog eLog1 = new DFGEncodedLog(logParser1);
-        DFGEncodedLog eLog2 = new DFGEncodedLog(logParser2);
-        DFG dfg1 = DFG.buildDFGFromEncodedLog(eLog1);
-        DFG dfg2 = DFG.buildDFGFromEncodedLog(eLog2);
+            DFGEncodedLog eLog1 = new DFGEncodedLog(logParser1);
+            DFGEncodedLog eLog2 = new DFGEncodedLog(logParser2);
+            DFG dfg1 = DFG.buildDFGFromEncodedLog(eLog1);
+            DFG dfg2 = DFG.buildDFGFromEncodedLog(eLog2);
 
 //        DFG dfg1 = DFG.buildDFGFromXesLogParser(logParser1);
 //        DFG dfg2 = DFG.buildDFGFromXesLogParser(logParser2);
 
-        float[][][] initialDifferences = compareDFGsGraphs(dfg1, dfg2, tasksNumber);
-        logger.info("expected safe number of permutations for Multiple Test adjustment: " + (int) (notZeroDiff(initialDifferences) / janusVariantParams.pValue));
+            float[][][] initialDifferences = compareDFGsGraphs(dfg1, dfg2, tasksNumber);
+            logger.info("expected safe number of permutations for Multiple Test adjustment: " + (int) (notZeroDiff(initialDifferences) / janusVariantParams.pValue));
 //        initialize structure to store the intermediate results for all transitions
-        //        matrix NxNx3 where N is the number of tasks and and 3 is the <AVG,MIN,MAX> of the transition
-        //        the structure counts how many time the difference was greater than the one observed initially
-        int[][][] relevantCounter = new int[tasksNumber][tasksNumber][3];
+            //        matrix NxNx3 where N is the number of tasks and and 3 is the <AVG,MIN,MAX> of the transition
+            //        the structure counts how many time the difference was greater than the one observed initially
+            int[][][] relevantCounter = new int[tasksNumber][tasksNumber][3];
 
 //        Permutation test & significance test
 //        permutationTestGraphBased(initialDifferences, relevantCounter, tasksNumber, logParser1, logParser2);
-        permutationTestGraphBasedEncoded(initialDifferences, relevantCounter, tasksNumber, eLog1, eLog2);
-        List<DFGPermutationResult> result = significanceTestGraph(tasksNumber, initialDifferences, relevantCounter, dfg1, dfg2);
+            permutationTestGraphBasedEncoded(initialDifferences, relevantCounter, tasksNumber, eLog1, eLog2);
+            result = significanceTestGraph(tasksNumber, initialDifferences, relevantCounter, dfg1, dfg2);
 
 //        POST-PROCESSING
-        logger.info("Required permutations for multiple Test adjustment: " + (int) (result.size() / janusVariantParams.pValue) + " [used:" + janusVariantParams.nPermutations + "]");
-        if (janusVariantParams.pValueAdjustmentMethod != JanusDFGVariantCmdParameters.PValueAdjustmentMethod.none)
-            result = pValueAdjustment(result);
-
-        logger.info("Permutation test time: " + Duration.between(start, Instant.now()));
+            logger.info("Required permutations for multiple Test adjustment: " + (int) (result.size() / janusVariantParams.pValue) + " [used:" + janusVariantParams.nPermutations + "]");
+            if (janusVariantParams.pValueAdjustmentMethod != JanusDFGVariantCmdParameters.PValueAdjustmentMethod.none)
+                result = pValueAdjustment(result);
+            PipelineMetrics.getInstance().count(PipelineMetrics.TRACES, logParser1.length() + logParser2.length());
+            PipelineMetrics.getInstance().count(PipelineMetrics.EVENTS, logParser1.numberOfEvents() + logParser2.numberOfEvents());
+            PipelineMetrics.getInstance().count(PipelineMetrics.PERMUTATIONS, janusVariantParams.nPermutations);
+            logger.info("Permutation test time: " + Duration.ofMillis(phase.getElapsedMillis()));
+        }
 
         return result;
     }
@@ -226,6 +237,8 @@ public class DFGtimesVariantAnalysisCore {
 
     /**
      * Perform the permutation test on the given input graph DFGs using an encoded Event Log (around x4 faster than using normal XESParser).
+     * The transitions of every trace are precomputed once as {@link ArrayDFG.TraceContribution}s,
+     * so that each permutation only sums them into the reusable {@link ArrayDFG}s of parallel {@link DFGCallablePermutationsTester}s.
      *
      * @param initialDifferences
      * @param relevantCounter
@@ -235,30 +248,59 @@ public class DFGtimesVariantAnalysisCore {
      */
     private void permutationTestGraphBasedEncoded(float[][][] initialDifferences, int[][][] relevantCounter, int tasksNumber, DFGEncodedLog logParser1, DFGEncodedLog logParser2) {
         int log1len = logParser1.length();
-        int log2len = logParser2.length();
-        int totLen = log1len + log2len;
+        int nPermutations = janusVariantParams.nPermutations;
 
-//        Merge log for shuffling
-        DFGEncodedLog mergedLogParser = logParser1.merge(logParser2);
-
-        DFG newDFG1;
-        DFG newDFG2;
+//        Encode the transitions of the traces of both logs, the ones of the first log first
+        ArrayDFG.TraceContribution[] traces = new ArrayDFG.TraceContribution[log1len + logParser2.length()];
+        int t = 0;
+        for (List<DFGEncodedEvent> trace : logParser1.traces) {
+            traces[t++] = new ArrayDFG.TraceContribution(trace, TaskToIndexMap, tasksNumber);
+        }
+        for (List<DFGEncodedEvent> trace : logParser2.traces) {
+            traces[t++] = new ArrayDFG.TraceContribution(trace, TaskToIndexMap, tasksNumber);
+        }
+        float[] flatInitialDifferences = new float[tasksNumber * tasksNumber * 3];
+        for (int i = 0; i < tasksNumber; i++) {
+            for (int j = 0; j < tasksNumber; j++) {
+                System.arraycopy(initialDifferences[i][j], 0, flatInitialDifferences, (i * tasksNumber + j) * 3, 3);
+            }
+        }
 
-        int step = 25;
-        for (int i = 0; i < janusVariantParams.nPermutations; i++) {
-            if (!janusViewParams.suppressPermutationStatusPrint && i % step == 0)
-                System.out.print("\rPermutation: " + i + "/" + janusVariantParams.nPermutations);  // Status counter "current trace/total trace"
+        long seed = (janusVariantParams.permutationsSeed != null) ? janusVariantParams.permutationsSeed : System.nanoTime();
+        int threads = Math.max(1, Math.min(janusVariantParams.permutationParallelProcessingThreads, nPermutations));
+        logger.info("Permuting with " + threads + " threads (seed: " + seed + ")");
+
+        // every worker has its own random stream, split in order from the seed: the results are reproducible for the same seed and number of threads
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        AtomicInteger performedPermutations = new AtomicInteger(0);
+        boolean printStatus = !janusViewParams.suppressPermutationStatusPrint;
+        List<DFGCallablePermutationsTester> testers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            int permutationsToPerform = nPermutations / threads + (i < nPermutations % threads ? 1 : 0);
+            testers.add(new DFGCallablePermutationsTester(traces, log1len, tasksNumber, flatInitialDifferences,
+                    nPermutations, permutationsToPerform, seedRandom.split(), performedPermutations, printStatus));
+        }
 
-//            Shuffle trace
-            mergedLogParser.shuffleTraces();
-//            generate the two new logs & compute the differences
-            newDFG1 = DFG.buildDFGFromEncodedLog(mergedLogParser.traces.subList(0, log1len));
-            newDFG2 = DFG.buildDFGFromEncodedLog(mergedLogParser.traces.subList(log1len, totLen));
-            float[][][] currentDifferences = compareDFGsGraphs(newDFG1, newDFG2, tasksNumber);
-            checkDifferencesAgainstReferenceGraph(currentDifferences, initialDifferences, relevantCounter);
+//        Merge the counters of the workers
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<int[]> workerCounter : executor.invokeAll(testers)) {
+                int[] counter = workerCounter.get();
+                for (int i = 0; i < tasksNumber; i++) {
+                    for (int j = 0; j < tasksNumber; j++) {
+                        for (int k = 0; k < 3; k++) {
+                            relevantCounter[i][j][k] += counter[(i * tasksNumber + j) * 3 + k];
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Permutation test not performed", e);
+        } finally {
+            executor.shutdown();
         }
-        if (!janusViewParams.suppressPermutationStatusPrint)
-            System.out.println("\rPermutation: " + janusVariantParams.nPermutations + "/" + janusVariantParams.nPermutations);
+        if (printStatus)
+            System.out.println("\rPermutation: " + nPermutations + "/" + nPermutations);
     }
 
 
@@ -3,8 +3,10 @@ package minerful.reactive.variant;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.TreeMultimap;
 import minerful.concept.ProcessModel;
+import minerful.logparser.EncodedLogArena;
 import minerful.logparser.LogParser;
 import minerful.logparser.LogTraceParser;
+import minerful.metrics.PipelineMetrics;
 import minerful.reactive.measurements.MegaMatrixMonster;
 import minerful.reactive.measurements.ReactiveMeasurementsOfflineQueryingCore;
 import minerful.reactive.params.JanusMeasurementsCmdParameters;
@@ -13,6 +15,12 @@ import minerful.reactive.params.JanusPrintParameters;
 import org.apache.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 
 /**
@@ -58,7 +66,9 @@ public class ReactiveVariantAnalysisCore {
 
     private Map<Integer, String> indexToConstraintMap;
     private Map<String, Integer> constraintToIndexMap;
-    private List<Integer> permutableTracesIndexList;
+    private int[] permutableTracesIndex; // row of each trace in the encoded log, the traces of the first log first
+    private int[] variantsMultiplicity1; // variant-level permutations only: number of traces of each variant (row of the encoded log) in the first log
+    private int[] variantsMultiplicity2; // variant-level permutations only: number of traces of each variant (row of the encoded log) in the second log
 
     {
         if (logger == null) {
@@ -90,39 +100,44 @@ public class ReactiveVariantAnalysisCore {
     public Map<String, Float> check() {
         logger.info("Variant Analysis start");
 //        PREPROCESSING
-        double before = System.currentTimeMillis();
-        //        1. Models differences
+        try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("variantPreprocessing")) {
+            //        1. Models differences
 //                NOTE USED FOR NOW
-        //        setModelsDifferences(processSpecification1, processSpecification2);
-        //        2. Models Union (total set of rules to check afterwards)
+            //        setModelsDifferences(processSpecification1, processSpecification2);
+            //        2. Models Union (total set of rules to check afterwards)
 //        setModelsUnion(processSpecification1, processSpecification2);
-        // total set of constraints to analyse, i.e., union of process specification 1 and 2
-        ProcessModel processSpecificationUnion = ProcessModel.union(processSpecification1, processSpecification2);
-        processSpecificationUnionSize = processSpecificationUnion.howManyConstraints();
-        //        3. Encode log (create efficient log structure for the permutations)
-        //        4. Precompute all possible results for the Encoded Log
-        encodeLogsIndex(logParser_1, logParser_2, processSpecificationUnion);
-        double after = System.currentTimeMillis();
-        logger.info("Pre-processing time: " + (after - before));
+            // total set of constraints to analyse, i.e., union of process specification 1 and 2
+            ProcessModel processSpecificationUnion = ProcessModel.union(processSpecification1, processSpecification2);
+            processSpecificationUnionSize = processSpecificationUnion.howManyConstraints();
+            //        3. Encode log (create efficient log structure for the permutations)
+            //        4. Precompute all possible results for the Encoded Log
+            encodeLogsIndex(logParser_1, logParser_2, processSpecificationUnion);
+            PipelineMetrics.getInstance().count(PipelineMetrics.TRACES, logParser_1.length() + logParser_2.length());
+            PipelineMetrics.getInstance().count(PipelineMetrics.EVENTS, logParser_1.numberOfEvents() + logParser_2.numberOfEvents());
+            logger.info("Pre-processing time: " + phase.getElapsedMillis());
+        }
 
 //        PERMUTATION TEST
-        before = System.currentTimeMillis();
-        logger.info("Permutations processing...");
         int nPermutations;
-        if (janusVariantParams.nPermutations <= 0) {
-            nPermutations = (int) (processSpecificationUnionSize / janusVariantParams.pValue);
-            logger.info("Number of required permutations: " + nPermutations);
+        Map<String, Float> results;
+        try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().startPhase("permutationTest")) {
+            logger.info("Permutations processing...");
+            if (janusVariantParams.nPermutations <= 0) {
+                nPermutations = (int) (processSpecificationUnionSize / janusVariantParams.pValue);
+                logger.info("Number of required permutations: " + nPermutations);
 //            TODO check that this number does not go beyond the possible permutations (unlikely, but theoretically possible)
-        } else {
-            nPermutations = janusVariantParams.nPermutations;
-        }
-        if (processSpecificationUnionSize / janusVariantParams.pValue > nPermutations) {
-            // the smallest adjusted pValue is pValueThreshold/results.size(), thus the number of permutations must allow to reach such dimensions.
-            // the worst case scenario is when all the hypotheses/constraints are statistically relevant
-            logger.warn("Possible low number of iterations for a sound Multiple Testing adjustments! used:" + nPermutations + " safe upperbound expected:" + (int) (processSpecificationUnionSize / janusVariantParams.pValue));
+            } else {
+                nPermutations = janusVariantParams.nPermutations;
+            }
+            if (processSpecificationUnionSize / janusVariantParams.pValue > nPermutations) {
+                // the smallest adjusted pValue is pValueThreshold/results.size(), thus the number of permutations must allow to reach such dimensions.
+                // the worst case scenario is when all the hypotheses/constraints are statistically relevant
+                logger.warn("Possible low number of iterations for a sound Multiple Testing adjustments! used:" + nPermutations + " safe upperbound expected:" + (int) (processSpecificationUnionSize / janusVariantParams.pValue));
+            }
+            results = permuteResultsIndex(nPermutations, true);
+            PipelineMetrics.getInstance().count(PipelineMetrics.PERMUTATIONS, nPermutations);
+            logger.info("Permutation test time: " + phase.getElapsedMillis());
         }
-        Map<String, Float> results = permuteResultsIndex(nPermutations, true);
-        after = System.currentTimeMillis();
 
 //        POST-PROCESSING
         logger.info(" Permutations used:" + nPermutations + " minimum requirement for pValue adjustment:" + (int) (results.size() / janusVariantParams.pValue));
@@ -133,8 +148,6 @@ public class ReactiveVariantAnalysisCore {
             }
             pValueAdjustment(results, janusVariantParams.pValue, janusVariantParams.pValueAdjustmentMethod);
         }
-
-        logger.info("Permutation test time: " + (after - before));
         return results;
     }
 
@@ -208,7 +221,9 @@ public class ReactiveVariantAnalysisCore {
 
     /**
      * Permutation test in which is taken the encoded results and
-     * check of the significance of the permutation test results
+     * check of the significance of the permutation test results.
+     * The permutations are split among parallel {@link CallablePermutationsTester}s,
+     * permuting either the traces or, in the variant-level mode, the multiplicities of the variants.
      *
      * @param nPermutations
      * @param nanCheck
@@ -221,74 +236,92 @@ public class ReactiveVariantAnalysisCore {
         int log2Size = logParser_2.length();
         logger.info("[Tot traces:" + (log1Size + log2Size) + " Constraints:" + processSpecificationUnionSize + "]");
 
-
-//        List<Integer> permutableTracesIndexList = new ArrayList<>();
-//        for (Iterator<LogTraceParser> it = logParser_1.traceIterator(); it.hasNext(); ) {
-//            permutableTracesIndexList.add(traceToIndexMap.get(it.next().printStringTrace()));
-//        }
-//        for (Iterator<LogTraceParser> it = logParser_2.traceIterator(); it.hasNext(); ) {
-//            permutableTracesIndexList.add(traceToIndexMap.get(it.next().printStringTrace()));
-//        }
-
-        float[] pValues = new float[nConstraints];
-        Set<Integer> blackList = new HashSet();
-
-        float[] result1 = new float[nConstraints];
-        float[] result2 = new float[nConstraints];
-        float[] initialDifference = new float[nConstraints];
-
-        int step = 25;
-        for (int i = 0; i < nPermutations; i++) {
-            if (!janusViewParams.suppressPermutationStatusPrint && i % step == 0)
-                System.out.print("\rPermutation: " + i + "/" + nPermutations);  // Status counter "current trace/total trace"
-
+//        permutation "0" are the original logs
+        int[] allConstraints = new int[nConstraints];
+        for (int c = 0; c < nConstraints; c++) {
+            allConstraints[c] = c;
+        }
+        double[] totals = new double[nConstraints];
+        int[] totalNaNs = new int[nConstraints];
+        double[] log1Sums = new double[nConstraints];
+        int[] log1NaNs = new int[nConstraints];
+        int[] variantsMultiplicity = null;
+        if (janusVariantParams.variantsPermutation) {
+            variantsMultiplicity = new int[variantsMultiplicity1.length];
+            for (int v = 0; v < variantsMultiplicity.length; v++) {
+                variantsMultiplicity[v] = variantsMultiplicity1[v] + variantsMultiplicity2[v];
+            }
+            CallablePermutationsTester.sumWeightedPartition(lCodedIndex, variantsMultiplicity, allConstraints, nConstraints, nanCheck, totals, totalNaNs);
+            CallablePermutationsTester.sumWeightedPartition(lCodedIndex, (log1Size <= log2Size) ? variantsMultiplicity1 : variantsMultiplicity2,
+                    allConstraints, nConstraints, nanCheck, log1Sums, log1NaNs);
+        } else {
+            CallablePermutationsTester.sumPartition(lCodedIndex, permutableTracesIndex, 0, permutableTracesIndex.length, allConstraints, nConstraints, nanCheck, totals, totalNaNs);
+            if (log1Size <= log2Size) {
+                CallablePermutationsTester.sumPartition(lCodedIndex, permutableTracesIndex, 0, log1Size, allConstraints, nConstraints, nanCheck, log1Sums, log1NaNs);
+            } else {
+                CallablePermutationsTester.sumPartition(lCodedIndex, permutableTracesIndex, log1Size, permutableTracesIndex.length, allConstraints, nConstraints, nanCheck, log1Sums, log1NaNs);
+            }
+        }
+        if (log1Size > log2Size) {
+            // as in the permutations, only the smaller partition is summed
             for (int c = 0; c < nConstraints; c++) {
-                if (!janusVariantParams.oKeep && blackList.contains(c))
-                    continue;
-                int traceIndex = -1;
-                int nanTraces1 = 0;
-                int nanTraces2 = 0;
-                for (int t : permutableTracesIndexList) {
-                    traceIndex++;
-                    if (traceIndex < log1Size) {
-                        if (nanCheck & Float.isNaN(lCodedIndex[t][c])) {
-                            nanTraces1++;
-                            continue; // TODO expose in input
-                        }
-                        result1[c] += lCodedIndex[t][c];
-                    } else {
-                        if (nanCheck & Float.isNaN(lCodedIndex[t][c])) {
-                            nanTraces2++;
-                            continue; // TODO expose in input
-                        }
-                        result2[c] += lCodedIndex[t][c];
-                    }
-                }
-                result1[c] = result1[c] / (log1Size - nanTraces1);
-                result2[c] = result2[c] / (log2Size - nanTraces2);
-                if (i == 0) initialDifference[c] = Math.abs(result1[c] - result2[c]);
-                if (Math.abs(result1[c] - result2[c]) >= initialDifference[c]) {
-                    pValues[c] += 1.0;
-                }
-                if (!janusVariantParams.oKeep && (pValues[c] / nPermutations) > janusVariantParams.pValue)
-                    blackList.add(c); //if the constraints present a pValues greater than the threshold before the end of the permutations, we can discard it immediately
-                result1[c] = 0.0f;
-                result2[c] = 0.0f;
+                log1Sums[c] = totals[c] - log1Sums[c];
+                log1NaNs[c] = totalNaNs[c] - log1NaNs[c];
+            }
+        }
+        double[] initialDifference = new double[nConstraints];
+        AtomicIntegerArray exceedingCounts = new AtomicIntegerArray(nConstraints);
+        for (int c = 0; c < nConstraints; c++) {
+            initialDifference[c] = CallablePermutationsTester.difference(log1Sums[c], log1NaNs[c], totals[c], totalNaNs[c], log1Size, log2Size);
+            if (!Double.isNaN(initialDifference[c])) {
+                exceedingCounts.set(c, 1);
+            }
+        }
 
+        long seed = (janusVariantParams.permutationsSeed != null) ? janusVariantParams.permutationsSeed : System.nanoTime();
+        int threads = Math.max(1, Math.min(janusVariantParams.permutationParallelProcessingThreads, nPermutations - 1));
+        logger.info("Permuting with " + threads + " threads (seed: " + seed + ")");
+
+        // every worker has its own random stream, split in order from the seed: the results are reproducible for the same seed and number of threads
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        AtomicInteger performedPermutations = new AtomicInteger(1);
+        boolean printStatus = !janusViewParams.suppressPermutationStatusPrint;
+        double discardingPValue = janusVariantParams.oKeep ? -1.0 : janusVariantParams.pValue;
+        List<CallablePermutationsTester> testers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            int permutationsToPerform = (nPermutations - 1) / threads + (i < (nPermutations - 1) % threads ? 1 : 0);
+            if (variantsMultiplicity == null) {
+                testers.add(new CallablePermutationsTester(lCodedIndex, log1Size, log2Size, nanCheck, permutableTracesIndex,
+                        totals, totalNaNs, initialDifference, exceedingCounts, nPermutations, discardingPValue,
+                        permutationsToPerform, seedRandom.split(), performedPermutations, printStatus));
+            } else {
+                testers.add(new CallablePermutationsTester(lCodedIndex, variantsMultiplicity, log1Size, log2Size, nanCheck,
+                        totals, totalNaNs, initialDifference, exceedingCounts, nPermutations, discardingPValue,
+                        permutationsToPerform, seedRandom.split(), performedPermutations, printStatus));
             }
-//            permutation "0" are the original logs
-            Collections.shuffle(permutableTracesIndexList);
         }
-        if (!janusViewParams.suppressPermutationStatusPrint) {
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Integer> performed : executor.invokeAll(testers)) {
+                performed.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Permutation test not performed", e);
+        } finally {
+            executor.shutdown();
+        }
+        if (printStatus) {
             System.out.print("\rPermutation: " + nPermutations + "/" + nPermutations);
             System.out.println();
         }
 
         // Significance test in case of NEGATIVE/POSITIVE DISTANCE
         logger.info("Significance testing...");
+        float[] pValues = new float[nConstraints];
         Map<String, Float> result = new HashMap<String, Float>(); // constraint: pValue
         for (int cIndex = 0; cIndex < nConstraints; cIndex++) {
-            pValues[cIndex] = pValues[cIndex] / nPermutations;
+            pValues[cIndex] = (float) exceedingCounts.get(cIndex) / nPermutations;
 
             if (janusVariantParams.oKeep || pValues[cIndex] <= janusVariantParams.pValue) {
                 result.put(indexToConstraintMap.get(cIndex), pValues[cIndex]);
@@ -434,28 +467,84 @@ public class ReactiveVariantAnalysisCore {
         constraintToIndexMap = newConstraintToindexMap;
 
 
-        permutableTracesIndexList = new ArrayList<>();
-        Map<String, Integer> traceToIndexMap = new HashMap<>();
+        // identical traces are mapped to the index of the last one, looking up one string per variant of the two logs
+        EncodedLogArena arena_1 = logParser_1.getEncodedLogArena();
+        EncodedLogArena arena_2 = logParser_2.getEncodedLogArena();
+        boolean encodedComparable = arena_1.sharesEncodingWith(arena_2);
+        String[] variantsStrings_1 = getVariantsStrings(logParser_1, arena_1, encodedComparable);
+        String[] variantsStrings_2 = getVariantsStrings(logParser_2, arena_2, encodedComparable);
 
+        Map<String, Integer> traceToIndexMap = new HashMap<>();
+        for (int t = 0; t < arena_1.length(); t++) {
+            traceToIndexMap.put(variantsStrings_1[arena_1.getVariantId(t)], t);
+        }
+        for (int t = 0; t < arena_2.length(); t++) {
+            traceToIndexMap.put(variantsStrings_2[arena_2.getVariantId(t)], arena_1.length() + t);
+        }
+        permutableTracesIndex = new int[arena_1.length() + arena_2.length()];
         int currentTrace = 0;
-        for (Iterator<LogTraceParser> it = logParser_1.traceIterator(); it.hasNext(); ) {
-            LogTraceParser tr = it.next();
-            String stringTrace = tr.printStringTrace();
-            traceToIndexMap.put(stringTrace, currentTrace);
-            currentTrace++;
+        for (int t = 0; t < arena_1.length(); t++) {
+            permutableTracesIndex[currentTrace++] = traceToIndexMap.get(variantsStrings_1[arena_1.getVariantId(t)]);
         }
-        for (Iterator<LogTraceParser> it = logParser_2.traceIterator(); it.hasNext(); ) {
+        for (int t = 0; t < arena_2.length(); t++) {
+            permutableTracesIndex[currentTrace++] = traceToIndexMap.get(variantsStrings_2[arena_2.getVariantId(t)]);
+        }
+
+        if (janusVariantParams.variantsPermutation) {
+            encodeVariantsIndex(logParser_1.length());
+        }
+    }
+
+    /**
+     * Retrieve one string per variant of the log, either encoded or decoded from its first trace
+     *
+     * @param logParser log reader
+     * @param arena     encoded log
+     * @param encoded   if true, the variants are encoded, decoded otherwise
+     * @return the strings of the variants, by variant id
+     */
+    private static String[] getVariantsStrings(LogParser logParser, EncodedLogArena arena, boolean encoded) {
+        String[] result = new String[arena.numberOfVariants()];
+        int currentTrace = 0;
+        for (Iterator<LogTraceParser> it = logParser.traceIterator(); it.hasNext(); currentTrace++) {
             LogTraceParser tr = it.next();
-            String stringTrace = tr.printStringTrace();
-            traceToIndexMap.put(stringTrace, currentTrace);
-            currentTrace++;
+            int variant = arena.getVariantId(currentTrace);
+            if (result[variant] == null) {
+                result[variant] = encoded ? arena.getEncodedTrace(currentTrace) : tr.printStringTrace();
+            }
         }
-        for (Iterator<LogTraceParser> it = logParser_1.traceIterator(); it.hasNext(); ) {
-            permutableTracesIndexList.add(traceToIndexMap.get(it.next().printStringTrace()));
+        return result;
+    }
+
+    /**
+     * Shrink the encoded log to one row per distinct variant (identical traces have identical measures),
+     * and count the multiplicity of each variant in the two logs
+     *
+     * @param log1Size number of traces of the first log
+     */
+    private void encodeVariantsIndex(int log1Size) {
+        int[] rowToVariant = new int[lCodedIndex.length];
+        Arrays.fill(rowToVariant, -1);
+        List<float[]> variantsRows = new ArrayList<>();
+        for (int t = 0; t < permutableTracesIndex.length; t++) {
+            int row = permutableTracesIndex[t];
+            if (rowToVariant[row] < 0) {
+                rowToVariant[row] = variantsRows.size();
+                variantsRows.add(lCodedIndex[row]);
+            }
+            permutableTracesIndex[t] = rowToVariant[row];
         }
-        for (Iterator<LogTraceParser> it = logParser_2.traceIterator(); it.hasNext(); ) {
-            permutableTracesIndexList.add(traceToIndexMap.get(it.next().printStringTrace()));
+        variantsMultiplicity1 = new int[variantsRows.size()];
+        variantsMultiplicity2 = new int[variantsRows.size()];
+        for (int t = 0; t < permutableTracesIndex.length; t++) {
+            if (t < log1Size) {
+                variantsMultiplicity1[permutableTracesIndex[t]]++;
+            } else {
+                variantsMultiplicity2[permutableTracesIndex[t]]++;
+            }
         }
+        lCodedIndex = variantsRows.toArray(new float[variantsRows.size()][]);
+        logger.info("Variants: " + lCodedIndex.length + " (traces: " + permutableTracesIndex.length + ")");
     }
 
 
@@ -0,0 +1,189 @@
+package minerful.server;
+
+import minerful.concept.ProcessModel;
+import minerful.logparser.LogParser;
+import minerful.utils.MessagePrinter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of the parsed event logs of the resident server (see {@link ResidentServer}),
+ * together with the process models already loaded (and with their automata built) against each of them.
+ * <p>
+ * The logs are identified by the canonical path, size and last modification time of the file plus the parsing options
+ * (see {@link #fileKey(File, boolean)}), so a file rewritten in place is parsed again without reading it to compute the key.
+ * The memory is bounded by the total number of events of the cached logs: when a new log is added,
+ * the least recently used ones are evicted until the limit is respected again (the last added log is always kept).
+ * The models are encoded with the alphabet of the log they are checked against, thus they are evicted together with their log.
+ */
+public class ParsedLogsCache {
+    private static MessagePrinter logger = MessagePrinter.getInstance(ParsedLogsCache.class);
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int DIGEST_BUFFER_SIZE = 1 << 16;
+
+    private final long maxCachedEvents;
+    private final int maxCachedModels;
+    private final LinkedHashMap<String, CachedLog> logs = new LinkedHashMap<String, CachedLog>(16, 0.75f, true); // access-order, i.e., LRU first
+    private long cachedEvents = 0;
+
+    private static class CachedLog {
+        private final LogParser logParser;
+        private final long events;
+        private final LinkedHashMap<String, ProcessModel> models;
+
+        private CachedLog(LogParser logParser, final int maxCachedModels) {
+            this.logParser = logParser;
+            this.events = logParser.numberOfEvents();
+            this.models = new CachedModels(maxCachedModels);
+        }
+    }
+
+    /**
+     * Least-recently-used map of the process models loaded against a log
+     */
+    private static class CachedModels extends LinkedHashMap<String, ProcessModel> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxCachedModels;
+
+        private CachedModels(int maxCachedModels) {
+            super(16, 0.75f, true);
+            this.maxCachedModels = maxCachedModels;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProcessModel> eldest) {
+            return size() > maxCachedModels;
+        }
+    }
+
+    public ParsedLogsCache(long maxCachedEvents, int maxCachedModels) {
+        this.maxCachedEvents = maxCachedEvents;
+        this.maxCachedModels = maxCachedModels;
+    }
+
+    /**
+     * Compute the key of a file from its canonical path, size and last modification time.
+     * The content is digested as well only if required, i.e., when a file could be rewritten in place with the same size
+     * within the resolution of the modification time and the certainty of reading the current content is needed.
+     *
+     * @param file          file to identify
+     * @param digestContent if true, the digest of the content is added to the key (see {@link #digest(File)})
+     * @return the key of the file
+     * @throws IOException
+     */
+    public static String fileKey(File file, boolean digestContent) throws IOException {
+        String result = file.getCanonicalPath() + ";" + file.length() + ";" + file.lastModified();
+        if (digestContent) {
+            result += ";" + digest(file);
+        }
+        return result;
+    }
+
+    /**
+     * Compute the hexadecimal digest of the content of a file
+     *
+     * @param file file to digest
+     * @return the digest
+     * @throws IOException
+     */
+    public static String digest(File file) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available in this JVM", e);
+        }
+        byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder result = new StringBuilder();
+        for (byte b : messageDigest.digest()) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return the cached log parser with the given key, or null if it is not cached
+     */
+    public synchronized LogParser getLog(String logKey) {
+        CachedLog cachedLog = logs.get(logKey);
+        return (cachedLog == null) ? null : cachedLog.logParser;
+    }
+
+    /**
+     * Cache a log parser, evicting the least recently used logs if the maximum number of cached events is exceeded
+     */
+    public synchronized void putLog(String logKey, LogParser logParser) {
+        CachedLog previous = logs.put(logKey, new CachedLog(logParser, maxCachedModels));
+        if (previous != null) {
+            cachedEvents -= previous.events;
+        }
+        cachedEvents += logParser.numberOfEvents();
+
+        Iterator<Map.Entry<String, CachedLog>> it = logs.entrySet().iterator();
+        while (cachedEvents > maxCachedEvents && logs.size() > 1) {
+            Map.Entry<String, CachedLog> eldest = it.next();
+            if (eldest.getKey().equals(logKey)) continue;
+            logger.info("Evicting cached log " + eldest.getKey() + " (" + eldest.getValue().events + " events)");
+            cachedEvents -= eldest.getValue().events;
+            it.remove();
+        }
+    }
+
+    /**
+     * @return the cached process model with the given key loaded against the given log, or null if it is not cached
+     */
+    public synchronized ProcessModel getModel(String logKey, String modelKey) {
+        CachedLog cachedLog = logs.get(logKey);
+        return (cachedLog == null) ? null : cachedLog.models.get(modelKey);
+    }
+
+    /**
+     * Cache a process model loaded against the given (cached) log. Nothing is done if the log is not cached.
+     */
+    public synchronized void putModel(String logKey, String modelKey, ProcessModel processModel) {
+        CachedLog cachedLog = logs.get(logKey);
+        if (cachedLog != null) {
+            cachedLog.models.put(modelKey, processModel);
+        }
+    }
+
+    /**
+     * Remove all the cached logs and models
+     */
+    public synchronized void clear() {
+        logs.clear();
+        cachedEvents = 0;
+    }
+
+    public synchronized int getCachedLogsNumber() {
+        return logs.size();
+    }
+
+    public synchronized long getCachedEventsNumber() {
+        return cachedEvents;
+    }
+
+    public synchronized int getCachedModelsNumber() {
+        int result = 0;
+        for (CachedLog cachedLog : logs.values()) {
+            result += cachedLog.models.size();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,281 @@
+package minerful.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import minerful.JanusMeasurementsLauncher;
+import minerful.JanusMeasurementsStarter;
+import minerful.MinerFulMinerLauncher;
+import minerful.MinerFulMinerStarter;
+import minerful.MinerFulOutputManagementLauncher;
+import minerful.checking.params.CheckingCmdParameters;
+import minerful.concept.ProcessModel;
+import minerful.concept.TaskCharArchive;
+import minerful.io.ProcessModelLoader;
+import minerful.io.params.InputModelParameters;
+import minerful.io.params.OutputModelParameters;
+import minerful.logparser.LogParser;
+import minerful.metrics.PipelineMetrics;
+import minerful.miner.params.MinerFulCmdParameters;
+import minerful.params.InputLogCmdParameters;
+import minerful.params.SystemCmdParameters;
+import minerful.params.ViewCmdParameters;
+import minerful.postprocessing.params.PostProcessingCmdParameters;
+import minerful.reactive.io.JanusMeasurementsOutputManagementLauncher;
+import minerful.reactive.measurements.MegaMatrixMonster;
+import minerful.reactive.params.JanusMeasurementsCmdParameters;
+import minerful.reactive.params.JanusPrintParameters;
+import minerful.utils.MessagePrinter;
+import org.apache.commons.cli.Options;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.TreeSet;
+
+/**
+ * Long-lived server answering mining and measuring requests, so that neither the JVM is started nor the same event log is parsed at every call.
+ * <p>
+ * The protocol is line-delimited JSON: every line of the input is a request and every request is answered with exactly one line of the output.
+ * A request has the form
+ * <pre>{"id": "1", "command": "measure", "args": ["-iLF", "log.xes", "-iMF", "model.json", "-iME", "json", "-oJSON", "out.json"]}</pre>
+ * where "args" are the same command line arguments of {@link MinerFulMinerStarter} (command "mine") or of {@link JanusMeasurementsStarter} (command "measure").
+ * The other commands are "stats" (content of the cache), "clear" (empty the cache) and "shutdown".
+ * The response reports the "id" of the request, its "status" ("ok" or "error"), the "time" spent in milliseconds,
+ * whether the log and the model were found in the cache, and an error "message" if any.
+ * <p>
+ * The parsed logs and the models loaded against them (with their automata already built) are kept in a {@link ParsedLogsCache}.
+ * The requests are served one at a time, so the cached objects are never used concurrently.
+ * As the output stream is reserved to the responses, everything else normally printed on screen (logging, status bars, results) goes to the standard error.
+ */
+public class ResidentServer {
+    private static MessagePrinter logger = MessagePrinter.getInstance(ResidentServer.class);
+
+    public static final String MINE_COMMAND = "mine";
+    public static final String MEASURE_COMMAND = "measure";
+    public static final String STATS_COMMAND = "stats";
+    public static final String CLEAR_COMMAND = "clear";
+    public static final String SHUTDOWN_COMMAND = "shutdown";
+
+    private final ParsedLogsCache cache;
+    private boolean logCacheHit;
+    private boolean modelCacheHit;
+
+    /**
+     * Parsed log retrieved for a request, along with its key in the cache
+     */
+    private static class RetrievedLog {
+        private final LogParser logParser;
+        private final String logKey;
+
+        private RetrievedLog(LogParser logParser, String logKey) {
+            this.logParser = logParser;
+            this.logKey = logKey;
+        }
+    }
+
+    public ResidentServer(ParsedLogsCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Serve the requests read from the given input until a shutdown request or the end of the input
+     *
+     * @param requests  line-delimited JSON requests
+     * @param responses stream to write the line-delimited JSON responses on
+     * @throws IOException
+     */
+    public void serve(InputStream requests, PrintStream responses) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(requests, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) continue;
+            JsonObject response = new JsonObject();
+            boolean shutdown = false;
+            long before = System.currentTimeMillis();
+            logCacheHit = false;
+            modelCacheHit = false;
+            // the metrics are scoped to a request, otherwise the phases of all the requests would pile up in the resident process
+            PipelineMetrics.getInstance().reset();
+            try {
+                JsonObject request = new JsonParser().parse(line).getAsJsonObject();
+                if (request.has("id")) {
+                    response.add("id", request.get("id"));
+                }
+                String command = request.get("command").getAsString();
+                String[] args = parseArguments(request.get("args"));
+                switch (command) {
+                    case MINE_COMMAND:
+                        mine(args);
+                        break;
+                    case MEASURE_COMMAND:
+                        measure(args);
+                        break;
+                    case STATS_COMMAND:
+                        break;
+                    case CLEAR_COMMAND:
+                        cache.clear();
+                        System.gc();
+                        break;
+                    case SHUTDOWN_COMMAND:
+                        shutdown = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown command: " + command);
+                }
+                response.addProperty("status", "ok");
+            } catch (OutOfMemoryError e) {
+                // drop the cached logs to give the next requests a chance
+                cache.clear();
+                System.gc();
+                logger.error("Out of memory, the cache has been emptied", e);
+                response.addProperty("status", "error");
+                response.addProperty("message", "Out of memory, the cache has been emptied");
+            } catch (Exception e) {
+                logger.error("Request failed: " + line, e);
+                response.addProperty("status", "error");
+                response.addProperty("message", String.valueOf(e.getMessage()));
+            }
+            response.addProperty("time", System.currentTimeMillis() - before);
+            response.addProperty("logCached", logCacheHit);
+            response.addProperty("modelCached", modelCacheHit);
+            response.addProperty("cachedLogs", cache.getCachedLogsNumber());
+            response.addProperty("cachedEvents", cache.getCachedEventsNumber());
+            response.addProperty("cachedModels", cache.getCachedModelsNumber());
+            responses.println(response.toString());
+            responses.flush();
+            if (shutdown) break;
+        }
+    }
+
+    private static String[] parseArguments(JsonElement args) {
+        if (args == null || args.isJsonNull()) {
+            return new String[0];
+        }
+        JsonArray array = args.getAsJsonArray();
+        String[] result = new String[array.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = array.get(i).getAsString();
+        }
+        return result;
+    }
+
+    /**
+     * Retrieve the parsed log from the cache, or parse it and cache it.
+     * The key of a log is the key of its file (see {@link ParsedLogsCache#fileKey(File, boolean)}) plus the options affecting the parsing.
+     *
+     * @param inputLogParams
+     * @param minerFulParams parameters of the miner (for the excluded tasks), null if not mining
+     * @return the log parser and its key
+     */
+    private RetrievedLog retrieveLog(InputLogCmdParameters inputLogParams, MinerFulCmdParameters minerFulParams) throws IOException {
+        if (inputLogParams.inputLogFile == null) {
+            throw new IllegalArgumentException("Input log file missing! Please use the " + InputLogCmdParameters.INPUT_LOGFILE_PATH_PARAM_NAME + " option.");
+        }
+        String logKey = ParsedLogsCache.fileKey(inputLogParams.inputLogFile, false)
+                + ";" + inputLogParams.inputLanguage
+                + ";" + inputLogParams.eventClassification
+                + ";" + inputLogParams.startFromTrace
+                + ";" + inputLogParams.subLogLength
+                + ";" + inputLogParams.keepTimestamps;
+        if (minerFulParams != null && minerFulParams.activitiesToExcludeFromResult != null && minerFulParams.activitiesToExcludeFromResult.size() > 0) {
+            logKey += ";" + new TreeSet<String>(minerFulParams.activitiesToExcludeFromResult);
+        }
+
+        LogParser logParser = cache.getLog(logKey);
+        if (logParser == null) {
+            logger.info("Loading log...");
+            logParser = MinerFulMinerLauncher.deriveLogParserFromLogFile(inputLogParams, minerFulParams);
+            if (logParser == null) {
+                throw new IllegalArgumentException("Unreadable log file: " + inputLogParams.inputLogFile);
+            }
+            cache.putLog(logKey, logParser);
+        } else {
+            logger.info("Log found in cache");
+            logCacheHit = true;
+        }
+        return new RetrievedLog(logParser, logKey);
+    }
+
+    /**
+     * Mine a process model, as {@link MinerFulMinerStarter#main(String[])} does
+     */
+    private void mine(String[] args) throws IOException {
+        MinerFulMinerStarter minerMinaStarter = new MinerFulMinerStarter();
+        Options cmdLineOptions = minerMinaStarter.setupOptions();
+
+        InputLogCmdParameters inputParams = new InputLogCmdParameters(cmdLineOptions, args);
+        MinerFulCmdParameters minerFulParams = new MinerFulCmdParameters(cmdLineOptions, args);
+        ViewCmdParameters viewParams = new ViewCmdParameters(cmdLineOptions, args);
+        OutputModelParameters outParams = new OutputModelParameters(cmdLineOptions, args);
+        SystemCmdParameters systemParams = new SystemCmdParameters(cmdLineOptions, args);
+        PostProcessingCmdParameters postParams = new PostProcessingCmdParameters(cmdLineOptions, args);
+
+        SystemCmdParameters.configureProcess(systemParams);
+
+        LogParser logParser = retrieveLog(inputParams, minerFulParams).logParser;
+        TaskCharArchive taskCharArchive = logParser.getTaskCharArchive();
+
+        ProcessModel processModel = minerMinaStarter.mine(logParser, inputParams, minerFulParams, postParams, taskCharArchive);
+
+        new MinerFulOutputManagementLauncher().manageOutput(processModel, viewParams, outParams, systemParams, logParser);
+        if (systemParams.metricsReportFile != null) {
+            PipelineMetrics.getInstance().saveReport(systemParams.metricsReportFile);
+        }
+    }
+
+    /**
+     * Measure a process model over a log, as {@link JanusMeasurementsStarter#main(String[])} does
+     */
+    private void measure(String[] args) throws IOException {
+        Options cmdLineOptions = new JanusMeasurementsStarter().setupOptions();
+
+        SystemCmdParameters systemParams = new SystemCmdParameters(cmdLineOptions, args);
+        OutputModelParameters outParams = new OutputModelParameters(cmdLineOptions, args);
+        CheckingCmdParameters chkParams = new CheckingCmdParameters(cmdLineOptions, args);
+        InputLogCmdParameters inputLogParams = new InputLogCmdParameters(cmdLineOptions, args);
+        InputModelParameters inpuModlParams = new InputModelParameters(cmdLineOptions, args);
+        JanusPrintParameters janusViewParams = new JanusPrintParameters(cmdLineOptions, args);
+        JanusMeasurementsCmdParameters janusParams = new JanusMeasurementsCmdParameters(cmdLineOptions, args);
+
+        SystemCmdParameters.configureProcess(systemParams);
+
+        if (inpuModlParams.inputFile == null) {
+            throw new IllegalArgumentException("Input process model file missing!");
+        }
+        RetrievedLog log = retrieveLog(inputLogParams, null);
+        LogParser logParser = log.logParser;
+        String logKey = log.logKey;
+
+//        the model is encoded with the alphabet of the log, thus it is cached along with it.
+//        Model files are small and typically rewritten in place between requests, so their content is digested as well
+        String modelKey = ParsedLogsCache.fileKey(inpuModlParams.inputFile, true) + ";" + inpuModlParams.inputLanguage;
+        ProcessModel processModel = cache.getModel(logKey, modelKey);
+        if (processModel == null) {
+            processModel = new ProcessModelLoader().loadProcessModel(inpuModlParams.inputLanguage, inpuModlParams.inputFile, logParser.getTaskCharArchive());
+            if (processModel == null) {
+                throw new IllegalArgumentException("Unreadable process model from file: " + inpuModlParams.inputFile);
+            }
+            processModel.bag.initAutomataBag();
+            cache.putModel(logKey, modelKey, processModel);
+        } else {
+            logger.info("Process model found in cache");
+            modelCacheHit = true;
+        }
+
+        JanusMeasurementsLauncher miFuCheLa = new JanusMeasurementsLauncher(processModel, logParser, chkParams, janusParams, janusViewParams);
+        JanusMeasurementsOutputManagementLauncher outputLauncher = new JanusMeasurementsOutputManagementLauncher();
+        MegaMatrixMonster evaluation = miFuCheLa.checkModel(true, outputLauncher, outParams);
+
+        TaskCharArchive alphabet = miFuCheLa.getProcessSpecification().getTaskCharArchive();
+        outputLauncher.manageMeasurementsOutput(evaluation, janusViewParams, outParams, systemParams, janusParams, alphabet);
+        if (systemParams.metricsReportFile != null) {
+            PipelineMetrics.getInstance().saveReport(systemParams.metricsReportFile);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package minerful.server.params;
+
+import minerful.params.ParamsManager;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+public class ServerCmdParameters extends ParamsManager {
+    public static final String MAX_CACHED_EVENTS_PARAM_NAME = "cacheEvents";
+    public static final String MAX_CACHED_MODELS_PARAM_NAME = "cacheModels";
+
+    public static final Long DEFAULT_MAX_CACHED_EVENTS = 20000000L;
+    public static final Integer DEFAULT_MAX_CACHED_MODELS = 16;
+
+    /**
+     * Maximum number of events of all the parsed logs kept in memory. The least recently used logs are evicted first.
+     */
+    public Long maxCachedEvents;
+    /**
+     * Maximum number of process models (with their automata) kept in memory for each parsed log.
+     */
+    public Integer maxCachedModels;
+
+    public ServerCmdParameters() {
+        super();
+        maxCachedEvents = DEFAULT_MAX_CACHED_EVENTS;
+        maxCachedModels = DEFAULT_MAX_CACHED_MODELS;
+    }
+
+    public ServerCmdParameters(Options options, String[] args) {
+        this();
+        // parse the command line arguments
+        this.parseAndSetup(options, args);
+    }
+
+    public ServerCmdParameters(String[] args) {
+        this();
+        // parse the command line arguments
+        this.parseAndSetup(new Options(), args);
+    }
+
+    @Override
+    protected void setup(CommandLine line) {
+        this.maxCachedEvents = Long.valueOf(line.getOptionValue(MAX_CACHED_EVENTS_PARAM_NAME, this.maxCachedEvents.toString()));
+        this.maxCachedModels = Integer.valueOf(line.getOptionValue(MAX_CACHED_MODELS_PARAM_NAME, this.maxCachedModels.toString()));
+        if (this.maxCachedEvents < 0) {
+            throw new IllegalArgumentException("The maximum number of cached events cannot be negative");
+        }
+        if (this.maxCachedModels < 0) {
+            throw new IllegalArgumentException("The maximum number of cached models cannot be negative");
+        }
+    }
+
+    @Override
+    public Options addParseableOptions(Options options) {
+        Options myOptions = listParseableOptions();
+        for (Object myOpt : myOptions.getOptions())
+            options.addOption((Option) myOpt);
+        return options;
+    }
+
+    @Override
+    public Options listParseableOptions() {
+        return parseableOptions();
+    }
+
+    @SuppressWarnings("static-access")
+    public static Options parseableOptions() {
+        Options options = new Options();
+        options.addOption(
+                Option.builder(MAX_CACHED_EVENTS_PARAM_NAME)
+                        .hasArg().argName("number")
+                        .longOpt("max-cached-events")
+                        .desc("maximum number of events of the parsed logs kept in memory between requests; the least recently used logs are evicted first" +
+                                printDefault(DEFAULT_MAX_CACHED_EVENTS))
+                        .type(Long.class)
+                        .build()
+        );
+        options.addOption(
+                Option.builder(MAX_CACHED_MODELS_PARAM_NAME)
+                        .hasArg().argName("number")
+                        .longOpt("max-cached-models")
+                        .desc("maximum number of process models (and their automata) kept in memory for each parsed log" +
+                                printDefault(DEFAULT_MAX_CACHED_MODELS))
+                        .type(Integer.class)
+                        .build()
+        );
+        return options;
+    }
+}
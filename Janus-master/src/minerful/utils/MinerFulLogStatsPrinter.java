@@ -63,7 +63,7 @@ public class MinerFulLogStatsPrinter extends AbstractMinerFulStarter {
 			System.exit(1);
 		}
 
-		MessagePrinter.configureLogging(systemParams.debugLevel);
+		SystemCmdParameters.configureProcess(systemParams);
 
 		logger.info("Loading log...");
 
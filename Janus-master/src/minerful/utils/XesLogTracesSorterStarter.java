@@ -54,7 +54,7 @@ public class XesLogTracesSorterStarter extends AbstractMinerFulStarter {
 			System.exit(1);
 		}
 
-		MessagePrinter.configureLogging(systemParams.debugLevel);
+		SystemCmdParameters.configureProcess(systemParams);
 
 		if (!areEventLogsProvided(cmdLineOptions, xesLogSorterParams, systemParams)) {
 			System.exit(1);
@@ -14,7 +14,7 @@ import pm4py
 from dash_chat import ChatComponent
 from enum import Enum
 import dash
-from functions.subprocess_calls import measurement_extraction
+from functions.subprocess_calls import measurement_extraction_resident
 from openai import OpenAI
 import os
 
@@ -229,7 +229,7 @@ def register_callbacks(app):
                         json.dump(rules_no_atmost1, f, indent=2)
 
                     meas_path = os.path.join("output_files", "meas_rules_llm.json")
-                    measurement_extraction(str(log_path), rule_path, meas_path)
+                    measurement_extraction_resident(str(log_path), rule_path, meas_path)
 
                     data = read_json_file(meas_path.removesuffix(".json") + "[eventsEvaluation].json")
 
@@ -1,5 +1,8 @@
 import subprocess
 import os
+import json
+import atexit
+import threading
 
 
 def discover_declare(input_log_path,output_log_path,s,c):
@@ -63,4 +66,58 @@ def measurement_extraction(input_log_path,combined_model_path,output_path):
         # "-encodeTasksFlag", "True",
         "-oJSON", os.path.join(os.getcwd(),output_path),
     ], env=env
-        , cwd=os.path.join(os.getcwd(),"Janus-master"))
\ No newline at end of file
+        , cwd=os.path.join(os.getcwd(),"Janus-master"))
+
+class JanusServer:
+    """Resident Janus process (minerful.JanusServerStarter) answering line-delimited JSON requests on stdin/stdout.
+    The JVM is started once and the parsed logs and models are kept in memory between calls.
+    Requests are served one at a time, as the callbacks sharing the process may run concurrently."""
+
+    def __init__(self, jar='Janus.jar', max_memory='16G', cwd=None):
+        self.cwd = cwd if cwd is not None else os.path.join(os.getcwd(), "Janus-master")
+        self.process = subprocess.Popen([
+            'java', f"-Xmx{max_memory}",
+            '-cp', jar,
+            'minerful.JanusServerStarter',
+        ], stdin=subprocess.PIPE, stdout=subprocess.PIPE, text=True, cwd=self.cwd)
+        self.requests_count = 0
+        self.lock = threading.Lock()
+
+    def request(self, command, args=()):
+        with self.lock:
+            self.requests_count += 1
+            request_id = self.requests_count
+            self.process.stdin.write(json.dumps({"id": request_id, "command": command, "args": list(args)}) + "\n")
+            self.process.stdin.flush()
+            response = json.loads(self.process.stdout.readline())
+        if response.get("id") != request_id:
+            raise RuntimeError(f"Janus server answered request {response.get('id')} instead of {request_id}")
+        if response.get("status") != "ok":
+            raise RuntimeError(f"Janus server request failed: {response.get('message')}")
+        return response
+
+    def close(self):
+        if self.process.poll() is None:
+            self.request("shutdown")
+            self.process.wait()
+
+
+_janus_server = None
+_janus_server_lock = threading.Lock()
+
+
+def measurement_extraction_resident(input_log_path,combined_model_path,output_path):
+    """Same as measurement_extraction, but served by a resident Janus process started at the first call"""
+    global _janus_server
+    with _janus_server_lock:
+        if _janus_server is None or _janus_server.process.poll() is not None:
+            _janus_server = JanusServer()
+            atexit.register(_janus_server.close)
+        janus_server = _janus_server
+    return janus_server.request("measure", [
+        "-iLF", os.path.join(os.getcwd(),input_log_path),
+        "-iME", "json",
+        "-iMF", os.path.join(os.getcwd(),combined_model_path),
+        "-detailsLevel", "event",
+        "-oJSON", os.path.join(os.getcwd(),output_path),
+    ])